@@ -0,0 +1,40 @@
+package benchmarks;
+
+import frc.utils.ArmAngleTable;
+import frc.utils.ExtraFunctions;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Turning the distance to the speaker into an arm position, the quadratic and the table. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ArmAngleBenchmark {
+  private final ArmAngleTable table =
+      new ArmAngleTable(
+          new double[] {1, 1.5, 2, 2.5, 3, 3.5, 4, 4.5, 5},
+          new double[] {40, 35, 31, 28, 26, 24.5, 23.5, 22.8, 22.3});
+  // Not final, so the JIT can't fold the input into a constant.
+  private double distance = 2.7;
+
+  @Benchmark
+  public double quadratic() {
+    return ExtraFunctions.getAngleFromDistance(distance);
+  }
+
+  @Benchmark
+  public double table() {
+    return table.getAngle(distance);
+  }
+}
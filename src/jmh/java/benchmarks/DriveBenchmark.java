@@ -0,0 +1,77 @@
+package benchmarks;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import frc.robot.subsystems.DriveSubsystem;
+import frc.robot.subsystems.PhotonCameraSystem;
+import frc.utils.sim_utils.SparkMAXConfigurator;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link DriveSubsystem#drive} with the joystick going around in a circle, against the simulated
+ * SPARK MAXes. This includes sending the setpoints, through the HAL simulation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DriveBenchmark {
+  private PhotonCameraSystem cameraSystem;
+  private DriveSubsystem driveSubsystem;
+  private SparkMAXConfigurator sparkMAXConfigurator;
+  private int step = 0;
+
+  @Setup
+  public void setUp() {
+    HAL.initialize(500, 0);
+    cameraSystem = new PhotonCameraSystem();
+    sparkMAXConfigurator = new SparkMAXConfigurator();
+    driveSubsystem = new DriveSubsystem(cameraSystem, sparkMAXConfigurator);
+    sparkMAXConfigurator.awaitAll();
+    driveSubsystem.startOdometry();
+  }
+
+  @TearDown
+  public void tearDown() {
+    CommandScheduler.getInstance().unregisterAllSubsystems();
+    driveSubsystem.close();
+    cameraSystem.close();
+    sparkMAXConfigurator.close();
+  }
+
+  private double angle() {
+    step = (step + 1) % 200;
+    return step * (2 * Math.PI / 200);
+  }
+
+  @Benchmark
+  public void rateLimited() {
+    final double t = angle();
+    driveSubsystem.drive(Math.cos(t), Math.sin(t), 0.3, true, true, false);
+  }
+
+  @Benchmark
+  public void setpointGenerator() {
+    final double t = angle();
+    driveSubsystem.drive(Math.cos(t), Math.sin(t), 0.3, true, false, true);
+  }
+
+  @Benchmark
+  public void notLimited() {
+    final double t = angle();
+    driveSubsystem.drive(Math.cos(t), Math.sin(t), 0.3, true, false, false);
+  }
+}
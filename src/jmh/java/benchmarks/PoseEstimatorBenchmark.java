@@ -0,0 +1,73 @@
+package benchmarks;
+
+import edu.wpi.first.math.VecBuilder;
+import edu.wpi.first.math.estimator.SwerveDrivePoseEstimator;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import frc.robot.Constants.DriveConstants.SwerveModuleConstants;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * An odometry update of the pose estimator, and one with a vision measurement that makes it replay
+ * the updates since the camera frame.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PoseEstimatorBenchmark {
+  private static final double kLoopSeconds = 0.02;
+  private static final double kCameraLatencySeconds = 0.06;
+
+  private final SwerveModulePosition[] positions = new SwerveModulePosition[4];
+  private final Rotation2d heading = Rotation2d.fromDegrees(30);
+  private final Pose2d visionPose = new Pose2d(3, 4, Rotation2d.fromDegrees(30));
+  private final SwerveDrivePoseEstimator estimator;
+  private double time = 0;
+
+  public PoseEstimatorBenchmark() {
+    for (int i = 0; i < positions.length; i++) {
+      positions[i] = new SwerveModulePosition();
+    }
+    estimator =
+        new SwerveDrivePoseEstimator(
+            SwerveModuleConstants.kDriveKinematics, heading, positions, new Pose2d());
+  }
+
+  @Setup
+  public void fillBuffer() {
+    // Fill the pose buffer, so the vision measurement has updates to replay.
+    for (int i = 0; i < 100; i++) {
+      update();
+    }
+  }
+
+  @Benchmark
+  public Pose2d update() {
+    time += kLoopSeconds;
+    for (int i = 0; i < positions.length; i++) {
+      positions[i] = new SwerveModulePosition(time, heading);
+    }
+    return estimator.updateWithTime(time, heading, positions);
+  }
+
+  @Benchmark
+  public Pose2d updateWithVision() {
+    estimator.addVisionMeasurement(
+        visionPose, time - kCameraLatencySeconds, VecBuilder.fill(0.5, 0.5, 1));
+    return update();
+  }
+}
@@ -0,0 +1,47 @@
+package benchmarks;
+
+import frc.utils.ShotSolver;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * How long {@link ShotSolver#solve} takes, it runs once every 20 ms loop so anything in the low
+ * microseconds is fine.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ShotSolverBenchmark {
+  private static final double targetX = -0.0381; // Blue speaker
+  private static final double targetY = 5.5478688;
+
+  private final ShotSolver shotSolver = new ShotSolver();
+  // Not final, so the JIT can't fold the inputs into constants.
+  private double robotX = 3;
+  private double robotY = 4;
+  private double robotVx = 1.5;
+  private double robotVy = -2;
+
+  @Benchmark
+  public double stopped() {
+    shotSolver.solve(robotX, robotY, 0, 0, targetX, targetY);
+    return shotSolver.getBearingRadians();
+  }
+
+  @Benchmark
+  public double moving() {
+    shotSolver.solve(robotX, robotY, robotVx, robotVy, targetX, targetY);
+    return shotSolver.getBearingRadians();
+  }
+}
@@ -0,0 +1,43 @@
+package benchmarks;
+
+import frc.utils.SwerveUtils;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** The angle helpers {@code DriveSubsystem.drive()} calls every loop when rate limiting. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SwerveUtilsBenchmark {
+  // Not final, so the JIT can't fold the inputs into constants.
+  private double current = 0.3;
+  private double target = 5.9; // the short way is across 0
+  private double stepSize = 0.05;
+  private double farAngle = -20.5;
+
+  @Benchmark
+  public double stepTowardsCircular() {
+    return SwerveUtils.StepTowardsCircular(current, target, stepSize);
+  }
+
+  @Benchmark
+  public double wrapAngle() {
+    return SwerveUtils.WrapAngle(farAngle);
+  }
+
+  @Benchmark
+  public double angleDifference() {
+    return SwerveUtils.AngleDifference(current, target);
+  }
+}
@@ -0,0 +1,94 @@
+package frc.utils;
+
+import edu.wpi.first.wpilibj.util.Color;
+import frc.robot.Constants.LEDConstants;
+import frc.utils.LEDZone.Blend;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Rendering a frame of the LED strip, the way {@link BetterLED}'s LED thread does it: every {@link
+ * LEDZone} draws its animation into the strip's pixels. Sending the frame to the strip isn't
+ * included, it is only done when the frame changed.
+ *
+ * <p>It is in frc.utils instead of the benchmarks package, zones are only made and drawn by {@link
+ * BetterLED}, so it needs the package-private constructor and draw.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LEDBenchmark {
+  private static final int kLength = LEDConstants.kLedCount;
+
+  private final byte[] strip = new byte[kLength * 3];
+  // One zone for every animation, the ones that loop are started once.
+  private final LEDZone fill = zone("Fill");
+  private final LEDZone rainbow = zone("Rainbow");
+  private final LEDZone blink = zone("Blink");
+  private final LEDZone breathe = zone("Breathe");
+  private final LEDZone progressBar = new LEDZone("Progress", 0, kLength / 2, 0, Blend.OVER, false);
+  private boolean red = false;
+  private double now = 0;
+
+  private static LEDZone zone(String name) {
+    return new LEDZone(name, 0, kLength, Integer.MIN_VALUE, Blend.REPLACE, true);
+  }
+
+  @Setup
+  public void setUp() {
+    rainbow.startRainbow();
+    blink.blink(Color.kRed);
+    breathe.breathe(Color.kRed);
+  }
+
+  // Every call is a frame later, like the LED thread.
+  private byte[] draw(LEDZone zone) {
+    now += LEDConstants.kFramePeriodSeconds;
+    zone.draw(strip, kLength, now);
+    return strip;
+  }
+
+  @Benchmark
+  public byte[] fill() {
+    // Change the color every frame, the worst case for a fill.
+    red = !red;
+    fill.fillColor(red ? Color.kRed : Color.kBlue);
+    return draw(fill);
+  }
+
+  @Benchmark
+  public byte[] rainbow() {
+    return draw(rainbow);
+  }
+
+  @Benchmark
+  public byte[] blink() {
+    return draw(blink);
+  }
+
+  @Benchmark
+  public byte[] breathe() {
+    return draw(breathe);
+  }
+
+  @Benchmark
+  public byte[] progressOverRainbow() {
+    // The bar grows every frame, and is drawn over the rainbow where it is lit.
+    progressBar.showProgress(Color.kGreen, (int) (now * 50) % (kLength / 2));
+    draw(rainbow);
+    progressBar.draw(strip, kLength, now);
+    return strip;
+  }
+}
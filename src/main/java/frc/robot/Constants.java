@@ -26,6 +26,19 @@ public final class Constants {
     public static final double kMagnitudeSlewRate = 1.8; // percent per second (1 = 100%)
     public static final double kRotationalSlewRate = 2.0; // percent per second (1 = 100%)
 
+    // When true, rate limited driving (and PathPlanner) goes through the SwerveSetpointGenerator
+    // instead of the slew rate limiters above. Off until it is tuned on the robot, teleop keeps the
+    // slew rate limiters and PathPlanner drives unlimited like before.
+    public static final boolean kUseSetpointGenerator = false;
+    public static final double kMaxDriveAccelerationMetersPerSecondSquared = 8;
+    public static final double kMaxSteeringVelocityRadiansPerSecond = 20;
+    public static final double kLoopPeriodSeconds = 0.02;
+
+    // When true, module positions and the gyro are sampled on their own thread and every sample
+    // is fed to the pose estimator. When false, odometry is updated once per robot loop.
+    public static final boolean kUseHighRateOdometry = true;
+    public static final double kOdometryFrequencyHz = 250;
+
     // Chassis configuration
     public static final double kTrackWidth = 0.71; // 71 cm between left and right wheels on robot
     public static final double kWheelBase = 0.79; // 79 cm between front and back wheels on robot
@@ -55,12 +68,15 @@ public final class Constants {
       public static final double kFrontRightChassisAngularOffset = 0;
       public static final double kBackLeftChassisAngularOffset = Math.PI;
       public static final double kBackRightChassisAngularOffset = Math.PI / 2;
+      // Front left, front right, rear left, rear right. Same order as the modules everywhere.
+      public static final Translation2d[] kModuleTranslations = {
+        new Translation2d(kWheelBase / 2, kTrackWidth / 2),
+        new Translation2d(kWheelBase / 2, -kTrackWidth / 2),
+        new Translation2d(-kWheelBase / 2, kTrackWidth / 2),
+        new Translation2d(-kWheelBase / 2, -kTrackWidth / 2)
+      };
       public static final SwerveDriveKinematics kDriveKinematics =
-          new SwerveDriveKinematics(
-              new Translation2d(kWheelBase / 2, kTrackWidth / 2),
-              new Translation2d(kWheelBase / 2, -kTrackWidth / 2),
-              new Translation2d(-kWheelBase / 2, kTrackWidth / 2),
-              new Translation2d(-kWheelBase / 2, -kTrackWidth / 2));
+          new SwerveDriveKinematics(kModuleTranslations);
     }
   }
 
@@ -118,6 +134,17 @@ public final class Constants {
 
     public static final int kDrivingMotorCurrentLimit = 50; // amps
     public static final int kTurningMotorCurrentLimit = 30; // amps
+
+    // Only used by the simulation, the MAXSwerve steering reduction.
+    public static final double kTurningMotorReduction = 9424.0 / 203;
+    // A quarter of the robot as seen from the wheel, and the module itself for turning.
+    public static final double kDrivingSimMomentOfInertia = 0.025; // kg m^2
+    public static final double kTurningSimMomentOfInertia = 0.004; // kg m^2
+    // The simulation is stepped by this much every loop, no matter how long the loop took.
+    public static final double kSimPeriodSeconds = 0.02;
+    // The simulated closed loops run this many times per step.
+    public static final int kSimSubsteps = 4;
+    public static final double kSimNominalVoltage = 12;
   }
 
   public static final class OIConstants {
@@ -137,6 +164,10 @@ public final class Constants {
 
     public static final class ColorSensorConstants {
       public static final I2C.Port kColorSensorPort = I2C.Port.kMXP; // Connected to the NavX MXP
+      // The proximity is measured every 12.5 ms, reading faster only gets the same values again.
+      public static final double kSamplePeriodSeconds = 0.0125;
+      // How long a reading has to stay the same before the note state changes, on the robot.
+      public static final double kNoteDebounceSeconds = 0.025;
     }
 
     public static final int kArmEncoderCPR = 4096; // Trough Bore
@@ -188,9 +219,25 @@ public final class Constants {
     public static final int kShooter2CanID = 12;
 
     public static final double kShooterSpeed = 1;
+
+    // Aim at where the speaker will be relative to the note, instead of where it is now.
+    public static final boolean kShootWhileMoving = true;
+    // Time of flight of a note = kNoteFlightDelaySeconds + distance / kNoteSpeedMetersPerSecond.
+    public static final double kNoteFlightDelaySeconds = 0.05;
+    public static final double kNoteSpeedMetersPerSecond = 12;
+    // The robot keeps moving between the shot being aimed and the note leaving the shooter.
+    public static final double kShotReleaseLatencySeconds = 0.1;
+    public static final int kShotSolverMaxIterations = 8;
+    public static final double kShotSolverToleranceSeconds = 0.001;
   }
 
   public static final class CameraConstants {
+    // How often the vision thread checks for new camera results. Results are queued by
+    // NetworkTables, so this only needs to be faster than the drive loop, not the camera.
+    public static final double kVisionThreadFrequencyHz = 100;
+    // "AprilTag Seen" stays on this long after the last pose, so it doesn't flicker between frames.
+    public static final double kAprilTagSeenHoldSeconds = 0.5;
+
     public static final class PiCamera {
       public static final String cameraName = "piCamera";
       public static final double kCameraHeight = 0.225;
@@ -205,9 +252,92 @@ public final class Constants {
     }
   }
 
+  public static final class VisionConstants {
+    public static final double kFieldLengthMeters = 16.54;
+    public static final double kFieldWidthMeters = 8.21;
+    public static final double kMaxHeightErrorMeters = 0.5; // the robot is always on the ground
+
+    // Standard deviation of a vision pose = kXYStdDevPerMeterSquared * distance^2 / tag count
+    // + kMinXYStdDevMeters. Single tag poses are scaled up again by their ambiguity.
+    public static final double kXYStdDevPerMeterSquared = 0.02;
+    public static final double kMinXYStdDevMeters = 0.05;
+    public static final double kSingleTagStdDevScale = 2;
+    public static final double kAmbiguityStdDevScale = 5; // 1 + ambiguity * this
+    public static final double kThetaStdDev = 9999999; // rotation comes from the navX only
+
+    public static final double kMaxSingleTagAmbiguity = 0.2;
+    public static final double kMaxSingleTagDistanceMeters = 4;
+
+    // Poses further than this from odometry are thrown away, unless it keeps happening.
+    public static final double kMinInnovationGateMeters = 0.5;
+    public static final double kInnovationGateStdDevs = 3;
+    public static final int kMaxConsecutiveGatedPoses = 10;
+  }
+
+  public static final class TelemetryConstants {
+    // How often the debug entries that are big or read extra hardware get published.
+    public static final double kDebugPeriodSeconds = 0.1; // 10 Hz
+  }
+
+  public static final class LoopProfilerConstants {
+    // How many of the last times every part of the loop keeps, 5 seconds of loops.
+    public static final int kWindowSamples = 250;
+    public static final double kPublishPeriodSeconds = 1;
+  }
+
+  public static final class CANConstants {
+    // Setpoints closer than this to the last one sent aren't sent again.
+    public static final double kDefaultSetpointTolerance = 1e-4;
+    public static final double kDefaultArbFFToleranceVolts = 0.01;
+    // Unchanged setpoints are still sent this often, in case a frame was lost.
+    public static final double kSetpointHeartbeatSeconds = 0.1;
+
+    // Status frame periods used by the StatusFrameProfiles, in milliseconds.
+    public static final int kFastStatusPeriodMs = 10;
+    public static final int kNormalStatusPeriodMs = 20;
+    public static final int kSlowStatusPeriodMs = 100;
+    public static final int kVerySlowStatusPeriodMs = 500;
+    public static final int kUnusedStatusPeriodMs = 65535; // the slowest a SPARK MAX allows
+
+    // How many SPARK MAXes SparkMAXConfigurator configures at the same time.
+    public static final int kConfigThreads = 4;
+  }
+
+  public static final class StartupConstants {
+    // How many startup tasks run in the background at the same time.
+    public static final int kStartupThreads = 3;
+    // The longest enabling waits for startup to finish.
+    public static final double kMaxEnableWaitSeconds = 10;
+  }
+
+  public static final class WarmupConstants {
+    // Runs every warm-up exercise this many times while disabled, past the JIT's compile
+    // thresholds.
+    public static final int kIterations = 20000;
+    public static final int kIterationsPerChunk = 50;
+    // How much of each disabled loop the warm-up can use.
+    public static final double kBudgetPerLoopSeconds = 0.005;
+    // How many enabled loops are logged after every enable.
+    public static final int kLoggedLoops = 50;
+  }
+
   public static final class LEDConstants {
     public static final int kLedPin = 9;
     public static final int kLedCount = 82;
+    public static final double kFramePeriodSeconds = 0.02;
+
+    // Zones are drawn over the whole strip, the ones with a higher priority on top.
+    public static final class ProgressZone {
+      public static final int kStart = 0;
+      public static final int kEnd = kLedCount;
+      public static final int kPriority = 1;
+    }
+
+    public static final class AlertZone {
+      public static final int kStart = 0;
+      public static final int kEnd = kLedCount;
+      public static final int kPriority = 2;
+    }
   }
 
   public static final class AutoConstants {
@@ -217,6 +347,9 @@ public final class Constants {
     public static final double kMaxAngularSpeedRadiansPerSecond = Math.PI;
     public static final double kMaxAngularSpeedRadiansPerSecondSquared = Math.PI;
 
+    // Distance from the robot center to the furthest module, for PathPlanner.
+    public static final double kDriveBaseRadiusMeters = 0.55;
+
     public static final double kPXController = 1;
     public static final double kPYController = 1;
     public static final double kPThetaController = 1;
@@ -1,36 +1,50 @@
 package frc.robot;
 
 import edu.wpi.first.wpilibj.TimedRobot;
+import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.CommandScheduler;
-import frc.robot.simulationSystems.PhotonSim;
+import frc.utils.LoopProfiler;
 
 public class Robot extends TimedRobot {
   private Command m_autonomousCommand;
 
   private RobotContainer m_robotContainer;
+  private final LoopProfiler m_loopProfiler = new LoopProfiler();
 
   @Override
   public void robotInit() {
-    m_robotContainer = new RobotContainer();
+    m_robotContainer = new RobotContainer(m_loopProfiler);
+  }
+
+  @Override
+  protected void loopFunc() {
+    m_loopProfiler.startLoop();
+    super.loopFunc();
+    m_loopProfiler.endLoop(getPeriod());
   }
 
   @Override
   public void robotPeriodic() {
+    final double start = Timer.getFPGATimestamp();
     CommandScheduler.getInstance().run();
+    m_robotContainer.recordLoopTime(Timer.getFPGATimestamp() - start);
   }
 
   @Override
   public void disabledInit() {}
 
   @Override
-  public void disabledPeriodic() {}
+  public void disabledPeriodic() {
+    m_robotContainer.disabledPeriodic();
+  }
 
   @Override
   public void disabledExit() {}
 
   @Override
   public void autonomousInit() {
+    m_robotContainer.awaitReady();
     m_autonomousCommand = m_robotContainer.getAutonomousCommand();
 
     if (m_autonomousCommand != null) {
@@ -46,6 +60,7 @@ public class Robot extends TimedRobot {
 
   @Override
   public void teleopInit() {
+    m_robotContainer.awaitReady();
     if (m_autonomousCommand != null) {
       m_autonomousCommand.cancel();
     }
@@ -59,6 +74,7 @@ public class Robot extends TimedRobot {
 
   @Override
   public void testInit() {
+    m_robotContainer.awaitReady();
     CommandScheduler.getInstance().cancelAll();
   }
 
@@ -68,11 +84,6 @@ public class Robot extends TimedRobot {
   @Override
   public void testExit() {}
 
-  @Override
-  public void simulationInit() {
-    PhotonSim.setupSim();
-  }
-
   @Override
   public void simulationPeriodic() {
     m_robotContainer.simPeriodic();
@@ -1,6 +1,5 @@
 package frc.robot;
 
-import com.pathplanner.lib.auto.AutoBuilder;
 import com.pathplanner.lib.auto.NamedCommands;
 import edu.wpi.first.cameraserver.CameraServer;
 import edu.wpi.first.wpilibj.DataLogManager;
@@ -10,7 +9,6 @@ import edu.wpi.first.wpilibj.RobotBase;
 import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.XboxController;
 import edu.wpi.first.wpilibj.XboxController.Button;
-import edu.wpi.first.wpilibj.smartdashboard.SendableChooser;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.PrintCommand;
@@ -18,9 +16,13 @@ import edu.wpi.first.wpilibj2.command.RunCommand;
 import edu.wpi.first.wpilibj2.command.button.JoystickButton;
 import edu.wpi.first.wpilibj2.command.button.Trigger;
 import frc.robot.Constants.IntakeConstants;
+import frc.robot.Constants.IntakeConstants.ColorSensorConstants;
+import frc.robot.Constants.StartupConstants;
+import frc.robot.Constants.WarmupConstants;
 import frc.robot.commands.ArmIdleCommand;
 import frc.robot.commands.BasicIntakeCommand;
 import frc.robot.commands.DefaultDriveCommand;
+import frc.robot.commands.LogCalibrationShotCommand;
 import frc.robot.commands.ShootToAmpCommand;
 import frc.robot.commands.ShootToSpeakerCommand;
 import frc.robot.commands.SmartIntakeCommand;
@@ -30,61 +32,161 @@ import frc.robot.subsystems.ArmSubsystem;
 import frc.robot.subsystems.DriveSubsystem;
 import frc.robot.subsystems.IntakeSubsystem;
 import frc.robot.subsystems.LEDSubsystem;
-import frc.robot.subsystems.LEDSystem;
 import frc.robot.subsystems.LogitechController;
 import frc.robot.subsystems.PhotonCameraSystem;
 import frc.robot.subsystems.ShooterSubsystem;
+import frc.utils.ArmAngleTable;
+import frc.utils.JITWarmup;
+import frc.utils.LazyAutoChooser;
+import frc.utils.LoopProfiler;
+import frc.utils.ShotCalibrationLog;
+import frc.utils.StartupTasks;
+import frc.utils.WarmupExercises;
+import frc.utils.sim_utils.ColorSensorV3Wrapped;
+import frc.utils.sim_utils.SparkMAXConfigurator;
+import java.util.concurrent.CompletableFuture;
 import org.littletonrobotics.urcl.URCL;
 
 public class RobotContainer {
   private final XboxController controller = new LogitechController(0);
 
-  private final SendableChooser<Command> autoChooser;
+  private final StartupTasks startup = new StartupTasks(StartupConstants.kStartupThreads);
+  // Made with the rest of the logging, on a startup thread.
+  private final CompletableFuture<ShotCalibrationLog> shotCalibrationLog;
+  private final LazyAutoChooser autoChooser;
+  private final JITWarmup warmup;
 
   private final GenericHID midiController = new GenericHID(1);
 
-  private final DriveSubsystem driveSubsystem = new DriveSubsystem();
-  private final IntakeSubsystem intakeSubsystem = new IntakeSubsystem();
-  private final ArmSubsystem armSubsystem = new ArmSubsystem();
-  private final ShooterSubsystem shooterSubsystem = new ShooterSubsystem();
-  private final LEDSubsystem ledSubsystem = LEDSystem.getInstance();
-
-  public RobotContainer() {
-    setupNamedCommands();
-    loggingInit();
-    configureJoystickBindings();
-    setDefaultCommands();
-    autoChooser = AutoBuilder.buildAutoChooser();
-    autoChooser.addOption(
-        "Shoot To Shooter",
-        new ShootToSpeakerCommand(shooterSubsystem, intakeSubsystem, armSubsystem, driveSubsystem));
-    PhotonCameraSystem.getAprilTagWithID(0); // Load the class before enable.
-    SmartDashboard.putData("Auto Chooser", autoChooser);
+  // Made here and given to everything that uses them, nothing is shared through static fields.
+  private final LoopProfiler loopProfiler;
+  private final SparkMAXConfigurator sparkMAXConfigurator = new SparkMAXConfigurator();
+  private final PhotonCameraSystem cameraSystem;
+  private final DriveSubsystem driveSubsystem;
+  private final IntakeSubsystem intakeSubsystem;
+  private final ArmSubsystem armSubsystem;
+  private final ShooterSubsystem shooterSubsystem;
+  private final LEDSubsystem ledSubsystem;
+  private PhotonSim photonSim;
+
+  /**
+   * @param loopProfiler times the subsystems and the commands bound here.
+   */
+  public RobotContainer(LoopProfiler loopProfiler) {
+    this.loopProfiler = loopProfiler;
+    // Loads the field layout, the drive subsystem only waits for it at the end of its constructor.
+    var cameraSystemFuture = startup.supply("Camera System", PhotonCameraSystem::new);
+    // Reads a file, the drive subsystem waits for it along with the camera system.
+    var armAngleTableFuture = startup.supply("Arm Angle Table", ArmAngleTable::loadDeployed);
+    // Nothing else needs these right away, so they run while the subsystems are built.
+    shotCalibrationLog = startup.supply("Logging", this::loggingInit);
+    startup.run("Camera Server", this::setupCamera);
+
+    // Built first, so its periodic runs first. See DriveSubsystem#timedPeriodic().
+    driveSubsystem =
+        startup.build(
+            "Drive Subsystem",
+            () ->
+                new DriveSubsystem(cameraSystemFuture, armAngleTableFuture, sparkMAXConfigurator));
+    cameraSystem = cameraSystemFuture.join();
+    intakeSubsystem =
+        startup.build(
+            "Intake Subsystem",
+            () ->
+                new IntakeSubsystem(
+                    new ColorSensorV3Wrapped(ColorSensorConstants.kColorSensorPort),
+                    sparkMAXConfigurator));
+    armSubsystem = startup.build("Arm Subsystem", () -> new ArmSubsystem(sparkMAXConfigurator));
+    shooterSubsystem = startup.build("Shooter Subsystem", ShooterSubsystem::new);
+    ledSubsystem = startup.build("LED Subsystem", LEDSubsystem::new);
+    loopProfiler.addSubsystem(driveSubsystem);
+    loopProfiler.addSubsystem(intakeSubsystem);
+    loopProfiler.addSubsystem(armSubsystem);
+    loopProfiler.addSubsystem(shooterSubsystem);
+    loopProfiler.addSubsystem(ledSubsystem);
+    // The subsystems only started configuring their SPARK MAXes, all 12 are configured at once.
+    startup.stage("SPARK MAX Config", sparkMAXConfigurator::awaitAll);
+    // Only now do the module encoders measure in meters and radians, the pose doesn't move before.
+    startup.stage("Odometry", driveSubsystem::startOdometry);
+
+    startup.stage(
+        "Bindings",
+        () -> {
+          setupNamedCommands();
+          configureJoystickBindings();
+          setDefaultCommands();
+        });
+    // Needs the named commands, and the AutoBuilder configured by the DriveSubsystem.
+    autoChooser = startup.build("Autos", this::buildAutoChooser);
+    warmup = startup.build("JIT Warm-up", this::buildWarmup);
     if (RobotBase.isSimulation()) {
       simInit();
     }
-    setupCamera();
+    startup.finish().thenRun(this::publishStartupReport);
   }
 
   private void setupCamera() {
     CameraServer.startAutomaticCapture();
   }
 
-  private void loggingInit() {
+  private ShotCalibrationLog loggingInit() {
     DataLogManager.start();
     URCL.start();
     DriverStation.startDataLog(DataLogManager.getLog());
+    return new ShotCalibrationLog(DataLogManager.getLog());
+  }
+
+  private LazyAutoChooser buildAutoChooser() {
+    var chooser = new LazyAutoChooser();
+    chooser.addOption(
+        "Shoot To Shooter",
+        () ->
+            new ShootToSpeakerCommand(
+                shooterSubsystem, intakeSubsystem, armSubsystem, driveSubsystem, ledSubsystem));
+    chooser.update();
+    SmartDashboard.putData("Auto Chooser", chooser.getChooser());
+    return chooser;
+  }
+
+  private JITWarmup buildWarmup() {
+    return new JITWarmup(
+            WarmupConstants.kIterations,
+            WarmupConstants.kIterationsPerChunk,
+            WarmupConstants.kLoggedLoops)
+        .add("Drive", WarmupExercises.drive(driveSubsystem))
+        .add("Kinematics", WarmupExercises.kinematics())
+        .add("Pose Estimator", WarmupExercises.poseEstimator())
+        .add("Path Following", WarmupExercises.pathFollowing())
+        .add("Photon Pose Estimator", WarmupExercises.photonPoseEstimator(cameraSystem));
+  }
+
+  private void publishStartupReport() {
+    String report = startup.getReport();
+    DataLogManager.log(report);
+    DataLogManager.log(sparkMAXConfigurator.getReport());
+    SmartDashboard.putString("Startup Report", report);
+  }
+
+  /** Waits for everything started in the background to be done, call this before enabling. */
+  public void awaitReady() {
+    if (!startup.awaitReady(StartupConstants.kMaxEnableWaitSeconds)) {
+      DriverStation.reportWarning(
+          "Startup isn't done yet, enabling anyway\n" + startup.getReport(), false);
+    }
   }
 
   private Thread simThread;
 
   public void simInit() {
+    if (photonSim == null) {
+      photonSim = new PhotonSim(cameraSystem);
+    }
     simThread =
         new Thread(
             () -> {
               System.out.println("Starting PhotonSim");
               while (true) {
-                PhotonSim.update(driveSubsystem.getPose());
+                photonSim.update(driveSubsystem.getPose());
                 // I do not want to use a busy loop, so I added a delay.
                 Timer.delay(0.05);
               }
@@ -104,77 +206,98 @@ public class RobotContainer {
   }
 
   private void setupNamedCommands() {
-    NamedCommands.registerCommand("Intake", new BasicIntakeCommand(intakeSubsystem));
+    NamedCommands.registerCommand("Intake", new BasicIntakeCommand(intakeSubsystem, ledSubsystem));
     NamedCommands.registerCommand(
         "Shoot To Speaker",
-        new ShootToSpeakerCommand(shooterSubsystem, intakeSubsystem, armSubsystem, driveSubsystem));
+        new ShootToSpeakerCommand(
+            shooterSubsystem, intakeSubsystem, armSubsystem, driveSubsystem, ledSubsystem));
     NamedCommands.registerCommand(
-        "Shoot To Amp", new ShootToAmpCommand(shooterSubsystem, intakeSubsystem, armSubsystem));
+        "Shoot To Amp",
+        new ShootToAmpCommand(shooterSubsystem, intakeSubsystem, armSubsystem, ledSubsystem));
   }
 
   private void setDefaultCommands() {
-    driveSubsystem.setDefaultCommand(new DefaultDriveCommand(driveSubsystem, controller));
+    driveSubsystem.setDefaultCommand(
+        loopProfiler.profile(new DefaultDriveCommand(driveSubsystem, controller)));
 
     // move arm with midi's potentiometer
     armSubsystem.setDefaultCommand(
-        new ArmIdleCommand(armSubsystem, () -> midiController.getRawAxis(0)));
+        loopProfiler.profile(new ArmIdleCommand(armSubsystem, () -> midiController.getRawAxis(0))));
 
     intakeSubsystem.setDefaultCommand(
-        new RunCommand(
-            () -> intakeSubsystem.setIntakeSpeed(midiController.getRawAxis(1)), intakeSubsystem));
+        loopProfiler.profile(
+            new RunCommand(
+                () -> intakeSubsystem.setIntakeSpeed(midiController.getRawAxis(1)),
+                intakeSubsystem)));
 
     shooterSubsystem.setDefaultCommand(
-        new RunCommand(
-            () -> shooterSubsystem.setShooterSpeed(midiController.getRawAxis(2)),
-            shooterSubsystem));
+        loopProfiler.profile(
+            new RunCommand(
+                () -> shooterSubsystem.setShooterSpeed(midiController.getRawAxis(2)),
+                shooterSubsystem)));
 
     ledSubsystem.setDefaultCommand(
-        new LEDIdleCommand(ledSubsystem, intakeSubsystem).ignoringDisable(true));
+        loopProfiler.profile(
+            new LEDIdleCommand(ledSubsystem, intakeSubsystem).ignoringDisable(true)));
   }
 
   private void configureJoystickBindings() {
     new JoystickButton(controller, Button.kA.value) // Handbrake
-        .whileTrue(new RunCommand(driveSubsystem::setX, driveSubsystem));
+        .whileTrue(loopProfiler.profile(new RunCommand(driveSubsystem::setX, driveSubsystem)));
 
     new JoystickButton(controller, Button.kB.value) // Intake
-        .whileTrue(new SmartIntakeCommand(intakeSubsystem, controller));
+        .whileTrue(
+            loopProfiler.profile(
+                new SmartIntakeCommand(intakeSubsystem, ledSubsystem, controller)));
 
     new JoystickButton(controller, Button.kY.value) // Shoot, smart (Fully Shoot)
         .whileTrue(
-            new ShootToSpeakerCommand(
-                shooterSubsystem,
-                intakeSubsystem,
-                armSubsystem,
-                driveSubsystem,
-                controller::getLeftY,
-                controller::getLeftX));
+            loopProfiler.profile(
+                new ShootToSpeakerCommand(
+                    shooterSubsystem,
+                    intakeSubsystem,
+                    armSubsystem,
+                    driveSubsystem,
+                    ledSubsystem,
+                    controller::getLeftY,
+                    controller::getLeftX)));
 
     new JoystickButton(controller, Button.kX.value)
-        .whileTrue(new ShootToAmpCommand(shooterSubsystem, intakeSubsystem, armSubsystem));
+        .whileTrue(
+            loopProfiler.profile(
+                new ShootToAmpCommand(
+                    shooterSubsystem, intakeSubsystem, armSubsystem, ledSubsystem)));
 
     new JoystickButton(controller, Button.kStart.value) // Reset Heading
         .onTrue(
-            driveSubsystem
-                .runOnce(driveSubsystem::zeroFieldOrientation)
-                .alongWith(new PrintCommand("Zeroing Field Orientation"))
-                .ignoringDisable(true));
+            loopProfiler.profile(
+                driveSubsystem
+                    .runOnce(driveSubsystem::zeroFieldOrientation)
+                    .alongWith(new PrintCommand("Zeroing Field Orientation"))
+                    .ignoringDisable(true)));
 
     // This command is here incase the intake gets stuck.
     new JoystickButton(controller, Button.kBack.value) // Force push note out of intake
         .whileTrue(
-            new RunCommand(
-                () -> intakeSubsystem.setIntakeSpeed(-IntakeConstants.kIntakeSpeed),
-                intakeSubsystem));
+            loopProfiler.profile(
+                new RunCommand(
+                    () -> intakeSubsystem.setIntakeSpeed(-IntakeConstants.kIntakeSpeed),
+                    intakeSubsystem)));
 
     new JoystickButton(controller, Button.kRightBumper.value) // Reverse Shooter to intake
-        .whileTrue(new RunCommand(() -> shooterSubsystem.setShooterSpeed(-1), shooterSubsystem));
+        .whileTrue(
+            loopProfiler.profile(
+                new RunCommand(() -> shooterSubsystem.setShooterSpeed(-1), shooterSubsystem)));
 
     new JoystickButton(controller, Button.kLeftBumper.value)
-        .whileTrue(new ShootToSpeakerCommand(shooterSubsystem, intakeSubsystem));
+        .whileTrue(
+            loopProfiler.profile(
+                new ShootToSpeakerCommand(shooterSubsystem, intakeSubsystem, ledSubsystem)));
 
     new Trigger(() -> controller.getPOV() == 0)
         // Move arm to 0.5, and set it there until the button is released.
-        .whileTrue(armSubsystem.run(() -> armSubsystem.setArmToPosition(0.5)));
+        .whileTrue(
+            loopProfiler.profile(armSubsystem.run(() -> armSubsystem.setArmToPosition(0.5))));
 
     configureMidiBindings();
   }
@@ -182,26 +305,85 @@ public class RobotContainer {
   private void configureMidiBindings() {
     // This is incase load to shooter command fails.
     new JoystickButton(midiController, 1) // Force Push intake on midi
-        .whileTrue(intakeSubsystem.run(() -> intakeSubsystem.setIntakeSpeed(1, true)));
+        .whileTrue(
+            loopProfiler.profile(
+                intakeSubsystem.run(() -> intakeSubsystem.setIntakeSpeed(1, true))));
 
     new JoystickButton(midiController, 2)
-        .onTrue(armSubsystem.runOnce(armSubsystem::resetEncoder).ignoringDisable(true));
+        .onTrue(
+            loopProfiler.profile(
+                armSubsystem.runOnce(armSubsystem::resetEncoder).ignoringDisable(true)));
 
     new JoystickButton(midiController, 3)
-        .whileTrue(new ShootToSpeakerCommand(shooterSubsystem, intakeSubsystem));
+        .whileTrue(
+            loopProfiler.profile(
+                new ShootToSpeakerCommand(shooterSubsystem, intakeSubsystem, ledSubsystem)));
 
     new JoystickButton(midiController, 4)
-        .whileTrue(new ShootToSpeakerCommand(shooterSubsystem, intakeSubsystem));
+        .whileTrue(
+            loopProfiler.profile(
+                new ShootToSpeakerCommand(shooterSubsystem, intakeSubsystem, ledSubsystem)));
 
     new JoystickButton(midiController, 16)
         .onTrue(
-            driveSubsystem.runOnce(driveSubsystem::toggleForceRobotOriented).ignoringDisable(true));
+            loopProfiler.profile(
+                driveSubsystem
+                    .runOnce(driveSubsystem::toggleForceRobotOriented)
+                    .ignoringDisable(true)));
+
+    configureShotCalibrationBindings();
+  }
+
+  /**
+   * Shot calibration, turn on "Shot Calibration Mode" on the dashboard. Aim the arm with the midi
+   * potentiometer, shoot with midi 3, then press midi 5 if it went in or midi 6 if it didn't. Fit
+   * the logs into a table with ./gradlew fitArmAngleTable.
+   */
+  private void configureShotCalibrationBindings() {
+    SmartDashboard.putBoolean("Shot Calibration Mode", false);
+    var calibrationModeEntry = SmartDashboard.getEntry("Shot Calibration Mode");
+    var calibrationMode = new Trigger(() -> calibrationModeEntry.getBoolean(false));
+
+    calibrationMode
+        .and(new JoystickButton(midiController, 5))
+        .onTrue(
+            loopProfiler.profile(
+                new LogCalibrationShotCommand(
+                    shotCalibrationLog, armSubsystem, driveSubsystem, true)));
+
+    calibrationMode
+        .and(new JoystickButton(midiController, 6))
+        .onTrue(
+            loopProfiler.profile(
+                new LogCalibrationShotCommand(
+                    shotCalibrationLog, armSubsystem, driveSubsystem, false)));
+  }
+
+  /**
+   * Builds the selected auto ahead of time if the selection or the alliance changed, then uses what
+   * is left of the loop to warm up the code that runs when enabled.
+   */
+  public void disabledPeriodic() {
+    autoChooser.update();
+    if (startup.isReady()) {
+      warmup.run(WarmupConstants.kBudgetPerLoopSeconds);
+    }
+  }
+
+  /**
+   * @param seconds how long the command scheduler took this loop.
+   */
+  public void recordLoopTime(double seconds) {
+    warmup.recordLoop(seconds, DriverStation.isEnabled());
   }
 
   public Command getAutonomousCommand() {
-    return autoChooser
-        .getSelected()
-        .andThen(() -> driveSubsystem.drive(0, 0, 0))
-        .beforeStarting(armSubsystem.runOnce(armSubsystem::resetEncoder));
+    var auto = autoChooser.getSelected();
+    if (auto == null) {
+      return null;
+    }
+    return loopProfiler.profile(
+        auto.andThen(() -> driveSubsystem.drive(0, 0, 0))
+            .beforeStarting(armSubsystem.runOnce(armSubsystem::resetEncoder)));
   }
 }
@@ -0,0 +1,200 @@
+package frc.robot;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+import edu.wpi.first.wpilibj.DriverStation.Alliance;
+import java.util.Optional;
+
+/**
+ * Everything the robot read from its sensors in one loop.
+ *
+ * <p>A new frame gets captured once at the start of every scheduler cycle (by {@link
+ * frc.robot.subsystems.DriveSubsystem#timedPeriodic()}, the first subsystem to run) so every
+ * subsystem and command in the same cycle sees the same values, without going back to the CAN bus
+ * or the navX for them. A frame never changes once it is captured, so it can be kept across loops
+ * and compared against a later one.
+ */
+public final class RobotStateFrame {
+  private static final Optional<Alliance> kRed = Optional.of(Alliance.Red);
+  private static final Optional<Alliance> kBlue = Optional.of(Alliance.Blue);
+
+  private final double timestampSeconds;
+  private final Pose2d pose;
+  private final Rotation2d yaw;
+  private final double yawRateDegreesPerSecond;
+  private final double[] moduleDistancesMeters;
+  private final double[] moduleSpeedsMetersPerSecond;
+  private final Rotation2d[] moduleAngles;
+  private final Optional<Alliance> alliance;
+  private final double matchTimeSeconds;
+  private final double distanceToShooter;
+  private final double geometricDistanceToShooter;
+  private final Rotation2d rotationDifferenceToShooter;
+
+  /**
+   * An empty frame, for before anything was read.
+   *
+   * @param moduleCount how many swerve modules the robot has.
+   */
+  public RobotStateFrame(int moduleCount) {
+    timestampSeconds = 0;
+    pose = new Pose2d();
+    yaw = new Rotation2d();
+    yawRateDegreesPerSecond = 0;
+    moduleDistancesMeters = new double[moduleCount];
+    moduleSpeedsMetersPerSecond = new double[moduleCount];
+    moduleAngles = new Rotation2d[moduleCount];
+    for (int i = 0; i < moduleCount; i++) {
+      moduleAngles[i] = new Rotation2d();
+    }
+    alliance = Optional.empty();
+    matchTimeSeconds = 0;
+    distanceToShooter = 0;
+    geometricDistanceToShooter = 0;
+    rotationDifferenceToShooter = new Rotation2d();
+  }
+
+  /**
+   * Captures what was read this loop, the arrays are copied so the caller can reuse them
+   * afterwards.
+   *
+   * @param timestampSeconds the FPGA time the frame was captured at.
+   * @param pose the estimated pose of the robot.
+   * @param yaw the yaw of the robot read from the gyro.
+   * @param yawRateDegreesPerSecond the turn rate of the robot read from the gyro.
+   * @param modulePositions the positions of the swerve modules.
+   * @param moduleStates the measured states of the swerve modules.
+   * @param alliance the alliance reported by the driver station, null if there is none.
+   * @param matchTimeSeconds the match time reported by the driver station.
+   * @param distanceToShooter the distance to aim the arm for in meters.
+   * @param geometricDistanceToShooter the distance from the robot to the speaker in meters.
+   * @param rotationDifferenceToShooter how far the back of the robot is from facing the speaker.
+   */
+  public RobotStateFrame(
+      double timestampSeconds,
+      Pose2d pose,
+      Rotation2d yaw,
+      double yawRateDegreesPerSecond,
+      SwerveModulePosition[] modulePositions,
+      SwerveModuleState[] moduleStates,
+      Alliance alliance,
+      double matchTimeSeconds,
+      double distanceToShooter,
+      double geometricDistanceToShooter,
+      Rotation2d rotationDifferenceToShooter) {
+    this.timestampSeconds = timestampSeconds;
+    this.pose = pose;
+    this.yaw = yaw;
+    this.yawRateDegreesPerSecond = yawRateDegreesPerSecond;
+    this.matchTimeSeconds = matchTimeSeconds;
+    if (alliance == null) {
+      this.alliance = Optional.empty();
+    } else {
+      this.alliance = alliance == Alliance.Red ? kRed : kBlue;
+    }
+    this.distanceToShooter = distanceToShooter;
+    this.geometricDistanceToShooter = geometricDistanceToShooter;
+    this.rotationDifferenceToShooter = rotationDifferenceToShooter;
+
+    moduleDistancesMeters = new double[modulePositions.length];
+    moduleAngles = new Rotation2d[modulePositions.length];
+    for (int i = 0; i < modulePositions.length; i++) {
+      moduleDistancesMeters[i] = modulePositions[i].distanceMeters;
+      moduleAngles[i] = modulePositions[i].angle; // Rotation2d is immutable, no need to copy it.
+    }
+    moduleSpeedsMetersPerSecond = new double[moduleStates.length];
+    for (int i = 0; i < moduleStates.length; i++) {
+      moduleSpeedsMetersPerSecond[i] = moduleStates[i].speedMetersPerSecond;
+    }
+  }
+
+  public double getTimestampSeconds() {
+    return timestampSeconds;
+  }
+
+  public Pose2d getPose() {
+    return pose;
+  }
+
+  public Rotation2d getYaw() {
+    return yaw;
+  }
+
+  public double getYawRateDegreesPerSecond() {
+    return yawRateDegreesPerSecond;
+  }
+
+  public int getModuleCount() {
+    return moduleDistancesMeters.length;
+  }
+
+  public double getModuleDistanceMeters(int module) {
+    return moduleDistancesMeters[module];
+  }
+
+  public double getModuleSpeedMetersPerSecond(int module) {
+    return moduleSpeedsMetersPerSecond[module];
+  }
+
+  public Rotation2d getModuleAngle(int module) {
+    return moduleAngles[module];
+  }
+
+  /**
+   * @return a copy of the module positions, changing them does not change the frame.
+   */
+  public SwerveModulePosition[] getModulePositions() {
+    var positions = new SwerveModulePosition[moduleDistancesMeters.length];
+    for (int i = 0; i < positions.length; i++) {
+      positions[i] = new SwerveModulePosition(moduleDistancesMeters[i], moduleAngles[i]);
+    }
+    return positions;
+  }
+
+  /**
+   * @return a copy of the module states, changing them does not change the frame.
+   */
+  public SwerveModuleState[] getModuleStates() {
+    var states = new SwerveModuleState[moduleSpeedsMetersPerSecond.length];
+    for (int i = 0; i < states.length; i++) {
+      states[i] = new SwerveModuleState(moduleSpeedsMetersPerSecond[i], moduleAngles[i]);
+    }
+    return states;
+  }
+
+  public Optional<Alliance> getAlliance() {
+    return alliance;
+  }
+
+  public double getMatchTimeSeconds() {
+    return matchTimeSeconds;
+  }
+
+  /**
+   * @return the distance to aim the arm for in meters, 0 if the field layout couldn't be loaded.
+   *     While moving this is the distance to the virtual target, see {@link frc.utils.ShotSolver},
+   *     and the "Move By" offset from the dashboard is added to it.
+   */
+  public double getDistanceToShooter() {
+    return distanceToShooter;
+  }
+
+  /**
+   * @return the distance from the robot to the speaker in meters, 0 if the field layout couldn't be
+   *     loaded. Unlike {@link #getDistanceToShooter()} this doesn't include the "Move By" offset or
+   *     the virtual target, it's what the shot calibration logs.
+   */
+  public double getGeometricDistanceToShooter() {
+    return geometricDistanceToShooter;
+  }
+
+  /**
+   * @return how far the back of the robot is from facing the speaker. While moving this is the
+   *     rotation difference to the virtual target, see {@link frc.utils.ShotSolver}.
+   */
+  public Rotation2d getRotationDifferenceToShooter() {
+    return rotationDifferenceToShooter;
+  }
+}
@@ -4,16 +4,16 @@ import edu.wpi.first.wpilibj2.command.ParallelRaceGroup;
 import frc.robot.Constants.IntakeConstants;
 import frc.robot.commands.led_commands.LEDBlinkRedCommand;
 import frc.robot.subsystems.IntakeSubsystem;
-import frc.robot.subsystems.LEDSystem;
+import frc.robot.subsystems.LEDSubsystem;
 
 public class BasicIntakeCommand extends ParallelRaceGroup {
-  public BasicIntakeCommand(IntakeSubsystem intakeSubsystem) {
+  public BasicIntakeCommand(IntakeSubsystem intakeSubsystem, LEDSubsystem ledSubsystem) {
     super(
         intakeSubsystem
             .runEnd(
                 () -> intakeSubsystem.setIntakeSpeed(IntakeConstants.kIntakeSpeed),
                 intakeSubsystem::stopMotors)
             .until(intakeSubsystem::hasNote),
-        new LEDBlinkRedCommand(LEDSystem.getInstance()));
+        new LEDBlinkRedCommand(ledSubsystem));
   }
 }
@@ -3,6 +3,7 @@ package frc.robot.commands;
 import edu.wpi.first.wpilibj2.command.ParallelRaceGroup;
 import frc.robot.Constants.ShooterConstants;
 import frc.robot.commands.led_commands.LEDLoadingWaitCommand;
+import frc.robot.subsystems.LEDSubsystem;
 import frc.robot.subsystems.ShooterSubsystem;
 
 public class BasicRunShooterCommand extends ParallelRaceGroup {
@@ -13,9 +14,10 @@ public class BasicRunShooterCommand extends ParallelRaceGroup {
             shooterSubsystem::stopShooter));
   }
 
-  public BasicRunShooterCommand(ShooterSubsystem shooterSubsystem, double untilTimeSeconds) {
+  public BasicRunShooterCommand(
+      ShooterSubsystem shooterSubsystem, LEDSubsystem ledSubsystem, double untilTimeSeconds) {
     super(
         new BasicRunShooterCommand(shooterSubsystem), // Run the shooter
-        new LEDLoadingWaitCommand(untilTimeSeconds));
+        new LEDLoadingWaitCommand(ledSubsystem, untilTimeSeconds));
   }
 }
@@ -32,7 +32,7 @@ public class DriveFacingShooter extends SequentialCommandGroup {
                 xSpeed.getAsDouble(),
                 ySpeed.getAsDouble(),
                 rotController.calculate(
-                    driveSubsystem.getRotationDifferenceToShooter().getRadians()),
+                    driveSubsystem.getFrame().getRotationDifferenceToShooter().getRadians()),
                 0));
   }
 }
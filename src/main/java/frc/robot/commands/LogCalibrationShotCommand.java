@@ -0,0 +1,36 @@
+package frc.robot.commands;
+
+import edu.wpi.first.wpilibj2.command.InstantCommand;
+import frc.robot.subsystems.ArmSubsystem;
+import frc.robot.subsystems.DriveSubsystem;
+import frc.utils.ShotCalibrationLog;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Logs the last shot for the arm angle calibration. Press it after seeing if the note went in, the
+ * robot and the arm should not have moved since the shot.
+ *
+ * <p>The distance logged is the real one, without the "Move By" offset, since the table lookup adds
+ * the offset again. The log is made on a startup thread, a shot logged before it is made gets
+ * written once it is.
+ */
+public class LogCalibrationShotCommand extends InstantCommand {
+  public LogCalibrationShotCommand(
+      CompletableFuture<ShotCalibrationLog> calibrationLog,
+      ArmSubsystem armSubsystem,
+      DriveSubsystem driveSubsystem,
+      boolean hit) {
+    super(
+        () -> {
+          // Read now, the robot may have moved by the time the log is made.
+          final double distance = driveSubsystem.getFrame().getGeometricDistanceToShooter();
+          final double armPosition = armSubsystem.getArmPosition();
+          calibrationLog.thenAccept(log -> log.logShot(distance, armPosition, hit));
+        });
+  }
+
+  @Override
+  public boolean runsWhenDisabled() {
+    return true;
+  }
+}
@@ -3,15 +3,21 @@ package frc.robot.commands;
 import edu.wpi.first.wpilibj2.command.RunCommand;
 import frc.robot.subsystems.ArmSubsystem;
 import frc.robot.subsystems.DriveSubsystem;
-import frc.utils.ExtraFunctions;
+import frc.utils.ArmAngleTable;
 
 public class MoveArmToShooterCommand extends RunCommand {
   /** This Command Never Ends! */
   public MoveArmToShooterCommand(ArmSubsystem armSubsystem, DriveSubsystem driveSubsystem) {
+    this(armSubsystem, driveSubsystem, driveSubsystem.getArmAngleTable());
+  }
+
+  /** This Command Never Ends! */
+  public MoveArmToShooterCommand(
+      ArmSubsystem armSubsystem, DriveSubsystem driveSubsystem, ArmAngleTable armAngleTable) {
     super(
         () ->
             armSubsystem.setArmToPosition(
-                ExtraFunctions.getAngleFromDistance(driveSubsystem.getDistanceToShooter())),
+                armAngleTable.getAngle(driveSubsystem.getFrame().getDistanceToShooter())),
         armSubsystem);
   }
 }
@@ -5,7 +5,7 @@ import edu.wpi.first.wpilibj2.command.ParallelRaceGroup;
 import edu.wpi.first.wpilibj2.command.SequentialCommandGroup;
 import frc.robot.subsystems.ArmSubsystem;
 import frc.robot.subsystems.IntakeSubsystem;
-import frc.robot.subsystems.LEDSystem;
+import frc.robot.subsystems.LEDSubsystem;
 import frc.robot.subsystems.ShooterSubsystem;
 import frc.utils.ExtraFunctions;
 
@@ -13,15 +13,16 @@ public class ShootToAmpCommand extends SequentialCommandGroup {
   public ShootToAmpCommand(
       ShooterSubsystem shooterSubsystem,
       IntakeSubsystem intakeSubsystem,
-      ArmSubsystem armSubsystem) {
+      ArmSubsystem armSubsystem,
+      LEDSubsystem ledSubsystem) {
     super(
         new ParallelRaceGroup(
             new MoveArmToAmp(armSubsystem),
             new BasicRunShooterCommand(shooterSubsystem),
-            LEDSystem.getBlinkColorCommand(ExtraFunctions.getAllianceColor())),
+            ledSubsystem.getBlinkColorCommand(ExtraFunctions.getAllianceColor())),
         new ParallelRaceGroup(
             new LoadToShooterCommand(intakeSubsystem),
             new BasicRunShooterCommand(shooterSubsystem),
-            LEDSystem.getBlinkColorCommand(Color.kGreen)));
+            ledSubsystem.getBlinkColorCommand(Color.kGreen)));
   }
 }
@@ -5,16 +5,20 @@ import edu.wpi.first.wpilibj2.command.SequentialCommandGroup;
 import frc.robot.subsystems.ArmSubsystem;
 import frc.robot.subsystems.DriveSubsystem;
 import frc.robot.subsystems.IntakeSubsystem;
+import frc.robot.subsystems.LEDSubsystem;
 import frc.robot.subsystems.ShooterSubsystem;
 import java.util.function.DoubleSupplier;
 
 public class ShootToSpeakerCommand extends ParallelRaceGroup {
   private static final double waitTime = 2.5;
 
-  public ShootToSpeakerCommand(ShooterSubsystem shooterSubsystem, IntakeSubsystem intakeSubsystem) {
+  public ShootToSpeakerCommand(
+      ShooterSubsystem shooterSubsystem,
+      IntakeSubsystem intakeSubsystem,
+      LEDSubsystem ledSubsystem) {
     super(
         new SequentialCommandGroup(
-            new BasicRunShooterCommand(shooterSubsystem, waitTime),
+            new BasicRunShooterCommand(shooterSubsystem, ledSubsystem, waitTime),
             new ParallelRaceGroup(
                 new BasicRunShooterCommand(shooterSubsystem),
                 new LoadToShooterCommand(intakeSubsystem))));
@@ -24,11 +28,12 @@ public class ShootToSpeakerCommand extends ParallelRaceGroup {
       ShooterSubsystem shooterSubsystem,
       IntakeSubsystem intakeSubsystem,
       ArmSubsystem armSubsystem,
-      DriveSubsystem driveSubsystem) {
+      DriveSubsystem driveSubsystem,
+      LEDSubsystem ledSubsystem) {
     super(
         // Constantly move the arm until all the other commands finish.
         new MoveArmToShooterCommand(armSubsystem, driveSubsystem),
-        new ShootToSpeakerCommand(shooterSubsystem, intakeSubsystem));
+        new ShootToSpeakerCommand(shooterSubsystem, intakeSubsystem, ledSubsystem));
   }
 
   public ShootToSpeakerCommand(
@@ -36,6 +41,7 @@ public class ShootToSpeakerCommand extends ParallelRaceGroup {
       IntakeSubsystem intakeSubsystem,
       ArmSubsystem armSubsystem,
       DriveSubsystem driveSubsystem,
+      LEDSubsystem ledSubsystem,
       DoubleSupplier xSpeed,
       DoubleSupplier ySpeed) {
     super(
@@ -43,6 +49,6 @@ public class ShootToSpeakerCommand extends ParallelRaceGroup {
         new MoveArmToShooterCommand(armSubsystem, driveSubsystem),
         new DriveFacingShooter(driveSubsystem, xSpeed, ySpeed),
         // The finishing command will be this one:
-        new ShootToSpeakerCommand(shooterSubsystem, intakeSubsystem));
+        new ShootToSpeakerCommand(shooterSubsystem, intakeSubsystem, ledSubsystem));
   }
 }
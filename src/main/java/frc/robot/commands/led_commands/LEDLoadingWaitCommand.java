@@ -2,27 +2,37 @@ package frc.robot.commands.led_commands;
 
 import edu.wpi.first.wpilibj.util.Color;
 import edu.wpi.first.wpilibj2.command.WaitCommand;
-import frc.robot.subsystems.LEDSystem;
+import frc.robot.subsystems.LEDSubsystem;
+import frc.robot.subsystems.LEDZoneSubsystem;
 
+/** Waits, showing how long is left as a progress bar over whatever the LEDs are showing. */
 public class LEDLoadingWaitCommand extends WaitCommand {
+  private final LEDZoneSubsystem progressZone;
   private double seconds;
   private Color colorToFill;
   public static final Color DEFAULT_COLOR = new Color(0, 200, 255);
 
-  public LEDLoadingWaitCommand(double seconds, Color colorToFill) {
+  public LEDLoadingWaitCommand(LEDSubsystem ledSubsystem, double seconds, Color colorToFill) {
     super(seconds);
+    this.progressZone = ledSubsystem.getProgressZone();
     this.seconds = seconds;
     this.colorToFill = colorToFill;
-    addRequirements(LEDSystem.getInstance());
+    addRequirements(progressZone);
   }
 
-  public LEDLoadingWaitCommand(double seconds) {
-    this(seconds, DEFAULT_COLOR);
+  public LEDLoadingWaitCommand(LEDSubsystem ledSubsystem, double seconds) {
+    this(ledSubsystem, seconds, DEFAULT_COLOR);
   }
 
   @Override
   public void execute() {
     // Wait command does not have an execute method so no need to call it.
-    LEDSystem.getInstance().fillPercentageWithColor(m_timer.get() / seconds, colorToFill);
+    progressZone.fillPercentageWithColor(m_timer.get() / seconds, colorToFill);
+  }
+
+  @Override
+  public void end(boolean interrupted) {
+    super.end(interrupted);
+    progressZone.clear();
   }
 }
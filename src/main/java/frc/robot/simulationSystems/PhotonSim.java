@@ -1,33 +1,28 @@
 package frc.robot.simulationSystems;
 
-import edu.wpi.first.apriltag.AprilTagFields;
 import edu.wpi.first.math.geometry.Pose2d;
 import frc.robot.Constants.CameraConstants.PiCamera;
 import frc.robot.subsystems.PhotonCameraSystem;
 import org.photonvision.simulation.PhotonCameraSim;
 import org.photonvision.simulation.VisionSystemSim;
 
+/** Simulates what the camera of a {@link PhotonCameraSystem} sees from where the robot is. */
 public class PhotonSim {
-  private static PhotonCameraSim cameraSim;
-  private static VisionSystemSim visionSim;
+  private final PhotonCameraSim cameraSim;
+  private final VisionSystemSim visionSim;
 
-  public static void setupSim() {
-    cameraSim = new PhotonCameraSim(PhotonCameraSystem.getCamera());
+  public PhotonSim(PhotonCameraSystem cameraSystem) {
+    cameraSim = new PhotonCameraSim(cameraSystem.getCamera());
     visionSim = new VisionSystemSim(cameraSim.getCamera().getName());
     visionSim.addCamera(cameraSim, PiCamera.robotToCam);
-    visionSim.addAprilTags(AprilTagFields.k2024Crescendo.loadAprilTagLayoutField());
+    visionSim.addAprilTags(cameraSystem.getFieldLayout());
   }
 
-  public static void update(Pose2d robotPose) {
-    if (visionSim == null) return;
+  public void update(Pose2d robotPose) {
     visionSim.update(robotPose);
   }
 
-  public static PhotonCameraSim getCameraSim() {
+  public PhotonCameraSim getCameraSim() {
     return cameraSim;
   }
-
-  public static void moveCameraSim(Pose2d pose) {
-    visionSim.update(pose);
-  }
 }
@@ -2,28 +2,16 @@ package frc.robot.simulationSystems;
 
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.geometry.Rotation3d;
-import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
 import edu.wpi.first.math.kinematics.SwerveModuleState;
-import edu.wpi.first.wpilibj.Timer;
 import frc.robot.Constants.DriveConstants.SwerveModuleConstants;
 
+/**
+ * Simulates the gyro from how the simulated modules are actually moving, so it lags behind the
+ * commands like the real one.
+ */
 public class SwerveGyroSimulation {
-
-  /** Main timer to control movement estimations. */
-  private final Timer timer;
-
-  /** The last time the timer was read, used to determine position changes. */
-  private double lastTime;
-
-  /** Heading of the robot. */
-  private double angle;
-
-  /** Create the swerve drive IMU simulation. */
-  public SwerveGyroSimulation() {
-    timer = new Timer();
-    timer.start();
-    lastTime = timer.get();
-  }
+  /** Heading of the robot, volatile since the odometry thread reads it. */
+  private volatile double angle;
 
   /**
    * Gets the estimated gyro {@link Rotation3d} of the robot.
@@ -35,23 +23,28 @@ public class SwerveGyroSimulation {
   }
 
   /**
-   * Update the odometry of the simulated swerve drive
+   * Turns the simulated robot as much as the modules turned it during the time step.
    *
-   * @param kinematics {@link SwerveDriveKinematics} of the swerve drive.
-   * @param states {@link SwerveModuleState} array of the module states.
+   * @param states {@link SwerveModuleState} array of the simulated module states.
+   * @param dtSeconds How long the modules moved for.
    */
-  public void updateOdometry(SwerveModuleState[] states) {
-
+  public void updateOdometry(SwerveModuleState[] states, double dtSeconds) {
     angle +=
         SwerveModuleConstants.kDriveKinematics.toChassisSpeeds(states).omegaRadiansPerSecond
-            * (timer.get() - lastTime);
-    lastTime = timer.get();
+            * dtSeconds;
   }
 
   public Rotation2d getRotation2d() {
     return Rotation2d.fromRadians(angle);
   }
 
+  /**
+   * @return The heading of the robot in radians.
+   */
+  public double getAngle() {
+    return angle;
+  }
+
   /**
    * Set the heading of the robot.
    *
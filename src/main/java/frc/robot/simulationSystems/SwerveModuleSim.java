@@ -1,61 +1,120 @@
 package frc.robot.simulationSystems;
 
+import edu.wpi.first.math.MathUtil;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.kinematics.SwerveModulePosition;
 import edu.wpi.first.math.kinematics.SwerveModuleState;
 import edu.wpi.first.math.system.plant.DCMotor;
-import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.math.util.Units;
 import edu.wpi.first.wpilibj.simulation.DCMotorSim;
+import frc.robot.Constants.DriveConstants.NeoMotorConstants;
 import frc.robot.Constants.ModuleConstants;
 
+/**
+ * Simulates a MAXSwerve module with a {@link DCMotorSim} for the driving and the turning motor.
+ *
+ * <p>The SPARKS MAX's closed loops are simulated with the gains from {@link ModuleConstants}, so
+ * the module accelerates and turns like the real one instead of jumping to the desired state.
+ * Nothing moves until {@link #update(double)} is called, which the drive subsystem does with a
+ * fixed time step from its simulationPeriodic, so the simulation doesn't depend on how busy the
+ * computer is.
+ */
 public class SwerveModuleSim {
-  /** Main timer to simulate the passage of time. */
-  private final Timer timer;
+  /**
+   * A NEO without its free current, so full output is exactly the free speed the driving
+   * feedforward is calculated from.
+   */
+  private static final DCMotor kDrivingMotor =
+      new DCMotor(
+          DCMotor.getNEO(1).nominalVoltageVolts,
+          DCMotor.getNEO(1).stallTorqueNewtonMeters,
+          DCMotor.getNEO(1).stallCurrentAmps,
+          0,
+          Units.rotationsPerMinuteToRadiansPerSecond(NeoMotorConstants.kFreeSpeedRpm),
+          1);
 
-  /** Time delta since last update */
-  private double dt;
+  private static final double kWheelRadiusMeters = ModuleConstants.kWheelDiameterMeters / 2;
 
-  /** Fake motor position. */
-  private double fakePos;
+  private final DCMotorSim driveMotorSim =
+      new DCMotorSim(
+          kDrivingMotor,
+          ModuleConstants.kDrivingMotorReduction,
+          ModuleConstants.kDrivingSimMomentOfInertia);
 
-  /**
-   * The fake speed of the previous state, used to calculate {@link SwerveModuleSimulation#fakePos}.
-   */
-  private double fakeSpeed;
+  private final DCMotorSim turnMotorSim =
+      new DCMotorSim(
+          DCMotor.getNeo550(1),
+          ModuleConstants.kTurningMotorReduction,
+          ModuleConstants.kTurningSimMomentOfInertia);
 
-  /** Last time queried. */
-  private double lastTime;
+  /** The desired state, relative to the chassis. Kept as two fields so the caller can reuse it. */
+  private double desiredSpeedMetersPerSecond = 0;
 
-  /** Current simulated swerve module state. */
-  private SwerveModuleState state;
+  private double desiredAngleRadians = 0;
 
-  private DCMotorSim driveMotorSim =
-      new DCMotorSim(DCMotor.getNEO(1), ModuleConstants.kDrivingMotorReduction, 0.025);
+  /** Simulated distance driven, volatile since the odometry thread reads it. */
+  private volatile double distanceMeters = 0;
 
-  public SwerveModuleSim() {
-    timer = new Timer();
-    timer.start();
-    lastTime = timer.get();
-    state = new SwerveModuleState(0, Rotation2d.fromDegrees(0));
-    fakeSpeed = 0;
-    fakePos = 0;
-    dt = 0;
-  }
+  /** Current simulated swerve module angle, relative to the chassis. */
+  private volatile Rotation2d angle = new Rotation2d();
+
+  /** Current simulated swerve module speed. */
+  private volatile double speedMetersPerSecond = 0;
 
   /**
-   * Update the position and state of the module.
+   * Sets the state the simulated SPARKS MAX drive to, the module only moves in {@link
+   * #update(double)}.
    *
-   * <p>WARNING: need to be called periodically for simulation to work correctly.
+   * @param desiredState State the swerve module should be set to, relative to the chassis.
+   */
+  public void setDesiredState(SwerveModuleState desiredState) {
+    desiredSpeedMetersPerSecond = desiredState.speedMetersPerSecond;
+    desiredAngleRadians = desiredState.angle.getRadians();
+  }
+
+  /**
+   * Steps the simulation, running the closed loops every {@link ModuleConstants#kSimSubsteps} of
+   * the time step like the SPARKS MAX run theirs faster than the robot loop.
    *
-   * @param desiredState State the swerve module should be set to.
+   * @param dtSeconds How long to simulate, should be the same every call.
    */
-  public void updateStateAndPosition(SwerveModuleState desiredState) {
-    dt = timer.get() - lastTime;
-    lastTime = timer.get();
+  public void update(double dtSeconds) {
+    final double substep = dtSeconds / ModuleConstants.kSimSubsteps;
+    for (int i = 0; i < ModuleConstants.kSimSubsteps; i++) {
+      final double currentAngle = turnMotorSim.getAngularPositionRad();
+      double speed = desiredSpeedMetersPerSecond;
+      double angleError = MathUtil.angleModulus(desiredAngleRadians - currentAngle);
+      // Same optimization as the module, never turn further than 90 degrees.
+      if (Math.abs(angleError) > Math.PI / 2) {
+        speed = -speed;
+        angleError = MathUtil.angleModulus(angleError + Math.PI);
+      }
+
+      final double turnOutput =
+          MathUtil.clamp(
+              ModuleConstants.kTurningP * angleError,
+              ModuleConstants.kTurningMinOutput,
+              ModuleConstants.kTurningMaxOutput);
+      final double driveOutput =
+          MathUtil.clamp(
+              ModuleConstants.kDrivingFF * speed
+                  + ModuleConstants.kDrivingP * (speed - getWheelSpeedMetersPerSecond()),
+              ModuleConstants.kDrivingMinOutput,
+              ModuleConstants.kDrivingMaxOutput);
+
+      turnMotorSim.setInputVoltage(turnOutput * ModuleConstants.kSimNominalVoltage);
+      driveMotorSim.setInputVoltage(driveOutput * ModuleConstants.kSimNominalVoltage);
+      turnMotorSim.update(substep);
+      driveMotorSim.update(substep);
+    }
+
+    angle = new Rotation2d(MathUtil.angleModulus(turnMotorSim.getAngularPositionRad()));
+    speedMetersPerSecond = getWheelSpeedMetersPerSecond();
+    distanceMeters = driveMotorSim.getAngularPositionRad() * kWheelRadiusMeters;
+  }
 
-    state = desiredState;
-    fakeSpeed = desiredState.speedMetersPerSecond;
-    fakePos += (fakeSpeed * dt);
+  private double getWheelSpeedMetersPerSecond() {
+    return driveMotorSim.getAngularVelocityRadPerSec() * kWheelRadiusMeters;
   }
 
   /**
@@ -64,7 +123,7 @@ public class SwerveModuleSim {
    * @return {@link SwerveModulePosition} of the simulated module.
    */
   public SwerveModulePosition getPosition() {
-    return new SwerveModulePosition(fakePos, state.angle);
+    return new SwerveModulePosition(distanceMeters, angle);
   }
 
   /**
@@ -73,6 +132,27 @@ public class SwerveModuleSim {
    * @return {@link SwerveModuleState} of the simulated module.
    */
   public SwerveModuleState getState() {
-    return state;
+    return new SwerveModuleState(speedMetersPerSecond, angle);
+  }
+
+  /**
+   * @return The distance driven by the simulated module in meters.
+   */
+  public double getDistanceMeters() {
+    return distanceMeters;
+  }
+
+  /**
+   * @return The speed of the simulated module in meters per second.
+   */
+  public double getSpeedMetersPerSecond() {
+    return speedMetersPerSecond;
+  }
+
+  /**
+   * @return The angle of the simulated module.
+   */
+  public Rotation2d getAngle() {
+    return angle;
   }
 }
@@ -3,7 +3,6 @@ package frc.robot.subsystems;
 import com.revrobotics.CANSparkBase.ControlType;
 import com.revrobotics.CANSparkLowLevel.MotorType;
 import com.revrobotics.RelativeEncoder;
-import com.revrobotics.SparkPIDController;
 import com.revrobotics.SparkPIDController.ArbFFUnits;
 import com.revrobotics.SparkRelativeEncoder;
 import edu.wpi.first.math.MathUtil;
@@ -11,37 +10,54 @@ import edu.wpi.first.math.controller.ArmFeedforward;
 import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.Command;
-import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import frc.robot.Constants.IntakeConstants;
 import frc.robot.Constants.IntakeConstants.ArmPIDConstants;
 import frc.robot.commands.MoveArmToPositionCommand;
 import frc.utils.ExtraFunctions;
+import frc.utils.TimedSubsystem;
 import frc.utils.sim_utils.CANSparkMAXWrapped;
-
-public class ArmSubsystem extends SubsystemBase implements AutoCloseable {
+import frc.utils.sim_utils.SparkMAXConfig;
+import frc.utils.sim_utils.SparkMAXConfigurator;
+import frc.utils.sim_utils.StatusFrameProfile;
+import frc.utils.telemetry.DoubleEntry;
+import frc.utils.telemetry.Telemetry;
+import frc.utils.telemetry.Telemetry.Verbosity;
+
+public class ArmSubsystem extends TimedSubsystem implements AutoCloseable {
   // We only have RelativeEncoder for now. Its better than nothing.
   private final CANSparkMAXWrapped arm;
   private final CANSparkMAXWrapped armFollower;
-  private final RelativeEncoder encoder;
-  private final SparkPIDController pidController;
+  // Set once the arm SPARK MAX is configured, see setupSparkMax().
+  private RelativeEncoder encoder;
   private final ArmFeedforward feedforward;
 
   private static final double kArmParallelDifference = 0.00339;
 
   private double desiredPosition = 0;
 
-  public ArmSubsystem() {
-    arm = new CANSparkMAXWrapped(IntakeConstants.kArmMotorCanID, MotorType.kBrushed);
+  private final DoubleEntry feedForwardEntry =
+      Telemetry.addDouble("FeedForward Calculation", Verbosity.DEBUG, 0);
+  private final DoubleEntry setpointEntry =
+      Telemetry.addDouble("Setpoint", Verbosity.COMPETITION, 0);
+  private final DoubleEntry encoderPositionEntry =
+      Telemetry.addDouble("Arm Encoder Position", Verbosity.COMPETITION, 0);
+
+  /**
+   * @param sparkMAXConfigurator configures the SPARK MAXes, wait for it before using the arm.
+   */
+  public ArmSubsystem(SparkMAXConfigurator sparkMAXConfigurator) {
+    arm =
+        new CANSparkMAXWrapped(
+            IntakeConstants.kArmMotorCanID, MotorType.kBrushed, StatusFrameProfile.ARM);
     armFollower =
-        new CANSparkMAXWrapped(IntakeConstants.kArmFollowerMotorCanID, MotorType.kBrushed);
-    armFollower.follow(arm, true); // Inverted
-    arm.restoreFactoryDefaults();
-    encoder = arm.getEncoder(SparkRelativeEncoder.Type.kQuadrature, IntakeConstants.kArmEncoderCPR);
-    pidController = arm.getPIDController();
+        new CANSparkMAXWrapped(
+            IntakeConstants.kArmFollowerMotorCanID,
+            MotorType.kBrushed,
+            StatusFrameProfile.FOLLOWER);
+    setupSparkMax(sparkMAXConfigurator);
     feedforward = new ArmFeedforward(ArmPIDConstants.kS, ArmPIDConstants.kG, ArmPIDConstants.kV);
 
     SmartDashboard.putNumber("Arm Pos", 0);
-    setupSparkMax();
   }
 
   /**
@@ -49,28 +65,51 @@ public class ArmSubsystem extends SubsystemBase implements AutoCloseable {
    * conversion factors for the encoder, setting the idle mode, and setting the smart current limit.
    * This method is here incase we want to switch to a different motor controller.
    */
-  private void setupSparkMax() {
-    arm.setInverted(false);
-    encoder.setPositionConversionFactor(IntakeConstants.kArmEncoderPositionFactor);
-    pidController.setFeedbackDevice(encoder);
-
-    pidController.setP(IntakeConstants.ArmPIDConstants.kP);
-    pidController.setI(IntakeConstants.ArmPIDConstants.kI);
-    pidController.setD(IntakeConstants.ArmPIDConstants.kD);
-    pidController.setFF(IntakeConstants.ArmPIDConstants.kFF);
-    pidController.setIMaxAccum(0.1, 0);
-    pidController.setOutputRange(-0.2, 0.7); // I don't think we need these as Constants in a file.
-
-    arm.setIdleMode(IntakeConstants.kArmMotorIdleMode);
-    arm.setSmartCurrentLimit(IntakeConstants.kSmartCurrentLimit);
-
-    arm.burnFlash();
+  private void setupSparkMax(SparkMAXConfigurator configurator) {
+    var armConfig =
+        new SparkMAXConfig()
+            .inverted(false)
+            // Made after the factory reset, so the encoder type and CPR aren't reset with it.
+            .set(
+                "Encoder",
+                "Quadrature " + IntakeConstants.kArmEncoderCPR,
+                sparkMAX ->
+                    sparkMAX.configurePIDController(
+                        pid -> pid.setFeedbackDevice(getArmEncoder(sparkMAX))))
+            .setDouble(
+                "Position Conversion Factor",
+                IntakeConstants.kArmEncoderPositionFactor,
+                sparkMAX ->
+                    getArmEncoder(sparkMAX)
+                        .setPositionConversionFactor(IntakeConstants.kArmEncoderPositionFactor),
+                sparkMAX -> getArmEncoder(sparkMAX).getPositionConversionFactor())
+            .pidGains(
+                ArmPIDConstants.kP, ArmPIDConstants.kI, ArmPIDConstants.kD, ArmPIDConstants.kFF)
+            .setPID("I Max Accum", 0.1, pid -> pid.setIMaxAccum(0.1, 0))
+            // I don't think we need these as Constants in a file.
+            .setPID("Output Range", "-0.2 0.7", pid -> pid.setOutputRange(-0.2, 0.7))
+            .idleMode(IntakeConstants.kArmMotorIdleMode)
+            .smartCurrentLimit(IntakeConstants.kSmartCurrentLimit);
+    var followerConfig = new SparkMAXConfig().follow(arm, true); // Inverted
+
+    // Configured along with every other SPARK MAX, RobotContainer waits for them. Configuring makes
+    // the encoder after the factory reset, this gets the same one.
+    configurator.configureAsync(arm, armConfig, () -> encoder = getArmEncoder(arm));
+    configurator.configureAsync(armFollower, followerConfig);
+  }
+
+  private static RelativeEncoder getArmEncoder(CANSparkMAXWrapped sparkMAX) {
+    return sparkMAX.getEncoder(
+        SparkRelativeEncoder.Type.kQuadrature, IntakeConstants.kArmEncoderCPR);
   }
 
   @Override
   public void close() {
     arm.close();
     armFollower.close();
+    feedForwardEntry.close();
+    setpointEntry.close();
+    encoderPositionEntry.close();
   }
 
   /**
@@ -104,6 +143,13 @@ public class ArmSubsystem extends SubsystemBase implements AutoCloseable {
     return desiredPosition;
   }
 
+  /**
+   * @return the position the arm is at right now. (from 0 to 1)
+   */
+  public double getArmPosition() {
+    return encoder.getPosition();
+  }
+
   public void resetEncoder() {
     encoder.setPosition(0);
   }
@@ -127,10 +173,9 @@ public class ArmSubsystem extends SubsystemBase implements AutoCloseable {
         feedforward.calculate(
             (position - kArmParallelDifference) * Math.PI,
             Math.abs(encoder.getPosition() - position));
-    SmartDashboard.putNumber("FeedForward Calculation", calculation);
-    SmartDashboard.putNumber("Setpoint", position);
-    pidController.setReference(
-        position, ControlType.kPosition, 0, calculation, ArbFFUnits.kVoltage);
+    feedForwardEntry.set(calculation);
+    setpointEntry.set(position);
+    arm.setReference(position, ControlType.kPosition, 0, calculation, ArbFFUnits.kVoltage);
   }
 
   /**
@@ -157,12 +202,17 @@ public class ArmSubsystem extends SubsystemBase implements AutoCloseable {
     return this.setArmToPositionCommand(positionDegrees / 180.0);
   }
 
-  public void setArmToAprilTag() {
+  /**
+   * Sets the arm to an angle from how big the speaker's middle tag looks to the camera.
+   *
+   * @param cameraSystem the camera to look for the tag with.
+   */
+  public void setArmToAprilTag(PhotonCameraSystem cameraSystem) {
     var currentAlliance = DriverStation.getAlliance().orElse(DriverStation.Alliance.Blue);
     boolean isBlueAlliance = currentAlliance == DriverStation.Alliance.Blue;
     int idToTrack = isBlueAlliance ? 7 : 4; // 7 is blue mid speaker, 4 is red mid speaker
 
-    var target = PhotonCameraSystem.getAprilTagWithID(idToTrack);
+    var target = cameraSystem.getAprilTagWithID(idToTrack);
 
     if (target.isEmpty()) {
       return;
@@ -176,7 +226,9 @@ public class ArmSubsystem extends SubsystemBase implements AutoCloseable {
   }
 
   @Override
-  public void periodic() {
-    SmartDashboard.putNumber("Arm Encoder Position", encoder.getPosition());
+  protected void timedPeriodic() {
+    encoderPositionEntry.set(encoder.getPosition());
+    arm.updateTelemetry();
+    armFollower.updateTelemetry();
   }
 }
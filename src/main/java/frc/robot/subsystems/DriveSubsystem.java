@@ -10,32 +10,55 @@ import edu.wpi.first.math.MathUtil;
 import edu.wpi.first.math.estimator.SwerveDrivePoseEstimator;
 import edu.wpi.first.math.filter.SlewRateLimiter;
 import edu.wpi.first.math.geometry.Pose2d;
-import edu.wpi.first.math.geometry.Pose3d;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.kinematics.ChassisSpeeds;
 import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
 import edu.wpi.first.math.kinematics.SwerveModulePosition;
 import edu.wpi.first.math.kinematics.SwerveModuleState;
+import edu.wpi.first.networktables.NetworkTableEntry;
 import edu.wpi.first.networktables.NetworkTableInstance;
-import edu.wpi.first.networktables.StructArrayPublisher;
 import edu.wpi.first.util.WPIUtilJNI;
 import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.DriverStation.Alliance;
 import edu.wpi.first.wpilibj.RobotBase;
+import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.smartdashboard.Field2d;
+import edu.wpi.first.wpilibj.smartdashboard.FieldObject2d;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
-import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.robot.Constants.AutoConstants;
 import frc.robot.Constants.AutoConstants.DrivePIDController;
 import frc.robot.Constants.AutoConstants.RotationPIDController;
+import frc.robot.Constants.CameraConstants;
 import frc.robot.Constants.DriveConstants;
 import frc.robot.Constants.DriveConstants.MotorConstants;
 import frc.robot.Constants.DriveConstants.SwerveModuleConstants;
+import frc.robot.Constants.ModuleConstants;
 import frc.robot.Constants.OIConstants;
+import frc.robot.Constants.ShooterConstants;
+import frc.robot.Constants.TelemetryConstants;
+import frc.robot.RobotStateFrame;
 import frc.robot.simulationSystems.SwerveGyroSimulation;
-import frc.utils.ExtraFunctions;
+import frc.utils.ArmAngleTable;
+import frc.utils.FieldGeometry;
+import frc.utils.FieldGeometry.Target;
+import frc.utils.OdometryThread;
+import frc.utils.ShotSolver;
+import frc.utils.SwerveSetpointGenerator;
 import frc.utils.SwerveUtils;
-import java.util.Optional;
-
-public class DriveSubsystem extends SubsystemBase implements AutoCloseable {
+import frc.utils.TimedSubsystem;
+import frc.utils.VisionFusion;
+import frc.utils.sim_utils.SparkMAXConfigurator;
+import frc.utils.sim_utils.SparkMAXSimAddon;
+import frc.utils.telemetry.BooleanEntry;
+import frc.utils.telemetry.DoubleEntry;
+import frc.utils.telemetry.StringEntry;
+import frc.utils.telemetry.StructArrayEntry;
+import frc.utils.telemetry.Telemetry;
+import frc.utils.telemetry.Telemetry.Verbosity;
+import java.util.concurrent.CompletableFuture;
+import org.photonvision.EstimatedRobotPose;
+
+public class DriveSubsystem extends TimedSubsystem implements AutoCloseable {
   private final AHRS navX = new AHRS();
   private Field2d field = new Field2d();
 
@@ -90,20 +113,147 @@ public class DriveSubsystem extends SubsystemBase implements AutoCloseable {
           },
           new Pose2d());
 
-  StructArrayPublisher<SwerveModuleState> publisher =
-      NetworkTableInstance.getDefault()
-          .getStructArrayTopic("Swerve", SwerveModuleState.struct)
-          .publish();
+  private final StructArrayEntry<SwerveModuleState> swerveEntry =
+      Telemetry.addStructArray(
+          NetworkTableInstance.getDefault().getStructArrayTopic("Swerve", SwerveModuleState.struct),
+          Verbosity.COMPETITION,
+          0);
+  private final DoubleEntry rotationEntry =
+      Telemetry.addDouble("Rotation", Verbosity.COMPETITION, 0);
+  private final DoubleEntry rotationRadiansEntry =
+      Telemetry.addDouble("Rotation-Radians", Verbosity.DEBUG, 0);
+  private final BooleanEntry forceRobotOrientedEntry =
+      Telemetry.addBoolean("Force Robot Oriented", Verbosity.COMPETITION, 0);
+  private final BooleanEntry aprilTagSeenEntry =
+      Telemetry.addBoolean("AprilTag Seen", Verbosity.COMPETITION, 0);
+  private final DoubleEntry distanceToShooterEntry =
+      Telemetry.addDouble("Distance To Shooter", Verbosity.COMPETITION, 0);
+  private final DoubleEntry rotationDifferenceToShooterEntry =
+      Telemetry.addDouble("Rotation Difference to Shooter", Verbosity.DEBUG, 0);
+  private final DoubleEntry armAngleRequiredEntry =
+      Telemetry.addDouble("Arm Angle Required", Verbosity.DEBUG, 0);
+  private final DoubleEntry xSpeedEntry = Telemetry.addDouble("xSpeed: ", Verbosity.DEBUG, 0);
+  private final DoubleEntry ySpeedEntry = Telemetry.addDouble("ySpeed: ", Verbosity.DEBUG, 0);
+  private final FieldObject2d xModulesObject = field.getObject("XModules");
+  private double lastXModulesPublish = Double.NEGATIVE_INFINITY;
+
+  private final MAXSwerveModule[] modules = {frontLeft, frontRight, rearLeft, rearRight};
+  private final SparkMAXSimAddon sparkMAXes = new SparkMAXSimAddon();
+
+  // Everything below is reused every loop instead of allocated, the pose estimator and the
+  // publisher copy what they keep. Order is always front left, front right, rear left, rear right.
+  private final SwerveModulePosition[] modulePositions = newModulePositions();
+  private final SwerveModulePosition[] sampledPositions = newModulePositions();
+  private final double[] sampledAngles = {Double.NaN, Double.NaN, Double.NaN, Double.NaN};
+  private final SwerveModuleState[] moduleStates = newModuleStates();
+  private final SwerveModuleState[] targetStates = newModuleStates();
+  private final SwerveModuleState[] simulatedStates = newModuleStates();
+  private final SwerveSetpointGenerator setpointGenerator =
+      new SwerveSetpointGenerator(
+          SwerveModuleConstants.kModuleTranslations,
+          DriveConstants.kMaxSpeedMetersPerSecond,
+          DriveConstants.kMaxDriveAccelerationMetersPerSecondSquared,
+          DriveConstants.kMaxSteeringVelocityRadiansPerSecond,
+          DriveConstants.kLoopPeriodSeconds);
+  // False when the modules were last driven without the generator, so it has to be reset.
+  private boolean setpointGeneratorInUse = false;
+  // True while warmUp() runs drive(), the module states are calculated but not sent.
+  private boolean dryRun = false;
+  private int warmUpCount = 0;
+  private final Rotation2d[] warmUpSavedAngles = new Rotation2d[4];
+  private final SwerveModuleState[] xStates = {
+    new SwerveModuleState(0, Rotation2d.fromDegrees(45)),
+    new SwerveModuleState(0, Rotation2d.fromDegrees(-45)),
+    new SwerveModuleState(0, Rotation2d.fromDegrees(-45)),
+    new SwerveModuleState(0, Rotation2d.fromDegrees(45))
+  };
+  private final SwerveModuleState[] desiredStates = {
+    frontLeft.getDesiredState(),
+    frontRight.getDesiredState(),
+    rearLeft.getDesiredState(),
+    rearRight.getDesiredState()
+  };
+  private final Pose2d[] xModulePoses = new Pose2d[modules.length];
+
+  private final OdometryThread odometryThread =
+      new OdometryThread(this::sampleOdometry, modules.length, DriveConstants.kOdometryFrequencyHz);
+  private final OdometryThread.SampleConsumer odometrySampleConsumer = this::addOdometrySample;
+  private int odometrySamplesLastLoop = 0;
+  // Nothing moves the pose until startOdometry(), the encoders aren't configured before that.
+  private boolean odometryStarted = false;
+
+  private final VisionThread visionThread;
+  private double lastAprilTagSeenSeconds = Double.NEGATIVE_INFINITY;
+  private final VisionFusion visionFusion = new VisionFusion();
+  private final FieldGeometry fieldGeometry;
+  private final ArmAngleTable armAngleTable;
+  private final ShotSolver shotSolver = new ShotSolver();
+  private final NetworkTableEntry moveByEntry;
+  private final StringEntry visionDecisionEntry =
+      Telemetry.addString("Vision Decision", Verbosity.DEBUG, 0);
+  private final DoubleEntry visionStdDevEntry =
+      Telemetry.addDouble("Vision XY StdDev", Verbosity.DEBUG, 0);
+
+  private static final Rotation2d kNoRotation = new Rotation2d();
+  private static final double[][] kForwardKinematics =
+      forwardKinematics(
+          SwerveModuleConstants.kDriveKinematics, SwerveModuleConstants.kModuleTranslations.length);
+
+  // Read once per loop by readSensors(), and handed to everyone else through the frame.
+  private Rotation2d sensorYaw = new Rotation2d();
+  private double sensorYawRate = 0;
+  // Robot relative, worked out from moduleStates.
+  private final ChassisSpeeds measuredSpeeds = new ChassisSpeeds();
+  // A new one every loop, so whoever keeps one keeps what it was.
+  private RobotStateFrame frame = new RobotStateFrame(modules.length);
+  // Worked out by updateShooterTargeting() for the next frame.
+  private double distanceToShooter = 0;
+  private double geometricDistanceToShooter = 0;
+  private Rotation2d rotationDifferenceToShooter = kNoRotation;
+  private Pose2d lastFieldPose;
+
+  /**
+   * Aims the arm with {@link ArmAngleTable#quadratic()}.
+   *
+   * @param cameraSystem the camera the poses are estimated from, it is not closed with this.
+   * @param sparkMAXConfigurator configures the SPARK MAXes of the modules, wait for it before
+   *     {@link #startOdometry()}.
+   */
+  public DriveSubsystem(
+      PhotonCameraSystem cameraSystem, SparkMAXConfigurator sparkMAXConfigurator) {
+    this(
+        CompletableFuture.completedFuture(cameraSystem),
+        CompletableFuture.completedFuture(ArmAngleTable.quadratic()),
+        sparkMAXConfigurator);
+  }
 
-  public DriveSubsystem() {
-    // Do nothing
+  /**
+   * Sets up everything but the vision first, so the camera system can load the field layout on
+   * another thread in the meantime.
+   *
+   * @param cameraSystem completes with the camera the poses are estimated from, it is not closed
+   *     with this.
+   * @param armAngleTable completes with the table the arm is aimed with.
+   * @param sparkMAXConfigurator configures the SPARK MAXes of the modules, wait for it before
+   *     {@link #startOdometry()}.
+   */
+  public DriveSubsystem(
+      CompletableFuture<PhotonCameraSystem> cameraSystem,
+      CompletableFuture<ArmAngleTable> armAngleTable,
+      SparkMAXConfigurator sparkMAXConfigurator) {
+    for (var module : modules) {
+      module.configure(sparkMAXConfigurator);
+      for (var sparkMAX : module.getSparkMAXes()) {
+        sparkMAXes.addSparkMAX(sparkMAX);
+      }
+    }
     AutoBuilder.configureHolonomic(
         this::getPose, // Robot pose supplier
         this::resetOdometry, // Method to reset odometry (will be called if your auto has a starting
         // pose)
         this::getChassisSpeeds, // ChassisSpeeds supplier. MUST BE ROBOT RELATIVE
-        this::driveRobotRelative, // Method that will drive the robot given ROBOT RELATIVE
-        // ChassisSpeeds
+        // Method that will drive the robot given ROBOT RELATIVE ChassisSpeeds
+        this::driveRobotRelative,
         new HolonomicPathFollowerConfig( // HolonomicPathFollowerConfig, this should likely live in
             // your Constants class
             new PIDConstants(
@@ -111,7 +261,7 @@ public class DriveSubsystem extends SubsystemBase implements AutoCloseable {
             new PIDConstants(
                 RotationPIDController.kP, RotationPIDController.kD), // Rotation PID constants
             DriveConstants.kMaxSpeedMetersPerSecond, // Max module speed, in m/s
-            0.55, // Drive base radius in meters. Distance from robot center to furthest module.
+            AutoConstants.kDriveBaseRadiusMeters, // Drive base radius in meters.
             new ReplanningConfig(
                 true, true) // Default path replanning config. See the API for the options
             // here
@@ -129,55 +279,221 @@ public class DriveSubsystem extends SubsystemBase implements AutoCloseable {
         },
         this // Reference to this subsystem to set requirements
         );
+
+    this.armAngleTable = armAngleTable.join();
+    final var camera = cameraSystem.join();
+    visionThread = new VisionThread(camera);
+    fieldGeometry = new FieldGeometry(camera.getFieldLayout());
+    visionThread.start();
+    SmartDashboard.putData(field);
     SmartDashboard.putNumber("Move By", 0);
+    moveByEntry = SmartDashboard.getEntry("Move By");
     if (RobotBase.isSimulation()) {
       SmartDashboard.putNumber("X position", 0);
       SmartDashboard.putNumber("Y position", 0);
     }
+    readSensors();
+    captureFrame();
   }
 
   @Override
-  public void periodic() {
-    var pose =
-        swerveOdometry.update(
-            getRotation2d(),
-            new SwerveModulePosition[] {
-              frontLeft.getPosition(),
-              frontRight.getPosition(),
-              rearLeft.getPosition(),
-              rearRight.getPosition()
-            });
-    field.setRobotPose(pose);
-    updatePoseWithVision();
-    gyroSim.updateOdometry(getModuleDesiredStates());
-    SmartDashboard.putData(field);
-    SmartDashboard.putNumber("Rotation", getRotation2d().getDegrees());
-    SmartDashboard.putNumber("Rotation-Radians", getRotation2d().getRadians());
-    SmartDashboard.putBoolean("Force Robot Oriented", forceRobotOriented);
+  protected void timedPeriodic() {
+    // This subsystem is registered first, so this runs at the top of every scheduler cycle.
+    readSensors();
+    if (odometryStarted) {
+      updateOdometry();
+      updatePoseWithVision();
+    }
+    captureFrame();
 
-    publisher.set(
-        new SwerveModuleState[] {
-          frontLeft.getState(), frontRight.getState(), rearLeft.getState(), rearRight.getState(),
-        });
+    final var pose = frame.getPose();
+    if (!pose.equals(lastFieldPose)) {
+      field.setRobotPose(pose); // Field2d makes a new array every time, even for the same pose
+      lastFieldPose = pose;
+    }
+    rotationEntry.set(frame.getYaw().getDegrees());
+    rotationRadiansEntry.set(frame.getYaw().getRadians());
+    forceRobotOrientedEntry.set(forceRobotOriented);
+
+    distanceToShooterEntry.set(frame.getDistanceToShooter());
+    rotationDifferenceToShooterEntry.set(frame.getRotationDifferenceToShooter().getDegrees());
+    if (armAngleRequiredEntry.isEnabled()) {
+      armAngleRequiredEntry.set(armAngleTable.getAngle(frame.getDistanceToShooter()));
+    }
 
-    field
-        .getObject("XModules")
-        .setPoses(
-            frontLeft.getRealWorldPose(getPose()),
-            frontRight.getRealWorldPose(getPose()),
-            rearLeft.getRealWorldPose(getPose()),
-            rearRight.getRealWorldPose(getPose()));
+    swerveEntry.set(moduleStates);
+    updateXModules(pose);
+    for (var module : modules) {
+      module.updateTelemetry();
+    }
+  }
+
+  @Override
+  public void simulationPeriodic() {
+    // A fixed step, so the simulation is the same however long the loop took.
+    for (int i = 0; i < modules.length; i++) {
+      modules[i].simulationPeriodic(ModuleConstants.kSimPeriodSeconds);
+      modules[i].updateState(simulatedStates[i]);
+    }
+    gyroSim.updateOdometry(simulatedStates, ModuleConstants.kSimPeriodSeconds);
+  }
+
+  /** The modules drawn on the field, only for debugging as it allocates a pose per module. */
+  private void updateXModules(Pose2d pose) {
+    if (!Telemetry.isEnabled(Verbosity.DEBUG)
+        || frame.getTimestampSeconds() - lastXModulesPublish
+            < TelemetryConstants.kDebugPeriodSeconds) {
+      return;
+    }
+    lastXModulesPublish = frame.getTimestampSeconds();
+
+    for (int i = 0; i < modules.length; i++) {
+      xModulePoses[i] = modules[i].getRealWorldPose(pose);
+    }
+    xModulesObject.setPoses(xModulePoses);
+  }
+
+  private static SwerveModuleState[] newModuleStates() {
+    return new SwerveModuleState[] {
+      new SwerveModuleState(), new SwerveModuleState(),
+      new SwerveModuleState(), new SwerveModuleState()
+    };
+  }
+
+  private static SwerveModulePosition[] newModulePositions() {
+    return new SwerveModulePosition[] {
+      new SwerveModulePosition(), new SwerveModulePosition(),
+      new SwerveModulePosition(), new SwerveModulePosition()
+    };
+  }
+
+  /** Reads the gyro and every module once, everything else in the loop uses these values. */
+  private void readSensors() {
+    for (int i = 0; i < modules.length; i++) {
+      modules[i].updatePosition(modulePositions[i]);
+      modules[i].updateState(moduleStates[i]);
+    }
+    final double yawRadians = getYawRadians();
+    if (yawRadians != sensorYaw.getRadians()) {
+      sensorYaw = new Rotation2d(yawRadians);
+    }
+    sensorYawRate = getTurnRate();
+    updateMeasuredSpeeds();
+  }
+
+  /**
+   * Same as {@link SwerveDriveKinematics#toChassisSpeeds(SwerveModuleState...)}, but writes into
+   * {@link #measuredSpeeds} instead of going through new matrices every loop.
+   */
+  private void updateMeasuredSpeeds() {
+    double vx = 0;
+    double vy = 0;
+    double omega = 0;
+    for (int i = 0; i < moduleStates.length; i++) {
+      final var state = moduleStates[i];
+      final double moduleVx = state.speedMetersPerSecond * state.angle.getCos();
+      final double moduleVy = state.speedMetersPerSecond * state.angle.getSin();
+      vx += kForwardKinematics[0][i * 2] * moduleVx + kForwardKinematics[0][i * 2 + 1] * moduleVy;
+      vy += kForwardKinematics[1][i * 2] * moduleVx + kForwardKinematics[1][i * 2 + 1] * moduleVy;
+      omega +=
+          kForwardKinematics[2][i * 2] * moduleVx + kForwardKinematics[2][i * 2 + 1] * moduleVy;
+    }
+    measuredSpeeds.vxMetersPerSecond = vx;
+    measuredSpeeds.vyMetersPerSecond = vy;
+    measuredSpeeds.omegaRadiansPerSecond = omega;
+  }
+
+  /**
+   * Reads the forward kinematics matrix out of the kinematics, by converting one module moving at 1
+   * m/s in x or y at a time.
+   *
+   * @return the matrix, rows vx, vy and omega, columns the x and y speed of every module.
+   */
+  private static double[][] forwardKinematics(SwerveDriveKinematics kinematics, int moduleCount) {
+    var matrix = new double[3][moduleCount * 2];
+    for (int column = 0; column < moduleCount * 2; column++) {
+      var states = newModuleStates();
+      states[column / 2] =
+          new SwerveModuleState(1, column % 2 == 0 ? new Rotation2d() : Rotation2d.fromDegrees(90));
+      var speeds = kinematics.toChassisSpeeds(states);
+      matrix[0][column] = speeds.vxMetersPerSecond;
+      matrix[1][column] = speeds.vyMetersPerSecond;
+      matrix[2][column] = speeds.omegaRadiansPerSecond;
+    }
+    return matrix;
+  }
+
+  private void captureFrame() {
+    final double timestampSeconds = Timer.getFPGATimestamp();
+    final var pose = getPose();
+    final var alliance = readAlliance();
+    updateShooterTargeting(pose, alliance);
+    frame =
+        new RobotStateFrame(
+            timestampSeconds,
+            pose,
+            sensorYaw,
+            sensorYawRate,
+            modulePositions,
+            moduleStates,
+            alliance,
+            DriverStation.getMatchTime(),
+            distanceToShooter,
+            geometricDistanceToShooter,
+            rotationDifferenceToShooter);
+  }
+
+  /** Same as {@link DriverStation#getAlliance()}, without a new Optional every loop. */
+  private static Alliance readAlliance() {
+    switch (DriverStation.getRawAllianceStation()) {
+      case Red1:
+      case Red2:
+      case Red3:
+        return Alliance.Red;
+      case Blue1:
+      case Blue2:
+      case Blue3:
+        return Alliance.Blue;
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * The frame captured at the start of this scheduler cycle. Subsystems and commands should read
+   * from this instead of the hardware so that they all see the same values. Every loop captures a
+   * new frame, a kept one doesn't change.
+   *
+   * @return the latest {@link RobotStateFrame}.
+   */
+  public RobotStateFrame getFrame() {
+    return frame;
   }
 
   @Override
   public void close() {
+    // Stop sampling before the modules get closed under the odometry thread.
+    odometryThread.close();
+    visionThread.close();
+    visionDecisionEntry.close();
+    visionStdDevEntry.close();
+
     frontLeft.close();
     frontRight.close();
     rearLeft.close();
     rearRight.close();
 
     field.close();
-    publisher.close();
+    swerveEntry.close();
+    rotationEntry.close();
+    rotationRadiansEntry.close();
+    forceRobotOrientedEntry.close();
+    aprilTagSeenEntry.close();
+    distanceToShooterEntry.close();
+    rotationDifferenceToShooterEntry.close();
+    armAngleRequiredEntry.close();
+    xSpeedEntry.close();
+    ySpeedEntry.close();
 
     // closing navX with Reflection shenanigans
     closeNavX();
@@ -205,69 +521,185 @@ public class DriveSubsystem extends SubsystemBase implements AutoCloseable {
     } // .get can throw TOO MANY exceptions
   }
 
+  /**
+   * Starts the odometry, call it once the SPARK MAXes of the modules are configured. Before that
+   * the encoders don't have their conversion factors yet, so neither the odometry nor the vision
+   * move the pose, and the odometry thread isn't started with this subsystem.
+   */
+  public void startOdometry() {
+    if (odometryStarted) {
+      throw new IllegalStateException("The odometry is already started");
+    }
+    odometryStarted = true;
+    // The estimator was made from the unconfigured encoders, start from the configured ones.
+    readSensors();
+    swerveOdometry.resetPosition(sensorYaw, modulePositions, getPose());
+    setHighRateOdometry(DriveConstants.kUseHighRateOdometry);
+    captureFrame();
+  }
+
+  /**
+   * Switches between sampling odometry on its own thread and sampling it once per robot loop.
+   *
+   * @param enabled true to use the odometry thread, false for a single sample per loop.
+   */
+  public void setHighRateOdometry(boolean enabled) {
+    if (enabled) {
+      odometryThread.start();
+    } else {
+      odometryThread.stop();
+    }
+  }
+
+  public boolean isHighRateOdometry() {
+    return odometryThread.isRunning();
+  }
+
+  /**
+   * @return the amount of odometry samples that were fed to the pose estimator in the last loop.
+   */
+  public int getOdometrySamplesLastLoop() {
+    return odometrySamplesLastLoop;
+  }
+
+  private void updateOdometry() {
+    if (!odometryThread.isRunning()) {
+      swerveOdometry.update(sensorYaw, modulePositions);
+      odometrySamplesLastLoop = 1;
+      return;
+    }
+
+    odometrySamplesLastLoop = odometryThread.drain(odometrySampleConsumer);
+  }
+
+  /** Called from the odometry thread. */
+  private double sampleOdometry(double[] distances, double[] angles) {
+    for (int i = 0; i < modules.length; i++) {
+      distances[i] = modules[i].getDistanceMeters();
+      angles[i] = modules[i].getAngleRadians();
+    }
+    return getYawRadians();
+  }
+
+  private void addOdometrySample(
+      double timestampSeconds, double yawRadians, double[] distances, double[] angles) {
+    for (int i = 0; i < sampledPositions.length; i++) {
+      sampledPositions[i].distanceMeters = distances[i];
+      // Module angles rarely change between samples, keep the old rotation when they don't.
+      if (angles[i] != sampledAngles[i]) {
+        sampledAngles[i] = angles[i];
+        sampledPositions[i].angle = new Rotation2d(angles[i]);
+      }
+    }
+    swerveOdometry.updateWithTime(timestampSeconds, new Rotation2d(yawRadians), sampledPositions);
+  }
+
+  /** Adds every pose the vision thread estimated since the last loop, oldest first. */
   private void updatePoseWithVision() {
-    var poseOpt = PhotonCameraSystem.getEstimatedGlobalPose(field.getRobotPose());
-    SmartDashboard.putBoolean("AprilTag Seen", poseOpt.isPresent());
-    if (poseOpt.isPresent() && poseOpt.get().targetsUsed.size() > 1) {
-      // Do not use the rotation from the vision system in any situation as the data we receive is
-      // not reliable. navX rotation is A LOT MORE reliable so we will use that instead.
-      Pose2d receivedPose = poseOpt.get().estimatedPose.toPose2d();
-      Pose2d poseToUse = new Pose2d(receivedPose.getTranslation(), getRotation2d());
-      swerveOdometry.addVisionMeasurement(poseToUse, poseOpt.get().timestampSeconds);
+    visionThread.setReferencePose(getPose());
+
+    EstimatedRobotPose estimate;
+    while ((estimate = visionThread.poll()) != null) {
+      lastAprilTagSeenSeconds = Timer.getFPGATimestamp();
+      var decision = visionFusion.evaluate(estimate, getPose());
+      visionDecisionEntry.set(decision.name());
+      if (decision != VisionFusion.Decision.ACCEPTED) {
+        continue;
+      }
+      // Do not use the rotation from the vision system in any situation as the data we receive
+      // is not reliable. navX rotation is A LOT MORE reliable so we will use that instead.
+      Pose2d receivedPose = estimate.estimatedPose.toPose2d();
+      Pose2d poseToUse = new Pose2d(receivedPose.getTranslation(), sensorYaw);
+      swerveOdometry.addVisionMeasurement(
+          poseToUse, estimate.timestampSeconds, visionFusion.getStdDevs());
+      visionStdDevEntry.set(visionFusion.getStdDevs().get(0, 0));
     }
+    visionThread.updateTelemetry();
+    aprilTagSeenEntry.set(
+        Timer.getFPGATimestamp() - lastAprilTagSeenSeconds
+            < CameraConstants.kAprilTagSeenHoldSeconds);
+  }
 
-    SmartDashboard.putNumber("Distance To Shooter", getDistanceToShooter());
+  /**
+   * @return the SPARK MAXes of the modules, by CAN ID.
+   */
+  public SparkMAXSimAddon getSparkMAXes() {
+    return sparkMAXes;
+  }
 
-    SmartDashboard.putNumber(
-        "Rotation Difference to Shooter", getRotationDifferenceToShooter().getDegrees());
+  /**
+   * @return the table the arm is aimed with, from the distance to the shooter.
+   */
+  public ArmAngleTable getArmAngleTable() {
+    return armAngleTable;
+  }
 
-    SmartDashboard.putNumber(
-        "Arm Angle Required", ExtraFunctions.getAngleFromDistance(getDistanceToShooter()));
+  /**
+   * @return the thread that estimates the robot's pose from the camera.
+   */
+  public VisionThread getVisionThread() {
+    return visionThread;
   }
 
-  private Optional<Pose3d> getTagPose(int id) {
-    var tagField = PhotonCameraSystem.getFieldLayout();
-    var tag = tagField.getTagPose(id);
+  /**
+   * Works out where the shooter is once per frame, instead of once per caller. While moving this
+   * aims at a virtual target that makes up for the velocity the note gets from the robot.
+   */
+  private void updateShooterTargeting(Pose2d pose, Alliance alliance) {
+    fieldGeometry.setAlliance(alliance == null ? Alliance.Blue : alliance);
+    if (!fieldGeometry.isLoaded()) {
+      distanceToShooter = 0;
+      geometricDistanceToShooter = 0;
+      rotationDifferenceToShooter = kNoRotation;
+      return;
+    }
 
-    if (tag.isEmpty()) {
-      DriverStation.reportError("Field Layout Couldn't be loaded", false);
-      return Optional.empty();
+    // Field relative velocity of the robot, so the shot can make up for it.
+    double vx = 0;
+    double vy = 0;
+    if (ShooterConstants.kShootWhileMoving) {
+      var speeds = measuredSpeeds;
+      var yaw = sensorYaw;
+      vx = speeds.vxMetersPerSecond * yaw.getCos() - speeds.vyMetersPerSecond * yaw.getSin();
+      vy = speeds.vxMetersPerSecond * yaw.getSin() + speeds.vyMetersPerSecond * yaw.getCos();
     }
 
-    return tag;
+    final double targetX = fieldGeometry.getTargetX(Target.SPEAKER);
+    final double targetY = fieldGeometry.getTargetY(Target.SPEAKER);
+    shotSolver.solve(pose.getX(), pose.getY(), vx, vy, targetX, targetY);
+
+    double robotFrontsRotationDifferenceToShooter =
+        shotSolver.getBearingRadians() - sensorYaw.getRadians(); // Subtract the rotation
+
+    // Rotate by 180 so the back is 0, then invert the angle so the back is a positive angle that
+    // can be inverted.
+    final double rotationDifference =
+        -MathUtil.angleModulus(robotFrontsRotationDifferenceToShooter + Math.PI);
+    if (rotationDifference != rotationDifferenceToShooter.getRadians()) {
+      rotationDifferenceToShooter = new Rotation2d(rotationDifference);
+    }
+    distanceToShooter = shotSolver.getDistance() + moveByEntry.getDouble(0);
+    geometricDistanceToShooter = Math.hypot(targetX - pose.getX(), targetY - pose.getY());
   }
 
   /**
-   * Gets the distance to the shooter.
+   * Gets the distance to the shooter, as of the latest {@link RobotStateFrame}. While moving this
+   * is the distance to the virtual target, see {@link ShotSolver}.
    *
    * @exception DriverStation.reportError if the field layout couldn't be loaded. and returns 0.
    * @return returns the distance to the shooter in meters. will return 0 if the field layout
    *     couldn't be loaded.
    */
   public double getDistanceToShooter() {
-    var tag = getTagPose(ExtraFunctions.getShooterAprilTagID());
-    if (tag.isEmpty()) return 0;
-
-    return tag.get().getTranslation().toTranslation2d().getDistance(getPose().getTranslation())
-        + SmartDashboard.getNumber("Move By", 0);
+    return frame.getDistanceToShooter();
   }
 
+  /**
+   * @return the rotation difference to the shooter, as of the latest {@link RobotStateFrame}. While
+   *     moving this is the rotation difference to the virtual target, see {@link ShotSolver}.
+   */
   public Rotation2d getRotationDifferenceToShooter() {
-    var tag = getTagPose(ExtraFunctions.getShooterAprilTagID());
-
-    if (tag.isEmpty()) return new Rotation2d();
-
-    Rotation2d robotFontsRotationDifferenceToShooter =
-        tag.get()
-            .getTranslation() // Get the translation of the tag
-            .toTranslation2d()
-            .minus(getPose().getTranslation()) // Subtract the robot's translation
-            .getAngle()
-            .minus(getRotation2d()); // Subtract the robot's rotation
-
-    return robotFontsRotationDifferenceToShooter
-        .rotateBy(Rotation2d.fromDegrees(180)) // Rotate by 180 so the back is 0
-        .times(-1); // Invert the angle, so the back is a positive angle that can be inverted.
+    return frame.getRotationDifferenceToShooter();
   }
 
   public Pose2d getPose() {
@@ -287,20 +719,23 @@ public class DriveSubsystem extends SubsystemBase implements AutoCloseable {
   }
 
   public void resetOdometry(Pose2d pose) {
-    swerveOdometry.resetPosition(
-        getRotation2d(),
-        new SwerveModulePosition[] {
-          frontLeft.getPosition(),
-          frontRight.getPosition(),
-          rearLeft.getPosition(),
-          rearRight.getPosition()
-        },
-        pose);
+    // Samples taken before the reset are relative to the old pose.
+    odometryThread.clear();
+    readSensors();
+    swerveOdometry.resetPosition(sensorYaw, modulePositions, pose);
+    // Commands running later in this cycle should see the new pose.
+    captureFrame();
   }
 
+  /**
+   * @return the robot relative speeds, from the module states in the latest {@link
+   *     RobotStateFrame}. A copy, changing it doesn't change the next call.
+   */
   public ChassisSpeeds getChassisSpeeds() {
-    return SwerveModuleConstants.kDriveKinematics.toChassisSpeeds(
-        frontLeft.getState(), frontRight.getState(), rearLeft.getState(), rearRight.getState());
+    return new ChassisSpeeds(
+        measuredSpeeds.vxMetersPerSecond,
+        measuredSpeeds.vyMetersPerSecond,
+        measuredSpeeds.omegaRadiansPerSecond);
   }
 
   /**
@@ -310,10 +745,39 @@ public class DriveSubsystem extends SubsystemBase implements AutoCloseable {
    * @param ySpeed Speed of the robot in the y direction (sideways).
    * @param rot Angular rate of the robot.
    * @param fieldRelative Whether the provided x and y speeds are relative to the field.
-   * @param rateLimit Whether to enable rate limiting for smoother control.
+   * @param rateLimit Whether to enable rate limiting for smoother control. Uses the {@link
+   *     SwerveSetpointGenerator} if {@link DriveConstants#kUseSetpointGenerator} is true, the slew
+   *     rate limiters if not.
    */
   public void drive(
       double xSpeed, double ySpeed, double rot, boolean fieldRelative, boolean rateLimit) {
+    drive(
+        xSpeed,
+        ySpeed,
+        rot,
+        fieldRelative,
+        rateLimit && !DriveConstants.kUseSetpointGenerator,
+        rateLimit && DriveConstants.kUseSetpointGenerator);
+  }
+
+  /**
+   * Method to drive the robot using joystick info.
+   *
+   * @param xSpeed Speed of the robot in the x direction (forward).
+   * @param ySpeed Speed of the robot in the y direction (sideways).
+   * @param rot Angular rate of the robot.
+   * @param fieldRelative Whether the provided x and y speeds are relative to the field.
+   * @param rateLimit Whether to rate limit the joystick input with the slew rate limiters.
+   * @param useSetpointGenerator Whether to limit the module steering and acceleration with the
+   *     {@link SwerveSetpointGenerator}.
+   */
+  public void drive(
+      double xSpeed,
+      double ySpeed,
+      double rot,
+      boolean fieldRelative,
+      boolean rateLimit,
+      boolean useSetpointGenerator) {
     double xSpeedCommanded;
     double ySpeedCommanded;
 
@@ -376,42 +840,139 @@ public class DriveSubsystem extends SubsystemBase implements AutoCloseable {
     double ySpeedDelivered = ySpeedCommanded * DriveConstants.kMaxSpeedMetersPerSecond;
     double rotDelivered = currentRotation * DriveConstants.kMaxAngularSpeed;
 
-    var swerveModuleStates =
-        SwerveModuleConstants.kDriveKinematics.toSwerveModuleStates(
-            fieldRelative
-                ? ChassisSpeeds.fromFieldRelativeSpeeds(
-                    xSpeedDelivered, ySpeedDelivered, rotDelivered, getFieldOrientedRotation2d())
-                : new ChassisSpeeds(xSpeedDelivered, ySpeedDelivered, rotDelivered));
-    SwerveDriveKinematics.desaturateWheelSpeeds(
-        swerveModuleStates, DriveConstants.kMaxSpeedMetersPerSecond);
-
-    frontLeft.setDesiredState(swerveModuleStates[0]);
-    frontRight.setDesiredState(swerveModuleStates[1]);
-    rearLeft.setDesiredState(swerveModuleStates[2]);
-    rearRight.setDesiredState(swerveModuleStates[3]);
+    if (fieldRelative) {
+      // Same as ChassisSpeeds.fromFieldRelativeSpeeds, rotates the speeds by minus the heading.
+      // The yaw read at the start of the loop, not the navX again.
+      final double heading = frame.getYaw().getRadians() + fieldOrientationRotateBy.getRadians();
+      final double cos = Math.cos(heading);
+      final double sin = Math.sin(heading);
+      driveRobotRelative(
+          xSpeedDelivered * cos + ySpeedDelivered * sin,
+          -xSpeedDelivered * sin + ySpeedDelivered * cos,
+          rotDelivered,
+          useSetpointGenerator);
+    } else {
+      driveRobotRelative(xSpeedDelivered, ySpeedDelivered, rotDelivered, useSetpointGenerator);
+    }
   }
 
+  /**
+   * @param speeds the robot relative speeds to drive at, limited by the {@link
+   *     SwerveSetpointGenerator} if {@link DriveConstants#kUseSetpointGenerator} is true.
+   */
   public void driveRobotRelative(ChassisSpeeds speeds) {
-    var swerveModuleStates = SwerveModuleConstants.kDriveKinematics.toSwerveModuleStates(speeds);
-    SwerveDriveKinematics.desaturateWheelSpeeds(
-        swerveModuleStates, DriveConstants.kMaxSpeedMetersPerSecond);
+    driveRobotRelative(speeds, DriveConstants.kUseSetpointGenerator);
+  }
+
+  /**
+   * @param speeds the robot relative speeds to drive at.
+   * @param useSetpointGenerator Whether to limit the module steering and acceleration with the
+   *     {@link SwerveSetpointGenerator}.
+   */
+  public void driveRobotRelative(ChassisSpeeds speeds, boolean useSetpointGenerator) {
+    driveRobotRelative(
+        speeds.vxMetersPerSecond,
+        speeds.vyMetersPerSecond,
+        speeds.omegaRadiansPerSecond,
+        useSetpointGenerator);
+  }
 
-    frontLeft.setDesiredState(swerveModuleStates[0]);
-    frontRight.setDesiredState(swerveModuleStates[1]);
-    rearLeft.setDesiredState(swerveModuleStates[2]);
-    rearRight.setDesiredState(swerveModuleStates[3]);
+  /**
+   * Same as {@link SwerveDriveKinematics#toSwerveModuleStates(ChassisSpeeds)}, but writes into a
+   * reused set of states instead of allocating new ones every call.
+   */
+  private void driveRobotRelative(
+      double vx, double vy, double omega, boolean useSetpointGenerator) {
+    if (useSetpointGenerator) {
+      if (!setpointGeneratorInUse) {
+        // Start from what the modules are actually doing.
+        var speeds = measuredSpeeds;
+        setpointGenerator.reset(
+            speeds.vxMetersPerSecond,
+            speeds.vyMetersPerSecond,
+            speeds.omegaRadiansPerSecond,
+            moduleStates);
+        setpointGeneratorInUse = true;
+      }
+      setpointGenerator.generate(vx, vy, omega, targetStates);
+      setModuleStates(targetStates);
+      return;
+    }
+
+    setpointGeneratorInUse = false;
+    if (vx == 0 && vy == 0 && omega == 0) {
+      // Keep the last angles so the modules don't snap back to 0 when the robot stops.
+      for (var state : targetStates) {
+        state.speedMetersPerSecond = 0;
+      }
+    } else {
+      for (int i = 0; i < targetStates.length; i++) {
+        var translation = SwerveModuleConstants.kModuleTranslations[i];
+        final double moduleX = vx - omega * translation.getY();
+        final double moduleY = vy + omega * translation.getX();
+        final double angle = Math.atan2(moduleY, moduleX);
+
+        var state = targetStates[i];
+        state.speedMetersPerSecond = Math.hypot(moduleX, moduleY);
+        if (angle != state.angle.getRadians()) {
+          state.angle = new Rotation2d(angle);
+        }
+      }
+    }
+    setModuleStates(targetStates);
   }
 
   public void drive(double xSpeed, double ySpeed, double rot) {
     drive(xSpeed, ySpeed, rot, true, true);
   }
 
+  /**
+   * Runs {@link #drive(double, double, double, boolean, boolean, boolean)} without sending anything
+   * to the modules, so the JIT compiles it before the match. The rate limiters and the setpoint
+   * generator are reset afterwards. Only call this while disabled.
+   *
+   * @param iterations how many times to call drive.
+   */
+  public void warmUp(int iterations) {
+    for (int i = 0; i < targetStates.length; i++) {
+      warmUpSavedAngles[i] = targetStates[i].angle;
+    }
+
+    dryRun = true;
+    try {
+      for (int i = 0; i < iterations; i++) {
+        // Go around a circle, so every branch of the rate limiting gets used.
+        final double t = (warmUpCount++ % 200) * (2 * Math.PI / 200);
+        final boolean useSetpointGenerator = (i & 1) == 0;
+        drive(
+            Math.cos(t),
+            Math.sin(t),
+            0.5 * Math.sin(2 * t),
+            (i & 2) == 0,
+            !useSetpointGenerator,
+            useSetpointGenerator);
+      }
+    } finally {
+      dryRun = false;
+    }
+
+    currentRotation = 0;
+    currentTranslationDir = 0;
+    currentTranslationMag = 0;
+    magLimiter.reset(0);
+    rotLimiter.reset(0);
+    prevTime = WPIUtilJNI.now() * 1e-6;
+    setpointGeneratorInUse = false;
+    for (int i = 0; i < targetStates.length; i++) {
+      targetStates[i].speedMetersPerSecond = 0;
+      targetStates[i].angle = warmUpSavedAngles[i];
+    }
+  }
+
   /** Sets the wheels into an X formation to prevent movement. */
   public void setX() {
-    frontLeft.setDesiredState(new SwerveModuleState(0, Rotation2d.fromDegrees(45)));
-    frontRight.setDesiredState(new SwerveModuleState(0, Rotation2d.fromDegrees(-45)));
-    rearLeft.setDesiredState(new SwerveModuleState(0, Rotation2d.fromDegrees(-45)));
-    rearRight.setDesiredState(new SwerveModuleState(0, Rotation2d.fromDegrees(45)));
+    setpointGeneratorInUse = false;
+    setModuleStates(xStates);
   }
 
   /**
@@ -422,19 +983,23 @@ public class DriveSubsystem extends SubsystemBase implements AutoCloseable {
   public void setModuleStates(SwerveModuleState[] desiredStates) {
     SwerveDriveKinematics.desaturateWheelSpeeds(
         desiredStates, DriveConstants.kMaxSpeedMetersPerSecond);
+    if (dryRun) {
+      return;
+    }
     frontLeft.setDesiredState(desiredStates[0]);
     frontRight.setDesiredState(desiredStates[1]);
     rearLeft.setDesiredState(desiredStates[2]);
     rearRight.setDesiredState(desiredStates[3]);
   }
 
+  /**
+   * The returned array and its states are reused and updated every time the modules are driven,
+   * copy them if they need to be kept.
+   *
+   * @return the states the modules were last set to.
+   */
   public SwerveModuleState[] getModuleDesiredStates() {
-    return new SwerveModuleState[] {
-      frontLeft.getDesiredState(),
-      frontRight.getDesiredState(),
-      rearLeft.getDesiredState(),
-      rearRight.getDesiredState()
-    };
+    return desiredStates;
   }
 
   /** Resets the drive encoders to currently read a position of 0. */
@@ -475,10 +1040,16 @@ public class DriveSubsystem extends SubsystemBase implements AutoCloseable {
   }
 
   public Rotation2d getRotation2d() {
-    if (RobotBase.isSimulation() && navX.getAngle() == 0) {
-      return gyroSim.getRotation2d();
+    return Rotation2d.fromRadians(getYawRadians());
+  }
+
+  /** Same as {@link #getRotation2d()} without the allocation, safe to call from any thread. */
+  private double getYawRadians() {
+    final double navXAngle = navX.getAngle();
+    if (RobotBase.isSimulation() && navXAngle == 0) {
+      return gyroSim.getAngle();
     }
-    return navX.getRotation2d();
+    return Math.toRadians(-navXAngle); // navX is clockwise positive
   }
 
   /**
@@ -507,8 +1078,8 @@ public class DriveSubsystem extends SubsystemBase implements AutoCloseable {
         MathUtil.applyDeadband(rot * boostMultiplier, deadband),
         fieldRelative,
         rateLimit);
-    SmartDashboard.putNumber("xSpeed: ", xSpeed);
-    SmartDashboard.putNumber("ySpeed: ", ySpeed);
+    xSpeedEntry.set(xSpeed);
+    ySpeedEntry.set(ySpeed);
   }
 
   public void driveWithExtras(
@@ -519,8 +1090,4 @@ public class DriveSubsystem extends SubsystemBase implements AutoCloseable {
   public void driveWithExtras(double xSpeed, double ySpeed, double rot, double boost) {
     driveWithExtras(xSpeed, ySpeed, rot, boost, OIConstants.kDriveDeadband);
   }
-
-  private Rotation2d getFieldOrientedRotation2d() {
-    return getRotation2d().rotateBy(fieldOrientationRotateBy);
-  }
 }
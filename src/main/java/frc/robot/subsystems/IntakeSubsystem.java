@@ -2,84 +2,158 @@ package frc.robot.subsystems;
 
 import com.revrobotics.CANSparkBase.IdleMode;
 import com.revrobotics.CANSparkLowLevel.MotorType;
+import com.revrobotics.ColorSensorV3.ProximitySensorMeasurementRate;
+import com.revrobotics.ColorSensorV3.ProximitySensorResolution;
+import edu.wpi.first.wpilibj.RobotBase;
 import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.XboxController;
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.PrintCommand;
-import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import edu.wpi.first.wpilibj2.command.WaitUntilCommand;
 import frc.robot.Constants.IntakeConstants;
 import frc.robot.Constants.IntakeConstants.ColorSensorConstants;
+import frc.robot.Constants.TelemetryConstants;
 import frc.robot.commands.LoadToShooterCommand;
 import frc.robot.commands.VibrateControllerCommand;
+import frc.utils.ColorSensorSampler;
+import frc.utils.TimedSubsystem;
 import frc.utils.sim_utils.CANSparkMAXWrapped;
 import frc.utils.sim_utils.ColorSensorV3Wrapped;
-
-public class IntakeSubsystem extends SubsystemBase implements AutoCloseable {
+import frc.utils.sim_utils.SparkMAXConfig;
+import frc.utils.sim_utils.SparkMAXConfigurator;
+import frc.utils.sim_utils.StatusFrameProfile;
+import frc.utils.telemetry.BooleanEntry;
+import frc.utils.telemetry.DoubleEntry;
+import frc.utils.telemetry.Telemetry;
+import frc.utils.telemetry.Telemetry.Verbosity;
+
+public class IntakeSubsystem extends TimedSubsystem implements AutoCloseable {
   private final CANSparkMAXWrapped armIntake;
   private final CANSparkMAXWrapped groundIntake;
   private final ColorSensorV3Wrapped colorSensor;
-  private final Thread fastColorCheckThread;
+  private final ColorSensorSampler colorSampler;
   private boolean isForced = false;
-
-  public IntakeSubsystem() {
-    armIntake = new CANSparkMAXWrapped(IntakeConstants.kArmIntakeMotorCanID, MotorType.kBrushless);
+  private long lastNotesSeen = 0;
+
+  private final DoubleEntry distanceEntry;
+  private final DoubleEntry redEntry;
+  private final DoubleEntry greenEntry;
+  private final DoubleEntry blueEntry;
+  private final DoubleEntry irEntry;
+  private final DoubleEntry sampleAgeEntry;
+  private final BooleanEntry noteDetectedEntry;
+
+  /**
+   * @param colorSensor the sensor that sees the note, it is closed with this subsystem.
+   * @param sparkMAXConfigurator configures the SPARK MAXes, wait for it before running the intake.
+   */
+  public IntakeSubsystem(
+      ColorSensorV3Wrapped colorSensor, SparkMAXConfigurator sparkMAXConfigurator) {
+    armIntake =
+        new CANSparkMAXWrapped(
+            IntakeConstants.kArmIntakeMotorCanID, MotorType.kBrushless, StatusFrameProfile.ROLLER);
     groundIntake =
-        new CANSparkMAXWrapped(IntakeConstants.kGroundIntakeMotorCanID, MotorType.kBrushless);
-    setupIntakeMotors();
-    colorSensor = new ColorSensorV3Wrapped(ColorSensorConstants.kColorSensorPort);
-
-    fastColorCheckThread =
-        new Thread(
-            () -> {
-              while (true) {
-                fastPeriodic();
-              }
-            },
-            "Fast Color Check Loop");
-    fastColorCheckThread.setDaemon(true);
-    fastColorCheckThread.start();
+        new CANSparkMAXWrapped(
+            IntakeConstants.kGroundIntakeMotorCanID,
+            MotorType.kBrushless,
+            StatusFrameProfile.ROLLER);
+    setupIntakeMotors(sparkMAXConfigurator);
+    this.colorSensor = colorSensor;
+    colorSensor.configureProximitySensor(
+        ProximitySensorResolution.kProxRes11bit, ProximitySensorMeasurementRate.kProxRate12ms);
+    // The simulated sensor has no noise, and the tests expect the note state to change right away.
+    colorSampler =
+        new ColorSensorSampler(
+            colorSensor, RobotBase.isReal() ? ColorSensorConstants.kNoteDebounceSeconds : 0);
+
+    // These all read the latest sample, not the sensor.
+    final double debugPeriod = TelemetryConstants.kDebugPeriodSeconds;
+    distanceEntry =
+        Telemetry.addDouble(
+            "ColorSensor - Distance",
+            Verbosity.DEBUG,
+            debugPeriod,
+            () -> colorSampler.getLatest().getProximity());
+    redEntry =
+        Telemetry.addDouble(
+            "ColorSensor - Red",
+            Verbosity.DEBUG,
+            debugPeriod,
+            () -> colorSampler.getLatest().getRed());
+    greenEntry =
+        Telemetry.addDouble(
+            "ColorSensor - Green",
+            Verbosity.DEBUG,
+            debugPeriod,
+            () -> colorSampler.getLatest().getGreen());
+    blueEntry =
+        Telemetry.addDouble(
+            "ColorSensor - Blue",
+            Verbosity.DEBUG,
+            debugPeriod,
+            () -> colorSampler.getLatest().getBlue());
+    irEntry =
+        Telemetry.addDouble(
+            "ColorSensor - IR",
+            Verbosity.DEBUG,
+            debugPeriod,
+            () -> colorSampler.getLatest().getIR());
+    sampleAgeEntry =
+        Telemetry.addDouble(
+            "ColorSensor - Sample Age",
+            Verbosity.DEBUG,
+            debugPeriod,
+            () -> Timer.getFPGATimestamp() - colorSampler.getLatest().getTimestampSeconds());
+    noteDetectedEntry =
+        Telemetry.addBoolean("Note Detected", Verbosity.COMPETITION, 0, this::hasNote);
+
+    colorSampler.start(ColorSensorConstants.kSamplePeriodSeconds);
   }
 
-  private void setupIntakeMotors() {
-    armIntake.restoreFactoryDefaults();
-    groundIntake.restoreFactoryDefaults();
-
-    armIntake.setSmartCurrentLimit(20); // NEO 550 stall current is 20A
-    groundIntake.setSmartCurrentLimit(20); // NEO 550 stall current is 20A
-    armIntake.setInverted(true);
-    groundIntake.setInverted(true);
-
-    armIntake.setIdleMode(IntakeConstants.kIntakeMotorIdleMode);
-    groundIntake.setIdleMode(IdleMode.kCoast);
-
-    armIntake.burnFlash();
-    groundIntake.burnFlash();
+  private void setupIntakeMotors(SparkMAXConfigurator configurator) {
+    var armIntakeConfig =
+        new SparkMAXConfig()
+            .smartCurrentLimit(20) // NEO 550 stall current is 20A
+            .inverted(true)
+            .idleMode(IntakeConstants.kIntakeMotorIdleMode);
+    var groundIntakeConfig =
+        new SparkMAXConfig()
+            .smartCurrentLimit(20) // NEO 550 stall current is 20A
+            .inverted(true)
+            .idleMode(IdleMode.kCoast);
+
+    // Configured along with every other SPARK MAX, RobotContainer waits for them.
+    configurator.configureAsync(armIntake, armIntakeConfig);
+    configurator.configureAsync(groundIntake, groundIntakeConfig);
   }
 
   @Override
   public void close() {
-    fastColorCheckThread.interrupt();
+    colorSampler.close();
     armIntake.close();
     groundIntake.close();
     colorSensor.close();
+    distanceEntry.close();
+    redEntry.close();
+    greenEntry.close();
+    blueEntry.close();
+    irEntry.close();
+    sampleAgeEntry.close();
+    noteDetectedEntry.close();
   }
 
+  /**
+   * @return the debounced note state from the latest color sensor sample, doesn't read the sensor.
+   */
   public boolean hasNote() {
-    int red = colorSensor.getRed();
-    int blue = colorSensor.getBlue();
-    // If we are really close, we will decrease the threshold.
-    // Proximity is inversely proportional to distance. and max of 2047 is 0 inches.
-    if (colorSensor.getProximity() > 1600) {
-      red = (int) (red * (1600.0 / colorSensor.getProximity()));
-      blue = (int) (blue * (1600.0 / colorSensor.getProximity()));
-    }
+    return colorSampler.getLatest().hasNote();
+  }
 
-    return colorSensor.getProximity() > 300
-        && red > 700
-        && blue < 9000
-        && red > colorSensor.getGreen();
+  /**
+   * @return the latest color sensor sample, with when it was taken.
+   */
+  public ColorSensorSampler.Sample getColorSample() {
+    return colorSampler.getLatest();
   }
 
   public double getGroundIntakeSpeed() {
@@ -120,6 +194,7 @@ public class IntakeSubsystem extends SubsystemBase implements AutoCloseable {
     groundIntake.stopMotor();
   }
 
+  /** Stops intaking when there is a note, called every loop after the sampler saw one arrive. */
   public void checkIfHasNote() {
     if (hasNote() && armIntake.get() > 0 && !isForced) {
       setIntakeSpeed(0);
@@ -137,18 +212,21 @@ public class IntakeSubsystem extends SubsystemBase implements AutoCloseable {
   }
 
   @Override
-  public void periodic() {
-    SmartDashboard.putNumber("ColorSensor - Distance", colorSensor.getProximity());
-    SmartDashboard.putNumber("ColorSensor - Red", colorSensor.getRed());
-    SmartDashboard.putNumber("ColorSensor - Green", colorSensor.getGreen());
-    SmartDashboard.putNumber("ColorSensor - Blue", colorSensor.getBlue());
-    SmartDashboard.putNumber("ColorSensor - IR", colorSensor.getIR());
-    SmartDashboard.putBoolean("Note Detected", hasNote());
-    // don't check for a note here cause it breaks the unit tests SOMEHOW!
-  }
-
-  private void fastPeriodic() {
-    checkIfHasNote();
-    Timer.delay(0.005);
+  protected void timedPeriodic() {
+    // The sampler only counts the notes, the motors are stopped here on the main thread.
+    final long notesSeen = colorSampler.getNotesSeen();
+    if (notesSeen != lastNotesSeen) {
+      lastNotesSeen = notesSeen;
+      checkIfHasNote();
+    }
+    distanceEntry.update();
+    redEntry.update();
+    greenEntry.update();
+    blueEntry.update();
+    irEntry.update();
+    sampleAgeEntry.update();
+    noteDetectedEntry.update();
+    armIntake.updateTelemetry();
+    groundIntake.updateTelemetry();
   }
 }
@@ -1,31 +1,54 @@
 package frc.robot.subsystems;
 
 import edu.wpi.first.math.MathUtil;
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj.util.Color;
 import edu.wpi.first.wpilibj2.command.Command;
-import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import frc.robot.Constants.LEDConstants;
+import frc.robot.Constants.LEDConstants.AlertZone;
+import frc.robot.Constants.LEDConstants.ProgressZone;
 import frc.utils.BetterLED;
+import frc.utils.LEDZone.Blend;
+import frc.utils.TimedSubsystem;
+import frc.utils.telemetry.StringEntry;
+import frc.utils.telemetry.Telemetry;
+import frc.utils.telemetry.Telemetry.Verbosity;
 
-public class LEDSubsystem extends SubsystemBase implements AutoCloseable {
+public class LEDSubsystem extends TimedSubsystem implements AutoCloseable {
   BetterLED strip;
+  // Drawn over the whole strip, so they don't stop what it is showing.
+  private final LEDZoneSubsystem progressZone;
+  private final LEDZoneSubsystem alertZone;
   Color lastSetColor = new Color();
   Color lastSetBlinkingColor = new Color();
   boolean isBlinkingRed = false;
+  private final StringEntry currentlyRunningEntry =
+      Telemetry.addString("LED Currently Running", Verbosity.COMPETITION, 0);
 
   public LEDSubsystem() {
     strip = new BetterLED(LEDConstants.kLedPin, LEDConstants.kLedCount);
+    progressZone =
+        new LEDZoneSubsystem(
+            strip.createZone(
+                "Progress",
+                ProgressZone.kStart,
+                ProgressZone.kEnd,
+                ProgressZone.kPriority,
+                Blend.OVER));
+    alertZone =
+        new LEDZoneSubsystem(
+            strip.createZone(
+                "Alert", AlertZone.kStart, AlertZone.kEnd, AlertZone.kPriority, Blend.REPLACE));
   }
 
   @Override
-  public void periodic() {
-    SmartDashboard.putString("LED Currently Running", strip.getCurrentCommandName());
+  protected void timedPeriodic() {
+    currentlyRunningEntry.set(strip.getCurrentCommandName());
   }
 
   @Override
   public void close() {
     strip.close();
+    currentlyRunningEntry.close();
   }
 
   public int getLedCount() {
@@ -55,22 +78,19 @@ public class LEDSubsystem extends SubsystemBase implements AutoCloseable {
     lastSetBlinkingColor = Color.kBlack;
   }
 
+  /**
+   * @return a command that blinks red over whatever the strip is showing, using the alert zone.
+   */
   public Command getRedBlinkCommand() {
-    return this.run(this::blinkRed)
-        .finallyDo(
-            () -> {
-              strip.removeFromLoop();
-              lastSetBlinkingColor = new Color();
-            });
+    return getBlinkColorCommand(new Color(255, 0, 0));
   }
 
+  /**
+   * @return a command that blinks the color over whatever the strip is showing, using the alert
+   *     zone.
+   */
   public Command getBlinkColorCommand(Color color) {
-    return this.run(() -> blink(color))
-        .finallyDo(
-            () -> {
-              strip.removeFromLoop();
-              lastSetBlinkingColor = new Color();
-            });
+    return alertZone.getBlinkColorCommand(color);
   }
 
   public void setRed() {
@@ -120,6 +140,20 @@ public class LEDSubsystem extends SubsystemBase implements AutoCloseable {
     fill(color, (int) (strip.getLedCount() * percentage), true);
   }
 
+  /**
+   * @return the zone for progress bars, drawn over the whole strip.
+   */
+  public LEDZoneSubsystem getProgressZone() {
+    return progressZone;
+  }
+
+  /**
+   * @return the zone for blinking, drawn over everything else.
+   */
+  public LEDZoneSubsystem getAlertZone() {
+    return alertZone;
+  }
+
   public BetterLED getStrip() {
     return strip;
   }
@@ -0,0 +1,72 @@
+package frc.robot.subsystems;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.wpilibj.util.Color;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.utils.LEDZone;
+
+/**
+ * A zone of the LED strip, as its own subsystem so commands using different zones can run at the
+ * same time as each other and as the ones using the whole strip.
+ */
+public class LEDZoneSubsystem extends SubsystemBase {
+  private final LEDZone zone;
+  private Color lastSetBlinkingColor = null;
+  private Color lastProgressColor = null;
+  private int lastProgressCount = -1;
+
+  public LEDZoneSubsystem(LEDZone zone) {
+    super("LED " + zone.getName());
+    this.zone = zone;
+  }
+
+  public LEDZone getZone() {
+    return zone;
+  }
+
+  public int getLedCount() {
+    return zone.getLedCount();
+  }
+
+  public void blink(Color color, double delaySeconds) {
+    if (color.equals(lastSetBlinkingColor)) {
+      return;
+    }
+    lastSetBlinkingColor = color;
+    lastProgressCount = -1;
+    zone.blink(color, delaySeconds);
+  }
+
+  public void blink(Color color) {
+    blink(color, 0.2);
+  }
+
+  /**
+   * Fills the zone until the given percentage, the rest shows the zones below.
+   *
+   * @param percentage a value between 0 and 1
+   * @param color the color to fill with
+   */
+  public void fillPercentageWithColor(double percentage, Color color) {
+    final int count = (int) (zone.getLedCount() * MathUtil.clamp(percentage, 0.0, 1.0));
+    if (count == lastProgressCount && color.equals(lastProgressColor)) {
+      return;
+    }
+    lastProgressColor = color;
+    lastProgressCount = count;
+    lastSetBlinkingColor = null;
+    zone.showProgress(color, count);
+  }
+
+  /** Stops the animation, so the zones below show again. */
+  public void clear() {
+    zone.stopAnimation();
+    lastSetBlinkingColor = null;
+    lastProgressCount = -1;
+  }
+
+  public Command getBlinkColorCommand(Color color) {
+    return this.run(() -> blink(color)).finallyDo(this::clear);
+  }
+}
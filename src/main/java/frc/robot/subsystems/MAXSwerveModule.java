@@ -5,7 +5,7 @@ import com.revrobotics.CANSparkLowLevel.MotorType;
 import com.revrobotics.CANSparkMax;
 import com.revrobotics.RelativeEncoder;
 import com.revrobotics.SparkAbsoluteEncoder.Type;
-import com.revrobotics.SparkPIDController;
+import edu.wpi.first.math.MathUtil;
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.kinematics.SwerveModulePosition;
@@ -15,6 +15,9 @@ import frc.robot.Constants.DriveConstants;
 import frc.robot.Constants.ModuleConstants;
 import frc.robot.simulationSystems.SwerveModuleSim;
 import frc.utils.sim_utils.CANSparkMAXWrapped;
+import frc.utils.sim_utils.SparkMAXConfig;
+import frc.utils.sim_utils.SparkMAXConfigurator;
+import frc.utils.sim_utils.StatusFrameProfile;
 
 public class MAXSwerveModule implements AutoCloseable {
   private final CANSparkMAXWrapped m_drivingSparkMax;
@@ -23,11 +26,17 @@ public class MAXSwerveModule implements AutoCloseable {
   private final RelativeEncoder m_drivingEncoder;
   private final AbsoluteEncoder m_turningEncoder;
 
-  private final SparkPIDController m_drivingPIDController;
-  private final SparkPIDController m_turningPIDController;
-
   private double m_chassisAngularOffset = 0;
-  private SwerveModuleState m_desiredState = new SwerveModuleState(0.0, new Rotation2d());
+  // Updated in place so the drive loop doesn't allocate a new state every call.
+  private final SwerveModuleState m_desiredState = new SwerveModuleState(0.0, new Rotation2d());
+
+  // The last angle read from the turning encoder, only rebuilt when the encoder reading changes.
+  private double m_lastAngleRadians = Double.NaN;
+  private Rotation2d m_lastAngle = new Rotation2d();
+
+  // Where the module is relative to the center of the robot, used by getRealWorldPose.
+  private final double m_offsetX;
+  private final double m_offsetY;
 
   /* SIM RELATED OBJECTS */
 
@@ -36,84 +45,135 @@ public class MAXSwerveModule implements AutoCloseable {
   /* END SIM RELATED OBJECTS */
 
   /**
-   * Constructs a MAXSwerveModule and configures the driving and turning motor, encoder, and PID
-   * controller. This configuration is specific to the REV MAXSwerve Module built with NEOs, SPARKS
-   * MAX, and a Through Bore Encoder.
+   * Constructs a MAXSwerveModule, {@link #configure} configures the driving and turning motor,
+   * encoder, and PID controller. This configuration is specific to the REV MAXSwerve Module built
+   * with NEOs, SPARKS MAX, and a Through Bore Encoder.
    */
   public MAXSwerveModule(int drivingCANId, int turningCANId, double chassisAngularOffset) {
-    m_drivingSparkMax = new CANSparkMAXWrapped(drivingCANId, MotorType.kBrushless);
-    m_turningSparkMax = new CANSparkMAXWrapped(turningCANId, MotorType.kBrushless);
-
-    // Factory reset, so we get the SPARKS MAX to a known state before configuring
-    // them. This is useful in case a SPARK MAX is swapped out.
-    m_drivingSparkMax.restoreFactoryDefaults();
-    m_turningSparkMax.restoreFactoryDefaults();
+    m_drivingSparkMax =
+        new CANSparkMAXWrapped(drivingCANId, MotorType.kBrushless, StatusFrameProfile.DRIVE);
+    m_turningSparkMax =
+        new CANSparkMAXWrapped(turningCANId, MotorType.kBrushless, StatusFrameProfile.STEER);
 
-    // Setup encoders and PID controllers for the driving and turning SPARKS MAX.
+    // Setup encoders for the driving and turning SPARKS MAX.
     m_drivingEncoder = m_drivingSparkMax.getEncoder();
     m_turningEncoder = m_turningSparkMax.getAbsoluteEncoder(Type.kDutyCycle);
-    m_drivingPIDController = m_drivingSparkMax.getPIDController();
-    m_turningPIDController = m_turningSparkMax.getPIDController();
-    m_drivingPIDController.setFeedbackDevice(m_drivingEncoder);
-    m_turningPIDController.setFeedbackDevice(m_turningEncoder);
-
-    // Apply position and velocity conversion factors for the driving encoder. The
-    // native units for position and velocity are rotations and RPM, respectively,
-    // but we want meters and meters per second to use with WPILib's swerve APIs.
-    m_drivingEncoder.setPositionConversionFactor(ModuleConstants.kDrivingEncoderPositionFactor);
-    m_drivingEncoder.setVelocityConversionFactor(ModuleConstants.kDrivingEncoderVelocityFactor);
-
-    // Apply position and velocity conversion factors for the turning encoder. We
-    // want these in radians and radians per second to use with WPILib's swerve
-    // APIs.
-    m_turningEncoder.setPositionConversionFactor(ModuleConstants.kTurningEncoderPositionFactor);
-    m_turningEncoder.setVelocityConversionFactor(ModuleConstants.kTurningEncoderVelocityFactor);
-
-    // Invert the turning encoder, since the output shaft rotates in the opposite direction of
-    // the steering motor in the MAXSwerve Module.
-    m_turningEncoder.setInverted(ModuleConstants.kTurningEncoderInverted);
-
-    // Enable PID wrap around for the turning motor. This will allow the PID
-    // controller to go through 0 to get to the setpoint i.e. going from 350 degrees
-    // to 10 degrees will go through 0 rather than the other direction which is a
-    // longer route.
-    m_turningPIDController.setPositionPIDWrappingEnabled(true);
-    m_turningPIDController.setPositionPIDWrappingMinInput(
-        ModuleConstants.kTurningEncoderPositionPIDMinInput);
-    m_turningPIDController.setPositionPIDWrappingMaxInput(
-        ModuleConstants.kTurningEncoderPositionPIDMaxInput);
-
-    // Set the PID gains for the driving motor. Note these are example gains, and you
-    // may need to tune them for your own robot!
-    m_drivingPIDController.setP(ModuleConstants.kDrivingP);
-    m_drivingPIDController.setI(ModuleConstants.kDrivingI);
-    m_drivingPIDController.setD(ModuleConstants.kDrivingD);
-    m_drivingPIDController.setFF(ModuleConstants.kDrivingFF);
-    m_drivingPIDController.setOutputRange(
-        ModuleConstants.kDrivingMinOutput, ModuleConstants.kDrivingMaxOutput);
-
-    // Set the PID gains for the turning motor. Note these are example gains, and you
-    // may need to tune them for your own robot!
-    m_turningPIDController.setP(ModuleConstants.kTurningP);
-    m_turningPIDController.setI(ModuleConstants.kTurningI);
-    m_turningPIDController.setD(ModuleConstants.kTurningD);
-    m_turningPIDController.setFF(ModuleConstants.kTurningFF);
-    m_turningPIDController.setOutputRange(
-        ModuleConstants.kTurningMinOutput, ModuleConstants.kTurningMaxOutput);
-
-    m_drivingSparkMax.setIdleMode(ModuleConstants.kDrivingMotorIdleMode);
-    m_turningSparkMax.setIdleMode(ModuleConstants.kTurningMotorIdleMode);
-    m_drivingSparkMax.setSmartCurrentLimit(ModuleConstants.kDrivingMotorCurrentLimit);
-    m_turningSparkMax.setSmartCurrentLimit(ModuleConstants.kTurningMotorCurrentLimit);
-
-    // Save the SPARK MAX configurations. If a SPARK MAX browns out during
-    // operation, it will maintain the above configurations.
-    m_drivingSparkMax.burnFlash();
-    m_turningSparkMax.burnFlash();
 
     m_chassisAngularOffset = chassisAngularOffset;
-    m_desiredState.angle = new Rotation2d(m_turningEncoder.getPosition());
-    m_drivingEncoder.setPosition(0);
+    m_offsetX = Math.cos(chassisAngularOffset) * DriveConstants.kWheelBase / 2.0;
+    m_offsetY = Math.sin(chassisAngularOffset) * DriveConstants.kWheelBase / 2.0;
+  }
+
+  /**
+   * Starts configuring the driving and turning SPARKS MAX, without waiting for them.
+   *
+   * @param configurator configures them along with every other SPARK MAX, RobotContainer waits for
+   *     all of it with {@link SparkMAXConfigurator#awaitAll()}.
+   */
+  public void configure(SparkMAXConfigurator configurator) {
+    // The SPARKS MAX are only reset, configured and burned if their config changed since the last
+    // time. Burning keeps the config through a brownout. The encoders are read once their
+    // conversion factors are set.
+    configurator.configureAsync(
+        m_drivingSparkMax, getDrivingConfig(), () -> m_drivingEncoder.setPosition(0));
+    configurator.configureAsync(
+        m_turningSparkMax,
+        getTurningConfig(),
+        () -> m_desiredState.angle = new Rotation2d(m_turningEncoder.getPosition()));
+  }
+
+  private SparkMAXConfig getDrivingConfig() {
+    return new SparkMAXConfig()
+        .setPID("Feedback Device", "Encoder", pid -> pid.setFeedbackDevice(m_drivingEncoder))
+        // Apply position and velocity conversion factors for the driving encoder. The native units
+        // for position and velocity are rotations and RPM, respectively, but we want meters and
+        // meters per second to use with WPILib's swerve APIs.
+        .setDouble(
+            "Position Conversion Factor",
+            ModuleConstants.kDrivingEncoderPositionFactor,
+            sparkMAX ->
+                m_drivingEncoder.setPositionConversionFactor(
+                    ModuleConstants.kDrivingEncoderPositionFactor),
+            sparkMAX -> m_drivingEncoder.getPositionConversionFactor())
+        .set(
+            "Velocity Conversion Factor",
+            ModuleConstants.kDrivingEncoderVelocityFactor,
+            sparkMAX ->
+                m_drivingEncoder.setVelocityConversionFactor(
+                    ModuleConstants.kDrivingEncoderVelocityFactor))
+        // Set the PID gains for the driving motor. Note these are example gains, and you may need
+        // to tune them for your own robot!
+        .pidGains(
+            ModuleConstants.kDrivingP,
+            ModuleConstants.kDrivingI,
+            ModuleConstants.kDrivingD,
+            ModuleConstants.kDrivingFF)
+        .setPID(
+            "Output Range",
+            ModuleConstants.kDrivingMinOutput + " " + ModuleConstants.kDrivingMaxOutput,
+            pid ->
+                pid.setOutputRange(
+                    ModuleConstants.kDrivingMinOutput, ModuleConstants.kDrivingMaxOutput))
+        .idleMode(ModuleConstants.kDrivingMotorIdleMode)
+        .smartCurrentLimit(ModuleConstants.kDrivingMotorCurrentLimit);
+  }
+
+  private SparkMAXConfig getTurningConfig() {
+    return new SparkMAXConfig()
+        .setPID(
+            "Feedback Device", "Absolute Encoder", pid -> pid.setFeedbackDevice(m_turningEncoder))
+        // Apply position and velocity conversion factors for the turning encoder. We want these in
+        // radians and radians per second to use with WPILib's swerve APIs.
+        .setDouble(
+            "Position Conversion Factor",
+            ModuleConstants.kTurningEncoderPositionFactor,
+            sparkMAX ->
+                m_turningEncoder.setPositionConversionFactor(
+                    ModuleConstants.kTurningEncoderPositionFactor),
+            sparkMAX -> m_turningEncoder.getPositionConversionFactor())
+        .set(
+            "Velocity Conversion Factor",
+            ModuleConstants.kTurningEncoderVelocityFactor,
+            sparkMAX ->
+                m_turningEncoder.setVelocityConversionFactor(
+                    ModuleConstants.kTurningEncoderVelocityFactor))
+        // Invert the turning encoder, since the output shaft rotates in the opposite direction of
+        // the steering motor in the MAXSwerve Module.
+        .set(
+            "Encoder Inverted",
+            ModuleConstants.kTurningEncoderInverted,
+            sparkMAX -> m_turningEncoder.setInverted(ModuleConstants.kTurningEncoderInverted),
+            sparkMAX -> m_turningEncoder.getInverted() == ModuleConstants.kTurningEncoderInverted)
+        // Enable PID wrap around for the turning motor. This will allow the PID controller to go
+        // through 0 to get to the setpoint i.e. going from 350 degrees to 10 degrees will go
+        // through 0 rather than the other direction which is a longer route.
+        .setPID(
+            "PID Wrapping",
+            ModuleConstants.kTurningEncoderPositionPIDMinInput
+                + " "
+                + ModuleConstants.kTurningEncoderPositionPIDMaxInput,
+            pid -> {
+              pid.setPositionPIDWrappingEnabled(true);
+              pid.setPositionPIDWrappingMinInput(
+                  ModuleConstants.kTurningEncoderPositionPIDMinInput);
+              pid.setPositionPIDWrappingMaxInput(
+                  ModuleConstants.kTurningEncoderPositionPIDMaxInput);
+            })
+        // Set the PID gains for the turning motor. Note these are example gains, and you may need
+        // to tune them for your own robot!
+        .pidGains(
+            ModuleConstants.kTurningP,
+            ModuleConstants.kTurningI,
+            ModuleConstants.kTurningD,
+            ModuleConstants.kTurningFF)
+        .setPID(
+            "Output Range",
+            ModuleConstants.kTurningMinOutput + " " + ModuleConstants.kTurningMaxOutput,
+            pid ->
+                pid.setOutputRange(
+                    ModuleConstants.kTurningMinOutput, ModuleConstants.kTurningMaxOutput))
+        .idleMode(ModuleConstants.kTurningMotorIdleMode)
+        .smartCurrentLimit(ModuleConstants.kTurningMotorCurrentLimit);
   }
 
   @Override
@@ -122,20 +182,42 @@ public class MAXSwerveModule implements AutoCloseable {
     m_turningSparkMax.close();
   }
 
+  /** Publishes the setpoint counters of both SPARK MAXes. */
+  public void updateTelemetry() {
+    m_drivingSparkMax.updateTelemetry();
+    m_turningSparkMax.updateTelemetry();
+  }
+
+  /**
+   * @return the driving and the turning SPARK MAX, in that order.
+   */
+  public CANSparkMAXWrapped[] getSparkMAXes() {
+    return new CANSparkMAXWrapped[] {m_drivingSparkMax, m_turningSparkMax};
+  }
+
   /**
    * Returns the current state of the module.
    *
    * @return The current state of the module.
    */
   public SwerveModuleState getState() {
-    if (RobotBase.isSimulation()) {
-      return driveSim.getState();
-    }
-    // Apply chassis angular offset to the encoder position to get the position
-    // relative to the chassis.
-    return new SwerveModuleState(
-        m_drivingEncoder.getVelocity(),
-        new Rotation2d(m_turningEncoder.getPosition() - m_chassisAngularOffset));
+    var state = new SwerveModuleState();
+    updateState(state);
+    return state;
+  }
+
+  /**
+   * Writes the current state of the module into the given state, so the same state can be reused
+   * every loop.
+   *
+   * @param state The state to write into.
+   */
+  public void updateState(SwerveModuleState state) {
+    state.speedMetersPerSecond =
+        RobotBase.isSimulation()
+            ? driveSim.getSpeedMetersPerSecond()
+            : m_drivingEncoder.getVelocity();
+    state.angle = getAngle();
   }
 
   /**
@@ -144,69 +226,109 @@ public class MAXSwerveModule implements AutoCloseable {
    * @return The current position of the module.
    */
   public SwerveModulePosition getPosition() {
+    var position = new SwerveModulePosition();
+    updatePosition(position);
+    return position;
+  }
+
+  /**
+   * Writes the current position of the module into the given position, so the same position can be
+   * reused every loop.
+   *
+   * @param position The position to write into.
+   */
+  public void updatePosition(SwerveModulePosition position) {
+    position.distanceMeters = getDistanceMeters();
+    position.angle = getAngle();
+  }
+
+  /**
+   * Returns the distance driven by the module, safe to call from the odometry thread.
+   *
+   * @return The distance driven by the module in meters.
+   */
+  public double getDistanceMeters() {
     if (RobotBase.isSimulation()) {
-      return driveSim.getPosition();
+      return driveSim.getDistanceMeters();
+    }
+    return m_drivingEncoder.getPosition();
+  }
+
+  /**
+   * Returns the angle of the module relative to the chassis, safe to call from the odometry thread.
+   *
+   * @return The angle of the module in radians.
+   */
+  public double getAngleRadians() {
+    if (RobotBase.isSimulation()) {
+      return driveSim.getAngle().getRadians();
     }
     // Apply chassis angular offset to the encoder position to get the position
     // relative to the chassis.
-    return new SwerveModulePosition(
-        m_drivingEncoder.getPosition(),
-        new Rotation2d(m_turningEncoder.getPosition() - m_chassisAngularOffset));
+    return m_turningEncoder.getPosition() - m_chassisAngularOffset;
+  }
+
+  /** Only rebuilds the {@link Rotation2d} when the turning encoder has moved. */
+  private Rotation2d getAngle() {
+    if (RobotBase.isSimulation()) {
+      return driveSim.getAngle();
+    }
+    double angle = getAngleRadians();
+    if (angle != m_lastAngleRadians) {
+      m_lastAngleRadians = angle;
+      m_lastAngle = new Rotation2d(angle);
+    }
+    return m_lastAngle;
   }
 
   /**
    * Sets the desired state for the module.
    *
-   * @param desiredState Desired state with speed and angle.
+   * @param desiredState Desired state with speed and angle. Only its values are kept, so the caller
+   *     can reuse it.
    */
   public void setDesiredState(SwerveModuleState desiredState) {
-    driveSim.updateStateAndPosition(desiredState);
+    driveSim.setDesiredState(desiredState);
 
     // Apply chassis angular offset to the desired state.
-    SwerveModuleState correctedDesiredState = new SwerveModuleState();
-    correctedDesiredState.speedMetersPerSecond = desiredState.speedMetersPerSecond;
-    correctedDesiredState.angle =
-        desiredState.angle.plus(Rotation2d.fromRadians(m_chassisAngularOffset));
-
-    // Optimize the reference state to avoid spinning further than 90 degrees.
-    SwerveModuleState optimizedDesiredState =
-        SwerveModuleState.optimize(
-            correctedDesiredState, new Rotation2d(m_turningEncoder.getPosition()));
+    double speed = desiredState.speedMetersPerSecond;
+    double angle = desiredState.angle.getRadians() + m_chassisAngularOffset;
+
+    // Optimize the reference state to avoid spinning further than 90 degrees. Same as
+    // SwerveModuleState.optimize, without the intermediate objects.
+    if (Math.abs(MathUtil.angleModulus(angle - m_turningEncoder.getPosition())) > Math.PI / 2) {
+      speed = -speed;
+      angle += Math.PI;
+    }
 
-    // Command driving and turning SPARKS MAX towards their respective setpoints.
-    m_drivingPIDController.setReference(
-        optimizedDesiredState.speedMetersPerSecond, CANSparkMax.ControlType.kVelocity);
-    m_turningPIDController.setReference(
-        optimizedDesiredState.angle.getRadians(), CANSparkMax.ControlType.kPosition);
+    // Command driving and turning SPARKS MAX towards their respective setpoints. Setpoints that
+    // didn't change since the last loop aren't sent again.
+    m_drivingSparkMax.setReference(speed, CANSparkMax.ControlType.kVelocity);
+    m_turningSparkMax.setReference(MathUtil.angleModulus(angle), CANSparkMax.ControlType.kPosition);
 
-    m_desiredState = desiredState;
+    m_desiredState.speedMetersPerSecond = desiredState.speedMetersPerSecond;
+    m_desiredState.angle = desiredState.angle;
   }
 
   public SwerveModuleState getDesiredState() {
     return m_desiredState;
   }
 
+  /**
+   * Steps the simulated module, only call this in simulation.
+   *
+   * @param dtSeconds How long to simulate.
+   */
+  public void simulationPeriodic(double dtSeconds) {
+    driveSim.update(dtSeconds);
+  }
+
   /** Zeroes all the SwerveModule encoders. */
   public void resetEncoders() {
     m_drivingEncoder.setPosition(0);
   }
 
   public Pose2d getRealWorldPose(Pose2d robotPose) {
-    Pose2d moduleOffsetPose = getPoseDiffToRobot();
-
-    return new Pose2d(
-        robotPose.getX() + moduleOffsetPose.getX(),
-        robotPose.getY() + moduleOffsetPose.getY(),
-        getPosition().angle);
-  }
-
-  private Pose2d getPoseDiffToRobot() {
-    var moduleRotationOffset = Rotation2d.fromRadians(m_chassisAngularOffset);
-    var moduleOffsetLength = DriveConstants.kWheelBase / 2.0;
-
-    return new Pose2d(
-        moduleRotationOffset.getCos() * moduleOffsetLength,
-        moduleRotationOffset.getSin() * moduleOffsetLength,
-        moduleRotationOffset);
+    return new Pose2d(robotPose.getX() + m_offsetX, robotPose.getY() + m_offsetY, getAngle());
   }
 }
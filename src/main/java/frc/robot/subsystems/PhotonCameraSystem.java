@@ -20,36 +20,61 @@ import org.photonvision.targeting.PhotonTrackedTarget;
 /**
  * This class is used to interface with the PhotonCamera and PhotonPoseEstimator classes. It is used
  * to get the robot's pose on the field using only AprilTags.
+ *
+ * <p>There is one for the robot, made by the RobotContainer and given to the subsystems that use
+ * the camera, so a test can make its own and close it afterwards.
  */
-public final class PhotonCameraSystem {
-  private static PhotonCamera camera = new PhotonCamera(PiCamera.cameraName);
-  private static PhotonPoseEstimator photonPoseEstimator = getPhotonPoseEstimator();
-  private static AprilTagFieldLayout fieldLayout;
+public final class PhotonCameraSystem implements AutoCloseable {
+  private final PhotonCamera camera;
+  private final AprilTagFieldLayout fieldLayout;
+  private PhotonPoseEstimator photonPoseEstimator;
 
-  private static int loadTry = 0;
+  private int loadTry = 0;
 
-  private static PhotonPoseEstimator getPhotonPoseEstimator() {
+  /** Loads the field layout, so this takes a while. */
+  public PhotonCameraSystem() {
+    camera = new PhotonCamera(PiCamera.cameraName);
     // Attempt to load the AprilTagFieldLayout that will tell us where the tags are on the field.
     fieldLayout = AprilTagFields.k2024Crescendo.loadAprilTagLayoutField();
+    photonPoseEstimator = getPhotonPoseEstimator();
+  }
+
+  @Override
+  public void close() {
+    camera.close();
+  }
+
+  private PhotonPoseEstimator getPhotonPoseEstimator() {
     // Create pose estimator
-    photonPoseEstimator =
-        new PhotonPoseEstimator(
-            fieldLayout, PoseStrategy.MULTI_TAG_PNP_ON_COPROCESSOR, camera, PiCamera.robotToCam);
-    photonPoseEstimator.setMultiTagFallbackStrategy(PoseStrategy.LOWEST_AMBIGUITY);
+    photonPoseEstimator = createPoseEstimator();
     System.out.println("Loaded PhotonPoseEstimator");
     return photonPoseEstimator;
   }
 
+  /**
+   * Creates a new pose estimator with the same settings as the one this class uses. The estimator
+   * keeps state between updates, so each thread that estimates poses needs its own.
+   *
+   * @return a new {@link PhotonPoseEstimator}.
+   */
+  public PhotonPoseEstimator createPoseEstimator() {
+    var estimator =
+        new PhotonPoseEstimator(
+            fieldLayout, PoseStrategy.MULTI_TAG_PNP_ON_COPROCESSOR, camera, PiCamera.robotToCam);
+    estimator.setMultiTagFallbackStrategy(PoseStrategy.LOWEST_AMBIGUITY);
+    return estimator;
+  }
+
   /**
    * You should never need this, but is here for simulating the camera.
    *
    * @return the camera object the system is using.
    */
-  public static PhotonCamera getCamera() {
+  public PhotonCamera getCamera() {
     return camera;
   }
 
-  public static AprilTagFieldLayout getFieldLayout() {
+  public AprilTagFieldLayout getFieldLayout() {
     return fieldLayout;
   }
 
@@ -61,7 +86,7 @@ public final class PhotonCameraSystem {
    * @param targetHeightMeters The height of the target in meters.
    * @return the distance to the target in meters.
    */
-  public static Optional<Double> getDistanceToTarget(double targetHeightMeters) {
+  public Optional<Double> getDistanceToTarget(double targetHeightMeters) {
     var pitch = getPitch();
     if (pitch == 0) return Optional.empty();
     return Optional.of(
@@ -69,7 +94,7 @@ public final class PhotonCameraSystem {
             PiCamera.kCameraHeight, targetHeightMeters, pitch, PiCamera.kCameraPitchRadians));
   }
 
-  public static PhotonPipelineResult getLatestResult() {
+  public PhotonPipelineResult getLatestResult() {
     if (camera.getDriverMode()) {
       System.out.println("Driver Mode Was ON! Turning it off...");
       camera.setDriverMode(false);
@@ -83,7 +108,7 @@ public final class PhotonCameraSystem {
    * @return the difference between the middle of the camera and the target In Terms of Pitch. If no
    *     target is found, it will return 0 (I have no clue what the units are)
    */
-  public static double getPitch() {
+  public double getPitch() {
     var latestResult = getLatestResult();
     if (latestResult.hasTargets()) {
       return latestResult.getBestTarget().getPitch();
@@ -97,7 +122,7 @@ public final class PhotonCameraSystem {
    * @return the difference between the middle of the camera and the target In terms of Yaw. If no
    *     target is found, it will return 0. (I have no clue what the units are)
    */
-  public static double getYaw() {
+  public double getYaw() {
     var latestResult = getLatestResult();
     if (latestResult.hasTargets()) {
       return latestResult.getBestTarget().getYaw();
@@ -110,7 +135,7 @@ public final class PhotonCameraSystem {
    *
    * @return the area percentage (0 to 100) of the camera fov.
    */
-  public static double getArea() {
+  public double getArea() {
     var latestResult = getLatestResult();
     if (latestResult.hasTargets()) {
       return latestResult.getBestTarget().getArea();
@@ -122,7 +147,7 @@ public final class PhotonCameraSystem {
    * @return The current id of the best april tag being tracked. If no tag is being tracked, it will
    *     return -1.
    */
-  public static int getCurrentAprilTagID() {
+  public int getCurrentAprilTagID() {
     var latestResult = getLatestResult();
     if (latestResult.hasTargets()) {
       return latestResult.getBestTarget().getFiducialId();
@@ -134,7 +159,7 @@ public final class PhotonCameraSystem {
    * @return the current ids of each aprilTag being tracked. If there are no aprilTags is being
    *     tracked, it will return an empty array.
    */
-  public static List<Integer> getTrackedTargetsIDs() {
+  public List<Integer> getTrackedTargetsIDs() {
     List<Integer> ids = new ArrayList<>();
     var latestResult = getLatestResult();
     // If there are no targets, return an empty array.
@@ -147,7 +172,7 @@ public final class PhotonCameraSystem {
     return ids;
   }
 
-  public static List<PhotonTrackedTarget> getTrackedTargets() {
+  public List<PhotonTrackedTarget> getTrackedTargets() {
     return camera.getLatestResult().getTargets();
   }
 
@@ -157,7 +182,7 @@ public final class PhotonCameraSystem {
    * @param id The id of the aprilTag you want to find.
    * @return The PhotonTrackedTarget with the given id. If no target is found, it will return null.
    */
-  public static Optional<PhotonTrackedTarget> getAprilTagWithID(int id) {
+  public Optional<PhotonTrackedTarget> getAprilTagWithID(int id) {
     var targets = getTrackedTargets();
     for (var target : targets) {
       if (target.getFiducialId() == id) {
@@ -172,7 +197,7 @@ public final class PhotonCameraSystem {
    *
    * @param state The state of the LED that you want.
    */
-  public static void setLed(VisionLEDMode state) {
+  public void setLed(VisionLEDMode state) {
     camera.setLED(state);
   }
 
@@ -183,7 +208,7 @@ public final class PhotonCameraSystem {
    * @return The new {@link EstimatedRobotPose} To get {@link Pose2d} use {@code
    *     EstimatedRobotPose.get().estimatedPose.toPose2d()}.
    */
-  public static Optional<EstimatedRobotPose> getEstimatedGlobalPose(Pose2d prevEstimatedRobotPose) {
+  public Optional<EstimatedRobotPose> getEstimatedGlobalPose(Pose2d prevEstimatedRobotPose) {
     if (photonPoseEstimator == null) {
       if (loadTry > 5) {
         photonPoseEstimator = getPhotonPoseEstimator();
@@ -206,7 +231,7 @@ public final class PhotonCameraSystem {
    * @return The new {@link EstimatedRobotPose} To get {@link Pose2d} use {@code
    *     EstimatedRobotPose.get().estimatedPose.toPose2d()}.
    */
-  public static Optional<EstimatedRobotPose> getEstimatedGlobalPose() {
+  public Optional<EstimatedRobotPose> getEstimatedGlobalPose() {
     if (photonPoseEstimator == null) {
       if (loadTry > 5) {
         photonPoseEstimator = getPhotonPoseEstimator();
@@ -1,9 +1,9 @@
 package frc.robot.subsystems;
 
 import edu.wpi.first.wpilibj.motorcontrol.Spark;
-import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.utils.TimedSubsystem;
 
-public class ShooterSubsystem extends SubsystemBase implements AutoCloseable {
+public class ShooterSubsystem extends TimedSubsystem implements AutoCloseable {
   private final Spark shooterMotor;
 
   public ShooterSubsystem() {
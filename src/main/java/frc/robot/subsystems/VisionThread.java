@@ -0,0 +1,190 @@
+package frc.robot.subsystems;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.networktables.PubSubOption;
+import edu.wpi.first.networktables.RawSubscriber;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.Timer;
+import frc.robot.Constants.CameraConstants;
+import frc.utils.SpscRingBuffer;
+import frc.utils.telemetry.DoubleEntry;
+import frc.utils.telemetry.Telemetry;
+import frc.utils.telemetry.Telemetry.Verbosity;
+import org.photonvision.EstimatedRobotPose;
+import org.photonvision.PhotonCamera;
+import org.photonvision.PhotonPoseEstimator;
+import org.photonvision.common.dataflow.structures.Packet;
+import org.photonvision.targeting.PhotonPipelineResult;
+
+/**
+ * Runs the AprilTag pose estimation on its own thread, so the robot loop never waits on it.
+ *
+ * <p>Every result the camera publishes is read in order from NetworkTables (instead of only the
+ * latest one like {@link PhotonCamera#getLatestResult()}), turned into a pose by this thread's own
+ * {@link PhotonPoseEstimator}, and put in a queue with how long it took. The drive loop takes the
+ * poses out with {@link #poll()} and adds them to its pose estimator with their timestamps, and
+ * publishes the latencies with {@link #updateTelemetry()}. The telemetry entries are only used by
+ * the robot loop.
+ */
+public class VisionThread implements AutoCloseable {
+  private static final int kQueueCapacity = 16;
+
+  private final PhotonCameraSystem cameraSystem;
+  private final PhotonCamera camera;
+  private final RawSubscriber resultSubscriber;
+  private final Notifier notifier;
+  private final SpscRingBuffer<Result> results = new SpscRingBuffer<>(kQueueCapacity, Result::new);
+
+  /** One slot of the queue, filled by the vision thread for every camera result. */
+  private static final class Result {
+    // Null if the result had no targets to estimate from.
+    private EstimatedRobotPose estimate;
+    private double processingLatencyMs;
+    private double resultLatencyMs;
+  }
+
+  // Only used by the vision thread.
+  private PhotonPoseEstimator poseEstimator;
+
+  // Only used by the robot loop.
+  private double processingLatencyMs = 0;
+  private double resultLatencyMs = 0;
+  private final DoubleEntry processingLatencyEntry =
+      Telemetry.addDouble("Vision Processing Latency ms", Verbosity.DEBUG, 0);
+  private final DoubleEntry resultLatencyEntry =
+      Telemetry.addDouble("Vision Result Latency ms", Verbosity.COMPETITION, 0);
+
+  private volatile Pose2d referencePose = new Pose2d();
+  private volatile long processedResults = 0;
+  private volatile long droppedMeasurements = 0;
+
+  public VisionThread(PhotonCameraSystem cameraSystem) {
+    this.cameraSystem = cameraSystem;
+    this.camera = cameraSystem.getCamera();
+    // Same topic PhotonCamera reads, but every value gets queued instead of only the latest one.
+    resultSubscriber =
+        NetworkTableInstance.getDefault()
+            .getTable("photonvision")
+            .getSubTable(camera.getName())
+            .getRawTopic("rawBytes")
+            .subscribe(
+                "rawBytes",
+                new byte[] {},
+                PubSubOption.sendAll(true),
+                PubSubOption.pollStorage(kQueueCapacity));
+
+    notifier = new Notifier(this::processResults);
+    notifier.setName("Vision Thread");
+  }
+
+  public void start() {
+    notifier.startPeriodic(1.0 / CameraConstants.kVisionThreadFrequencyHz);
+  }
+
+  @Override
+  public void close() {
+    notifier.close();
+    resultSubscriber.close();
+    processingLatencyEntry.close();
+    resultLatencyEntry.close();
+  }
+
+  /**
+   * Sets the pose the estimator uses as a reference, called from the robot loop.
+   *
+   * @param pose the current estimated pose of the robot.
+   */
+  public void setReferencePose(Pose2d pose) {
+    referencePose = pose;
+  }
+
+  /**
+   * Takes the oldest pose the vision thread estimated, call this from the robot loop until it
+   * returns null.
+   *
+   * @return the oldest estimated pose, or null if there are no new poses.
+   */
+  public EstimatedRobotPose poll() {
+    Result result;
+    while ((result = results.peek()) != null) {
+      final var estimate = result.estimate;
+      processingLatencyMs = result.processingLatencyMs;
+      resultLatencyMs = result.resultLatencyMs;
+      results.release(); // Frees the slot for the vision thread.
+      if (estimate != null) {
+        return estimate;
+      }
+    }
+    return null;
+  }
+
+  /** Publishes the latencies of the latest result taken by {@link #poll()}, from the robot loop. */
+  public void updateTelemetry() {
+    processingLatencyEntry.set(processingLatencyMs);
+    resultLatencyEntry.set(resultLatencyMs);
+  }
+
+  /**
+   * @return the amount of camera results that went through the estimator.
+   */
+  public long getProcessedResultCount() {
+    return processedResults;
+  }
+
+  /**
+   * @return the amount of poses thrown away because the robot loop didn't take them in time.
+   */
+  public long getDroppedMeasurementCount() {
+    return droppedMeasurements;
+  }
+
+  private void processResults() {
+    if (poseEstimator == null && !loadPoseEstimator()) {
+      resultSubscriber.readQueue(); // Nothing to estimate with, don't let old results pile up.
+      return;
+    }
+
+    for (var rawResult : resultSubscriber.readQueue()) {
+      if (rawResult.value.length == 0) {
+        continue;
+      }
+      final double startSeconds = Timer.getFPGATimestamp();
+
+      var result = PhotonPipelineResult.serde.unpack(new Packet(rawResult.value));
+      // Same as PhotonCamera.getLatestResult, the time the image was taken at.
+      result.setTimestampSeconds(rawResult.timestamp / 1e6 - result.getLatencyMillis() / 1e3);
+
+      poseEstimator.setReferencePose(referencePose);
+      var estimate = poseEstimator.update(result);
+      processedResults++;
+
+      final double endSeconds = Timer.getFPGATimestamp();
+      final var slot = results.claim();
+      if (slot == null) {
+        // The robot loop didn't keep up, drop the result instead of overwriting one being read.
+        if (estimate.isPresent()) {
+          droppedMeasurements++;
+        }
+        continue;
+      }
+      slot.estimate = estimate.orElse(null);
+      slot.processingLatencyMs = (endSeconds - startSeconds) * 1000;
+      slot.resultLatencyMs = (endSeconds - result.getTimestampSeconds()) * 1000;
+      results.publish();
+    }
+  }
+
+  /** Made here instead of in the constructor, so it is only used by the vision thread. */
+  private boolean loadPoseEstimator() {
+    try {
+      poseEstimator = cameraSystem.createPoseEstimator();
+      return true;
+    } catch (RuntimeException e) {
+      DriverStation.reportError(
+          "Vision Thread couldn't load the pose estimator for " + camera.getName(), false);
+      return false;
+    }
+  }
+}
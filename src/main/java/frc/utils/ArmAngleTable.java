@@ -0,0 +1,153 @@
+package frc.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Filesystem;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Turns the distance to the speaker into the arm position to shoot at, by interpolating between
+ * calibrated points.
+ *
+ * <p>The points are made by {@link ArmAngleTableFitter} from shot calibration logs and deployed as
+ * {@value #kFileName}. Lookups are a binary search plus a linear interpolation, they don't
+ * allocate. Distances outside the table use the closest point. If there is no table {@link
+ * ExtraFunctions#getAngleFromDistance(double)} is used instead.
+ */
+public class ArmAngleTable {
+  public static final String kFileName = "arm_angle_table.json";
+
+  private static final ObjectMapper mapper = new ObjectMapper();
+
+  // Both null when falling back to the quadratic.
+  private final double[] distances;
+  private final double[] angles;
+
+  /**
+   * @param distances the distances of the points in meters, strictly increasing.
+   * @param angles the arm positions for each distance.
+   */
+  public ArmAngleTable(double[] distances, double[] angles) {
+    if (distances.length != angles.length || distances.length < 2) {
+      throw new IllegalArgumentException("An arm angle table needs at least 2 points");
+    }
+    for (int i = 1; i < distances.length; i++) {
+      if (!(distances[i] > distances[i - 1])) {
+        throw new IllegalArgumentException("Arm angle table distances must be increasing");
+      }
+    }
+    this.distances = distances.clone();
+    this.angles = angles.clone();
+  }
+
+  private ArmAngleTable() {
+    distances = null;
+    angles = null;
+  }
+
+  /**
+   * @return a table that always uses {@link ExtraFunctions#getAngleFromDistance(double)}.
+   */
+  public static ArmAngleTable quadratic() {
+    return new ArmAngleTable();
+  }
+
+  /**
+   * Loads {@value #kFileName} from the deploy directory. Call this before enabling, it reads a
+   * file. RobotContainer loads it once and gives it to everything that needs it.
+   *
+   * @return the deployed table, or {@link #quadratic()} if there isn't one.
+   */
+  public static ArmAngleTable loadDeployed() {
+    return loadOrQuadratic(new File(Filesystem.getDeployDirectory(), kFileName));
+  }
+
+  /**
+   * @param file the JSON file to load.
+   * @return the table in the file, or {@link #quadratic()} if it couldn't be read.
+   */
+  public static ArmAngleTable loadOrQuadratic(File file) {
+    if (!file.exists()) {
+      DriverStation.reportWarning(
+          "No " + kFileName + " deployed, using the arm quadratic function", false);
+      return quadratic();
+    }
+    try {
+      return read(file);
+    } catch (IOException | IllegalArgumentException e) {
+      DriverStation.reportError(
+          "Couldn't load " + file + ", using the arm quadratic function: " + e.getMessage(), false);
+      return quadratic();
+    }
+  }
+
+  /**
+   * @param file the JSON file to read, with a "distances" and an "angles" array.
+   * @return the table in the file.
+   * @throws IOException if the file couldn't be read.
+   */
+  public static ArmAngleTable read(File file) throws IOException {
+    JsonNode root = mapper.readTree(file);
+    if (!root.has("distances") || !root.has("angles")) {
+      throw new IOException(file + " needs a \"distances\" and an \"angles\" array");
+    }
+    return new ArmAngleTable(
+        mapper.treeToValue(root.get("distances"), double[].class),
+        mapper.treeToValue(root.get("angles"), double[].class));
+  }
+
+  /**
+   * @param file the JSON file to write this table to.
+   * @throws IOException if the file couldn't be written.
+   */
+  public void write(File file) throws IOException {
+    if (distances == null) {
+      throw new IllegalStateException("The quadratic fallback has no points to write");
+    }
+    ObjectNode root = mapper.createObjectNode();
+    root.set("distances", mapper.valueToTree(distances));
+    root.set("angles", mapper.valueToTree(angles));
+    mapper.writerWithDefaultPrettyPrinter().writeValue(file, root);
+  }
+
+  /**
+   * @param distance the distance to the speaker in meters.
+   * @return the arm position to shoot from that distance.
+   */
+  public double getAngle(double distance) {
+    if (distances == null) {
+      return ExtraFunctions.getAngleFromDistance(distance);
+    }
+
+    int index = Arrays.binarySearch(distances, distance);
+    if (index >= 0) {
+      return angles[index];
+    }
+    // Not an exact match, this is the index of the first point further away.
+    int upper = -index - 1;
+    if (upper == 0) {
+      return angles[0];
+    }
+    if (upper == distances.length) {
+      return angles[angles.length - 1];
+    }
+    int lower = upper - 1;
+    double t = (distance - distances[lower]) / (distances[upper] - distances[lower]);
+    return angles[lower] + (angles[upper] - angles[lower]) * t;
+  }
+
+  /**
+   * @return false if this table falls back to the quadratic function.
+   */
+  public boolean isCalibrated() {
+    return distances != null;
+  }
+
+  public int size() {
+    return distances == null ? 0 : distances.length;
+  }
+}
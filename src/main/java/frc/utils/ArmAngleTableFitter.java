@@ -0,0 +1,124 @@
+package frc.utils;
+
+import edu.wpi.first.util.datalog.DataLogReader;
+import edu.wpi.first.util.datalog.DataLogRecord;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Fits shot calibration logs into an {@link ArmAngleTable}. Run it with {@code ./gradlew
+ * fitArmAngleTable -Plogs=<folder or .wpilog file>}, then deploy.
+ *
+ * <p>Only the shots that went in are used. They are grouped into bins of {@value #kBinWidthMeters}
+ * meters, and every bin becomes one point at the average distance and arm position of its hits.
+ */
+public class ArmAngleTableFitter {
+  public static final double kBinWidthMeters = 0.25;
+
+  /**
+   * @param args the folder with the .wpilog files (or one .wpilog file), then the JSON file to
+   *     write the table to.
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length != 2) {
+      System.err.println("Usage: ArmAngleTableFitter <logs> <output json>");
+      System.exit(1);
+    }
+
+    var shots = new ArrayList<double[]>();
+    for (File log : findLogs(new File(args[0]))) {
+      int before = shots.size();
+      readShots(log, shots);
+      System.out.println("Read " + (shots.size() - before) + " shots from " + log);
+    }
+
+    var table = fit(shots);
+    var output = new File(args[1]);
+    if (table == null) {
+      System.err.println(
+          "Hits at fewer than 2 distances, log more shots. Keeping " + output + " as it is.");
+      System.exit(1);
+    }
+    table.write(output);
+    System.out.println("Wrote " + table.size() + " points to " + output);
+  }
+
+  private static List<File> findLogs(File path) {
+    if (path.isFile()) {
+      return List.of(path);
+    }
+    var logs = new ArrayList<File>();
+    File[] files = path.listFiles((dir, name) -> name.endsWith(".wpilog"));
+    if (files != null) {
+      logs.addAll(List.of(files));
+    }
+    return logs;
+  }
+
+  /**
+   * Reads every {@link ShotCalibrationLog} shot in a log file.
+   *
+   * @param log the .wpilog file.
+   * @param shots where to add the shots, as {distance, arm position, hit}.
+   */
+  public static void readShots(File log, List<double[]> shots) throws IOException {
+    var reader = new DataLogReader(log.getPath());
+    if (!reader.isValid()) {
+      throw new IOException(log + " is not a valid log");
+    }
+
+    var shotEntries = new HashSet<Integer>();
+    for (DataLogRecord record : reader) {
+      if (record.isStart()) {
+        var start = record.getStartData();
+        if (start.name.equals(ShotCalibrationLog.kEntryName)) {
+          shotEntries.add(start.entry);
+        }
+      } else if (!record.isControl() && shotEntries.contains(record.getEntry())) {
+        var shot = record.getDoubleArray();
+        if (shot.length == 3) {
+          shots.add(shot);
+        }
+      }
+    }
+  }
+
+  /**
+   * @param shots the logged shots, as {distance, arm position, hit}.
+   * @return a table with one point for every bin that had a hit, or null if fewer than 2 bins had
+   *     one, a table needs at least 2 points.
+   */
+  public static ArmAngleTable fit(List<double[]> shots) {
+    // bin -> {distance sum, arm position sum, hits}
+    var bins = new TreeMap<Long, double[]>();
+    for (double[] shot : shots) {
+      if (shot[2] < 0.5) {
+        continue; // missed
+      }
+      var bin = bins.computeIfAbsent(Math.round(shot[0] / kBinWidthMeters), k -> new double[3]);
+      bin[0] += shot[0];
+      bin[1] += shot[1];
+      bin[2]++;
+    }
+
+    if (bins.size() < 2) {
+      return null;
+    }
+
+    double[] distances = new double[bins.size()];
+    double[] angles = new double[bins.size()];
+    int i = 0;
+    for (Map.Entry<Long, double[]> bin : bins.entrySet()) {
+      double hits = bin.getValue()[2];
+      distances[i] = bin.getValue()[0] / hits;
+      angles[i] = bin.getValue()[1] / hits;
+      i++;
+    }
+    return new ArmAngleTable(distances, angles);
+  }
+}
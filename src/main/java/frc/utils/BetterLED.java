@@ -2,12 +2,22 @@ package frc.utils;
 
 import edu.wpi.first.wpilibj.AddressableLED;
 import edu.wpi.first.wpilibj.AddressableLEDBuffer;
-import edu.wpi.first.wpilibj.DataLogManager;
+import edu.wpi.first.wpilibj.Notifier;
 import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.util.Color;
-import java.util.ArrayList;
-import java.util.concurrent.locks.ReentrantLock;
-
+import frc.robot.Constants.LEDConstants;
+import frc.utils.LEDZone.Blend;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * An LED strip that runs animations on its own thread.
+ *
+ * <p>The strip is split into {@link LEDZone}s, each running its own animation. At a fixed rate
+ * every zone is rendered and drawn over the ones with a lower priority into a single frame, and the
+ * frame is only sent to the strip when it changed. The animation methods here run on the zone that
+ * covers the whole strip, which is below every other zone.
+ */
 public class BetterLED extends AddressableLED {
   public enum AnimationType { // Is already static.
     LEFT_TO_RIGHT,
@@ -16,171 +26,141 @@ public class BetterLED extends AddressableLED {
     ENDS_TO_MIDDLE
   }
 
-  private AddressableLEDBuffer mainBuffer;
-  private int ledCount;
-  private int rainbowFirstPixelHue = 0;
-  private int currentAnimationIndex = 0;
+  // The buffer and the frames are replaced together when the length changes.
+  private static final class Frame {
+    private final AddressableLEDBuffer buffer;
+    private final byte[] pixels;
+    private final byte[] sent;
+    private final int length;
+    private final LEDZone wholeStrip;
+
+    private Frame(int length) {
+      this.length = length;
+      buffer = new AddressableLEDBuffer(length);
+      pixels = new byte[length * 3];
+      sent = new byte[length * 3];
+      wholeStrip = new LEDZone("Whole Strip", 0, length, Integer.MIN_VALUE, Blend.REPLACE, true);
+    }
+  }
 
-  private final ReentrantLock ledMutex = new ReentrantLock(true);
-  private volatile boolean isThreadKilled = false;
+  private volatile Frame frame;
 
-  // The call list will have all animation calls in it,
-  // This will run like a scheduler, just on a smaller scale.
-  // it will probably have only a single function, but is an Arraylist just in case.
-  private final ArrayList<LEDCommand> commandList;
+  // Sorted by priority, only replaced so the LED thread can read it without a lock.
+  private final AtomicReference<LEDZone[]> zones = new AtomicReference<>(new LEDZone[0]);
 
-  // The Thread will handle calling the callList and all other requirements for animations.
-  private Thread ledUpdateThread;
+  private final Notifier renderer;
 
   public BetterLED(int port, int ledCount) {
     super(port);
-    mainBuffer = new AddressableLEDBuffer(ledCount);
-    this.setLength(mainBuffer.getLength());
+    this.setLength(ledCount);
     this.start();
-    commandList = new ArrayList<>(10); // 3 should be enough on most cases.
-    // Create an update thread that handles animations
-    setupThread();
-    stopAnimation();
-  }
-
-  private void setupThread() {
-    isThreadKilled = false; // Reset the kill flag on setup of thread
-    ledUpdateThread =
-        new Thread(
-            () -> {
-              do { // Infinity call periodic,
-                ledMutex.lock();
-                try {
-                  periodic();
-                } finally {
-                  ledMutex.unlock();
-                }
-                Timer.delay(0.015);
-
-                // Kill the thread if it has been set to kill.
-              } while (!isThreadKilled);
-            },
-            "LED Control Thread");
-    ledUpdateThread.setDaemon(true);
-    ledUpdateThread.start();
+    renderer = new Notifier(this::renderFrame);
+    renderer.setName("LED Renderer");
+    renderer.startPeriodic(LEDConstants.kFramePeriodSeconds);
   }
 
   @Override
   public void close() {
-    isThreadKilled = true;
+    renderer.close();
     super.close();
   }
 
   /**
-   * Check if the thread is alive and if not, restart it.
+   * Returns the buffer thats used. You should never need to use this except debugging or similar.
    *
-   * @return thread got restarted
-   *     <p>true if restarted, false if not
+   * @return The main buffer used by the LED instance, it has the last frame sent to the strip.
    */
-  public boolean checkThreadStatus() {
-    if (!ledUpdateThread.isAlive()) {
-      setupThread(); // restart thread
-      return true;
-    }
-    return false;
+  public AddressableLEDBuffer getBuffer() {
+    return frame.buffer;
+  }
+
+  public int getLedCount() {
+    return frame.length;
   }
 
   /**
-   * Returns the buffer thats used. You should never need to use this except debugging or similar.
+   * Creates a zone with its own animations, drawn over the zones with a lower priority.
    *
-   * @return The main buffer used by the LED instance.
+   * @param name the name of the zone.
+   * @param start the first LED of the zone.
+   * @param end the LED after the last one of the zone.
+   * @param priority zones with a higher priority are drawn over this one, zones with the same
+   *     priority are drawn in the order they were created.
+   * @param blend how the zone is drawn over the ones below.
+   * @return the zone, it shows nothing until it is given an animation.
    */
-  public AddressableLEDBuffer getBuffer() {
-    return mainBuffer;
+  public LEDZone createZone(String name, int start, int end, int priority, Blend blend) {
+    if (start < 0 || end > getLedCount() || start > end) {
+      throw new IllegalArgumentException(
+          "Zone %s from %d to %d doesn't fit on %d LEDs"
+              .formatted(name, start, end, getLedCount()));
+    }
+    final var zone = new LEDZone(name, start, end, priority, blend, false);
+    zones.updateAndGet(
+        current -> {
+          var added = Arrays.copyOf(current, current.length + 1);
+          int index = current.length;
+          while (index > 0 && added[index - 1].getPriority() > priority) {
+            added[index] = added[index - 1];
+            index--;
+          }
+          added[index] = zone;
+          return added;
+        });
+    return zone;
   }
 
-  public int getLedCount() {
-    return ledCount;
+  /**
+   * @return the zone that covers the whole strip, the animation methods here run on it.
+   */
+  public LEDZone getWholeStrip() {
+    return frame.wholeStrip;
   }
 
   public void fillColor(Color color, int start, int end) {
-    addToLoop(
-        new LEDCommand(() -> fill(color, start, end), false, "Fill with: " + color.toHexString()));
+    getWholeStrip().fillColor(color, start, end);
   }
 
   public void fillColor(Color color, int end) {
-    fillColor(color, 0, end);
+    getWholeStrip().fillColor(color, end);
   }
 
   public void fillColor(Color color) {
-    fillColor(color, ledCount);
-  }
-
-  private void fill(Color color, int start, int end) {
-    for (int i = start; i < end; i++) {
-      mainBuffer.setLED(i, color);
-    }
-    this.setData(mainBuffer);
-  }
-
-  private void fill(Color color, int end) {
-    fill(color, 0, end);
-  }
-
-  private void fill(Color color) {
-    fill(color, ledCount);
+    getWholeStrip().fillColor(color);
   }
 
   public void startRainbow() {
-    changeLoopTo(new LEDCommand(this::rainbowLoop, true, "Rainbow"));
+    getWholeStrip().startRainbow();
   }
 
   public void animateColor(Color color, AnimationType animation) {
-    animateColor(color, animation, (ledCount * 2) / 3);
+    getWholeStrip().animateColor(color, animation);
   }
 
   public void animateColor(Color color, AnimationType animation, int onLEDCount) {
-    switch (animation) {
-      case LEFT_TO_RIGHT:
-        changeLoopTo(createLeftToRightAnimationLoop(color, onLEDCount));
-        break;
-      case RIGHT_TO_LEFT:
-        changeLoopTo(createRightToLeftAnimationLoop(color, onLEDCount));
-        break;
-      case MIDDLE_TO_ENDS:
-        break; // TODO: implement
-      case ENDS_TO_MIDDLE:
-        break; // TODO: implement
-    }
+    getWholeStrip().animateColor(color, animation, onLEDCount);
   }
 
   public void stopAnimation() {
-    commandList.clear();
+    getWholeStrip().stopAnimation();
   }
 
+  /**
+   * Blinks the strip, half a second on and half a second off.
+   *
+   * @param color The color to blink.
+   * @param blinkCount How many times to blink, the strip is left off after the last one.
+   */
   public void blink(Color color, int blinkCount) {
-    changeLoopTo(
-        new LEDCommand(
-            () -> {
-              fill(color);
-              Timer.delay(0.5);
-              fill(Color.kBlack);
-              Timer.delay(0.5);
-            },
-            blinkCount,
-            "blink %d times".formatted(blinkCount)));
+    getWholeStrip().blink(color, blinkCount);
   }
 
   public void blink(Color color, double delaySeconds) {
-    changeLoopTo(
-        new LEDCommand(
-            () -> {
-              fill(color);
-              Timer.delay(delaySeconds);
-              fill(Color.kBlack);
-              Timer.delay(delaySeconds);
-            },
-            true,
-            "blink %s infinitely".formatted(color.toString())));
+    getWholeStrip().blink(color, delaySeconds);
   }
 
   public void blink(Color color) {
-    blink(color, 0.2);
+    getWholeStrip().blink(color);
   }
 
   /**
@@ -192,141 +172,59 @@ public class BetterLED extends AddressableLED {
    * @param min The min value of the led, normally the minimum is 0.
    */
   public void breathe(Color color, double delayTime, int max, int min) {
-    changeLoopTo(
-        new LEDCommand(
-            () -> {
-              // Light UP The led
-              for (int i = min; i < max; i++) {
-                fill(new Color(color.red * i, color.green * i, color.blue * i));
-                Timer.delay(delayTime);
-              }
-              // Light DOWN the led
-              for (int i = max; i > min; i--) {
-                fill(new Color(color.red * i, color.green * i, color.blue * i));
-                Timer.delay(delayTime);
-              }
-            },
-            true,
-            "breath %s".formatted(color.toString())));
+    getWholeStrip().breathe(color, delayTime, max, min);
   }
 
   public void breathe(Color color, double delayTime) {
-    breathe(color, delayTime, 255, 0);
+    getWholeStrip().breathe(color, delayTime);
   }
 
   public void breathe(Color color) {
-    breathe(color, 0.01);
+    getWholeStrip().breathe(color);
   }
 
+  /** Changing the length also replaces the zone that covers the whole strip. */
   @Override
   public void setLength(int length) {
-    mainBuffer = new AddressableLEDBuffer(length);
-    ledCount = length;
+    frame = new Frame(length);
     super.setLength(length);
   }
 
-  private void changeLoopTo(LEDCommand func) {
-    ledMutex.lock();
-    try {
-      commandList.clear(); // Clear the list first
-      commandList.add(func); // then add the runnable
-    } finally {
-      ledMutex.unlock();
-    }
-  }
-
   public void addToLoop(LEDCommand command) {
-    ledMutex.lock();
-    try {
-      commandList.add(command);
-    } finally {
-      ledMutex.unlock();
-    }
+    getWholeStrip().addToLoop(command);
   }
 
   public void removeFromLoop(int amount) {
-    ledMutex.lock();
-    try {
-      for (int i = 0; i < amount; i++) {
-        if (!commandList.isEmpty()) {
-          commandList.remove(0);
-        }
-      }
-    } finally {
-      ledMutex.unlock();
-    }
+    getWholeStrip().removeFromLoop(amount);
   }
 
   public void removeFromLoop() {
-    removeFromLoop(1);
+    getWholeStrip().removeFromLoop();
   }
 
-  private void periodic() {
-    // Call any functions in the callList
-    if (commandList.isEmpty()) {
-      return;
-    }
-    var command = commandList.get(0);
-    DataLogManager.log(command.getName());
-    command.execute();
-    if (command.hasEnded()) {
-      commandList.remove(0);
+  // Runs on the LED thread every frame.
+  private void renderFrame() {
+    final double now = Timer.getFPGATimestamp();
+    final var current = frame;
+    current.wholeStrip.draw(current.pixels, current.length, now);
+    for (var zone : zones.get()) {
+      zone.draw(current.pixels, current.length, now);
     }
-  }
 
-  private void rainbowLoop() {
-    for (int i = 0; i < ledCount; i++) {
-      // Calculate the hue - hue is easier for rainbows because the color
-      // shape is a circle so only one value needs to precess
-      final var hue = (rainbowFirstPixelHue + (i * 180 / ledCount)) % 80;
-      // Set the value
-      mainBuffer.setHSV(i, hue, 255, 255);
+    if (!Arrays.equals(current.pixels, current.sent)) {
+      System.arraycopy(current.pixels, 0, current.sent, 0, current.pixels.length);
+      for (int i = 0; i < current.length; i++) {
+        current.buffer.setRGB(
+            i,
+            current.pixels[i * 3] & 0xFF,
+            current.pixels[i * 3 + 1] & 0xFF,
+            current.pixels[i * 3 + 2] & 0xFF);
+      }
+      this.setData(current.buffer);
     }
-    rainbowFirstPixelHue += 3;
-    rainbowFirstPixelHue %= 180;
-    this.setData(mainBuffer);
-  }
-
-  private LEDCommand createLeftToRightAnimationLoop(Color color, int onLEDCount) {
-    return new LEDCommand(
-        () -> {
-          final int start =
-              currentAnimationIndex > onLEDCount ? currentAnimationIndex - onLEDCount : 0;
-          for (int i = start; i < ledCount && i < currentAnimationIndex; i++) {
-            mainBuffer.setLED(i, color);
-          }
-          currentAnimationIndex++;
-          currentAnimationIndex %= ledCount;
-          this.setData(mainBuffer);
-          Timer.delay(0.1);
-        },
-        true,
-        "Left To Right %s".formatted(color.toString()));
-  }
-
-  private LEDCommand createRightToLeftAnimationLoop(Color color, int onLEDCount) {
-    return new LEDCommand(
-        () -> {
-          final int start =
-              currentAnimationIndex < onLEDCount ? currentAnimationIndex + onLEDCount : ledCount;
-          for (int i = start; i > 0 && i > currentAnimationIndex; i--) {
-            mainBuffer.setLED(i, color);
-          }
-          currentAnimationIndex--;
-          currentAnimationIndex =
-              Math.floorMod(
-                  currentAnimationIndex, ledCount); // ! DO NOT USE % WITH NEGATIVE NUMBERS.
-          this.setData(mainBuffer);
-          Timer.delay(0.1);
-        },
-        true,
-        "Right to Left %s".formatted(color.toString()));
   }
 
   public String getCurrentCommandName() {
-    if (commandList.isEmpty()) {
-      return "No Command Running";
-    }
-    return commandList.get(0).toString();
+    return getWholeStrip().getCurrentCommandName();
   }
 }
@@ -0,0 +1,173 @@
+package frc.utils;
+
+import edu.wpi.first.math.filter.Debouncer;
+import edu.wpi.first.math.filter.Debouncer.DebounceType;
+import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.Timer;
+import frc.utils.sim_utils.ColorSensorV3Wrapped;
+
+/**
+ * Reads the intake color sensor on its own thread and decides whether there is a note.
+ *
+ * <p>Every sample reads the color and the proximity in a single I2C transaction. The result is
+ * published as an immutable {@link Sample} through a volatile field, so any thread can read the
+ * latest one without touching the I2C bus. The note state is debounced, so a single bad reading
+ * doesn't stop the intake. Nothing else runs on the sampler thread, whoever reacts to a note checks
+ * {@link #getNotesSeen()} on their own thread.
+ */
+public class ColorSensorSampler implements AutoCloseable {
+  /** The result of one read of the sensor. */
+  public static final class Sample {
+    private final int red;
+    private final int green;
+    private final int blue;
+    private final int ir;
+    private final int proximity;
+    private final boolean hasNote;
+    private final double timestampSeconds;
+
+    private Sample(
+        int red,
+        int green,
+        int blue,
+        int ir,
+        int proximity,
+        boolean hasNote,
+        double timestampSeconds) {
+      this.red = red;
+      this.green = green;
+      this.blue = blue;
+      this.ir = ir;
+      this.proximity = proximity;
+      this.hasNote = hasNote;
+      this.timestampSeconds = timestampSeconds;
+    }
+
+    public int getRed() {
+      return red;
+    }
+
+    public int getGreen() {
+      return green;
+    }
+
+    public int getBlue() {
+      return blue;
+    }
+
+    public int getIR() {
+      return ir;
+    }
+
+    /**
+     * @return the proximity, from 0 when nothing is there to 2047 when something is touching it.
+     */
+    public int getProximity() {
+      return proximity;
+    }
+
+    /**
+     * @return the debounced note state.
+     */
+    public boolean hasNote() {
+      return hasNote;
+    }
+
+    /**
+     * @return the FPGA time the sensor was read at.
+     */
+    public double getTimestampSeconds() {
+      return timestampSeconds;
+    }
+  }
+
+  private final ColorSensorV3Wrapped colorSensor;
+  private final Notifier notifier;
+  private final Debouncer debouncer;
+  private final int[] values = new int[5];
+  private volatile Sample latest = new Sample(0, 0, 0, 0, 0, false, 0);
+  private volatile long failedReads = 0;
+  private volatile long notesSeen = 0;
+
+  /**
+   * @param colorSensor the sensor to read.
+   * @param debounceSeconds how long a reading has to stay the same before the note state changes.
+   */
+  public ColorSensorSampler(ColorSensorV3Wrapped colorSensor, double debounceSeconds) {
+    this.colorSensor = colorSensor;
+    debouncer = new Debouncer(debounceSeconds, DebounceType.kBoth);
+    notifier = new Notifier(this::sample);
+    notifier.setName("Color Sensor Sampler");
+    // The simulated values change without the sensor being read, sample them right away.
+    colorSensor.setSimValuesListener(this::sample);
+  }
+
+  /**
+   * @param periodSeconds how often to read the sensor, there is no point in going faster than the
+   *     sensor measures.
+   */
+  public void start(double periodSeconds) {
+    sample();
+    notifier.startPeriodic(periodSeconds);
+  }
+
+  @Override
+  public void close() {
+    notifier.close();
+    colorSensor.setSimValuesListener(null);
+  }
+
+  /** Reads the sensor and publishes a new sample, normally called by the notifier. */
+  public synchronized void sample() {
+    if (!colorSensor.readColorAndProximity(values)) {
+      failedReads++; // Keep the last sample.
+      return;
+    }
+    final int red = values[0];
+    final int green = values[1];
+    final int blue = values[2];
+    final int proximity = values[4];
+
+    final boolean wasNote = latest.hasNote;
+    final boolean hasNote = debouncer.calculate(looksLikeNote(red, green, blue, proximity));
+    latest = new Sample(red, green, blue, values[3], proximity, hasNote, Timer.getFPGATimestamp());
+    if (hasNote && !wasNote) {
+      notesSeen++; // Only written here, under the lock.
+    }
+  }
+
+  /**
+   * @return whether a single reading looks like a note, without debouncing.
+   */
+  public static boolean looksLikeNote(int red, int green, int blue, int proximity) {
+    // If we are really close, we will decrease the threshold.
+    // Proximity is inversely proportional to distance. and max of 2047 is 0 inches.
+    if (proximity > 1600) {
+      red = (int) (red * (1600.0 / proximity));
+      blue = (int) (blue * (1600.0 / proximity));
+    }
+
+    return proximity > 300 && red > 700 && blue < 9000 && red > green;
+  }
+
+  /**
+   * @return the latest sample, this never reads the sensor.
+   */
+  public Sample getLatest() {
+    return latest;
+  }
+
+  /**
+   * @return how many times a note arrived, it goes up once per note and not while it stays.
+   */
+  public long getNotesSeen() {
+    return notesSeen;
+  }
+
+  /**
+   * @return how many reads of the sensor failed.
+   */
+  public long getFailedReads() {
+    return failedReads;
+  }
+}
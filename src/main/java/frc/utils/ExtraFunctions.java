@@ -23,8 +23,10 @@ public class ExtraFunctions {
   }
 
   public static int getShooterAprilTagID() {
-    var alliance = DriverStation.getAlliance().orElse(Alliance.Blue);
+    return getShooterAprilTagID(DriverStation.getAlliance().orElse(Alliance.Blue));
+  }
 
+  public static int getShooterAprilTagID(Alliance alliance) {
     return alliance == Alliance.Blue ? 7 : 4;
   }
 
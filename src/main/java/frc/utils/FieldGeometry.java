@@ -0,0 +1,144 @@
+package frc.utils;
+
+import edu.wpi.first.apriltag.AprilTagFieldLayout;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.DriverStation.Alliance;
+import java.util.Optional;
+
+/**
+ * Where the things we aim at are on the field, for the alliance we are on.
+ *
+ * <p>The target points are worked out from the AprilTag layout once the alliance is known, and only
+ * again when the alliance changes. Distance and angle queries take the robot's position as doubles
+ * and return doubles, so they can be called as often as needed without allocating.
+ */
+public class FieldGeometry {
+  /** Something on the field we want to drive to or aim at. */
+  public enum Target {
+    SPEAKER(7, 7, 4, 4),
+    AMP(6, 6, 5, 5),
+    // The source we take notes from is on the other alliance's side of the field.
+    SOURCE(1, 2, 9, 10);
+
+    private final int blueTagA;
+    private final int blueTagB;
+    private final int redTagA;
+    private final int redTagB;
+
+    /** The target point is the middle of the two tags, use the same tag twice for one tag. */
+    Target(int blueTagA, int blueTagB, int redTagA, int redTagB) {
+      this.blueTagA = blueTagA;
+      this.blueTagB = blueTagB;
+      this.redTagA = redTagA;
+      this.redTagB = redTagB;
+    }
+  }
+
+  private static final Target[] targets = Target.values();
+
+  private final AprilTagFieldLayout fieldLayout;
+  private final double[] targetX = new double[targets.length];
+  private final double[] targetY = new double[targets.length];
+
+  private Alliance alliance;
+  private boolean loaded = false;
+
+  /**
+   * @param fieldLayout the layout to take the tag positions from, can be null if it couldn't be
+   *     loaded.
+   */
+  public FieldGeometry(AprilTagFieldLayout fieldLayout) {
+    this.fieldLayout = fieldLayout;
+  }
+
+  /**
+   * Sets the alliance the targets are for, does nothing if it didn't change. Blue is used until the
+   * driver station tells us otherwise, the same as the rest of the robot code.
+   *
+   * @param alliance the alliance reported by the driver station.
+   */
+  public void setAlliance(Optional<Alliance> alliance) {
+    setAlliance(alliance.orElse(Alliance.Blue));
+  }
+
+  /**
+   * Sets the alliance the targets are for, does nothing if it didn't change.
+   *
+   * @param alliance the alliance we are on.
+   */
+  public void setAlliance(Alliance alliance) {
+    if (alliance == this.alliance) {
+      return;
+    }
+    this.alliance = alliance;
+    loaded = computeTargets();
+    if (!loaded) {
+      DriverStation.reportError("Field Layout Couldn't be loaded", false);
+    }
+  }
+
+  private boolean computeTargets() {
+    if (fieldLayout == null) {
+      return false;
+    }
+    final boolean blue = alliance == Alliance.Blue;
+    for (Target target : targets) {
+      var tagA = fieldLayout.getTagPose(blue ? target.blueTagA : target.redTagA);
+      var tagB = fieldLayout.getTagPose(blue ? target.blueTagB : target.redTagB);
+      if (tagA.isEmpty() || tagB.isEmpty()) {
+        return false;
+      }
+      targetX[target.ordinal()] = (tagA.get().getX() + tagB.get().getX()) / 2;
+      targetY[target.ordinal()] = (tagA.get().getY() + tagB.get().getY()) / 2;
+    }
+    return true;
+  }
+
+  /**
+   * @return the alliance the targets are currently for, null before {@link #setAlliance} is called.
+   */
+  public Alliance getAlliance() {
+    return alliance;
+  }
+
+  /**
+   * @return whether the target points could be worked out, every query returns 0 if not.
+   */
+  public boolean isLoaded() {
+    return loaded;
+  }
+
+  public double getTargetX(Target target) {
+    return loaded ? targetX[target.ordinal()] : 0;
+  }
+
+  public double getTargetY(Target target) {
+    return loaded ? targetY[target.ordinal()] : 0;
+  }
+
+  /**
+   * @param target the target to measure to.
+   * @param x the x position of the robot in meters.
+   * @param y the y position of the robot in meters.
+   * @return the distance from the robot to the target in meters, on the floor.
+   */
+  public double getDistance(Target target, double x, double y) {
+    if (!loaded) {
+      return 0;
+    }
+    return Math.hypot(targetX[target.ordinal()] - x, targetY[target.ordinal()] - y);
+  }
+
+  /**
+   * @param target the target to look at.
+   * @param x the x position of the robot in meters.
+   * @param y the y position of the robot in meters.
+   * @return the field relative angle from the robot to the target in radians, between -pi and pi.
+   */
+  public double getBearingRadians(Target target, double x, double y) {
+    if (!loaded) {
+      return 0;
+    }
+    return Math.atan2(targetY[target.ordinal()] - y, targetX[target.ordinal()] - x);
+  }
+}
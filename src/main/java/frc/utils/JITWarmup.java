@@ -0,0 +1,172 @@
+package frc.utils;
+
+import edu.wpi.first.util.datalog.DataLog;
+import edu.wpi.first.util.datalog.DoubleLogEntry;
+import edu.wpi.first.wpilibj.DataLogManager;
+import edu.wpi.first.wpilibj.DriverStation;
+import frc.utils.telemetry.BooleanEntry;
+import frc.utils.telemetry.Telemetry;
+import frc.utils.telemetry.Telemetry.Verbosity;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * Runs the code the robot needs when it is enabled while it is still disabled, so the JIT compiles
+ * it before the match instead of during the first seconds of auto.
+ *
+ * <p>Every exercise is run a set number of times, a few at a time in {@link #run(double)} so a
+ * disabled loop doesn't overrun. Once all of them are done the robot is "warm". The first loops
+ * after every enable are logged, to see whether the warm-up helped.
+ */
+public class JITWarmup {
+  private final int iterations;
+  private final int iterationsPerChunk;
+  private final List<Exercise> exercises = new ArrayList<>();
+  private int next = 0;
+  private boolean warm = false;
+  private final BooleanEntry warmEntry = Telemetry.addBoolean("JIT Warm", Verbosity.COMPETITION, 0);
+
+  private final int loggedLoops;
+  private DoubleLogEntry loopTimeLog;
+  private int loopsLogged = 0;
+  private double loopTimeSum = 0;
+  private double loopTimeMax = 0;
+
+  private static final class Exercise {
+    private final String name;
+    private final IntConsumer work;
+    private int done = 0;
+    private long nanos = 0;
+
+    private Exercise(String name, IntConsumer work) {
+      this.name = name;
+      this.work = work;
+    }
+  }
+
+  /**
+   * @param iterations how many times to run every exercise.
+   * @param iterationsPerChunk how many iterations to run at once, a chunk is never split.
+   * @param loggedLoops how many loops to log after every enable.
+   */
+  public JITWarmup(int iterations, int iterationsPerChunk, int loggedLoops) {
+    this.iterations = iterations;
+    this.iterationsPerChunk = iterationsPerChunk;
+    this.loggedLoops = loggedLoops;
+    warmEntry.set(false);
+  }
+
+  /**
+   * Adds an exercise. It must not move anything, or leave behind any state the robot uses.
+   *
+   * @param name what is being warmed up, for the log.
+   * @param work runs the code being warmed up the given number of times.
+   * @return this, to add more exercises.
+   */
+  public JITWarmup add(String name, IntConsumer work) {
+    exercises.add(new Exercise(name, work));
+    warm = false;
+    return this;
+  }
+
+  /**
+   * Runs chunks of the exercises that aren't done yet, one exercise after another, until the budget
+   * is used up. Only call this while disabled.
+   *
+   * @param budgetSeconds how long it can run for, it can go over by up to one chunk.
+   */
+  public void run(double budgetSeconds) {
+    if (warm) {
+      return;
+    }
+    final long start = System.nanoTime();
+    final long budgetNanos = (long) (budgetSeconds * 1e9);
+    int idle = 0;
+    while (idle < exercises.size() && System.nanoTime() - start < budgetNanos) {
+      var exercise = exercises.get(next);
+      next = (next + 1) % exercises.size();
+      if (exercise.done >= iterations) {
+        idle++;
+        continue;
+      }
+      idle = 0;
+
+      final int count = Math.min(iterationsPerChunk, iterations - exercise.done);
+      final long chunkStart = System.nanoTime();
+      try {
+        exercise.work.accept(count);
+      } catch (RuntimeException e) {
+        // Don't let one broken exercise keep the rest from running.
+        DriverStation.reportError("JIT warm-up of " + exercise.name + " failed: " + e, false);
+        exercise.done = iterations;
+        continue;
+      }
+      exercise.nanos += System.nanoTime() - chunkStart;
+      exercise.done += count;
+    }
+
+    if (idle >= exercises.size()) {
+      warm = true;
+      warmEntry.set(true);
+      DataLogManager.log(getReport());
+    }
+  }
+
+  /**
+   * @return true once every exercise ran all its iterations.
+   */
+  public boolean isWarm() {
+    return warm;
+  }
+
+  /**
+   * @return how long every exercise took so far.
+   */
+  public String getReport() {
+    var report = new StringBuilder(warm ? "JIT warm-up done:" : "JIT warm-up not done yet:");
+    for (var exercise : exercises) {
+      report.append(
+          String.format(
+              "%n  %s: %d/%d in %.1f ms",
+              exercise.name, exercise.done, iterations, exercise.nanos / 1e6));
+    }
+    return report.toString();
+  }
+
+  /**
+   * Logs how long a loop took, only the first few loops after enabling are logged.
+   *
+   * @param seconds how long the loop took.
+   * @param enabled if the robot is enabled, the count starts again every time it is disabled.
+   */
+  public void recordLoop(double seconds, boolean enabled) {
+    if (!enabled) {
+      loopsLogged = 0;
+      loopTimeSum = 0;
+      loopTimeMax = 0;
+      return;
+    }
+    if (loopsLogged >= loggedLoops) {
+      return;
+    }
+
+    if (loopTimeLog == null) {
+      DataLog log = DataLogManager.getLog();
+      loopTimeLog = new DoubleLogEntry(log, "JIT Warm-up/First Loop Seconds");
+    }
+    loopTimeLog.append(seconds);
+    loopsLogged++;
+    loopTimeSum += seconds;
+    loopTimeMax = Math.max(loopTimeMax, seconds);
+    if (loopsLogged == loggedLoops) {
+      DataLogManager.log(
+          String.format(
+              "First %d enabled loops (%s): average %.2f ms, max %.2f ms",
+              loggedLoops,
+              warm ? "warm" : "not warm",
+              loopTimeSum / loggedLoops * 1e3,
+              loopTimeMax * 1e3));
+    }
+  }
+}
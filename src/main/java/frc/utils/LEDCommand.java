@@ -1,53 +1,65 @@
 package frc.utils;
 
+/**
+ * An animation {@link BetterLED} can run. The animation is a pure function of how long it has been
+ * running, so it can be rendered at any frame rate and skipping a frame doesn't slow it down.
+ */
 public class LEDCommand {
-  private Runnable taskToRun;
-  private boolean isMultiRun;
-  private String commandName;
-  private int runTimes = -1;
+  /** Draws one frame of an animation. */
+  @FunctionalInterface
+  public interface Renderer {
+    /**
+     * Called on the LED thread, should only write the frame and not block.
+     *
+     * @param frame the red, green and blue bytes of every LED, the previous frame is still in it.
+     * @param ledCount how many LEDs there are.
+     * @param seconds how long the command has been running.
+     */
+    void render(byte[] frame, int ledCount, double seconds);
+  }
+
+  private final Renderer renderer;
+  private final double durationSeconds;
+  private final String commandName;
 
   /**
-   * Creates a command type that will run once or infinitely
+   * Creates a command that runs until it is removed.
    *
-   * @param toRun
-   * @param isMultiRun
+   * @param renderer draws the frames.
+   * @param name shown on the dashboard while it runs.
    */
-  public LEDCommand(Runnable toRun, boolean isMultiRun, String name) {
-    this.taskToRun = toRun;
-    this.isMultiRun = isMultiRun;
-    this.commandName = name;
+  public LEDCommand(Renderer renderer, String name) {
+    this(renderer, Double.POSITIVE_INFINITY, name);
   }
 
   /**
-   * Creates a command type that will be run by the specified amount
+   * Creates a command that ends by itself.
    *
-   * @param toRun
-   * @param RunTimes will be run by the specified amount
+   * @param renderer draws the frames.
+   * @param durationSeconds how long it runs, 0 to only draw a single frame.
+   * @param name shown on the dashboard while it runs.
    */
-  public LEDCommand(Runnable toRun, int runTimes, String name) {
-    this.taskToRun = toRun;
-    this.runTimes = runTimes;
+  public LEDCommand(Renderer renderer, double durationSeconds, String name) {
+    this.renderer = renderer;
+    this.durationSeconds = durationSeconds;
     this.commandName = name;
-
-    // a command with runTimes is always multiRun
-    this.isMultiRun = true;
   }
 
-  public boolean hasEnded() {
-    if (!isMultiRun) return true;
-
-    // has run the specified amount
-    if (runTimes == 0) return true;
-
-    // reduce the amount of runTimes
-    if (runTimes > 0) runTimes--;
-
-    // Continue
-    return false;
+  /**
+   * @param seconds how long the command has been running.
+   * @return true if the command is done, checked after every frame.
+   */
+  public boolean hasEnded(double seconds) {
+    return seconds >= durationSeconds;
   }
 
-  public void execute() {
-    taskToRun.run();
+  /**
+   * Draws the frame at the given time. The last frame is drawn just before the end, a frame at the
+   * end would start the animation over, like a blink turning on again.
+   */
+  public void render(byte[] frame, int ledCount, double seconds) {
+    renderer.render(
+        frame, ledCount, Math.min(seconds, Math.max(Math.nextDown(durationSeconds), 0)));
   }
 
   public String getName() {
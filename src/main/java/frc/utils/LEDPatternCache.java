@@ -0,0 +1,168 @@
+package frc.utils;
+
+import edu.wpi.first.wpilibj.util.Color;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The frames of {@link BetterLED}'s animations, computed once and reused.
+ *
+ * <p>Every frame is the red, green and blue bytes of every LED, so an animation is drawn by copying
+ * one array into the frame being rendered. The frames are cached by the pattern, the color, the
+ * length of the strip and the number of steps, and must not be changed.
+ */
+public final class LEDPatternCache {
+  private LEDPatternCache() {}
+
+  /** How many frames the rainbow takes to go around once, it moves 3 hues every frame. */
+  public static final int kRainbowSteps = 60;
+
+  private static final Map<String, byte[][]> cache = new ConcurrentHashMap<>();
+
+  /**
+   * @param length how many LEDs there are.
+   * @return the frames of the rainbow, see {@link #kRainbowSteps}.
+   */
+  public static byte[][] rainbow(int length) {
+    return cache.computeIfAbsent(
+        key("rainbow", Color.kBlack, length, kRainbowSteps),
+        key -> {
+          var frames = new byte[kRainbowSteps][];
+          for (int step = 0; step < kRainbowSteps; step++) {
+            final int firstPixelHue = step * 3;
+            frames[step] = new byte[length * 3];
+            for (int i = 0; i < length; i++) {
+              // Calculate the hue - hue is easier for rainbows because the color
+              // shape is a circle so only one value needs to precess
+              final var hue = (firstPixelHue + (i * 180 / length)) % 80;
+              setPixel(frames[step], i, Color.fromHSV(hue, 255, 255));
+            }
+          }
+          return frames;
+        });
+  }
+
+  /**
+   * @param color the color at full brightness.
+   * @param length how many LEDs there are.
+   * @param min the lowest brightness, from 0 to 255.
+   * @param max the highest brightness, from 0 to 255.
+   * @return a frame for every brightness from min to max, the first one is min.
+   */
+  public static byte[][] breathe(Color color, int length, int min, int max) {
+    final int steps = Math.max(max - min, 0) + 1;
+    return cache.computeIfAbsent(
+        key("breathe " + min, color, length, steps),
+        key -> {
+          final int red = toByte(color.red) & 0xFF;
+          final int green = toByte(color.green) & 0xFF;
+          final int blue = toByte(color.blue) & 0xFF;
+          var frames = new byte[steps][];
+          for (int step = 0; step < steps; step++) {
+            final int brightness = min + step;
+            frames[step] =
+                solid(
+                    length,
+                    (byte) (red * brightness / 255),
+                    (byte) (green * brightness / 255),
+                    (byte) (blue * brightness / 255));
+          }
+          return frames;
+        });
+  }
+
+  /**
+   * @param color the color to blink.
+   * @param length how many LEDs there are.
+   * @return the on frame, then the off frame.
+   */
+  public static byte[][] blink(Color color, int length) {
+    return cache.computeIfAbsent(
+        key("blink", color, length, 2),
+        key ->
+            new byte[][] {
+              solid(length, toByte(color.red), toByte(color.green), toByte(color.blue)),
+              new byte[length * 3]
+            });
+  }
+
+  /**
+   * @param color the color of the lit LEDs.
+   * @param length how many LEDs there are.
+   * @param onLEDCount how many LEDs are lit at most.
+   * @param leftToRight which way the lit LEDs move.
+   * @return a frame for every step, the lit LEDs move one LED every step.
+   */
+  public static byte[][] chase(Color color, int length, int onLEDCount, boolean leftToRight) {
+    return cache.computeIfAbsent(
+        key(
+            (leftToRight ? "left to right " : "right to left ") + onLEDCount,
+            color,
+            length,
+            length),
+        key -> {
+          final byte red = toByte(color.red);
+          final byte green = toByte(color.green);
+          final byte blue = toByte(color.blue);
+          var frames = new byte[length][];
+          for (int step = 0; step < length; step++) {
+            frames[step] = new byte[length * 3];
+            if (leftToRight) {
+              // The LED after the lit ones.
+              fill(frames[step], Math.max(step - onLEDCount, 0), step, red, green, blue);
+            } else {
+              // The LED before the lit ones.
+              final int start = length - 1 - step;
+              fill(
+                  frames[step],
+                  start + 1,
+                  Math.min(start + 1 + onLEDCount, length),
+                  red,
+                  green,
+                  blue);
+            }
+          }
+          return frames;
+        });
+  }
+
+  /**
+   * @return how many patterns are cached.
+   */
+  public static int size() {
+    return cache.size();
+  }
+
+  /** Forgets every pattern, the ones already handed out still work. */
+  public static void clear() {
+    cache.clear();
+  }
+
+  private static String key(String pattern, Color color, int length, int steps) {
+    return pattern + " " + color.toHexString() + " " + length + " " + steps;
+  }
+
+  private static byte[] solid(int length, byte red, byte green, byte blue) {
+    var frame = new byte[length * 3];
+    fill(frame, 0, length, red, green, blue);
+    return frame;
+  }
+
+  static void fill(byte[] pixels, int start, int end, byte red, byte green, byte blue) {
+    for (int i = start; i < end; i++) {
+      pixels[i * 3] = red;
+      pixels[i * 3 + 1] = green;
+      pixels[i * 3 + 2] = blue;
+    }
+  }
+
+  private static void setPixel(byte[] pixels, int index, Color color) {
+    pixels[index * 3] = toByte(color.red);
+    pixels[index * 3 + 1] = toByte(color.green);
+    pixels[index * 3 + 2] = toByte(color.blue);
+  }
+
+  static byte toByte(double channel) {
+    return (byte) (int) (channel * 255);
+  }
+}
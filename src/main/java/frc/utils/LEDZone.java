@@ -0,0 +1,325 @@
+package frc.utils;
+
+import edu.wpi.first.wpilibj.util.Color;
+import frc.utils.BetterLED.AnimationType;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A range of LEDs on a {@link BetterLED} with its own animations.
+ *
+ * <p>Every zone runs the first of its queued {@link LEDCommand}s into its own frame. The strip
+ * draws the zones from the lowest priority to the highest every frame, so a zone with a higher
+ * priority covers the ones below it without stopping them. Zones are created with {@link
+ * BetterLED#createZone}.
+ */
+public class LEDZone {
+  /** How a zone is drawn over the zones below it. */
+  public enum Blend {
+    /** Every LED of the zone covers the ones below. */
+    REPLACE,
+    /** Black LEDs show the ones below, for progress bars and other partial animations. */
+    OVER
+  }
+
+  private static final LEDCommand[] kNoCommands = new LEDCommand[0];
+
+  private final String name;
+  private final int start;
+  private final int length;
+  private final int priority;
+  private final Blend blend;
+  // The strip's own zone always shows its last frame, other zones are hidden when stopped.
+  private final boolean persistent;
+
+  // The call list will have all animation calls in it,
+  // This will run like a scheduler, just on a smaller scale.
+  // It is never changed, only replaced, so the LED thread can read it without a lock.
+  private final AtomicReference<LEDCommand[]> commandList = new AtomicReference<>(kNoCommands);
+  private volatile boolean visible;
+
+  // Only used by the LED thread.
+  private final byte[] pixels;
+  private LEDCommand runningCommand;
+  private double runningSince;
+
+  LEDZone(String name, int start, int end, int priority, Blend blend, boolean persistent) {
+    this.name = name;
+    this.start = start;
+    this.length = Math.max(end - start, 0);
+    this.priority = priority;
+    this.blend = blend;
+    this.persistent = persistent;
+    this.visible = persistent;
+    pixels = new byte[length * 3];
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public int getPriority() {
+    return priority;
+  }
+
+  /**
+   * @return the first LED of the zone on the strip.
+   */
+  public int getStart() {
+    return start;
+  }
+
+  public int getLedCount() {
+    return length;
+  }
+
+  /**
+   * @param color the color to fill with.
+   * @param start the first LED to fill, counted from the start of the zone.
+   * @param end the LED after the last one to fill, counted from the start of the zone.
+   */
+  public void fillColor(Color color, int start, int end) {
+    final byte red = LEDPatternCache.toByte(color.red);
+    final byte green = LEDPatternCache.toByte(color.green);
+    final byte blue = LEDPatternCache.toByte(color.blue);
+    addToLoop(
+        new LEDCommand(
+            (pixels, ledCount, seconds) ->
+                LEDPatternCache.fill(
+                    pixels, Math.max(start, 0), Math.min(end, ledCount), red, green, blue),
+            0,
+            "Fill with: " + color.toHexString()));
+  }
+
+  public void fillColor(Color color, int end) {
+    fillColor(color, 0, end);
+  }
+
+  public void fillColor(Color color) {
+    fillColor(color, length);
+  }
+
+  /**
+   * Shows a progress bar, the rest of the zone is black so it is see-through with {@link
+   * Blend#OVER}. It runs until it is replaced or stopped, so the zone stays visible.
+   *
+   * @param color the color of the bar.
+   * @param count how many LEDs the bar is long.
+   */
+  public void showProgress(Color color, int count) {
+    final byte red = LEDPatternCache.toByte(color.red);
+    final byte green = LEDPatternCache.toByte(color.green);
+    final byte blue = LEDPatternCache.toByte(color.blue);
+    changeLoopTo(
+        new LEDCommand(
+            (pixels, ledCount, seconds) -> {
+              final int end = Math.min(Math.max(count, 0), ledCount);
+              LEDPatternCache.fill(pixels, 0, end, red, green, blue);
+              LEDPatternCache.fill(pixels, end, ledCount, (byte) 0, (byte) 0, (byte) 0);
+            },
+            "Progress %d with: %s".formatted(count, color.toHexString())));
+  }
+
+  public void startRainbow() {
+    final var frames = LEDPatternCache.rainbow(length);
+    // Moves 3 hues every 15 ms, the speed the old loop ran at.
+    changeLoopTo(new LEDCommand(playFrames(frames, 0.015), "Rainbow"));
+  }
+
+  public void animateColor(Color color, AnimationType animation) {
+    animateColor(color, animation, (length * 2) / 3);
+  }
+
+  public void animateColor(Color color, AnimationType animation, int onLEDCount) {
+    switch (animation) {
+      case LEFT_TO_RIGHT:
+        changeLoopTo(
+            new LEDCommand(
+                playFrames(LEDPatternCache.chase(color, length, onLEDCount, true), 0.1),
+                "Left To Right %s".formatted(color.toString())));
+        break;
+      case RIGHT_TO_LEFT:
+        changeLoopTo(
+            new LEDCommand(
+                playFrames(LEDPatternCache.chase(color, length, onLEDCount, false), 0.1),
+                "Right to Left %s".formatted(color.toString())));
+        break;
+      case MIDDLE_TO_ENDS:
+        break; // TODO: implement
+      case ENDS_TO_MIDDLE:
+        break; // TODO: implement
+    }
+  }
+
+  /** Removes every command, a zone other than the whole strip stops covering the ones below. */
+  public void stopAnimation() {
+    commandList.set(kNoCommands);
+    hideIfStopped();
+  }
+
+  /**
+   * Blinks the zone, half a second on and half a second off.
+   *
+   * @param color The color to blink.
+   * @param blinkCount How many times to blink, the zone is left off after the last one.
+   */
+  public void blink(Color color, int blinkCount) {
+    changeLoopTo(
+        new LEDCommand(
+            playFrames(LEDPatternCache.blink(color, length), 0.5),
+            blinkCount * 1.0,
+            "blink %d times".formatted(blinkCount)));
+  }
+
+  public void blink(Color color, double delaySeconds) {
+    changeLoopTo(
+        new LEDCommand(
+            playFrames(LEDPatternCache.blink(color, length), delaySeconds),
+            "blink %s infinitely".formatted(color.toString())));
+  }
+
+  public void blink(Color color) {
+    blink(color, 0.2);
+  }
+
+  /**
+   * Breathe the led, this will light up the led and then light it down. This will repeat forever.
+   *
+   * @param color The color to breathe. see: WPILIB {@link Color}
+   * @param delayTime The time delay between all the steps in seconds; NOT the total time!
+   * @param max The max value of the led, normally the maximum is 255.
+   * @param min The min value of the led, normally the minimum is 0.
+   */
+  public void breathe(Color color, double delayTime, int max, int min) {
+    final var frames = LEDPatternCache.breathe(color, length, min, max);
+    final int steps = frames.length - 1;
+    changeLoopTo(
+        new LEDCommand(
+            (pixels, ledCount, seconds) -> {
+              final int step = steps == 0 ? 0 : (int) ((long) (seconds / delayTime) % (steps * 2));
+              // Light UP the led, then light it DOWN.
+              copyFrame(frames[step < steps ? step : steps * 2 - step], pixels);
+            },
+            "breath %s".formatted(color.toString())));
+  }
+
+  public void breathe(Color color, double delayTime) {
+    breathe(color, delayTime, 255, 0);
+  }
+
+  public void breathe(Color color) {
+    breathe(color, 0.01);
+  }
+
+  private void changeLoopTo(LEDCommand command) {
+    commandList.set(new LEDCommand[] {command});
+    visible = true;
+  }
+
+  public void addToLoop(LEDCommand command) {
+    commandList.updateAndGet(
+        commands -> {
+          var added = Arrays.copyOf(commands, commands.length + 1);
+          added[commands.length] = command;
+          return added;
+        });
+    visible = true;
+  }
+
+  public void removeFromLoop(int amount) {
+    final var left =
+        commandList.updateAndGet(
+            commands ->
+                Arrays.copyOfRange(commands, Math.min(amount, commands.length), commands.length));
+    if (left.length == 0) {
+      hideIfStopped();
+    }
+  }
+
+  // Called after the last command was removed, a zone other than the whole strip stops showing.
+  private void hideIfStopped() {
+    if (persistent) {
+      return;
+    }
+    visible = false;
+    // A command might have been added since, it has to show.
+    if (commandList.get().length > 0) {
+      visible = true;
+    }
+  }
+
+  public void removeFromLoop() {
+    removeFromLoop(1);
+  }
+
+  public String getCurrentCommandName() {
+    final var commands = commandList.get();
+    if (commands.length == 0) {
+      return "No Command Running";
+    }
+    return commands[0].toString();
+  }
+
+  /**
+   * Renders the zone and draws it onto the strip's frame, called by the LED thread every frame.
+   *
+   * @param strip the red, green and blue bytes of every LED on the strip.
+   * @param stripLength how many LEDs the strip has.
+   * @param now the FPGA time of the frame.
+   */
+  void draw(byte[] strip, int stripLength, double now) {
+    final var commands = commandList.get();
+    if (commands.length == 0) {
+      runningCommand = null;
+    } else {
+      final var command = commands[0];
+      if (command != runningCommand) {
+        runningCommand = command;
+        runningSince = now;
+      }
+      command.render(pixels, length, now - runningSince);
+      if (command.hasEnded(now - runningSince)) {
+        // Only if it is still first, it might have been removed in the meantime.
+        final var left =
+            commandList.updateAndGet(
+                list ->
+                    list.length > 0 && list[0] == command
+                        ? Arrays.copyOfRange(list, 1, list.length)
+                        : list);
+        if (left.length == 0) {
+          hideIfStopped();
+        }
+      }
+    }
+    if (!visible) {
+      return;
+    }
+
+    final int end = Math.min(length, stripLength - start);
+    if (blend == Blend.REPLACE) {
+      System.arraycopy(pixels, 0, strip, start * 3, Math.max(end, 0) * 3);
+      return;
+    }
+    for (int i = 0; i < end; i++) {
+      final int pixel = i * 3;
+      if (pixels[pixel] != 0 || pixels[pixel + 1] != 0 || pixels[pixel + 2] != 0) {
+        strip[(start + i) * 3] = pixels[pixel];
+        strip[(start + i) * 3 + 1] = pixels[pixel + 1];
+        strip[(start + i) * 3 + 2] = pixels[pixel + 2];
+      }
+    }
+  }
+
+  /**
+   * @param frames the frames to loop through, from {@link LEDPatternCache}.
+   * @param stepSeconds how long every frame is shown.
+   */
+  private static LEDCommand.Renderer playFrames(byte[][] frames, double stepSeconds) {
+    return (pixels, ledCount, seconds) ->
+        copyFrame(frames[(int) ((long) (seconds / stepSeconds) % frames.length)], pixels);
+  }
+
+  private static void copyFrame(byte[] frame, byte[] pixels) {
+    System.arraycopy(frame, 0, pixels, 0, Math.min(frame.length, pixels.length));
+  }
+}
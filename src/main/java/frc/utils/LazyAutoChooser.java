@@ -0,0 +1,174 @@
+package frc.utils;
+
+import com.pathplanner.lib.auto.AutoBuilder;
+import com.pathplanner.lib.commands.PathPlannerAuto;
+import com.pathplanner.lib.path.PathPlannerPath;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.DriverStation.Alliance;
+import edu.wpi.first.wpilibj.smartdashboard.SendableChooser;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.Commands;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * An auto chooser that only builds the auto that is selected, instead of every auto like {@link
+ * AutoBuilder#buildAutoChooser()}.
+ *
+ * <p>{@link #update()} builds the selected auto when the selection or the alliance changes. The
+ * command itself is made on the calling thread, because composing commands isn't thread safe, so
+ * the auto file is still parsed there. Its paths are loaded, flipped for the alliance and turned
+ * into trajectories on a background thread, so the path loading and trajectory generation code is
+ * already loaded and compiled when the auto starts. An auto that fails to build is reported once,
+ * and not built again until another auto is selected.
+ */
+public class LazyAutoChooser {
+  private static final String kNone = "None";
+
+  private final SendableChooser<String> chooser = new SendableChooser<>();
+  private final Map<String, Supplier<Command>> extraOptions = new HashMap<>();
+  private final ExecutorService executor =
+      Executors.newSingleThreadExecutor(
+          runnable -> {
+            var thread = new Thread(runnable, "Auto Builder");
+            thread.setDaemon(true);
+            return thread;
+          });
+
+  private String selectedName;
+  private Optional<Alliance> selectedAlliance;
+  private Command selectedCommand;
+  // True if the selected auto failed to build, so it isn't tried again every loop.
+  private boolean selectedFailed = false;
+  private CompletableFuture<Void> preparing = CompletableFuture.completedFuture(null);
+
+  /** Lists every auto in the deploy directory, AutoBuilder has to be configured first. */
+  public LazyAutoChooser() {
+    chooser.setDefaultOption(kNone, kNone);
+    for (String name : AutoBuilder.getAllAutoNames()) {
+      chooser.addOption(name, name);
+    }
+  }
+
+  /**
+   * Adds an auto that isn't a PathPlanner auto.
+   *
+   * @param name the name of the option.
+   * @param command makes the command, only called when the option is selected.
+   */
+  public void addOption(String name, Supplier<Command> command) {
+    extraOptions.put(name, command);
+    chooser.addOption(name, name);
+  }
+
+  /**
+   * @return the chooser to put on the dashboard.
+   */
+  public SendableChooser<String> getChooser() {
+    return chooser;
+  }
+
+  /**
+   * Builds the selected auto if the selection or the alliance changed, call this while disabled.
+   */
+  public void update() {
+    update(chooser.getSelected(), DriverStation.getAlliance());
+  }
+
+  /**
+   * Builds the auto if it isn't the one that was built last, or the alliance changed.
+   *
+   * @param name the name of the auto.
+   * @param alliance the alliance the auto will run for.
+   */
+  public void update(String name, Optional<Alliance> alliance) {
+    boolean nameChanged = !name.equals(selectedName);
+    boolean built = selectedCommand != null || selectedFailed;
+    if (!nameChanged && alliance.equals(selectedAlliance) && built) {
+      return;
+    }
+    if (nameChanged || !built) {
+      selectedCommand = build(name);
+      selectedFailed = selectedCommand == null;
+    }
+    if (nameChanged || !alliance.equals(selectedAlliance)) {
+      // AutoBuilder flips the paths for red when they start, this is only done to warm that up.
+      final boolean flip = alliance.isPresent() && alliance.get() == Alliance.Red;
+      preparing = CompletableFuture.runAsync(() -> prepare(name, flip), executor);
+    }
+    selectedName = name;
+    selectedAlliance = alliance;
+  }
+
+  private Command build(String name) {
+    if (name.equals(kNone)) {
+      return Commands.none();
+    }
+    try {
+      Command command =
+          extraOptions.containsKey(name) ? extraOptions.get(name).get() : new PathPlannerAuto(name);
+      if (command == null) {
+        DriverStation.reportError("Couldn't build the auto " + name + ", it returned null", false);
+      }
+      return command;
+    } catch (RuntimeException e) {
+      DriverStation.reportError("Couldn't build the auto " + name + ": " + e, false);
+      return null;
+    }
+  }
+
+  private void prepare(String name, boolean flip) {
+    if (name.equals(kNone) || extraOptions.containsKey(name)) {
+      return;
+    }
+    try {
+      for (PathPlannerPath path : PathPlannerAuto.getPathGroupFromAutoFile(name)) {
+        if (flip) {
+          path = path.flipPath();
+        }
+        path.getTrajectory(
+            new ChassisSpeeds(), path.getPreviewStartingHolonomicPose().getRotation());
+      }
+    } catch (RuntimeException e) {
+      DriverStation.reportWarning("Couldn't load the paths of " + name + ": " + e, false);
+    }
+  }
+
+  /**
+   * Gives the selected auto away, the next call builds a new one so the same command is never
+   * composed twice.
+   *
+   * @return the selected auto, or null if it couldn't be built.
+   */
+  public Command getSelected() {
+    return getSelected(chooser.getSelected(), DriverStation.getAlliance());
+  }
+
+  /**
+   * Same as {@link #getSelected()}, for the given auto instead of the one on the dashboard.
+   *
+   * @param name the name of the auto.
+   * @param alliance the alliance the auto will run for.
+   * @return the auto, or null if it couldn't be built. A failed auto isn't built again until
+   *     another auto is selected.
+   */
+  public Command getSelected(String name, Optional<Alliance> alliance) {
+    update(name, alliance);
+    Command command = selectedCommand;
+    selectedCommand = null;
+    return command;
+  }
+
+  /**
+   * @return true when the paths of the selected auto are loaded.
+   */
+  public boolean isPrepared() {
+    return preparing.isDone();
+  }
+}
@@ -0,0 +1,327 @@
+package frc.utils;
+
+import edu.wpi.first.util.datalog.DataLog;
+import edu.wpi.first.util.datalog.DoubleLogEntry;
+import edu.wpi.first.util.datalog.StringLogEntry;
+import edu.wpi.first.wpilibj.DataLogManager;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.WrapperCommand;
+import frc.robot.Constants.LoopProfilerConstants;
+import frc.utils.telemetry.DoubleEntry;
+import frc.utils.telemetry.StringEntry;
+import frc.utils.telemetry.Telemetry;
+import frc.utils.telemetry.Telemetry.Verbosity;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Times every part of the robot loop, to find out what made a loop overrun.
+ *
+ * <p>{@link frc.robot.Robot} makes one and marks the start and end of every loop. Subsystems added
+ * with {@link #addSubsystem(TimedSubsystem)} are timed by {@link TimedSubsystem}, commands wrapped
+ * with {@link #profile(Command)} are timed around their own callbacks. Every part keeps the last
+ * {@link LoopProfilerConstants#kWindowSamples} times, and its median, 99th percentile and maximum
+ * are published to the dashboard and the data log. When a loop takes longer than the period, the
+ * part that took the longest in that loop is logged as the cause.
+ */
+public final class LoopProfiler {
+  private final Map<String, Section> sections = new HashMap<>();
+  // The same sections, to go through them without an iterator.
+  private final List<Section> sectionList = new ArrayList<>();
+
+  private final Section loopSection = section("Robot Loop");
+  private long loopStartNanos;
+  private double lastPublishSeconds = 0;
+  private int overruns = 0;
+  private String lastOverrun = "";
+
+  private final StringEntry lastOverrunEntry =
+      Telemetry.addString("Loop Profiler/Last Overrun", Verbosity.COMPETITION, 0);
+  private final DoubleEntry overrunsEntry =
+      Telemetry.addDouble("Loop Profiler/Overruns", Verbosity.COMPETITION, 0);
+  private StringLogEntry overrunLog;
+
+  /** The times of one part of the loop. */
+  public static final class Section {
+    private final String name;
+    private final long[] samples = new long[LoopProfilerConstants.kWindowSamples];
+    private final long[] sorted = new long[LoopProfilerConstants.kWindowSamples];
+    private int next = 0;
+    private int count = 0;
+    private long startNanos;
+    private long loopNanos = 0;
+    private int overrunsCaused = 0;
+
+    private final DoubleEntry p50Entry;
+    private final DoubleEntry p99Entry;
+    private final DoubleEntry maxEntry;
+    private DoubleLogEntry p50Log;
+    private DoubleLogEntry p99Log;
+    private DoubleLogEntry maxLog;
+
+    private Section(String name) {
+      this.name = name;
+      final String key = "Loop Profiler/" + name + "/";
+      p50Entry = Telemetry.addDouble(key + "p50 ms", Verbosity.DEBUG, 0);
+      p99Entry = Telemetry.addDouble(key + "p99 ms", Verbosity.DEBUG, 0);
+      maxEntry = Telemetry.addDouble(key + "max ms", Verbosity.DEBUG, 0);
+    }
+
+    public void start() {
+      startNanos = System.nanoTime();
+    }
+
+    public void stop() {
+      record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * @param nanos how long this part took, if it runs more than once a loop the times add up.
+     */
+    public void record(long nanos) {
+      samples[next] = nanos;
+      next = (next + 1) % samples.length;
+      count = Math.min(count + 1, samples.length);
+      loopNanos += nanos;
+    }
+
+    /**
+     * @param percentile between 0 and 100.
+     * @return the time this part took in that percentile of the recent samples, in seconds.
+     */
+    public double getPercentileSeconds(double percentile) {
+      if (count == 0) {
+        return 0;
+      }
+      sortSamples();
+      return sortedPercentileSeconds(percentile);
+    }
+
+    private void sortSamples() {
+      System.arraycopy(samples, 0, sorted, 0, count);
+      Arrays.sort(sorted, 0, count);
+    }
+
+    private double sortedPercentileSeconds(double percentile) {
+      return sorted[(int) Math.round((count - 1) * percentile / 100)] * 1e-9;
+    }
+
+    /**
+     * @return how long this part took in the current loop, in seconds.
+     */
+    public double getLoopSeconds() {
+      return loopNanos * 1e-9;
+    }
+
+    /**
+     * @return how many overruns this part caused.
+     */
+    public int getOverrunsCaused() {
+      return overrunsCaused;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    private void publish(DataLog log, long timestamp) {
+      if (count == 0) {
+        return;
+      }
+      sortSamples();
+      final double p50 = sortedPercentileSeconds(50) * 1e3;
+      final double p99 = sortedPercentileSeconds(99) * 1e3;
+      final double max = sortedPercentileSeconds(100) * 1e3;
+      p50Entry.set(p50);
+      p99Entry.set(p99);
+      maxEntry.set(max);
+      if (p50Log == null) {
+        final String key = "Loop Profiler/" + name + "/";
+        p50Log = new DoubleLogEntry(log, key + "p50 ms");
+        p99Log = new DoubleLogEntry(log, key + "p99 ms");
+        maxLog = new DoubleLogEntry(log, key + "max ms");
+      }
+      p50Log.append(p50, timestamp);
+      p99Log.append(p99, timestamp);
+      maxLog.append(max, timestamp);
+    }
+  }
+
+  /**
+   * @param name the name of the part of the loop.
+   * @return the section with that name, created the first time it is asked for.
+   */
+  public Section section(String name) {
+    var section = sections.get(name);
+    if (section == null) {
+      section = new Section(name);
+      sections.put(name, section);
+      sectionList.add(section);
+    }
+    return section;
+  }
+
+  /**
+   * Times the periodic of the subsystem, in a section named after it.
+   *
+   * @param subsystem the subsystem to time.
+   */
+  public void addSubsystem(TimedSubsystem subsystem) {
+    subsystem.setPeriodicSection(section("Subsystems/" + subsystem.getName()));
+  }
+
+  /**
+   * Times the command around its own initialize, execute, isFinished and end, so nothing the
+   * scheduler does between commands is blamed on it. Commands that aren't wrapped with this aren't
+   * timed, and count as not profiled.
+   *
+   * @param command the command to time, it can't be scheduled on its own after this.
+   * @return the command, timed in a section named after it.
+   */
+  public Command profile(Command command) {
+    return new ProfiledCommand(command, section("Commands/" + command.getName()));
+  }
+
+  private static final class ProfiledCommand extends WrapperCommand {
+    private final Section section;
+    // The callbacks of this loop so far, recorded once the scheduler is done with the command.
+    private long pendingNanos = 0;
+
+    private ProfiledCommand(Command command, Section section) {
+      super(command);
+      this.section = section;
+    }
+
+    @Override
+    public void initialize() {
+      final long start = System.nanoTime();
+      m_command.initialize();
+      pendingNanos += System.nanoTime() - start;
+    }
+
+    @Override
+    public void execute() {
+      final long start = System.nanoTime();
+      m_command.execute();
+      pendingNanos += System.nanoTime() - start;
+    }
+
+    @Override
+    public boolean isFinished() {
+      final long start = System.nanoTime();
+      final boolean finished = m_command.isFinished();
+      pendingNanos += System.nanoTime() - start;
+      // Otherwise end() comes next, and records it.
+      if (!finished) {
+        record();
+      }
+      return finished;
+    }
+
+    @Override
+    public void end(boolean interrupted) {
+      final long start = System.nanoTime();
+      m_command.end(interrupted);
+      pendingNanos += System.nanoTime() - start;
+      record();
+    }
+
+    private void record() {
+      section.record(pendingNanos);
+      pendingNanos = 0;
+    }
+  }
+
+  /** Call this at the start of every robot loop. */
+  public void startLoop() {
+    for (int i = 0; i < sectionList.size(); i++) {
+      sectionList.get(i).loopNanos = 0;
+    }
+    loopStartNanos = System.nanoTime();
+  }
+
+  /**
+   * Call this at the end of every robot loop.
+   *
+   * @param periodSeconds how long a loop is supposed to take.
+   */
+  public void endLoop(double periodSeconds) {
+    endLoop(System.nanoTime() - loopStartNanos, periodSeconds);
+  }
+
+  /**
+   * Records a loop that took the given time, finding the cause if it overran.
+   *
+   * @param loopNanos how long the loop took.
+   * @param periodSeconds how long a loop is supposed to take.
+   */
+  public void endLoop(long loopNanos, double periodSeconds) {
+    loopSection.record(loopNanos);
+    if (loopNanos > periodSeconds * 1e9) {
+      recordOverrun(loopNanos);
+    }
+
+    final double now = Timer.getFPGATimestamp();
+    if (now - lastPublishSeconds >= LoopProfilerConstants.kPublishPeriodSeconds) {
+      lastPublishSeconds = now;
+      final DataLog log = DataLogManager.getLog();
+      final long timestamp = (long) (now * 1e6);
+      for (int i = 0; i < sectionList.size(); i++) {
+        sectionList.get(i).publish(log, timestamp);
+      }
+    }
+  }
+
+  private void recordOverrun(long loopNanos) {
+    Section cause = null;
+    long profiledNanos = 0;
+    for (int i = 0; i < sectionList.size(); i++) {
+      var section = sectionList.get(i);
+      if (section == loopSection) {
+        continue;
+      }
+      profiledNanos += section.loopNanos;
+      if (cause == null || section.loopNanos > cause.loopNanos) {
+        cause = section;
+      }
+    }
+
+    overruns++;
+    final long otherNanos = loopNanos - profiledNanos;
+    if (cause == null || otherNanos > cause.loopNanos) {
+      lastOverrun =
+          String.format(
+              "%.1f ms, not profiled %.1f ms", loopNanos * 1e-6, Math.max(otherNanos, 0) * 1e-6);
+    } else {
+      cause.overrunsCaused++;
+      lastOverrun =
+          String.format(
+              "%.1f ms, %s %.1f ms", loopNanos * 1e-6, cause.name, cause.loopNanos * 1e-6);
+    }
+
+    lastOverrunEntry.set(lastOverrun);
+    overrunsEntry.set(overruns);
+    if (overrunLog == null) {
+      overrunLog = new StringLogEntry(DataLogManager.getLog(), "Loop Profiler/Overruns");
+    }
+    overrunLog.append(lastOverrun);
+  }
+
+  /**
+   * @return what caused the last overrun and how long it took, empty if there wasn't one.
+   */
+  public String getLastOverrun() {
+    return lastOverrun;
+  }
+
+  /**
+   * @return how many loops overran.
+   */
+  public int getOverruns() {
+    return overruns;
+  }
+}
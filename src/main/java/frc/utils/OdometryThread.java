@@ -0,0 +1,145 @@
+package frc.utils;
+
+import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.Timer;
+
+/**
+ * Samples the swerve module positions and the gyro yaw at a higher rate than the main robot loop.
+ *
+ * <p>Samples are stored in a {@link SpscRingBuffer} of reused slots. The {@link Notifier} thread is
+ * the only writer and the main robot loop is the only reader, so no locks are needed. The main loop
+ * should call {@link #drain(SampleConsumer)} once per loop and feed every sample into the pose
+ * estimator with its timestamp.
+ */
+public class OdometryThread implements AutoCloseable {
+  /** Reads the sensors, this is called from the odometry thread. */
+  @FunctionalInterface
+  public interface Sampler {
+    /**
+     * Reads every module into the given arrays.
+     *
+     * @param distances the distance driven by each module in meters.
+     * @param angles the angle of each module in radians.
+     * @return the yaw of the robot in radians.
+     */
+    double sample(double[] distances, double[] angles);
+  }
+
+  /** Receives the samples from {@link #drain(SampleConsumer)}, on the thread that drains. */
+  @FunctionalInterface
+  public interface SampleConsumer {
+    /**
+     * The arrays are reused by the buffer, do not keep a reference to them.
+     *
+     * @param timestampSeconds the FPGA time the sample was taken at.
+     * @param yawRadians the yaw of the robot in radians.
+     * @param distances the distance driven by each module in meters.
+     * @param angles the angle of each module in radians.
+     */
+    void accept(double timestampSeconds, double yawRadians, double[] distances, double[] angles);
+  }
+
+  // 250 Hz fills ~5 slots every 20ms loop, this leaves room for a few overruns.
+  private static final int kCapacity = 64;
+
+  private final Sampler sampler;
+  private final Notifier notifier;
+  private final double periodSeconds;
+
+  /** One slot of the buffer, filled by the odometry thread. */
+  private static final class Sample {
+    private double timestampSeconds;
+    private double yawRadians;
+    private final double[] distances;
+    private final double[] angles;
+
+    private Sample(int moduleCount) {
+      distances = new double[moduleCount];
+      angles = new double[moduleCount];
+    }
+  }
+
+  private final SpscRingBuffer<Sample> samples;
+  private volatile long droppedSamples = 0;
+
+  private boolean isRunning = false;
+
+  public OdometryThread(Sampler sampler, int moduleCount, double frequencyHz) {
+    this.sampler = sampler;
+    this.periodSeconds = 1.0 / frequencyHz;
+    samples = new SpscRingBuffer<>(kCapacity, () -> new Sample(moduleCount));
+
+    notifier = new Notifier(this::sample);
+    notifier.setName("Odometry Thread");
+  }
+
+  public void start() {
+    if (isRunning) {
+      return;
+    }
+    clear();
+    notifier.startPeriodic(periodSeconds);
+    isRunning = true;
+  }
+
+  public void stop() {
+    notifier.stop();
+    isRunning = false;
+  }
+
+  public boolean isRunning() {
+    return isRunning;
+  }
+
+  @Override
+  public void close() {
+    isRunning = false;
+    notifier.close();
+  }
+
+  private void sample() {
+    final var sample = samples.claim();
+    if (sample == null) {
+      // The main loop didn't keep up, drop the sample instead of overwriting one being read.
+      droppedSamples++;
+      return;
+    }
+
+    sample.yawRadians = sampler.sample(sample.distances, sample.angles);
+    sample.timestampSeconds = Timer.getFPGATimestamp();
+    samples.publish();
+  }
+
+  /**
+   * Hands every sample taken since the last call to the consumer, oldest first.
+   *
+   * @param consumer the consumer of the samples.
+   * @return the amount of samples that got drained.
+   */
+  public int drain(SampleConsumer consumer) {
+    // Only what was there when draining started, so a fast sampler can't keep the loop here.
+    final int available = samples.size();
+    int count = 0;
+
+    while (count < available) {
+      final var sample = samples.peek();
+      consumer.accept(sample.timestampSeconds, sample.yawRadians, sample.distances, sample.angles);
+      samples.release(); // Frees the slot for the writer.
+      count++;
+    }
+
+    return count;
+  }
+
+  /** Throws away every sample that hasn't been drained yet. */
+  public void clear() {
+    samples.clear();
+  }
+
+  /**
+   * @return the amount of samples that got dropped because the buffer was full.
+   */
+  public long getDroppedSampleCount() {
+    return droppedSamples;
+  }
+}
@@ -0,0 +1,34 @@
+package frc.utils;
+
+import edu.wpi.first.util.datalog.DataLog;
+import edu.wpi.first.util.datalog.DoubleArrayLogEntry;
+
+/**
+ * Logs calibration shots to the DataLog, so {@link ArmAngleTableFitter} can turn them into an
+ * {@link ArmAngleTable} later.
+ *
+ * <p>Every shot is one {@value #kEntryName} record of {distance, arm position, hit}, where hit is 1
+ * or 0.
+ */
+public class ShotCalibrationLog {
+  public static final String kEntryName = "ShotCalibration/Shot";
+
+  private final DoubleArrayLogEntry entry;
+  private final double[] shot = new double[3];
+
+  public ShotCalibrationLog(DataLog log) {
+    entry = new DoubleArrayLogEntry(log, kEntryName, "{distance, arm position, hit}");
+  }
+
+  /**
+   * @param distance the distance to the speaker in meters.
+   * @param armPosition the position of the arm when the note was shot.
+   * @param hit whether the note went in.
+   */
+  public void logShot(double distance, double armPosition, boolean hit) {
+    shot[0] = distance;
+    shot[1] = armPosition;
+    shot[2] = hit ? 1 : 0;
+    entry.append(shot);
+  }
+}
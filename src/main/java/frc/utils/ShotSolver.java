@@ -0,0 +1,137 @@
+package frc.utils;
+
+import frc.robot.Constants.ShooterConstants;
+
+/**
+ * Works out where to aim so a note shot from a moving robot still goes in.
+ *
+ * <p>The note keeps the robot's velocity after it leaves the shooter, so instead of aiming at the
+ * target we aim at a virtual target, moved against the robot's velocity by the note's time of
+ * flight. The time of flight depends on the distance to the virtual target, so the two are solved
+ * together by iterating until the time of flight stops changing. This always converges as long as
+ * the robot is slower than the note.
+ *
+ * <p>Everything is kept in doubles and the results are read with the getters after {@link #solve},
+ * so solving doesn't allocate.
+ */
+public class ShotSolver {
+  private double launchX;
+  private double launchY;
+  private double virtualTargetX;
+  private double virtualTargetY;
+  private double distance;
+  private double bearingRadians;
+  private double timeOfFlightSeconds;
+  private int iterations;
+  private boolean converged;
+
+  /**
+   * Solves for the virtual target.
+   *
+   * @param robotX the x position of the robot in meters.
+   * @param robotY the y position of the robot in meters.
+   * @param robotVx the field relative x velocity of the robot in meters per second.
+   * @param robotVy the field relative y velocity of the robot in meters per second.
+   * @param targetX the x position of the real target in meters.
+   * @param targetY the y position of the real target in meters.
+   */
+  public void solve(
+      double robotX,
+      double robotY,
+      double robotVx,
+      double robotVy,
+      double targetX,
+      double targetY) {
+    // Where the robot will be when the note actually leaves.
+    launchX = robotX + robotVx * ShooterConstants.kShotReleaseLatencySeconds;
+    launchY = robotY + robotVy * ShooterConstants.kShotReleaseLatencySeconds;
+
+    virtualTargetX = targetX;
+    virtualTargetY = targetY;
+    timeOfFlightSeconds = getTimeOfFlight(Math.hypot(targetX - launchX, targetY - launchY));
+    converged = false;
+
+    for (iterations = 1; iterations <= ShooterConstants.kShotSolverMaxIterations; iterations++) {
+      virtualTargetX = targetX - robotVx * timeOfFlightSeconds;
+      virtualTargetY = targetY - robotVy * timeOfFlightSeconds;
+
+      final double newTimeOfFlight =
+          getTimeOfFlight(Math.hypot(virtualTargetX - launchX, virtualTargetY - launchY));
+      final double change = Math.abs(newTimeOfFlight - timeOfFlightSeconds);
+      timeOfFlightSeconds = newTimeOfFlight;
+      if (change < ShooterConstants.kShotSolverToleranceSeconds) {
+        converged = true;
+        break;
+      }
+    }
+    // Running out leaves the loop one past the last iteration it did.
+    iterations = Math.min(iterations, ShooterConstants.kShotSolverMaxIterations);
+
+    virtualTargetX = targetX - robotVx * timeOfFlightSeconds;
+    virtualTargetY = targetY - robotVy * timeOfFlightSeconds;
+    distance = Math.hypot(virtualTargetX - launchX, virtualTargetY - launchY);
+    bearingRadians = Math.atan2(virtualTargetY - launchY, virtualTargetX - launchX);
+  }
+
+  /**
+   * @param distance the distance the note has to travel in meters.
+   * @return how long the note takes to get there in seconds.
+   */
+  public static double getTimeOfFlight(double distance) {
+    return ShooterConstants.kNoteFlightDelaySeconds
+        + distance / ShooterConstants.kNoteSpeedMetersPerSecond;
+  }
+
+  /**
+   * @return the x position the note will be shot from, in meters.
+   */
+  public double getLaunchX() {
+    return launchX;
+  }
+
+  /**
+   * @return the y position the note will be shot from, in meters.
+   */
+  public double getLaunchY() {
+    return launchY;
+  }
+
+  public double getVirtualTargetX() {
+    return virtualTargetX;
+  }
+
+  public double getVirtualTargetY() {
+    return virtualTargetY;
+  }
+
+  /**
+   * @return the distance from the launch point to the virtual target in meters, use this for the
+   *     arm angle.
+   */
+  public double getDistance() {
+    return distance;
+  }
+
+  /**
+   * @return the field relative angle from the launch point to the virtual target in radians, use
+   *     this for the heading.
+   */
+  public double getBearingRadians() {
+    return bearingRadians;
+  }
+
+  public double getTimeOfFlightSeconds() {
+    return timeOfFlightSeconds;
+  }
+
+  public int getIterations() {
+    return iterations;
+  }
+
+  /**
+   * @return false if the solver ran out of iterations, the result is still the best one it found.
+   */
+  public boolean isConverged() {
+    return converged;
+  }
+}
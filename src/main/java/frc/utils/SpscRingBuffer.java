@@ -0,0 +1,162 @@
+package frc.utils;
+
+import java.util.function.Supplier;
+
+/**
+ * A bounded queue for handing objects from one thread to another without locks.
+ *
+ * <p>Only one thread may add items and only one other thread may take them. When the buffer is full
+ * new items are refused instead of overwriting ones that haven't been read yet.
+ *
+ * <p>There are two ways to use it, don't mix them on one buffer:
+ *
+ * <ul>
+ *   <li>Hand over objects with {@link #offer(Object)} and {@link #poll()}.
+ *   <li>Reuse the slots made by {@link #SpscRingBuffer(int, Supplier)}, so nothing is allocated.
+ *       The producer fills the slot from {@link #claim()} and calls {@link #publish()}, the
+ *       consumer reads the slot from {@link #peek()} and calls {@link #release()}.
+ * </ul>
+ */
+public class SpscRingBuffer<T> {
+  private final Object[] items;
+  private final boolean reusesSlots;
+
+  // Only written by the producer.
+  private volatile long writeIndex = 0;
+  // Only written by the consumer.
+  private volatile long readIndex = 0;
+
+  /**
+   * Makes an empty buffer for {@link #offer(Object)} and {@link #poll()}.
+   *
+   * @param capacity how many items can wait to be read.
+   */
+  public SpscRingBuffer(int capacity) {
+    this(capacity, null);
+  }
+
+  /**
+   * Makes a buffer whose slots are made once and then reused, for {@link #claim()} and {@link
+   * #peek()}.
+   *
+   * @param capacity how many slots there are.
+   * @param slotFactory makes each slot, null for a buffer of objects.
+   */
+  public SpscRingBuffer(int capacity, Supplier<T> slotFactory) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("Capacity must be positive, got " + capacity);
+    }
+    items = new Object[capacity];
+    reusesSlots = slotFactory != null;
+    if (reusesSlots) {
+      for (int i = 0; i < capacity; i++) {
+        items[i] = slotFactory.get();
+      }
+    }
+  }
+
+  /**
+   * Adds an item, called from the producer thread.
+   *
+   * @param item the item to add, can't be null.
+   * @return false if the buffer was full and the item was not added.
+   */
+  public boolean offer(T item) {
+    if (item == null) {
+      throw new IllegalArgumentException("Can't add null to the buffer");
+    }
+    if (reusesSlots) {
+      throw new IllegalStateException("This buffer reuses its slots, use claim() and publish()");
+    }
+    final long write = writeIndex;
+    if (write - readIndex >= items.length) {
+      return false;
+    }
+    items[(int) (write % items.length)] = item;
+    writeIndex = write + 1; // Publishes the item to the consumer.
+    return true;
+  }
+
+  /**
+   * Takes the oldest item, called from the consumer thread.
+   *
+   * @return the oldest item, or null if the buffer is empty.
+   */
+  @SuppressWarnings("unchecked")
+  public T poll() {
+    if (reusesSlots) {
+      throw new IllegalStateException("This buffer reuses its slots, use peek() and release()");
+    }
+    final long read = readIndex;
+    if (read >= writeIndex) {
+      return null;
+    }
+    final int slot = (int) (read % items.length);
+    T item = (T) items[slot];
+    items[slot] = null; // Don't keep the item alive after it's been read.
+    readIndex = read + 1; // Frees the slot for the producer.
+    return item;
+  }
+
+  /**
+   * Gives the next free slot to fill, called from the producer thread. The consumer doesn't see it
+   * until {@link #publish()} is called.
+   *
+   * @return the slot, or null if the buffer is full.
+   */
+  @SuppressWarnings("unchecked")
+  public T claim() {
+    final long write = writeIndex;
+    if (write - readIndex >= items.length) {
+      return null;
+    }
+    return (T) items[(int) (write % items.length)];
+  }
+
+  /** Hands the slot from {@link #claim()} to the consumer, called from the producer thread. */
+  public void publish() {
+    writeIndex = writeIndex + 1; // Only the producer writes it, so this isn't a race.
+  }
+
+  /**
+   * Gives the oldest published slot, called from the consumer thread. It stays in the buffer until
+   * {@link #release()} is called.
+   *
+   * @return the slot, or null if the buffer is empty.
+   */
+  @SuppressWarnings("unchecked")
+  public T peek() {
+    final long read = readIndex;
+    if (read >= writeIndex) {
+      return null;
+    }
+    return (T) items[(int) (read % items.length)];
+  }
+
+  /** Gives the slot from {@link #peek()} back to the producer, called from the consumer thread. */
+  public void release() {
+    readIndex = readIndex + 1; // Only the consumer writes it, so this isn't a race.
+  }
+
+  /** Throws away everything that hasn't been read yet, called from the consumer thread. */
+  public void clear() {
+    if (reusesSlots) {
+      readIndex = writeIndex;
+      return;
+    }
+    while (poll() != null) {
+      // poll() clears each slot, so the items can be collected.
+    }
+  }
+
+  /**
+   * @return the amount of items waiting to be read, may be stale by the time it's used.
+   */
+  public int size() {
+    return (int) (writeIndex - readIndex);
+  }
+
+  public int getCapacity() {
+    return items.length;
+  }
+}
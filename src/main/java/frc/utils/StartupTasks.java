@@ -0,0 +1,216 @@
+package frc.utils;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Runs the parts of startup that don't depend on each other on a few background threads, and keeps
+ * how long every part took.
+ *
+ * <p>Background tasks are started with {@link #run(String, Runnable)} or {@link #supply(String,
+ * Supplier)}, and the work that has to happen in order on the calling thread with {@link
+ * #stage(String, Runnable)}. Once everything is submitted {@link #finish()} gives the future the
+ * robot waits on before enabling.
+ */
+public class StartupTasks {
+  private final ExecutorService executor;
+  private final long startNanos = System.nanoTime();
+  private final List<Task> tasks = new ArrayList<>();
+  private final List<CompletableFuture<?>> futures = new ArrayList<>();
+  private CompletableFuture<Void> ready;
+  private long readyNanos;
+
+  private static final class Task {
+    private final String name;
+    private final boolean background;
+    // Written by the thread running the task, 0 until it starts and ends.
+    private volatile long startNanos;
+    private volatile long endNanos;
+    private volatile String error;
+
+    private Task(String name, boolean background) {
+      this.name = name;
+      this.background = background;
+    }
+  }
+
+  /**
+   * @param threads how many background tasks can run at the same time.
+   */
+  public StartupTasks(int threads) {
+    executor =
+        Executors.newFixedThreadPool(
+            threads,
+            runnable -> {
+              var thread = new Thread(runnable, "Startup");
+              thread.setDaemon(true);
+              return thread;
+            });
+  }
+
+  /**
+   * Runs the work on a background thread.
+   *
+   * @param name what the work is, for the report.
+   * @param work the work to do.
+   * @return completes when the work is done.
+   */
+  public CompletableFuture<Void> run(String name, Runnable work) {
+    return supply(
+        name,
+        () -> {
+          work.run();
+          return null;
+        });
+  }
+
+  /**
+   * Runs the work on a background thread.
+   *
+   * @param name what the work is, for the report.
+   * @param work makes the result.
+   * @return completes with the result when the work is done, or exceptionally if it failed.
+   */
+  public synchronized <T> CompletableFuture<T> supply(String name, Supplier<T> work) {
+    if (ready != null) {
+      throw new IllegalStateException("Startup is already finished, can't add " + name);
+    }
+    var task = addTask(name, true);
+    var future = CompletableFuture.supplyAsync(() -> timed(task, work), executor);
+    futures.add(future);
+    return future;
+  }
+
+  /**
+   * Runs the work on this thread right now.
+   *
+   * @param name what the work is, for the report.
+   * @param work the work to do.
+   */
+  public void stage(String name, Runnable work) {
+    build(
+        name,
+        () -> {
+          work.run();
+          return null;
+        });
+  }
+
+  /**
+   * Runs the work on this thread right now.
+   *
+   * @param name what the work is, for the report.
+   * @param work makes the result.
+   * @return the result of the work.
+   */
+  public <T> T build(String name, Supplier<T> work) {
+    return timed(addTask(name, false), work);
+  }
+
+  private synchronized Task addTask(String name, boolean background) {
+    var task = new Task(name, background);
+    tasks.add(task);
+    return task;
+  }
+
+  private <T> T timed(Task task, Supplier<T> work) {
+    task.startNanos = System.nanoTime();
+    try {
+      return work.get();
+    } catch (RuntimeException e) {
+      task.error = e.toString();
+      DriverStation.reportError("Startup task " + task.name + " failed: " + e, e.getStackTrace());
+      throw e;
+    } finally {
+      task.endNanos = System.nanoTime();
+    }
+  }
+
+  /**
+   * Stops accepting tasks.
+   *
+   * @return completes when every background task is done, even if some failed.
+   */
+  public synchronized CompletableFuture<Void> finish() {
+    if (ready == null) {
+      ready =
+          CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+              .handle(
+                  (result, error) -> {
+                    readyNanos = System.nanoTime();
+                    executor.shutdown();
+                    return null;
+                  });
+    }
+    return ready;
+  }
+
+  /**
+   * @return true once {@link #finish()} was called and every background task is done.
+   */
+  public synchronized boolean isReady() {
+    return ready != null && ready.isDone();
+  }
+
+  /**
+   * Blocks until every background task is done, or the timeout runs out.
+   *
+   * @param timeoutSeconds the longest to wait for.
+   * @return true if startup is done.
+   */
+  public boolean awaitReady(double timeoutSeconds) {
+    var future = finish();
+    try {
+      future.get((long) (timeoutSeconds * 1e9), TimeUnit.NANOSECONDS);
+      return true;
+    } catch (TimeoutException e) {
+      return false;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    } catch (Exception e) {
+      return true; // handle() in finish() never completes exceptionally, this can't happen.
+    }
+  }
+
+  /**
+   * @return one line per task with when it started and how long it took, in milliseconds since this
+   *     was made.
+   */
+  public synchronized String getReport() {
+    var report = new StringBuilder("Startup");
+    if (isReady()) {
+      report.append(String.format(" ready after %.1f ms", millis(readyNanos)));
+    }
+    report.append(':');
+    for (var task : tasks) {
+      report.append(
+          String.format("%n  %-20s %-10s ", task.name, task.background ? "background" : "main"));
+      if (task.startNanos == 0) {
+        report.append("waiting for a thread");
+      } else if (task.endNanos == 0) {
+        report.append(String.format("start %8.1f ms, still running", millis(task.startNanos)));
+      } else {
+        report.append(
+            String.format(
+                "start %8.1f ms, took %8.1f ms",
+                millis(task.startNanos), (task.endNanos - task.startNanos) / 1e6));
+      }
+      if (task.error != null) {
+        report.append(" FAILED: ").append(task.error);
+      }
+    }
+    return report.toString();
+  }
+
+  private double millis(long nanos) {
+    return (nanos - startNanos) / 1e6;
+  }
+}
@@ -0,0 +1,237 @@
+package frc.utils;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+
+/**
+ * Limits how fast the swerve modules can steer and how fast the wheels can speed up, so the
+ * setpoints sent to the modules are ones they can actually follow.
+ *
+ * <p>Every call moves the chassis speeds from the last setpoint towards the desired ones. How far
+ * it gets is the largest fraction that keeps every module's velocity change under the drive
+ * acceleration limit, and every module's angle change under the steering velocity limit. The module
+ * velocities are linear in that fraction, so the acceleration limit is solved directly and the
+ * steering limit with a bisection. Because the chassis speeds are only ever interpolated, the
+ * module states always agree with each other and the wheels don't scrub.
+ *
+ * <p>A stopped module that has to point somewhere else first turns in place, with the robot holding
+ * still, instead of dragging its wheel sideways.
+ *
+ * <p>Based on the idea of Team 254's SwerveSetpointGenerator, without allocating.
+ */
+public class SwerveSetpointGenerator {
+  private static final double kEpsilon = 0.01; // meters per second, below this a module is stopped
+  private static final int kBisectionIterations = 10;
+
+  private final int moduleCount;
+  private final double[] moduleX;
+  private final double[] moduleY;
+  private final double maxSpeed;
+  private final double maxDriveAcceleration;
+  private final double maxSteeringVelocity;
+  private final double dt;
+
+  private double prevVx;
+  private double prevVy;
+  private double prevOmega;
+  private final double[] prevAngles;
+
+  /**
+   * @param moduleTranslations where the modules are relative to the center of the robot.
+   * @param maxSpeed the fastest a module can drive in meters per second.
+   * @param maxDriveAcceleration the fastest a module's velocity can change in meters per second
+   *     squared.
+   * @param maxSteeringVelocity the fastest a module can steer in radians per second.
+   * @param dt how long each setpoint is followed for, the robot loop period in seconds.
+   */
+  public SwerveSetpointGenerator(
+      Translation2d[] moduleTranslations,
+      double maxSpeed,
+      double maxDriveAcceleration,
+      double maxSteeringVelocity,
+      double dt) {
+    moduleCount = moduleTranslations.length;
+    moduleX = new double[moduleCount];
+    moduleY = new double[moduleCount];
+    prevAngles = new double[moduleCount];
+    for (int i = 0; i < moduleCount; i++) {
+      moduleX[i] = moduleTranslations[i].getX();
+      moduleY[i] = moduleTranslations[i].getY();
+    }
+    this.maxSpeed = maxSpeed;
+    this.maxDriveAcceleration = maxDriveAcceleration;
+    this.maxSteeringVelocity = maxSteeringVelocity;
+    this.dt = dt;
+  }
+
+  /**
+   * Starts the generator from where the robot actually is, call this before using it again after
+   * the modules were driven without it.
+   *
+   * @param vx the robot relative x speed of the robot in meters per second.
+   * @param vy the robot relative y speed of the robot in meters per second.
+   * @param omega the rotation speed of the robot in radians per second.
+   * @param moduleStates the measured states of the modules, only the angles are used.
+   */
+  public void reset(double vx, double vy, double omega, SwerveModuleState[] moduleStates) {
+    prevVx = vx;
+    prevVy = vy;
+    prevOmega = omega;
+    for (int i = 0; i < moduleCount; i++) {
+      prevAngles[i] = moduleStates[i].angle.getRadians();
+    }
+  }
+
+  /**
+   * Moves the setpoint towards the desired chassis speeds, as far as the limits allow in one loop.
+   *
+   * @param vx the desired robot relative x speed in meters per second.
+   * @param vy the desired robot relative y speed in meters per second.
+   * @param omega the desired rotation speed in radians per second.
+   * @param outStates the states to write the limited module setpoints into, the angles are only
+   *     replaced when they change.
+   */
+  public void generate(double vx, double vy, double omega, SwerveModuleState[] outStates) {
+    // Desaturate the desired speeds first, so the robot still goes in the right direction.
+    double fastestModule = 0;
+    for (int i = 0; i < moduleCount; i++) {
+      fastestModule =
+          Math.max(fastestModule, Math.hypot(moduleVx(vx, omega, i), moduleVy(vy, omega, i)));
+    }
+    if (fastestModule > maxSpeed) {
+      final double scale = maxSpeed / fastestModule;
+      vx *= scale;
+      vy *= scale;
+      omega *= scale;
+    }
+
+    final double dvx = vx - prevVx;
+    final double dvy = vy - prevVy;
+    final double dOmega = omega - prevOmega;
+
+    double s = 1;
+    final double maxVelocityStep = maxDriveAcceleration * dt;
+    final double maxAngleStep = maxSteeringVelocity * dt;
+    for (int i = 0; i < moduleCount; i++) {
+      final double startX = moduleVx(prevVx, prevOmega, i);
+      final double startY = moduleVy(prevVy, prevOmega, i);
+      final double deltaX = moduleVx(dvx, dOmega, i);
+      final double deltaY = moduleVy(dvy, dOmega, i);
+
+      // Drive acceleration, the module's velocity moves in a straight line so this is exact.
+      final double velocityChange = Math.hypot(deltaX, deltaY);
+      if (velocityChange * s > maxVelocityStep) {
+        s = maxVelocityStep / velocityChange;
+      }
+
+      // Steering velocity.
+      if (steeringNeeded(startX, startY, deltaX, deltaY, s, i) <= maxAngleStep) {
+        continue;
+      }
+      if (Math.hypot(startX, startY) < kEpsilon) {
+        s = 0; // Stopped and pointing the wrong way, turn in place first.
+        continue;
+      }
+      double low = 0;
+      double high = s;
+      for (int iteration = 0; iteration < kBisectionIterations; iteration++) {
+        final double mid = (low + high) / 2;
+        if (steeringNeeded(startX, startY, deltaX, deltaY, mid, i) <= maxAngleStep) {
+          low = mid;
+        } else {
+          high = mid;
+        }
+      }
+      s = low;
+    }
+
+    prevVx += dvx * s;
+    prevVy += dvy * s;
+    prevOmega += dOmega * s;
+
+    for (int i = 0; i < moduleCount; i++) {
+      final double moduleX = moduleVx(prevVx, prevOmega, i);
+      final double moduleY = moduleVy(prevVy, prevOmega, i);
+      final double speed = Math.hypot(moduleX, moduleY);
+
+      double angle;
+      if (speed >= kEpsilon) {
+        angle = Math.atan2(moduleY, moduleX);
+      } else {
+        // Not moving, turn towards where the module will need to point (if anywhere).
+        final double desiredX = moduleVx(vx, omega, i);
+        final double desiredY = moduleVy(vy, omega, i);
+        if (Math.hypot(desiredX, desiredY) < kEpsilon) {
+          angle = prevAngles[i];
+        } else {
+          final double error = halfTurnError(Math.atan2(desiredY, desiredX) - prevAngles[i]);
+          angle = prevAngles[i] + Math.copySign(Math.min(Math.abs(error), maxAngleStep), error);
+        }
+      }
+
+      prevAngles[i] = angle;
+      var state = outStates[i];
+      state.speedMetersPerSecond = speed < kEpsilon ? 0 : speed;
+      if (angle != state.angle.getRadians()) {
+        state.angle = new Rotation2d(angle);
+      }
+    }
+  }
+
+  /** How far module i has to steer from its last angle to follow the velocity at fraction s. */
+  private double steeringNeeded(
+      double startX, double startY, double deltaX, double deltaY, double s, int i) {
+    final double x = startX + deltaX * s;
+    final double y = startY + deltaY * s;
+    if (Math.hypot(x, y) < kEpsilon) {
+      return 0; // A stopped module can point anywhere.
+    }
+    return Math.abs(halfTurnError(Math.atan2(y, x) - prevAngles[i]));
+  }
+
+  /**
+   * The modules can drive backwards, so an angle error is never more than a quarter turn.
+   *
+   * @return the error wrapped to between -pi/2 and pi/2.
+   */
+  private static double halfTurnError(double error) {
+    error = MathUtil.angleModulus(error);
+    if (error > Math.PI / 2) {
+      error -= Math.PI;
+    } else if (error < -Math.PI / 2) {
+      error += Math.PI;
+    }
+    return error;
+  }
+
+  private double moduleVx(double vx, double omega, int i) {
+    return vx - omega * moduleY[i];
+  }
+
+  private double moduleVy(double vy, double omega, int i) {
+    return vy + omega * moduleX[i];
+  }
+
+  /**
+   * @return the robot relative x speed of the last setpoint in meters per second.
+   */
+  public double getVx() {
+    return prevVx;
+  }
+
+  /**
+   * @return the robot relative y speed of the last setpoint in meters per second.
+   */
+  public double getVy() {
+    return prevVy;
+  }
+
+  /**
+   * @return the rotation speed of the last setpoint in radians per second.
+   */
+  public double getOmega() {
+    return prevOmega;
+  }
+}
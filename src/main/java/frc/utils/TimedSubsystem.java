@@ -0,0 +1,31 @@
+package frc.utils;
+
+import edu.wpi.first.wpilibj2.command.SubsystemBase;
+
+/**
+ * A subsystem whose periodic is timed by the {@link LoopProfiler} it is added to with {@link
+ * LoopProfiler#addSubsystem(TimedSubsystem)}. Override {@link #timedPeriodic()} instead of {@link
+ * #periodic()}.
+ */
+public abstract class TimedSubsystem extends SubsystemBase {
+  // Not timed until it is added to a profiler.
+  private LoopProfiler.Section periodicSection;
+
+  void setPeriodicSection(LoopProfiler.Section section) {
+    periodicSection = section;
+  }
+
+  @Override
+  public final void periodic() {
+    if (periodicSection == null) {
+      timedPeriodic();
+      return;
+    }
+    periodicSection.start();
+    timedPeriodic();
+    periodicSection.stop();
+  }
+
+  /** Runs every loop like {@link #periodic()}. */
+  protected void timedPeriodic() {}
+}
@@ -0,0 +1,156 @@
+package frc.utils;
+
+import edu.wpi.first.math.Matrix;
+import edu.wpi.first.math.VecBuilder;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.numbers.N1;
+import edu.wpi.first.math.numbers.N3;
+import frc.robot.Constants.VisionConstants;
+import org.photonvision.EstimatedRobotPose;
+import org.photonvision.targeting.PhotonTrackedTarget;
+
+/**
+ * Decides whether a vision pose should be added to the pose estimator, and how much to trust it.
+ *
+ * <p>The standard deviations grow with the square of the average distance to the tags and shrink
+ * with the amount of tags seen, single tag poses also get worse the more ambiguous they are. Poses
+ * too far away from the current odometry are thrown away, unless that keeps happening for long
+ * enough that the odometry is more likely to be the one that is wrong.
+ */
+public class VisionFusion {
+  /** What happened to the last pose given to {@link VisionFusion#evaluate}. */
+  public enum Decision {
+    ACCEPTED,
+    NO_TAGS,
+    OUTSIDE_FIELD,
+    TOO_AMBIGUOUS,
+    TOO_FAR,
+    INNOVATION_TOO_LARGE
+  }
+
+  // Reused for every measurement, the pose estimator copies the values it needs.
+  private final Matrix<N3, N1> stdDevs = VecBuilder.fill(0, 0, 0);
+
+  private Decision lastDecision = Decision.NO_TAGS;
+  private double lastAverageDistance = 0;
+  private int consecutiveGatedPoses = 0;
+  private long acceptedPoses = 0;
+  private long rejectedPoses = 0;
+
+  /**
+   * Checks a vision pose against the current odometry.
+   *
+   * @param estimate the pose from the camera.
+   * @param odometryPose the pose the estimator currently thinks the robot is at.
+   * @return whether the pose was accepted, and why not if it wasn't. When it is accepted, {@link
+   *     #getStdDevs()} holds the standard deviations to add it with.
+   */
+  public Decision evaluate(EstimatedRobotPose estimate, Pose2d odometryPose) {
+    lastDecision = decide(estimate, odometryPose);
+    if (lastDecision == Decision.ACCEPTED) {
+      acceptedPoses++;
+    } else {
+      rejectedPoses++;
+    }
+    return lastDecision;
+  }
+
+  private Decision decide(EstimatedRobotPose estimate, Pose2d odometryPose) {
+    final var targets = estimate.targetsUsed;
+    final int tagCount = targets.size();
+    if (tagCount == 0) {
+      return Decision.NO_TAGS;
+    }
+
+    final var pose = estimate.estimatedPose;
+    if (Math.abs(pose.getZ()) > VisionConstants.kMaxHeightErrorMeters
+        || pose.getX() < 0
+        || pose.getX() > VisionConstants.kFieldLengthMeters
+        || pose.getY() < 0
+        || pose.getY() > VisionConstants.kFieldWidthMeters) {
+      return Decision.OUTSIDE_FIELD;
+    }
+
+    double totalDistance = 0;
+    for (int i = 0; i < tagCount; i++) {
+      totalDistance += targets.get(i).getBestCameraToTarget().getTranslation().getNorm();
+    }
+    final double averageDistance = totalDistance / tagCount;
+    lastAverageDistance = averageDistance;
+
+    double ambiguityFactor = 1;
+    if (tagCount == 1) {
+      final PhotonTrackedTarget target = targets.get(0);
+      final double ambiguity = target.getPoseAmbiguity();
+      if (ambiguity > VisionConstants.kMaxSingleTagAmbiguity) {
+        return Decision.TOO_AMBIGUOUS;
+      }
+      if (averageDistance > VisionConstants.kMaxSingleTagDistanceMeters) {
+        return Decision.TOO_FAR;
+      }
+      // -1 means the ambiguity couldn't be calculated, treat it as the worst one we accept.
+      ambiguityFactor =
+          1
+              + (ambiguity < 0 ? VisionConstants.kMaxSingleTagAmbiguity : ambiguity)
+                  * VisionConstants.kAmbiguityStdDevScale;
+    }
+
+    final double xyStdDev =
+        VisionConstants.kXYStdDevPerMeterSquared
+                * averageDistance
+                * averageDistance
+                / tagCount
+                * ambiguityFactor
+                * (tagCount == 1 ? VisionConstants.kSingleTagStdDevScale : 1)
+            + VisionConstants.kMinXYStdDevMeters;
+
+    // Innovation gate, how far the camera says we are from where odometry says we are.
+    final double innovation =
+        Math.hypot(pose.getX() - odometryPose.getX(), pose.getY() - odometryPose.getY());
+    final double gate =
+        Math.max(
+            VisionConstants.kMinInnovationGateMeters,
+            VisionConstants.kInnovationGateStdDevs * xyStdDev);
+    if (innovation > gate) {
+      consecutiveGatedPoses++;
+      if (consecutiveGatedPoses <= VisionConstants.kMaxConsecutiveGatedPoses) {
+        return Decision.INNOVATION_TOO_LARGE;
+      }
+      // The camera kept disagreeing, odometry is probably the one that is lost.
+    }
+    consecutiveGatedPoses = 0;
+
+    stdDevs.set(0, 0, xyStdDev);
+    stdDevs.set(1, 0, xyStdDev);
+    // The rotation always comes from the navX, never from the camera.
+    stdDevs.set(2, 0, VisionConstants.kThetaStdDev);
+    return Decision.ACCEPTED;
+  }
+
+  /**
+   * @return the standard deviations of the last accepted pose, x and y in meters then theta in
+   *     radians. The matrix is reused for every pose.
+   */
+  public Matrix<N3, N1> getStdDevs() {
+    return stdDevs;
+  }
+
+  public Decision getLastDecision() {
+    return lastDecision;
+  }
+
+  /**
+   * @return the average distance to the tags of the last pose that had tags, in meters.
+   */
+  public double getLastAverageDistance() {
+    return lastAverageDistance;
+  }
+
+  public long getAcceptedPoseCount() {
+    return acceptedPoses;
+  }
+
+  public long getRejectedPoseCount() {
+    return rejectedPoses;
+  }
+}
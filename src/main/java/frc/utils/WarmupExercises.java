@@ -0,0 +1,162 @@
+package frc.utils;
+
+import com.pathplanner.lib.controllers.PPHolonomicDriveController;
+import com.pathplanner.lib.path.GoalEndState;
+import com.pathplanner.lib.path.PathConstraints;
+import com.pathplanner.lib.path.PathPlannerPath;
+import com.pathplanner.lib.path.PathPlannerTrajectory;
+import com.pathplanner.lib.util.PIDConstants;
+import edu.wpi.first.math.VecBuilder;
+import edu.wpi.first.math.estimator.SwerveDrivePoseEstimator;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Rotation3d;
+import edu.wpi.first.math.geometry.Transform3d;
+import edu.wpi.first.math.geometry.Translation3d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+import frc.robot.Constants.AutoConstants;
+import frc.robot.Constants.AutoConstants.DrivePIDController;
+import frc.robot.Constants.AutoConstants.RotationPIDController;
+import frc.robot.Constants.DriveConstants;
+import frc.robot.Constants.DriveConstants.SwerveModuleConstants;
+import frc.robot.subsystems.DriveSubsystem;
+import frc.robot.subsystems.PhotonCameraSystem;
+import java.util.List;
+import java.util.function.IntConsumer;
+import org.photonvision.PhotonPoseEstimator;
+import org.photonvision.targeting.PhotonPipelineResult;
+import org.photonvision.targeting.PhotonTrackedTarget;
+import org.photonvision.targeting.TargetCorner;
+
+/**
+ * The exercises {@link JITWarmup} runs. Each one uses its own copies of the objects it warms up, so
+ * running them never changes the pose, the modules or anything else the robot uses.
+ */
+public final class WarmupExercises {
+  private WarmupExercises() {}
+
+  /** Driving with the controller, see {@link DriveSubsystem#warmUp(int)}. */
+  public static IntConsumer drive(DriveSubsystem driveSubsystem) {
+    return driveSubsystem::warmUp;
+  }
+
+  /** Chassis speeds to module states and back, like odometry and PathPlanner do every loop. */
+  public static IntConsumer kinematics() {
+    var kinematics = SwerveModuleConstants.kDriveKinematics;
+    var speeds = new ChassisSpeeds();
+    return iterations -> {
+      for (int i = 0; i < iterations; i++) {
+        speeds.vxMetersPerSecond = Math.cos(i);
+        speeds.vyMetersPerSecond = Math.sin(i);
+        speeds.omegaRadiansPerSecond = Math.sin(0.5 * i);
+        SwerveModuleState[] states = kinematics.toSwerveModuleStates(speeds);
+        kinematics.toChassisSpeeds(states);
+      }
+    };
+  }
+
+  /** Odometry updates with vision measurements, on a pose estimator nothing else uses. */
+  public static IntConsumer poseEstimator() {
+    var positions = new SwerveModulePosition[4];
+    for (int i = 0; i < positions.length; i++) {
+      positions[i] = new SwerveModulePosition();
+    }
+    var estimator =
+        new SwerveDrivePoseEstimator(
+            SwerveModuleConstants.kDriveKinematics, new Rotation2d(), positions, new Pose2d());
+    var stdDevs = VecBuilder.fill(0.5, 0.5, 1);
+    return new IntConsumer() {
+      private double time = 0;
+
+      @Override
+      public void accept(int iterations) {
+        for (int i = 0; i < iterations; i++) {
+          time += 0.02;
+          var heading = new Rotation2d(0.1 * time);
+          for (int m = 0; m < positions.length; m++) {
+            positions[m] = new SwerveModulePosition(time, heading);
+          }
+          var pose = estimator.updateWithTime(time, heading, positions);
+          if (i % 5 == 0) {
+            estimator.addVisionMeasurement(pose, time - 0.03, stdDevs);
+          }
+        }
+        if (time > 60) {
+          // Keep the numbers small, the pose buffer only keeps the last 1.5 seconds anyway.
+          time = 0;
+          estimator.resetPosition(new Rotation2d(), positions, new Pose2d());
+        }
+      }
+    };
+  }
+
+  /** Following a short path with PathPlanner's controller, flipping and generating it first. */
+  public static IntConsumer pathFollowing() {
+    var controller =
+        new PPHolonomicDriveController(
+            new PIDConstants(DrivePIDController.kP, DrivePIDController.kD),
+            new PIDConstants(RotationPIDController.kP, RotationPIDController.kD),
+            DriveConstants.kMaxSpeedMetersPerSecond,
+            AutoConstants.kDriveBaseRadiusMeters);
+    var path =
+        new PathPlannerPath(
+            PathPlannerPath.bezierFromPoses(
+                new Pose2d(2, 2, new Rotation2d()), new Pose2d(4, 3, new Rotation2d())),
+            new PathConstraints(
+                AutoConstants.kMaxSpeedMetersPerSecond,
+                AutoConstants.kMaxAccelerationMetersPerSecondSquared,
+                AutoConstants.kMaxAngularSpeedRadiansPerSecond,
+                AutoConstants.kMaxAngularSpeedRadiansPerSecondSquared),
+            new GoalEndState(0, Rotation2d.fromDegrees(90)));
+    return new IntConsumer() {
+      private PathPlannerTrajectory trajectory;
+      private double time = 0;
+
+      @Override
+      public void accept(int iterations) {
+        for (int i = 0; i < iterations; i++) {
+          if (trajectory == null || time > trajectory.getTotalTimeSeconds()) {
+            var followed = i % 2 == 0 ? path : path.flipPath();
+            trajectory = followed.getTrajectory(new ChassisSpeeds(), new Rotation2d());
+            controller.reset(followed.getPreviewStartingHolonomicPose(), new ChassisSpeeds());
+            time = 0;
+          }
+          var state = trajectory.sample(time);
+          // A little off the path, so the feedback does something.
+          var pose = state.getTargetHolonomicPose();
+          controller.calculateRobotRelativeSpeeds(
+              new Pose2d(pose.getX() + 0.05, pose.getY() - 0.05, pose.getRotation()), state);
+          time += 0.02;
+        }
+      }
+    };
+  }
+
+  /** Estimating poses from camera results, with an estimator nothing else uses. */
+  public static IntConsumer photonPoseEstimator(PhotonCameraSystem cameraSystem) {
+    PhotonPoseEstimator estimator = cameraSystem.createPoseEstimator();
+    var corners = List.of(new TargetCorner(0, 0), new TargetCorner(1, 0), new TargetCorner(1, 1));
+    // Tag 7 is on the blue speaker, seen from 3 meters away.
+    var cameraToTarget =
+        new Transform3d(new Translation3d(3, 0.2, 0.5), new Rotation3d(0, 0, Math.PI));
+    var target =
+        new PhotonTrackedTarget(
+            5, 10, 2, 0, 7, cameraToTarget, cameraToTarget, 0.1, corners, corners);
+    return new IntConsumer() {
+      private double time = 0;
+
+      @Override
+      public void accept(int iterations) {
+        for (int i = 0; i < iterations; i++) {
+          // The estimator ignores results with the same timestamp as the last one.
+          time += 0.02;
+          var result = new PhotonPipelineResult(20, List.of(target));
+          result.setTimestampSeconds(time);
+          estimator.update(result);
+        }
+      }
+    };
+  }
+}
@@ -1,25 +1,264 @@
 package frc.utils.sim_utils;
 
+import com.revrobotics.CANSparkLowLevel.PeriodicFrame;
 import com.revrobotics.CANSparkMax;
-import edu.wpi.first.wpilibj.RobotBase;
+import com.revrobotics.REVLibError;
+import com.revrobotics.SparkPIDController;
+import com.revrobotics.SparkPIDController.ArbFFUnits;
+import edu.wpi.first.wpilibj.RobotController;
+import frc.robot.Constants.CANConstants;
+import frc.robot.Constants.TelemetryConstants;
+import frc.utils.telemetry.DoubleEntry;
+import frc.utils.telemetry.Telemetry;
+import frc.utils.telemetry.Telemetry.Verbosity;
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.function.ToDoubleFunction;
 
+/**
+ * A {@link CANSparkMax} that doesn't send the same setpoint over and over.
+ *
+ * <p>Setpoints sent with {@link #set(double)} and the {@code setReference} methods are skipped if
+ * they are within the tolerance of the last one sent with the same control type, the SPARK MAX
+ * keeps following the last setpoint anyway. Every {@link CANConstants#kSetpointHeartbeatSeconds}
+ * the setpoint is sent again even if it didn't change, in case the SPARK MAX missed it or rebooted.
+ *
+ * <p>Anything else that sends a setpoint, like {@link #setVoltage(double)} or {@link
+ * #follow(ExternalFollower, int, boolean)}, forgets the cached one. {@link #getPIDController()}
+ * works like on any {@link CANSparkMax}, but setpoints sent with its own {@code setReference}
+ * methods go around the cache, so send them with the ones here instead. If one does go around, the
+ * cache is only out of date until the next heartbeat.
+ */
 public class CANSparkMAXWrapped extends CANSparkMax {
+  private final SparkPIDController pidController;
+  private final StatusFrameProfile statusFrameProfile;
+  // The last period set for each status frame, -1 when it is at the SPARK MAX default.
+  private final int[] periodicFramePeriodsMs = new int[PeriodicFrame.values().length];
+
+  private double setpointTolerance = CANConstants.kDefaultSetpointTolerance;
+  private double arbFFTolerance = CANConstants.kDefaultArbFFToleranceVolts;
+
+  // The last setpoint that was actually sent, lastControlType is null when nothing is cached.
+  private ControlType lastControlType;
+  private double lastValue;
+  private int lastPidSlot;
+  private double lastArbFF;
+  private ArbFFUnits lastArbFFUnits;
+  private long lastSentMicroseconds;
+
+  private long framesSent = 0;
+  private long framesSuppressed = 0;
+  private final DoubleEntry framesSentEntry;
+  private final DoubleEntry framesSuppressedEntry;
+
   public CANSparkMAXWrapped(int deviceID, MotorType type) {
+    this(deviceID, type, StatusFrameProfile.DEFAULT);
+  }
+
+  /**
+   * @param deviceID the CAN ID of the SPARK MAX.
+   * @param type the type of motor connected to it.
+   * @param statusFrameProfile how often it should send its status frames, depending on what it is
+   *     used for.
+   */
+  public CANSparkMAXWrapped(int deviceID, MotorType type, StatusFrameProfile statusFrameProfile) {
     super(deviceID, type);
-    if (RobotBase.isSimulation()) {
-      SparkMAXSimAddon.addSparkMAX(this);
-    }
+    Arrays.fill(periodicFramePeriodsMs, -1);
+    pidController = super.getPIDController();
+    this.statusFrameProfile = statusFrameProfile;
+    statusFrameProfile.apply(this);
+    framesSentEntry =
+        Telemetry.addDouble(
+            "SPARK MAX/" + deviceID + "/Frames Sent",
+            Verbosity.DEBUG,
+            TelemetryConstants.kDebugPeriodSeconds,
+            () -> framesSent);
+    framesSuppressedEntry =
+        Telemetry.addDouble(
+            "SPARK MAX/" + deviceID + "/Frames Suppressed",
+            Verbosity.DEBUG,
+            TelemetryConstants.kDebugPeriodSeconds,
+            () -> framesSuppressed);
+  }
+
+  /** Publishes the frame counters, call it from the owner's periodic. */
+  public void updateTelemetry() {
+    framesSentEntry.update();
+    framesSuppressedEntry.update();
   }
 
   @Override
   public void close() {
-    if (RobotBase.isSimulation()) {
-      SparkMAXSimAddon.removeSparkMAX(this);
-    }
+    framesSentEntry.close();
+    framesSuppressedEntry.close();
     super.close();
   }
 
   public boolean isThisClosed() {
     return isClosed.get();
   }
+
+  /** Restores the factory defaults, then sets the status frame profile again. */
+  @Override
+  public REVLibError restoreFactoryDefaults() {
+    return restoreFactoryDefaults(false);
+  }
+
+  /** Restores the factory defaults, then sets the status frame profile again. */
+  @Override
+  public REVLibError restoreFactoryDefaults(boolean persist) {
+    REVLibError error = super.restoreFactoryDefaults(persist);
+    Arrays.fill(periodicFramePeriodsMs, -1);
+    statusFrameProfile.apply(this);
+    return error;
+  }
+
+  @Override
+  public REVLibError setPeriodicFramePeriod(PeriodicFrame frame, int periodMs) {
+    periodicFramePeriodsMs[frame.ordinal()] = periodMs;
+    return super.setPeriodicFramePeriod(frame, periodMs);
+  }
+
+  /**
+   * @param frame the status frame.
+   * @return the last period set for the frame in milliseconds, or -1 if it is at the default.
+   */
+  public int getPeriodicFramePeriod(PeriodicFrame frame) {
+    return periodicFramePeriodsMs[frame.ordinal()];
+  }
+
+  public StatusFrameProfile getStatusFrameProfile() {
+    return statusFrameProfile;
+  }
+
+  /**
+   * Changes settings of the PID controller, like the gains or the feedback device. Don't send
+   * setpoints from here, they would skip the setpoint cache.
+   *
+   * @param configure changes the settings, it is called right away.
+   */
+  public void configurePIDController(Consumer<SparkPIDController> configure) {
+    configure.accept(pidController);
+  }
+
+  /**
+   * Reads a setting of the PID controller back from the SPARK MAX, like a gain.
+   *
+   * @param read reads the setting.
+   * @return what read returned.
+   */
+  public double readPIDController(ToDoubleFunction<SparkPIDController> read) {
+    return read.applyAsDouble(pidController);
+  }
+
+  @Override
+  public void set(double speed) {
+    if (shouldSend(speed, ControlType.kDutyCycle, 0, 0, ArbFFUnits.kVoltage)) {
+      super.set(speed);
+    }
+  }
+
+  /** Sends the voltage right away, and forgets the cached setpoint. */
+  @Override
+  public void setVoltage(double outputVolts) {
+    clearSetpointCache();
+    super.setVoltage(outputVolts);
+  }
+
+  /** Follows the leader, and forgets the cached setpoint. */
+  @Override
+  public REVLibError follow(ExternalFollower leader, int deviceID, boolean invert) {
+    clearSetpointCache();
+    return super.follow(leader, deviceID, invert);
+  }
+
+  @Override
+  public void stopMotor() {
+    clearSetpointCache();
+    super.stopMotor();
+  }
+
+  @Override
+  public void disable() {
+    clearSetpointCache();
+    super.disable();
+  }
+
+  /**
+   * Same as {@link SparkPIDController#setReference(double, ControlType)}, but skips setpoints that
+   * didn't change.
+   */
+  public REVLibError setReference(double value, ControlType controlType) {
+    return setReference(value, controlType, 0, 0, ArbFFUnits.kVoltage);
+  }
+
+  /**
+   * Same as {@link SparkPIDController#setReference(double, ControlType, int, double, ArbFFUnits)},
+   * but skips setpoints that didn't change.
+   */
+  public REVLibError setReference(
+      double value, ControlType controlType, int pidSlot, double arbFF, ArbFFUnits arbFFUnits) {
+    if (!shouldSend(value, controlType, pidSlot, arbFF, arbFFUnits)) {
+      return REVLibError.kOk;
+    }
+    return pidController.setReference(value, controlType, pidSlot, arbFF, arbFFUnits);
+  }
+
+  private boolean shouldSend(
+      double value, ControlType controlType, int pidSlot, double arbFF, ArbFFUnits arbFFUnits) {
+    final long now = RobotController.getFPGATime();
+    if (controlType == lastControlType
+        && pidSlot == lastPidSlot
+        && arbFFUnits == lastArbFFUnits
+        && Math.abs(value - lastValue) <= setpointTolerance
+        && Math.abs(arbFF - lastArbFF) <= arbFFTolerance
+        && now - lastSentMicroseconds < CANConstants.kSetpointHeartbeatSeconds * 1e6) {
+      framesSuppressed++;
+      return false;
+    }
+
+    lastControlType = controlType;
+    lastValue = value;
+    lastPidSlot = pidSlot;
+    lastArbFF = arbFF;
+    lastArbFFUnits = arbFFUnits;
+    lastSentMicroseconds = now;
+    framesSent++;
+    return true;
+  }
+
+  /** Forgets the last setpoint, so the next one is always sent. */
+  public void clearSetpointCache() {
+    lastControlType = null;
+  }
+
+  /**
+   * @param tolerance how much the setpoint has to change by before it is sent again, in the units
+   *     of the control type.
+   */
+  public void setSetpointTolerance(double tolerance) {
+    setpointTolerance = tolerance;
+  }
+
+  /**
+   * @param toleranceVolts how much the arbitrary feedforward has to change by before the setpoint
+   *     is sent again.
+   */
+  public void setArbFFTolerance(double toleranceVolts) {
+    arbFFTolerance = toleranceVolts;
+  }
+
+  /**
+   * @return how many setpoints were sent to the SPARK MAX.
+   */
+  public long getFramesSent() {
+    return framesSent;
+  }
+
+  /**
+   * @return how many setpoints were skipped because they didn't change.
+   */
+  public long getFramesSuppressed() {
+    return framesSuppressed;
+  }
 }
@@ -4,25 +4,44 @@ import com.revrobotics.ColorSensorV3;
 import edu.wpi.first.wpilibj.I2C;
 import edu.wpi.first.wpilibj.RobotBase;
 
+/**
+ * A {@link ColorSensorV3} that reads the color and proximity at once, and can be given simulated
+ * values with {@link #setRGBD(int, int, int, int)}. The simulated values belong to this sensor, so
+ * every test can have its own.
+ */
 public class ColorSensorV3Wrapped extends ColorSensorV3 implements AutoCloseable {
-  private static ColorSensorV3 colorSensor;
-  private static final int[] rgbd = new int[4]; // Red, Green, Blue, and Distance
+  private static final byte kAddress = 0x52;
+  // The data registers from proximity to red are next to each other, so they are read at once.
+  private static final int kProximityDataRegister = 0x08;
+  private static final int kDataLength = 14; // 2 proximity, then 3 each for IR, green, blue, red
+  private static final int kInfraredOffset = 2;
+  private static final int kGreenOffset = 5;
+  private static final int kBlueOffset = 8;
+  private static final int kRedOffset = 11;
+
+  private final int[] rgbd = new int[4]; // Red, Green, Blue, and Distance
+  private volatile Runnable simValuesListener;
+
+  // Only used on the robot, the simulated values aren't on the I2C bus.
+  private final I2C i2c;
+  private final byte[] data = new byte[kDataLength];
 
   public ColorSensorV3Wrapped(I2C.Port port) {
     super(port);
     if (RobotBase.isReal()) {
+      i2c = new I2C(port, kAddress);
       return;
     }
-    // Do not check if colorSensor is null because if you do the unit test crashes for some reason.
-    colorSensor = this;
+    i2c = null;
   }
 
   @Override
   public void close() {
     if (RobotBase.isReal()) {
+      i2c.close();
       return;
     }
-    colorSensor = null;
+    simValuesListener = null;
 
     // Clear the RGBD values
     for (int i = 0; i < rgbd.length; i++) {
@@ -30,20 +49,7 @@ public class ColorSensorV3Wrapped extends ColorSensorV3 implements AutoCloseable
     }
   }
 
-  /**
-   * This method is used for simulation purposes only. It returns the ColorSensorV3 singleton
-   * instance
-   *
-   * @return The ColorSensorV3 singleton instance
-   */
-  public static ColorSensorV3 getColorSensor() {
-    if (colorSensor == null) {
-      throw new IllegalArgumentException("ColorSensorV3 does not exist");
-    }
-    return colorSensor;
-  }
-
-  public static void setRGBD(int red, int green, int blue, int distance) {
+  public void setRGBD(int red, int green, int blue, int distance) {
     if (RobotBase.isReal()) {
       return;
     }
@@ -51,9 +57,60 @@ public class ColorSensorV3Wrapped extends ColorSensorV3 implements AutoCloseable
     rgbd[1] = green;
     rgbd[2] = blue;
     rgbd[3] = distance;
+    var listener = simValuesListener;
+    if (listener != null) {
+      listener.run();
+    }
+  }
+
+  /**
+   * Runs the listener every time the simulated values change, so they can be read right away
+   * instead of waiting for the next sample. Does nothing on the robot.
+   *
+   * @param listener what to run, null to remove it.
+   */
+  public void setSimValuesListener(Runnable listener) {
+    if (RobotBase.isReal()) {
+      return;
+    }
+    simValuesListener = listener;
+  }
+
+  /**
+   * Reads the color and the proximity in one I2C transaction, instead of one for every value like
+   * the getters do. Only call this from one thread at a time.
+   *
+   * @param values where to put the red, green, blue, IR and proximity values, in that order.
+   * @return false if the read failed, the values are left unchanged then.
+   */
+  public boolean readColorAndProximity(int[] values) {
+    if (i2c == null) {
+      values[0] = getRed();
+      values[1] = getGreen();
+      values[2] = getBlue();
+      values[3] = getIR();
+      values[4] = getProximity();
+      return true;
+    }
+    if (i2c.read(kProximityDataRegister, kDataLength, data)) {
+      return false; // read() returns true when the transfer was aborted.
+    }
+    values[0] = read20Bit(kRedOffset);
+    values[1] = read20Bit(kGreenOffset);
+    values[2] = read20Bit(kBlueOffset);
+    values[3] = read20Bit(kInfraredOffset);
+    values[4] = ((data[0] & 0xFF) | ((data[1] & 0xFF) << 8)) & 0x7FF; // 11 bit proximity
+    return true;
+  }
+
+  private int read20Bit(int offset) {
+    return ((data[offset] & 0xFF)
+            | ((data[offset + 1] & 0xFF) << 8)
+            | ((data[offset + 2] & 0xFF) << 16))
+        & 0x03FFFF;
   }
 
-  public static void setNoteColor(boolean isNote) {
+  public void setNoteColor(boolean isNote) {
     if (isNote) {
       setRGBD(1000, 300, 0, 1500);
     } else {
@@ -65,7 +122,7 @@ public class ColorSensorV3Wrapped extends ColorSensorV3 implements AutoCloseable
   public int getRed() {
     // we check if getRed() is 0 because the color sensor returns 0 when its not being "simulated"
     // as this is only used for unit tests.
-    if (RobotBase.isReal() || colorSensor == null || super.getRed() != 0) {
+    if (RobotBase.isReal() || super.getRed() != 0) {
       return super.getRed();
     }
     return rgbd[0];
@@ -73,7 +130,7 @@ public class ColorSensorV3Wrapped extends ColorSensorV3 implements AutoCloseable
 
   @Override
   public int getGreen() {
-    if (RobotBase.isReal() || colorSensor == null || super.getGreen() != 0) {
+    if (RobotBase.isReal() || super.getGreen() != 0) {
       return super.getGreen();
     }
     return rgbd[1];
@@ -81,7 +138,7 @@ public class ColorSensorV3Wrapped extends ColorSensorV3 implements AutoCloseable
 
   @Override
   public int getBlue() {
-    if (RobotBase.isReal() || colorSensor == null || super.getBlue() != 0) {
+    if (RobotBase.isReal() || super.getBlue() != 0) {
       return super.getBlue();
     }
     return rgbd[2];
@@ -89,7 +146,7 @@ public class ColorSensorV3Wrapped extends ColorSensorV3 implements AutoCloseable
 
   @Override
   public int getProximity() {
-    if (RobotBase.isReal() || colorSensor == null || super.getProximity() != 0) {
+    if (RobotBase.isReal() || super.getProximity() != 0) {
       return super.getProximity();
     }
     return rgbd[3];
@@ -0,0 +1,173 @@
+package frc.utils.sim_utils;
+
+import com.revrobotics.CANSparkBase.IdleMode;
+import com.revrobotics.SparkPIDController;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+import java.util.zip.CRC32;
+
+/**
+ * Everything a SPARK MAX should be configured with, applied by {@link SparkMAXConfigurator}.
+ *
+ * <p>Every setting has a name and a value, which make up the fingerprint of the config. If the
+ * fingerprint hasn't changed since the SPARK MAX was last burned, there is no need to configure it
+ * again. Settings that can be read back are also checked, in case the SPARK MAX was swapped.
+ */
+public class SparkMAXConfig {
+  private final StringBuilder description = new StringBuilder();
+  private final List<Consumer<CANSparkMAXWrapped>> settings = new ArrayList<>();
+  private final List<Predicate<CANSparkMAXWrapped>> checks = new ArrayList<>();
+
+  /**
+   * @param name what the setting is, has to be unique in the config.
+   * @param value the value of the setting, only used for the fingerprint.
+   * @param apply sets the setting on the SPARK MAX.
+   * @return this config, for chaining.
+   */
+  public SparkMAXConfig set(String name, Object value, Consumer<CANSparkMAXWrapped> apply) {
+    description.append(name).append('=').append(value).append('\n');
+    settings.add(apply);
+    return this;
+  }
+
+  /**
+   * Same as {@link #set(String, Object, Consumer)}, with a way to read the setting back.
+   *
+   * @param check true if the SPARK MAX already has this setting.
+   * @return this config, for chaining.
+   */
+  public SparkMAXConfig set(
+      String name,
+      Object value,
+      Consumer<CANSparkMAXWrapped> apply,
+      Predicate<CANSparkMAXWrapped> check) {
+    checks.add(check);
+    return set(name, value, apply);
+  }
+
+  /**
+   * Same as {@link #set(String, Object, Consumer)}, for settings the SPARK MAX keeps as a float.
+   *
+   * @param read reads the setting back from the SPARK MAX.
+   * @return this config, for chaining.
+   */
+  public SparkMAXConfig setDouble(
+      String name,
+      double value,
+      Consumer<CANSparkMAXWrapped> apply,
+      ToDoubleFunction<CANSparkMAXWrapped> read) {
+    return set(
+        name, value, apply, sparkMAX -> (float) read.applyAsDouble(sparkMAX) == (float) value);
+  }
+
+  /**
+   * Same as {@link #set(String, Object, Consumer)}, for a setting of the PID controller.
+   *
+   * @param apply sets the setting on the PID controller.
+   * @return this config, for chaining.
+   */
+  public SparkMAXConfig setPID(String name, Object value, Consumer<SparkPIDController> apply) {
+    return set(name, value, sparkMAX -> sparkMAX.configurePIDController(apply));
+  }
+
+  /**
+   * Same as {@link #setDouble(String, double, Consumer, ToDoubleFunction)}, for a setting of the
+   * PID controller.
+   *
+   * @param apply sets the setting on the PID controller.
+   * @param read reads the setting back from the PID controller.
+   * @return this config, for chaining.
+   */
+  public SparkMAXConfig setPIDDouble(
+      String name,
+      double value,
+      Consumer<SparkPIDController> apply,
+      ToDoubleFunction<SparkPIDController> read) {
+    return setDouble(
+        name,
+        value,
+        sparkMAX -> sparkMAX.configurePIDController(apply),
+        sparkMAX -> sparkMAX.readPIDController(read));
+  }
+
+  /** The gains of PID slot 0, all of them are read back. */
+  public SparkMAXConfig pidGains(double p, double i, double d, double ff) {
+    return setPIDDouble("P", p, pid -> pid.setP(p), SparkPIDController::getP)
+        .setPIDDouble("I", i, pid -> pid.setI(i), SparkPIDController::getI)
+        .setPIDDouble("D", d, pid -> pid.setD(d), SparkPIDController::getD)
+        .setPIDDouble("FF", ff, pid -> pid.setFF(ff), SparkPIDController::getFF);
+  }
+
+  public SparkMAXConfig idleMode(IdleMode idleMode) {
+    return set(
+        "Idle Mode",
+        idleMode,
+        sparkMAX -> sparkMAX.setIdleMode(idleMode),
+        sparkMAX -> sparkMAX.getIdleMode() == idleMode);
+  }
+
+  public SparkMAXConfig inverted(boolean inverted) {
+    return set(
+        "Inverted",
+        inverted,
+        sparkMAX -> sparkMAX.setInverted(inverted),
+        sparkMAX -> sparkMAX.getInverted() == inverted);
+  }
+
+  /**
+   * Not read back, REVLib has no way to read the current limit from the SPARK MAX. A swapped SPARK
+   * MAX still gets it, the idle mode and inversion are read back and it won't have the old ones.
+   */
+  public SparkMAXConfig smartCurrentLimit(int amps) {
+    return set("Smart Current Limit", amps, sparkMAX -> sparkMAX.setSmartCurrentLimit(amps));
+  }
+
+  /**
+   * @param leader the SPARK MAX to follow.
+   * @param inverted whether to spin the opposite way of the leader.
+   */
+  public SparkMAXConfig follow(CANSparkMAXWrapped leader, boolean inverted) {
+    return set(
+        "Follow",
+        leader.getDeviceId() + (inverted ? " inverted" : ""),
+        sparkMAX -> sparkMAX.follow(leader, inverted),
+        CANSparkMAXWrapped::isFollower);
+  }
+
+  /** Applies every setting in order, without resetting or burning. */
+  void apply(CANSparkMAXWrapped sparkMAX) {
+    for (var setting : settings) {
+      setting.accept(sparkMAX);
+    }
+  }
+
+  /**
+   * @return true if every setting that can be read back matches.
+   */
+  boolean check(CANSparkMAXWrapped sparkMAX) {
+    for (var check : checks) {
+      if (!check.test(sparkMAX)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @return a hash of every setting's name and value, in hex.
+   */
+  public String getFingerprint() {
+    var crc = new CRC32();
+    crc.update(description.toString().getBytes(StandardCharsets.UTF_8));
+    return Long.toHexString(crc.getValue());
+  }
+
+  @Override
+  public String toString() {
+    return description.toString();
+  }
+}
@@ -0,0 +1,245 @@
+package frc.utils.sim_utils;
+
+import com.revrobotics.REVLibError;
+import edu.wpi.first.wpilibj.Preferences;
+import frc.robot.Constants.CANConstants;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Configures SPARK MAXes, skipping the factory reset and flash burn if they already have the
+ * config.
+ *
+ * <p>The fingerprint of the last config burned to each SPARK MAX is kept in {@link Preferences}.
+ * When it matches and the settings that can be read back are right, nothing is sent. Otherwise the
+ * SPARK MAX is reset, configured and burned, and the new fingerprint is saved. SPARK MAXes are
+ * configured on a small thread pool, so the ones that don't depend on each other are configured at
+ * the same time.
+ *
+ * <p>RobotContainer makes one and gives it to the subsystems, which start configuring their SPARK
+ * MAXes with {@link #configureAsync} and don't wait for them, so every SPARK MAX on the robot is
+ * configured at once. {@link #awaitAll()} waits for all of them, call it once everything is built
+ * and before the SPARK MAXes are used.
+ */
+public final class SparkMAXConfigurator implements AutoCloseable {
+  private final ExecutorService executor =
+      Executors.newFixedThreadPool(
+          CANConstants.kConfigThreads,
+          runnable -> {
+            var thread = new Thread(runnable, "SPARK MAX Configurator");
+            thread.setDaemon(true);
+            return thread;
+          });
+  private final List<Result> results = new ArrayList<>();
+  // Started with configureAsync and not waited for yet.
+  private final List<CompletableFuture<?>> pending = new ArrayList<>();
+
+  /** How long configuring a SPARK MAX took. */
+  public static final class Result {
+    private final int deviceId;
+    private final boolean skipped;
+    private final double checkMs;
+    private final double restoreMs;
+    private final double settingsMs;
+    private final double burnMs;
+    private final boolean burned;
+
+    private Result(
+        int deviceId,
+        boolean skipped,
+        double checkMs,
+        double restoreMs,
+        double settingsMs,
+        double burnMs,
+        boolean burned) {
+      this.deviceId = deviceId;
+      this.skipped = skipped;
+      this.checkMs = checkMs;
+      this.restoreMs = restoreMs;
+      this.settingsMs = settingsMs;
+      this.burnMs = burnMs;
+      this.burned = burned;
+    }
+
+    public int getDeviceId() {
+      return deviceId;
+    }
+
+    /**
+     * @return true if the SPARK MAX already had the config, and nothing was sent.
+     */
+    public boolean isSkipped() {
+      return skipped;
+    }
+
+    public double getTotalMs() {
+      return checkMs + restoreMs + settingsMs + burnMs;
+    }
+
+    @Override
+    public String toString() {
+      if (skipped) {
+        return String.format(
+            "SPARK MAX %d: config unchanged, skipped (check %.1f ms)", deviceId, checkMs);
+      }
+      return String.format(
+          "SPARK MAX %d: configured in %.1f ms (check %.1f, restore %.1f, settings %.1f, burn %.1f"
+              + " ms)%s",
+          deviceId,
+          getTotalMs(),
+          checkMs,
+          restoreMs,
+          settingsMs,
+          burnMs,
+          burned ? "" : ", burn FAILED");
+    }
+  }
+
+  /**
+   * Configures the SPARK MAX on the configurator's threads, {@link #awaitAll()} waits for it.
+   *
+   * @param sparkMAX the SPARK MAX to configure.
+   * @param config what it should be configured with.
+   * @return completes when the SPARK MAX is configured.
+   */
+  public CompletableFuture<Result> configureAsync(
+      CANSparkMAXWrapped sparkMAX, SparkMAXConfig config) {
+    return addPending(CompletableFuture.supplyAsync(() -> configure(sparkMAX, config), executor));
+  }
+
+  /**
+   * Same as {@link #configureAsync(CANSparkMAXWrapped, SparkMAXConfig)}, then does something that
+   * needs the config, like zeroing an encoder once its conversion factor is set. {@link
+   * #awaitAll()} waits for that too.
+   *
+   * @param then runs on the configurator's thread once the SPARK MAX is configured.
+   * @return completes when then is done.
+   */
+  public CompletableFuture<Void> configureAsync(
+      CANSparkMAXWrapped sparkMAX, SparkMAXConfig config, Runnable then) {
+    return addPending(
+        CompletableFuture.supplyAsync(() -> configure(sparkMAX, config), executor).thenRun(then));
+  }
+
+  private <T> CompletableFuture<T> addPending(CompletableFuture<T> future) {
+    synchronized (pending) {
+      pending.add(future);
+    }
+    return future;
+  }
+
+  /**
+   * Waits for every SPARK MAX started with {@link #configureAsync} that hasn't been waited for yet.
+   * Waiting also makes everything done while configuring visible to this thread.
+   */
+  public void awaitAll() {
+    CompletableFuture<?>[] futures;
+    synchronized (pending) {
+      futures = pending.toArray(new CompletableFuture<?>[0]);
+      pending.clear();
+    }
+    CompletableFuture.allOf(futures).join();
+  }
+
+  /**
+   * Configures all the SPARK MAXes at the same time, and waits for them.
+   *
+   * @param sparkMAXes the SPARK MAXes to configure.
+   * @param configs the config of each SPARK MAX, in the same order.
+   */
+  public void configureAll(CANSparkMAXWrapped[] sparkMAXes, SparkMAXConfig[] configs) {
+    var futures = new CompletableFuture<?>[sparkMAXes.length];
+    for (int i = 0; i < sparkMAXes.length; i++) {
+      final int index = i;
+      futures[i] =
+          CompletableFuture.supplyAsync(
+              () -> configure(sparkMAXes[index], configs[index]), executor);
+    }
+    CompletableFuture.allOf(futures).join();
+  }
+
+  /**
+   * Configures the SPARK MAX on this thread.
+   *
+   * @param sparkMAX the SPARK MAX to configure.
+   * @param config what it should be configured with.
+   * @return how long it took.
+   */
+  public Result configure(CANSparkMAXWrapped sparkMAX, SparkMAXConfig config) {
+    final String key = getPreferenceKey(sparkMAX.getDeviceId());
+    final String fingerprint = config.getFingerprint();
+
+    long start = System.nanoTime();
+    boolean unchanged =
+        fingerprint.equals(Preferences.getString(key, "")) && config.check(sparkMAX);
+    final double checkMs = millisSince(start);
+    if (unchanged) {
+      return addResult(new Result(sparkMAX.getDeviceId(), true, checkMs, 0, 0, 0, true));
+    }
+
+    start = System.nanoTime();
+    sparkMAX.restoreFactoryDefaults();
+    final double restoreMs = millisSince(start);
+
+    start = System.nanoTime();
+    config.apply(sparkMAX);
+    final double settingsMs = millisSince(start);
+
+    start = System.nanoTime();
+    boolean burned = sparkMAX.burnFlash() == REVLibError.kOk;
+    final double burnMs = millisSince(start);
+    if (burned) {
+      Preferences.setString(key, fingerprint);
+    } else {
+      // Configure it again next time, it might not keep the config through a brownout.
+      Preferences.remove(key);
+    }
+
+    return addResult(
+        new Result(sparkMAX.getDeviceId(), false, checkMs, restoreMs, settingsMs, burnMs, burned));
+  }
+
+  static String getPreferenceKey(int deviceId) {
+    return "SPARK MAX " + deviceId + " Config";
+  }
+
+  private static double millisSince(long startNanos) {
+    return (System.nanoTime() - startNanos) / 1e6;
+  }
+
+  private Result addResult(Result result) {
+    synchronized (results) {
+      results.add(result);
+    }
+    return result;
+  }
+
+  /**
+   * @return the results of every SPARK MAX configured so far.
+   */
+  public List<Result> getResults() {
+    synchronized (results) {
+      return List.copyOf(results);
+    }
+  }
+
+  /**
+   * @return one line per SPARK MAX configured so far, with how long each step took.
+   */
+  public String getReport() {
+    var report = new StringBuilder("SPARK MAX configuration:");
+    for (var result : getResults()) {
+      report.append("\n  ").append(result);
+    }
+    return report.toString();
+  }
+
+  /** Stops the configurator's threads once the SPARK MAXes already started are configured. */
+  @Override
+  public void close() {
+    executor.shutdown();
+  }
+}
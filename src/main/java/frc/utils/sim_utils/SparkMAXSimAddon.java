@@ -4,50 +4,54 @@ import com.revrobotics.CANSparkMax;
 import java.util.HashMap;
 import java.util.Map;
 
+/**
+ * Keeps SPARK MAXes by their CAN ID, so simulation and tests can find the ones a subsystem made.
+ * Whoever makes the SPARK MAXes keeps its own, there is no list of every SPARK MAX in the robot.
+ */
 public class SparkMAXSimAddon {
-  private static Map<Integer, CANSparkMax> sparkMaxes = new HashMap<>();
+  private final Map<Integer, CANSparkMax> sparkMaxes = new HashMap<>();
 
-  private static void throwIfSparkMAXExists(int deviceID) {
+  private void throwIfSparkMAXExists(int deviceID) {
     if (sparkMaxes.containsKey(deviceID)) {
       throw new IllegalArgumentException("SparkMAX with deviceID " + deviceID + " already exists");
     }
   }
 
-  private static void throwIfSparkMAXExists(CANSparkMax sparkMAX) {
+  private void throwIfSparkMAXExists(CANSparkMax sparkMAX) {
     throwIfSparkMAXExists(sparkMAX.getDeviceId());
   }
 
-  private static void throwIfSparkMAXDoesNotExist(int deviceID) {
+  private void throwIfSparkMAXDoesNotExist(int deviceID) {
     if (!sparkMaxes.containsKey(deviceID)) {
       throw new IllegalArgumentException("SparkMAX with deviceID " + deviceID + " does not exist");
     }
   }
 
-  private static void throwIfSparkMAXDoesNotExist(CANSparkMax sparkMAX) {
+  private void throwIfSparkMAXDoesNotExist(CANSparkMax sparkMAX) {
     throwIfSparkMAXDoesNotExist(sparkMAX.getDeviceId());
   }
 
-  public static void addSparkMAX(CANSparkMax sparkMAX) {
+  public void addSparkMAX(CANSparkMax sparkMAX) {
     throwIfSparkMAXExists(sparkMAX);
     sparkMaxes.put(sparkMAX.getDeviceId(), sparkMAX);
   }
 
-  public static void removeSparkMAX(CANSparkMax sparkMAX) {
+  public void removeSparkMAX(CANSparkMax sparkMAX) {
     throwIfSparkMAXDoesNotExist(sparkMAX);
     sparkMaxes.remove(sparkMAX.getDeviceId());
   }
 
-  public static CANSparkMax getSparkMAX(int deviceID) {
+  public CANSparkMax getSparkMAX(int deviceID) {
     throwIfSparkMAXDoesNotExist(deviceID);
     return sparkMaxes.get(deviceID);
   }
 
-  public static boolean doesSparkMAXExist(int deviceID) {
+  public boolean doesSparkMAXExist(int deviceID) {
     return sparkMaxes.containsKey(deviceID);
   }
 
   /** Closes all SparkMAXes and clears the data. */
-  public static void resetData() {
+  public void resetData() {
     for (CANSparkMax sparkMAX : sparkMaxes.values()) {
       sparkMAX.close();
     }
@@ -0,0 +1,108 @@
+package frc.utils.sim_utils;
+
+import com.revrobotics.CANSparkLowLevel.PeriodicFrame;
+import frc.robot.Constants.CANConstants;
+
+/**
+ * How often a SPARK MAX sends each of its periodic status frames, depending on what it is used for.
+ * The frames we read are sent faster, the ones we never read are throttled so they don't use up the
+ * CAN bus.
+ *
+ * <ul>
+ *   <li>Status 0: applied output, faults, followers listen to their leader's.
+ *   <li>Status 1: velocity, temperature, voltage and current.
+ *   <li>Status 2: position of the main encoder.
+ *   <li>Status 3: analog sensor.
+ *   <li>Status 4: alternate encoder.
+ *   <li>Status 5: absolute encoder position.
+ *   <li>Status 6: absolute encoder velocity.
+ * </ul>
+ */
+public enum StatusFrameProfile {
+  /** Leaves the frames at the SPARK MAX defaults. */
+  DEFAULT(null),
+  /** Swerve driving motor, odometry reads the velocity and position of the NEO encoder. */
+  DRIVE(
+      new int[] {
+        CANConstants.kFastStatusPeriodMs,
+        CANConstants.kFastStatusPeriodMs,
+        CANConstants.kFastStatusPeriodMs,
+        CANConstants.kUnusedStatusPeriodMs,
+        CANConstants.kUnusedStatusPeriodMs,
+        CANConstants.kUnusedStatusPeriodMs,
+        CANConstants.kUnusedStatusPeriodMs
+      }),
+  /** Swerve turning motor, the module angle comes from the absolute encoder. */
+  STEER(
+      new int[] {
+        CANConstants.kFastStatusPeriodMs,
+        CANConstants.kSlowStatusPeriodMs,
+        CANConstants.kUnusedStatusPeriodMs,
+        CANConstants.kUnusedStatusPeriodMs,
+        CANConstants.kUnusedStatusPeriodMs,
+        CANConstants.kFastStatusPeriodMs,
+        CANConstants.kUnusedStatusPeriodMs
+      }),
+  /** Arm leader, the position comes from the quadrature encoder and the follower needs status 0. */
+  ARM(
+      new int[] {
+        CANConstants.kFastStatusPeriodMs,
+        CANConstants.kNormalStatusPeriodMs,
+        CANConstants.kFastStatusPeriodMs,
+        CANConstants.kUnusedStatusPeriodMs,
+        CANConstants.kUnusedStatusPeriodMs,
+        CANConstants.kUnusedStatusPeriodMs,
+        CANConstants.kUnusedStatusPeriodMs
+      }),
+  /** Follows another SPARK MAX, nothing is read from it. */
+  FOLLOWER(
+      new int[] {
+        CANConstants.kSlowStatusPeriodMs,
+        CANConstants.kVerySlowStatusPeriodMs,
+        CANConstants.kVerySlowStatusPeriodMs,
+        CANConstants.kUnusedStatusPeriodMs,
+        CANConstants.kUnusedStatusPeriodMs,
+        CANConstants.kUnusedStatusPeriodMs,
+        CANConstants.kUnusedStatusPeriodMs
+      }),
+  /** Only ever driven with a duty cycle, like the intake rollers. */
+  ROLLER(
+      new int[] {
+        CANConstants.kFastStatusPeriodMs,
+        CANConstants.kSlowStatusPeriodMs,
+        CANConstants.kVerySlowStatusPeriodMs,
+        CANConstants.kUnusedStatusPeriodMs,
+        CANConstants.kUnusedStatusPeriodMs,
+        CANConstants.kUnusedStatusPeriodMs,
+        CANConstants.kUnusedStatusPeriodMs
+      });
+
+  private final int[] periodsMs;
+
+  StatusFrameProfile(int[] periodsMs) {
+    this.periodsMs = periodsMs;
+  }
+
+  /**
+   * Sets the status frame periods of the SPARK MAX to this profile.
+   *
+   * @param sparkMAX the SPARK MAX to set up.
+   */
+  public void apply(CANSparkMAXWrapped sparkMAX) {
+    if (periodsMs == null) {
+      return;
+    }
+    var frames = PeriodicFrame.values();
+    for (int i = 0; i < periodsMs.length; i++) {
+      sparkMAX.setPeriodicFramePeriod(frames[i], periodsMs[i]);
+    }
+  }
+
+  /**
+   * @param frame the status frame.
+   * @return how often the frame is sent in milliseconds, or -1 if the profile doesn't change it.
+   */
+  public int getPeriodMs(PeriodicFrame frame) {
+    return periodsMs == null ? -1 : periodsMs[frame.ordinal()];
+  }
+}
@@ -0,0 +1,56 @@
+package frc.utils.telemetry;
+
+import edu.wpi.first.networktables.BooleanPublisher;
+import frc.utils.telemetry.Telemetry.Verbosity;
+import java.util.function.BooleanSupplier;
+
+/** A boolean on the dashboard, see {@link Telemetry#addBoolean}. */
+public class BooleanEntry extends TelemetryEntry {
+  private final BooleanPublisher publisher;
+  private final BooleanSupplier supplier;
+  private boolean hasPublished = false;
+  private boolean lastValue;
+
+  BooleanEntry(
+      BooleanPublisher publisher, Verbosity level, double periodSeconds, BooleanSupplier supplier) {
+    super(level, periodSeconds);
+    this.publisher = publisher;
+    this.supplier = supplier;
+  }
+
+  /**
+   * Publishes the value if it changed since the last publish and the entry is due.
+   *
+   * @param value the value to publish.
+   */
+  public void set(boolean value) {
+    if (hasPublished && value == lastValue) {
+      return;
+    }
+    if (isDue()) {
+      publish(value);
+    }
+  }
+
+  /** Reads the supplier given at creation and publishes it, only reads it when the entry is due. */
+  public void update() {
+    if (isDue()) {
+      boolean value = supplier.getAsBoolean();
+      if (!hasPublished || value != lastValue) {
+        publish(value);
+      }
+    }
+  }
+
+  private void publish(boolean value) {
+    publisher.set(value);
+    lastValue = value;
+    hasPublished = true;
+    markPublished();
+  }
+
+  @Override
+  public void close() {
+    publisher.close();
+  }
+}
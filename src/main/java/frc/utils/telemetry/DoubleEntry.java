@@ -0,0 +1,56 @@
+package frc.utils.telemetry;
+
+import edu.wpi.first.networktables.DoublePublisher;
+import frc.utils.telemetry.Telemetry.Verbosity;
+import java.util.function.DoubleSupplier;
+
+/** A number on the dashboard, see {@link Telemetry#addDouble}. */
+public class DoubleEntry extends TelemetryEntry {
+  private final DoublePublisher publisher;
+  private final DoubleSupplier supplier;
+  private boolean hasPublished = false;
+  private double lastValue;
+
+  DoubleEntry(
+      DoublePublisher publisher, Verbosity level, double periodSeconds, DoubleSupplier supplier) {
+    super(level, periodSeconds);
+    this.publisher = publisher;
+    this.supplier = supplier;
+  }
+
+  /**
+   * Publishes the value if it changed since the last publish and the entry is due.
+   *
+   * @param value the value to publish.
+   */
+  public void set(double value) {
+    if (hasPublished && value == lastValue) {
+      return;
+    }
+    if (isDue()) {
+      publish(value);
+    }
+  }
+
+  /** Reads the supplier given at creation and publishes it, only reads it when the entry is due. */
+  public void update() {
+    if (isDue()) {
+      double value = supplier.getAsDouble();
+      if (!hasPublished || value != lastValue) {
+        publish(value);
+      }
+    }
+  }
+
+  private void publish(double value) {
+    publisher.set(value);
+    lastValue = value;
+    hasPublished = true;
+    markPublished();
+  }
+
+  @Override
+  public void close() {
+    publisher.close();
+  }
+}
@@ -0,0 +1,57 @@
+package frc.utils.telemetry;
+
+import edu.wpi.first.networktables.StringPublisher;
+import frc.utils.telemetry.Telemetry.Verbosity;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/** A string on the dashboard, see {@link Telemetry#addString}. */
+public class StringEntry extends TelemetryEntry {
+  private final StringPublisher publisher;
+  private final Supplier<String> supplier;
+  private boolean hasPublished = false;
+  private String lastValue;
+
+  StringEntry(
+      StringPublisher publisher, Verbosity level, double periodSeconds, Supplier<String> supplier) {
+    super(level, periodSeconds);
+    this.publisher = publisher;
+    this.supplier = supplier;
+  }
+
+  /**
+   * Publishes the value if it changed since the last publish and the entry is due.
+   *
+   * @param value the value to publish.
+   */
+  public void set(String value) {
+    if (hasPublished && Objects.equals(value, lastValue)) {
+      return;
+    }
+    if (isDue()) {
+      publish(value);
+    }
+  }
+
+  /** Reads the supplier given at creation and publishes it, only reads it when the entry is due. */
+  public void update() {
+    if (isDue()) {
+      String value = supplier.get();
+      if (!hasPublished || !Objects.equals(value, lastValue)) {
+        publish(value);
+      }
+    }
+  }
+
+  private void publish(String value) {
+    publisher.set(value);
+    lastValue = value;
+    hasPublished = true;
+    markPublished();
+  }
+
+  @Override
+  public void close() {
+    publisher.close();
+  }
+}
@@ -0,0 +1,35 @@
+package frc.utils.telemetry;
+
+import edu.wpi.first.networktables.StructArrayPublisher;
+import frc.utils.telemetry.Telemetry.Verbosity;
+
+/**
+ * An array of structs on the dashboard, see {@link Telemetry#addStructArray}. The values are
+ * serialized when they get published, so the same array can be changed and published every loop.
+ * There is no change suppression since the array would have to be copied to compare it.
+ */
+public class StructArrayEntry<T> extends TelemetryEntry {
+  private final StructArrayPublisher<T> publisher;
+
+  StructArrayEntry(StructArrayPublisher<T> publisher, Verbosity level, double periodSeconds) {
+    super(level, periodSeconds);
+    this.publisher = publisher;
+  }
+
+  /**
+   * Publishes the values if the entry is due.
+   *
+   * @param values the values to publish.
+   */
+  public void set(T[] values) {
+    if (isDue()) {
+      publisher.set(values);
+      markPublished();
+    }
+  }
+
+  @Override
+  public void close() {
+    publisher.close();
+  }
+}
@@ -0,0 +1,42 @@
+package frc.utils.telemetry;
+
+import edu.wpi.first.networktables.StructPublisher;
+import frc.utils.telemetry.Telemetry.Verbosity;
+import java.util.Objects;
+
+/**
+ * A struct on the dashboard, see {@link Telemetry#addStruct}. Values are compared with {@code
+ * equals}, so only use this with immutable types like {@link edu.wpi.first.math.geometry.Pose2d}.
+ */
+public class StructEntry<T> extends TelemetryEntry {
+  private final StructPublisher<T> publisher;
+  private boolean hasPublished = false;
+  private T lastValue;
+
+  StructEntry(StructPublisher<T> publisher, Verbosity level, double periodSeconds) {
+    super(level, periodSeconds);
+    this.publisher = publisher;
+  }
+
+  /**
+   * Publishes the value if it changed since the last publish and the entry is due.
+   *
+   * @param value the value to publish.
+   */
+  public void set(T value) {
+    if (hasPublished && Objects.equals(value, lastValue)) {
+      return;
+    }
+    if (isDue()) {
+      publisher.set(value);
+      lastValue = value;
+      hasPublished = true;
+      markPublished();
+    }
+  }
+
+  @Override
+  public void close() {
+    publisher.close();
+  }
+}
@@ -0,0 +1,118 @@
+package frc.utils.telemetry;
+
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.networktables.StructArrayTopic;
+import edu.wpi.first.networktables.StructTopic;
+import edu.wpi.first.util.struct.Struct;
+import edu.wpi.first.wpilibj.RobotBase;
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Creates the telemetry entries and holds the verbosity level they all check.
+ *
+ * <p>Entries are made once, usually in a subsystem's constructor, and published to every loop.
+ * Unlike {@link edu.wpi.first.wpilibj.smartdashboard.SmartDashboard#putNumber(String, double)}
+ * there is no lookup by key on every call, an entry only publishes when its value changed and its
+ * period has passed, and entries above the current verbosity do nothing at all. Keys are put in the
+ * SmartDashboard table, so dashboards and {@code SmartDashboard.getNumber} still see the same keys.
+ */
+public final class Telemetry {
+  private Telemetry() {} // Prevents instantiation, as this is a utility class
+
+  /** How much gets published, every entry has one of these. */
+  public enum Verbosity {
+    /** Always published, keep these cheap. */
+    COMPETITION,
+    /** Only published when debugging, anything that reads extra hardware or is big goes here. */
+    DEBUG
+  }
+
+  private static final NetworkTable table =
+      NetworkTableInstance.getDefault().getTable("SmartDashboard");
+
+  private static volatile Verbosity verbosity =
+      RobotBase.isSimulation() ? Verbosity.DEBUG : Verbosity.COMPETITION;
+
+  public static void setVerbosity(Verbosity verbosity) {
+    Telemetry.verbosity = verbosity;
+  }
+
+  public static Verbosity getVerbosity() {
+    return verbosity;
+  }
+
+  /**
+   * @param level the verbosity of an entry.
+   * @return true if entries with this verbosity should be published.
+   */
+  public static boolean isEnabled(Verbosity level) {
+    return level.compareTo(verbosity) <= 0;
+  }
+
+  /**
+   * Creates a number entry in the SmartDashboard table.
+   *
+   * @param key the SmartDashboard key.
+   * @param level the verbosity of the entry.
+   * @param periodSeconds the minimum time between two publishes, 0 to publish every change.
+   * @return the entry.
+   */
+  public static DoubleEntry addDouble(String key, Verbosity level, double periodSeconds) {
+    return addDouble(key, level, periodSeconds, null);
+  }
+
+  /**
+   * Creates a number entry in the SmartDashboard table that reads its value from the supplier when
+   * {@link DoubleEntry#update()} is called. The supplier is not called when the entry is disabled
+   * or its period has not passed.
+   */
+  public static DoubleEntry addDouble(
+      String key, Verbosity level, double periodSeconds, DoubleSupplier supplier) {
+    return new DoubleEntry(table.getDoubleTopic(key).publish(), level, periodSeconds, supplier);
+  }
+
+  public static BooleanEntry addBoolean(String key, Verbosity level, double periodSeconds) {
+    return addBoolean(key, level, periodSeconds, null);
+  }
+
+  public static BooleanEntry addBoolean(
+      String key, Verbosity level, double periodSeconds, BooleanSupplier supplier) {
+    return new BooleanEntry(table.getBooleanTopic(key).publish(), level, periodSeconds, supplier);
+  }
+
+  public static StringEntry addString(String key, Verbosity level, double periodSeconds) {
+    return addString(key, level, periodSeconds, null);
+  }
+
+  public static StringEntry addString(
+      String key, Verbosity level, double periodSeconds, Supplier<String> supplier) {
+    return new StringEntry(table.getStringTopic(key).publish(), level, periodSeconds, supplier);
+  }
+
+  /** Creates a struct entry in the SmartDashboard table. */
+  public static <T> StructEntry<T> addStruct(
+      String key, Struct<T> struct, Verbosity level, double periodSeconds) {
+    return addStruct(table.getStructTopic(key, struct), level, periodSeconds);
+  }
+
+  /** Creates a struct entry on any topic. */
+  public static <T> StructEntry<T> addStruct(
+      StructTopic<T> topic, Verbosity level, double periodSeconds) {
+    return new StructEntry<>(topic.publish(), level, periodSeconds);
+  }
+
+  /** Creates a struct array entry in the SmartDashboard table. */
+  public static <T> StructArrayEntry<T> addStructArray(
+      String key, Struct<T> struct, Verbosity level, double periodSeconds) {
+    return addStructArray(table.getStructArrayTopic(key, struct), level, periodSeconds);
+  }
+
+  /** Creates a struct array entry on any topic. */
+  public static <T> StructArrayEntry<T> addStructArray(
+      StructArrayTopic<T> topic, Verbosity level, double periodSeconds) {
+    return new StructArrayEntry<>(topic.publish(), level, periodSeconds);
+  }
+}
@@ -0,0 +1,44 @@
+package frc.utils.telemetry;
+
+import edu.wpi.first.wpilibj.Timer;
+import frc.utils.telemetry.Telemetry.Verbosity;
+
+/** The rate limiting and verbosity check shared by every entry. */
+public abstract class TelemetryEntry implements AutoCloseable {
+  private final Verbosity level;
+  private final double periodSeconds;
+  private double lastPublishSeconds = Double.NEGATIVE_INFINITY;
+
+  protected TelemetryEntry(Verbosity level, double periodSeconds) {
+    this.level = level;
+    this.periodSeconds = periodSeconds;
+  }
+
+  public Verbosity getLevel() {
+    return level;
+  }
+
+  public boolean isEnabled() {
+    return Telemetry.isEnabled(level);
+  }
+
+  /**
+   * @return true if the entry is enabled and its period has passed since it last published.
+   */
+  protected boolean isDue() {
+    if (!isEnabled()) {
+      return false;
+    }
+    if (periodSeconds <= 0) {
+      return true;
+    }
+    return Timer.getFPGATimestamp() - lastPublishSeconds >= periodSeconds;
+  }
+
+  /** Starts the period again, call this after publishing. */
+  protected void markPublished() {
+    if (periodSeconds > 0) {
+      lastPublishSeconds = Timer.getFPGATimestamp();
+    }
+  }
+}
@@ -4,9 +4,9 @@ import static subsystem_tests.led_tests.utils.LEDTestUtils.checkForColorInAll;
 
 import command_tests.utils.CommandTestBase;
 import edu.wpi.first.hal.HAL;
-import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.simulation.DriverStationSim;
 import edu.wpi.first.wpilibj.util.Color;
+import frc.robot.Constants.IntakeConstants.ColorSensorConstants;
 import frc.robot.commands.led_commands.LEDIdleCommand;
 import frc.robot.subsystems.IntakeSubsystem;
 import frc.utils.sim_utils.ColorSensorV3Wrapped;
@@ -16,12 +16,15 @@ import org.junit.jupiter.api.Test;
 
 class LEDIdleCommandTest extends CommandTestBase {
   private IntakeSubsystem intakeSubsystem;
+  private ColorSensorV3Wrapped colorSensor;
 
   @BeforeEach
   public void setUp() {
     super.setUp();
     HAL.initialize(500, 0);
-    intakeSubsystem = new IntakeSubsystem();
+    colorSensor = new ColorSensorV3Wrapped(ColorSensorConstants.kColorSensorPort);
+    intakeSubsystem = new IntakeSubsystem(colorSensor, sparkMAXConfigurator);
+    sparkMAXConfigurator.awaitAll(); // RobotContainer waits for them too
   }
 
   @AfterEach
@@ -37,8 +40,7 @@ class LEDIdleCommandTest extends CommandTestBase {
     DriverStationSim.notifyNewData(); // ! Breaks without this
     commandScheduler.schedule(
         new LEDIdleCommand(ledSubsystem, intakeSubsystem).ignoringDisable(true));
-    commandScheduler.run();
-    Timer.delay(0.1); // let led thread do its thing
+    runFor(0.1); // let led thread do its thing
     checkForColorInAll(ledSubsystem, Color.kOrangeRed, "Color Should be orange when disabled");
   }
 
@@ -51,15 +53,13 @@ class LEDIdleCommandTest extends CommandTestBase {
         new LEDIdleCommand(ledSubsystem, intakeSubsystem).ignoringDisable(true));
 
     // * check without Note
-    ColorSensorV3Wrapped.setNoteColor(false);
-    commandScheduler.run();
-    Timer.delay(0.1); // let led thread do its thing
+    colorSensor.setNoteColor(false);
+    runFor(0.1); // let led thread do its thing
     checkForColorInAll(ledSubsystem, Color.kRed, "Color should be red when no Note is detected");
 
     // * check with Note
-    ColorSensorV3Wrapped.setNoteColor(true);
-    commandScheduler.run();
-    Timer.delay(0.1); // let led thread do its thing
+    colorSensor.setNoteColor(true);
+    runFor(0.1); // let led thread do its thing
     checkForColorInAll(ledSubsystem, Color.kGreen, "Color should be green when Note is detected");
   }
 }
@@ -5,8 +5,8 @@ import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static subsystem_tests.led_tests.utils.LEDTestUtils.checkForColorInAll;
 
 import command_tests.utils.CommandTestBase;
-import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.util.Color;
+import frc.robot.Constants.IntakeConstants.ColorSensorConstants;
 import frc.robot.commands.BasicIntakeCommand;
 import frc.robot.subsystems.IntakeSubsystem;
 import frc.utils.sim_utils.ColorSensorV3Wrapped;
@@ -16,14 +16,17 @@ import org.junit.jupiter.api.Test;
 
 class BasicIntakeTest extends CommandTestBase {
   private IntakeSubsystem intakeSubsystem;
+  private ColorSensorV3Wrapped colorSensor;
 
   private BasicIntakeCommand intakeCommand;
 
   @BeforeEach
   public void setUp() {
     super.setUp();
-    intakeSubsystem = new IntakeSubsystem();
-    intakeCommand = new BasicIntakeCommand(intakeSubsystem);
+    colorSensor = new ColorSensorV3Wrapped(ColorSensorConstants.kColorSensorPort);
+    intakeSubsystem = new IntakeSubsystem(colorSensor, sparkMAXConfigurator);
+    sparkMAXConfigurator.awaitAll(); // RobotContainer waits for them too
+    intakeCommand = new BasicIntakeCommand(intakeSubsystem, ledSubsystem);
 
     commandScheduler.schedule(intakeCommand);
   }
@@ -44,16 +47,16 @@ class BasicIntakeTest extends CommandTestBase {
   @Test
   void testLEDBlinking() {
     commandScheduler.run();
-    Timer.delay(0.2); // let led loop do its thing
+    runFor(0.1); // let led loop do its thing
     checkForColorInAll(ledSubsystem, Color.kRed, "Color should be red when started");
-    Timer.delay(0.2);
+    runFor(0.2);
     checkForColorInAll(ledSubsystem, Color.kBlack, "Color should be closed when blinking red");
   }
 
   @Test
   void testCommandEnds() {
     commandScheduler.run();
-    ColorSensorV3Wrapped.setNoteColor(true);
+    colorSensor.setNoteColor(true);
     commandScheduler.run();
     assertEquals(true, intakeCommand.isFinished(), "Command should be finished when ending");
     assertEquals(0, intakeSubsystem.getArmIntakeSpeed(), "Motor should stop after detecting color");
@@ -6,7 +6,6 @@ import static subsystem_tests.led_tests.utils.LEDTestUtils.testAtTime;
 import command_tests.utils.CommandTestBase;
 import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.simulation.PWMSim;
-import edu.wpi.first.wpilibj.simulation.SimHooks;
 import frc.robot.Constants.ShooterConstants;
 import frc.robot.commands.BasicRunShooterCommand;
 import frc.robot.subsystems.ShooterSubsystem;
@@ -26,7 +25,7 @@ class BasicShooterTest extends CommandTestBase {
     shooterSubsystem = new ShooterSubsystem();
     shooterMotor = new PWMSim(ShooterConstants.kShooterMotorPwmID);
     BasicRunShooterCommand basicShooterCommand =
-        new BasicRunShooterCommand(shooterSubsystem, kWaitTime);
+        new BasicRunShooterCommand(shooterSubsystem, ledSubsystem, kWaitTime);
 
     commandScheduler.schedule(basicShooterCommand);
   }
@@ -45,8 +44,7 @@ class BasicShooterTest extends CommandTestBase {
         ShooterConstants.kShooterSpeed,
         shooterMotor.getSpeed(),
         "Shooter motor should be at shooter speed");
-    SimHooks.stepTiming(kWaitTime);
-    commandScheduler.run();
+    runFor(kWaitTime);
     // Motor should be at 0 after waitTime
     assertEquals(
         0,
@@ -58,8 +56,8 @@ class BasicShooterTest extends CommandTestBase {
   void testLEDLoading() {
     double startTime = Timer.getFPGATimestamp();
     commandScheduler.run();
-    SimHooks.stepTiming(kWaitTime); // load waitTime
-    commandScheduler.run();
+    // check halfway, the loading bar is cleared when the command ends
+    runFor(kWaitTime / 2);
     testAtTime(ledSubsystem, startTime, kWaitTime);
   }
 }
@@ -4,7 +4,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 
 import command_tests.utils.CommandTestBase;
-import edu.wpi.first.wpilibj.simulation.SimHooks;
+import frc.robot.Constants.IntakeConstants.ColorSensorConstants;
 import frc.robot.commands.LoadToShooterCommand;
 import frc.robot.subsystems.IntakeSubsystem;
 import frc.utils.sim_utils.ColorSensorV3Wrapped;
@@ -14,13 +14,16 @@ import org.junit.jupiter.api.Test;
 
 class LoadToShooterTest extends CommandTestBase {
   IntakeSubsystem intakeSubsystem;
+  private ColorSensorV3Wrapped colorSensor;
   LoadToShooterCommand command;
 
   @BeforeEach
   public void setUp() {
     super.setUp();
 
-    intakeSubsystem = new IntakeSubsystem();
+    colorSensor = new ColorSensorV3Wrapped(ColorSensorConstants.kColorSensorPort);
+    intakeSubsystem = new IntakeSubsystem(colorSensor, sparkMAXConfigurator);
+    sparkMAXConfigurator.awaitAll(); // RobotContainer waits for them too
     command = new LoadToShooterCommand(intakeSubsystem);
 
     commandScheduler.schedule(command);
@@ -34,12 +37,11 @@ class LoadToShooterTest extends CommandTestBase {
 
   @Test
   void testPushesOutNoteAndStops() {
-    ColorSensorV3Wrapped.setNoteColor(true);
-    commandScheduler.run();
-    SimHooks.stepTiming(0.6); // handle "waitANDCondition" s wait part
+    colorSensor.setNoteColor(true);
     commandScheduler.run();
+    runFor(0.6); // handle "waitANDCondition" s wait part
 
-    ColorSensorV3Wrapped.setNoteColor(false);
+    colorSensor.setNoteColor(false);
     commandScheduler.run();
     commandScheduler.run();
 
@@ -51,13 +53,12 @@ class LoadToShooterTest extends CommandTestBase {
 
   @Test
   void testItDoesntStopBeforeTime() {
-    ColorSensorV3Wrapped.setNoteColor(true);
+    colorSensor.setNoteColor(true);
     commandScheduler.run();
 
-    SimHooks.stepTiming(0.1); // not enough time for it to stop
-    commandScheduler.run();
+    runFor(0.1); // not enough time for it to stop
 
-    ColorSensorV3Wrapped.setNoteColor(false);
+    colorSensor.setNoteColor(false);
     commandScheduler.run();
     commandScheduler.run();
 
@@ -67,7 +68,7 @@ class LoadToShooterTest extends CommandTestBase {
   /** This is for the fact that, if somehow the color sensor fails, that might cause issues. */
   @Test
   void testItRunsWithoutDetection() {
-    ColorSensorV3Wrapped.setNoteColor(false);
+    colorSensor.setNoteColor(false);
     commandScheduler.run();
     commandScheduler.run();
 
@@ -76,28 +77,21 @@ class LoadToShooterTest extends CommandTestBase {
         command.isScheduled(), //
         "command should run even if no note cannot be detected");
 
-    SimHooks.stepTiming(0.6);
-
-    commandScheduler.run();
-    commandScheduler.run();
-
     assertEquals(
-        false,
-        command.isScheduled(),
+        true,
+        runUntil(() -> !command.isScheduled(), 0.6),
         "command should stop after 0.5 second time, when no note is detected");
   }
 
   @Test
   void testItActuallyRuns() {
-    ColorSensorV3Wrapped.setNoteColor(false);
+    colorSensor.setNoteColor(false);
     commandScheduler.run();
     commandScheduler.run();
 
     assertNotEquals(0, intakeSubsystem.getArmIntakeSpeed());
 
-    SimHooks.stepTiming(0.6);
-    commandScheduler.run();
-    commandScheduler.run();
+    runFor(0.6);
 
     assertEquals(0, intakeSubsystem.getArmIntakeSpeed());
   }
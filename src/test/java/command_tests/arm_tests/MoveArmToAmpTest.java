@@ -18,7 +18,8 @@ class MoveArmToAmpTest extends CommandTestBase {
   public void setUp() {
     super.setUp();
 
-    armSubsystem = new ArmSubsystem();
+    armSubsystem = new ArmSubsystem(sparkMAXConfigurator);
+    sparkMAXConfigurator.awaitAll(); // RobotContainer waits for them too
     moveArmToAmpCommand = new MoveArmToAmp(armSubsystem);
     commandScheduler.schedule(moveArmToAmpCommand);
   }
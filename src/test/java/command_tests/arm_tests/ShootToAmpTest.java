@@ -4,10 +4,12 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 
 import command_tests.utils.CommandTestBase;
 import frc.robot.Constants.ArmConstants;
+import frc.robot.Constants.IntakeConstants.ColorSensorConstants;
 import frc.robot.commands.ShootToAmpCommand;
 import frc.robot.subsystems.ArmSubsystem;
 import frc.robot.subsystems.IntakeSubsystem;
 import frc.robot.subsystems.ShooterSubsystem;
+import frc.utils.sim_utils.ColorSensorV3Wrapped;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -25,10 +27,14 @@ class ShootToAmpTest extends CommandTestBase {
     super.setUp();
 
     shooterSubsystem = new ShooterSubsystem();
-    intakeSubsystem = new IntakeSubsystem();
-    armSubsystem = new ArmSubsystem();
-
-    shootToAmpCommand = new ShootToAmpCommand(shooterSubsystem, intakeSubsystem, armSubsystem);
+    intakeSubsystem =
+        new IntakeSubsystem(
+            new ColorSensorV3Wrapped(ColorSensorConstants.kColorSensorPort), sparkMAXConfigurator);
+    armSubsystem = new ArmSubsystem(sparkMAXConfigurator);
+    sparkMAXConfigurator.awaitAll(); // RobotContainer waits for them too
+
+    shootToAmpCommand =
+        new ShootToAmpCommand(shooterSubsystem, intakeSubsystem, armSubsystem, ledSubsystem);
 
     commandScheduler.schedule(shootToAmpCommand);
   }
@@ -47,21 +47,16 @@ class VibrateControllerCommandTest extends CommandTestBase {
   @Test
   void testItStopsVibrating() {
     commandScheduler.run();
-    SimHooks.stepTiming(kWaitTime);
-    commandScheduler.run();
+    runFor(kWaitTime);
     assertEquals(0, controllerSim.getRumble(RumbleType.kLeftRumble), kDelta);
   }
 
   @Test
   void testStopOnInterrupt() {
     commandScheduler.run();
-    SimHooks.stepTiming(kWaitTime);
-    commandScheduler.run();
+    runFor(kWaitTime);
     assertEquals(0, controllerSim.getRumble(RumbleType.kLeftRumble), kDelta);
-    commandScheduler.run();
-    SimHooks.stepTiming(kWaitTime);
-    commandScheduler.run();
-    commandScheduler.run();
+    runFor(kWaitTime + 0.1); // the repeat starts the next vibration a loop after the wait
     assertEquals(kIntensity, controllerSim.getRumble(RumbleType.kLeftRumble), kDelta);
     vibrateControllerCommand.cancel();
     commandScheduler.run();
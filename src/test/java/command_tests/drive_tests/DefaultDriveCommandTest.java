@@ -14,12 +14,14 @@ import frc.robot.Constants.DriveConstants;
 import frc.robot.Constants.OIConstants;
 import frc.robot.commands.DefaultDriveCommand;
 import frc.robot.subsystems.DriveSubsystem;
+import frc.robot.subsystems.PhotonCameraSystem;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import subsystem_tests.drive_subsystem_tests.utils.DriveTestUtils;
 
 class DefaultDriveCommandTest extends CommandTestBase {
+  PhotonCameraSystem cameraSystem;
   DriveSubsystem driveSubsystem;
   XboxController controller;
   XboxControllerSim controllerSim;
@@ -28,7 +30,10 @@ class DefaultDriveCommandTest extends CommandTestBase {
   @BeforeEach
   public void setUp() {
     super.setUp();
-    driveSubsystem = new DriveSubsystem();
+    cameraSystem = new PhotonCameraSystem();
+    driveSubsystem = new DriveSubsystem(cameraSystem, sparkMAXConfigurator);
+    sparkMAXConfigurator.awaitAll(); // RobotContainer waits for them too
+    driveSubsystem.startOdometry(); // RobotContainer starts it once they are
     controller = new XboxController(0);
     controllerSim = new XboxControllerSim(controller);
     defaultDriveCommand = new DefaultDriveCommand(driveSubsystem, controller);
@@ -38,6 +43,7 @@ class DefaultDriveCommandTest extends CommandTestBase {
   @AfterEach
   public void tearDown() {
     driveSubsystem.close();
+    cameraSystem.close();
     resetController();
     super.tearDown();
   }
@@ -1,11 +1,15 @@
 package command_tests.simple_command_tests;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static subsystem_tests.led_tests.utils.LEDTestUtils.checkForColorInAll;
 import static subsystem_tests.led_tests.utils.LEDTestUtils.testAtTime;
 
 import command_tests.utils.CommandTestBase;
 import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.simulation.SimHooks;
+import edu.wpi.first.wpilibj.util.Color;
 import frc.robot.commands.led_commands.LEDLoadingWaitCommand;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -13,12 +17,13 @@ import org.junit.jupiter.api.Test;
 
 class LEDWaitingCommandTest extends CommandTestBase {
   private static final double kWaitTime = 2.0;
+  private static final double kCheckPeriod = 0.1;
   private LEDLoadingWaitCommand ledLoadingWaitCommand;
 
   @BeforeEach
   public void setUp() {
     super.setUp();
-    ledLoadingWaitCommand = new LEDLoadingWaitCommand(kWaitTime);
+    ledLoadingWaitCommand = new LEDLoadingWaitCommand(ledSubsystem, kWaitTime);
     commandScheduler.schedule(ledLoadingWaitCommand);
   }
 
@@ -29,23 +34,19 @@ class LEDWaitingCommandTest extends CommandTestBase {
 
   void testLEDLoading(double waitTime) {
     double startTime = Timer.getFPGATimestamp();
-    for (double i = 0.1; Timer.getFPGATimestamp() - startTime + i < waitTime; i += 0.1) {
-      SimHooks.stepTiming(i);
-      commandScheduler.run();
+    while (Timer.getFPGATimestamp() - startTime + kCheckPeriod < waitTime) {
+      runFor(kCheckPeriod);
       testAtTime(ledSubsystem, startTime, waitTime);
     }
   }
 
-  /**
-   * This test takes a lot of time as it tries a lot of differently timed {@link
-   * LEDLoadingWaitCommand}s
-   */
+  /** Tries a lot of differently timed {@link LEDLoadingWaitCommand}s. */
   @Test
   void testLEDLoading() {
     // try multiple wait times, just so we can do it
     for (double i = 0.0; i <= 6; i += 1.2) {
       commandScheduler.cancelAll();
-      commandScheduler.schedule(new LEDLoadingWaitCommand(i));
+      commandScheduler.schedule(new LEDLoadingWaitCommand(ledSubsystem, i));
       commandScheduler.run();
       testLEDLoading(i);
     }
@@ -62,4 +63,18 @@ class LEDWaitingCommandTest extends CommandTestBase {
     assertEquals(
         true, ledLoadingWaitCommand.isFinished(), "led wait command should finish after wait time");
   }
+
+  @Test
+  void itEndsRightAfterTheWaitTime() {
+    commandScheduler.run();
+    assertFalse(
+        runUntil(() -> !ledLoadingWaitCommand.isScheduled(), kWaitTime - kCheckPeriod),
+        "led wait command shouldn't end before wait time");
+    assertTrue(
+        runUntil(() -> !ledLoadingWaitCommand.isScheduled(), 2 * kCheckPeriod),
+        "led wait command should end right after wait time");
+    step(); // let led loop draw a frame
+    checkForColorInAll(
+        ledSubsystem, Color.kBlack, "progress bar should be cleared when the command ends");
+  }
 }
@@ -43,8 +43,7 @@ class WaitANDConditionCommandTest extends CommandTestBase {
   @Test
   void testItCompletesAfterTime() {
     commandScheduler.run();
-    SimHooks.stepTiming(kWaitTime);
-    commandScheduler.run();
+    runFor(kWaitTime);
     assertFalse(
         waitConditionCommand.isFinished(),
         "Command should not finish after time finishes without condition");
@@ -58,4 +57,27 @@ class WaitANDConditionCommandTest extends CommandTestBase {
     commandScheduler.run();
     assertTrue(waitConditionCommand.isFinished(), "Command should finish after time and condition");
   }
+
+  @Test
+  void testItFinishesRightAfterTime() {
+    commandScheduler.run();
+    condition = true;
+    assertFalse(
+        runUntil(() -> !waitConditionCommand.isScheduled(), kWaitTime - 0.1),
+        "Command should not finish before the time");
+    assertTrue(
+        runUntil(() -> !waitConditionCommand.isScheduled(), 0.2),
+        "Command should finish right after the time");
+  }
+
+  @Test
+  void testItWaitsForTheCondition() {
+    commandScheduler.run();
+    runFor(kWaitTime + 1);
+    assertTrue(waitConditionCommand.isScheduled(), "Command should wait for the condition");
+    condition = true;
+    assertTrue(
+        runUntil(() -> !waitConditionCommand.isScheduled(), 0.1),
+        "Command should finish once the condition is true");
+  }
 }
@@ -1,22 +1,41 @@
 package command_tests.utils;
 
 import edu.wpi.first.hal.HAL;
+import edu.wpi.first.wpilibj.TimedRobot;
+import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
 import edu.wpi.first.wpilibj2.command.CommandScheduler;
 import frc.robot.subsystems.LEDSubsystem;
-import frc.robot.subsystems.LEDSystem;
+import frc.utils.sim_utils.SparkMAXConfigurator;
+import java.util.function.BooleanSupplier;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 
+/**
+ * Base for command tests, runs the scheduler on a simulated clock.
+ *
+ * <p>The FPGA timer is paused for every test, so time only passes when the test steps it. Use
+ * {@link #runFor(double)} and {@link #runUntil(BooleanSupplier, double)} instead of waiting with
+ * {@link Timer#delay(double)}, they step the clock one robot loop at a time and wait for the
+ * notifiers (like the LED thread) in between, so a test of a few seconds runs in milliseconds.
+ */
 public class CommandTestBase {
+  /** Simulated length of a robot loop, same as the robot. */
+  protected static final double kLoopPeriodSeconds = TimedRobot.kDefaultPeriod;
+
   protected CommandScheduler commandScheduler;
   protected LEDSubsystem ledSubsystem;
+  // Give it to the subsystems, and wait for it like RobotContainer does.
+  protected SparkMAXConfigurator sparkMAXConfigurator;
 
   @BeforeEach
   protected void setUp() {
     assert HAL.initialize(500, 0);
+    SimHooks.pauseTiming();
     commandScheduler = CommandScheduler.getInstance();
-    ledSubsystem = LEDSystem.getInstance();
+    ledSubsystem = new LEDSubsystem();
+    sparkMAXConfigurator = new SparkMAXConfigurator();
 
     // Enable robot for commands to run
     DriverStationSim.setEnabled(true);
@@ -26,9 +45,47 @@ public class CommandTestBase {
 
   @AfterEach
   protected void tearDown() {
-    LEDSystem.resetLEDSubsystem();
     commandScheduler.cancelAll();
     commandScheduler.unregisterAllSubsystems(); // ! breaks all test tests if not done
+    ledSubsystem.close(); // after cancelAll, the LED commands clear their zones when they end
     commandScheduler.close();
+    sparkMAXConfigurator.close();
+    SimHooks.resumeTiming(); // tests not using this base expect real time
+  }
+
+  /** Steps the clock by one robot loop and runs the scheduler. */
+  protected void step() {
+    SimHooks.stepTiming(kLoopPeriodSeconds);
+    commandScheduler.run();
+  }
+
+  /**
+   * Runs the scheduler every robot loop for the given simulated time.
+   *
+   * @param seconds How long to run for, rounded to whole robot loops.
+   */
+  protected void runFor(double seconds) {
+    final long loops = Math.round(seconds / kLoopPeriodSeconds);
+    for (long i = 0; i < loops; i++) {
+      step();
+    }
+  }
+
+  /**
+   * Runs the scheduler every robot loop until the condition is true.
+   *
+   * @param condition Checked before every loop.
+   * @param timeoutSeconds How much simulated time to give up after.
+   * @return whether the condition became true before the timeout.
+   */
+  protected boolean runUntil(BooleanSupplier condition, double timeoutSeconds) {
+    final double endTime = Timer.getFPGATimestamp() + timeoutSeconds;
+    while (!condition.getAsBoolean()) {
+      if (Timer.getFPGATimestamp() >= endTime) {
+        return false;
+      }
+      step();
+    }
+    return true;
   }
 }
@@ -3,25 +3,32 @@ package subsystem_tests.arm_tests;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 import edu.wpi.first.hal.HAL;
-import edu.wpi.first.wpilibj.Timer;
+import frc.robot.Constants.IntakeConstants.ColorSensorConstants;
 import frc.robot.subsystems.IntakeSubsystem;
 import frc.utils.sim_utils.ColorSensorV3Wrapped;
+import frc.utils.sim_utils.SparkMAXConfigurator;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 class IntakeTests {
   private IntakeSubsystem intakeSubsystem;
+  private ColorSensorV3Wrapped colorSensor;
+  private SparkMAXConfigurator sparkMAXConfigurator;
 
   @BeforeEach
   public void setUp() {
     HAL.initialize(500, 0);
-    intakeSubsystem = new IntakeSubsystem();
+    colorSensor = new ColorSensorV3Wrapped(ColorSensorConstants.kColorSensorPort);
+    sparkMAXConfigurator = new SparkMAXConfigurator();
+    intakeSubsystem = new IntakeSubsystem(colorSensor, sparkMAXConfigurator);
+    sparkMAXConfigurator.awaitAll(); // RobotContainer waits for them too
   }
 
   @AfterEach
   public void tearDown() {
     intakeSubsystem.close();
+    sparkMAXConfigurator.close();
   }
 
   @Test
@@ -32,24 +39,24 @@ class IntakeTests {
 
   @Test
   void testIntakeNoteDetected() {
-    ColorSensorV3Wrapped.setNoteColor(true);
+    colorSensor.setNoteColor(true);
     assertEquals(true, intakeSubsystem.hasNote(), "Intake should detect a note");
-    ColorSensorV3Wrapped.setNoteColor(false);
+    colorSensor.setNoteColor(false);
     assertEquals(false, intakeSubsystem.hasNote(), "Intake should not detect a note");
     // TODO: Add more tests for different RGBD values
   }
 
   @Test
   void testIntakeStopsOnNote() {
-    ColorSensorV3Wrapped.setNoteColor(false);
+    colorSensor.setNoteColor(false);
     intakeSubsystem.setIntakeSpeed(0.5);
     assertEquals(
         0.5,
         intakeSubsystem.getArmIntakeSpeed(),
         0.001,
         "Intake motor should be running when a note is not detected");
-    ColorSensorV3Wrapped.setNoteColor(true);
-    Timer.delay(0.1); // wait until note is detected
+    colorSensor.setNoteColor(true);
+    intakeSubsystem.periodic(); // the next loop stops it
     assertEquals(
         0,
         intakeSubsystem.getArmIntakeSpeed(),
@@ -59,14 +66,14 @@ class IntakeTests {
 
   @Test
   void testIntakeForcePushes() {
-    ColorSensorV3Wrapped.setNoteColor(true);
+    colorSensor.setNoteColor(true);
     intakeSubsystem.setIntakeSpeed(0.5, 0, true); // force push note out
     assertEquals(
         0.5,
         intakeSubsystem.getArmIntakeSpeed(),
         0.001,
         "Intake Motor Should Run when force pushed");
-    Timer.delay(0.15); // if broken, increase this
+    intakeSubsystem.periodic();
     assertEquals(
         0.5,
         intakeSubsystem.getArmIntakeSpeed(),
@@ -76,7 +83,7 @@ class IntakeTests {
 
   @Test
   void testIntakeSubsystemWithNote() {
-    ColorSensorV3Wrapped.setNoteColor(true);
+    colorSensor.setNoteColor(true);
     intakeSubsystem.setIntakeSpeed(0.5);
     assertEquals(
         0,
@@ -4,6 +4,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -42,4 +43,16 @@ class DistanceAndRotationDifferenceTests extends DriveSubsystemTestBase {
     // we should be 2.8 meters away from the target
     assertEquals(Math.hypot(2, 2), driveSubsystem.getDistanceToShooter(), delta);
   }
+
+  @Test
+  void testGeometricDistanceLeavesOutMoveBy() {
+    SmartDashboard.putNumber("Move By", 0.5);
+    driveSubsystem.resetOdometry(new Pose2d(x + 2, y + 2, new Rotation2d(0)));
+
+    // The shot calibration logs this one, the offset would be added twice otherwise.
+    assertEquals(Math.hypot(2, 2) + 0.5, driveSubsystem.getDistanceToShooter(), delta);
+    assertEquals(
+        Math.hypot(2, 2), driveSubsystem.getFrame().getGeometricDistanceToShooter(), delta);
+    SmartDashboard.putNumber("Move By", 0);
+  }
 }
@@ -0,0 +1,145 @@
+package subsystem_tests.drive_subsystem_tests;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import edu.wpi.first.math.estimator.SwerveDrivePoseEstimator;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+import frc.robot.Constants.DriveConstants.SwerveModuleConstants;
+import frc.robot.RobotStateFrame;
+import java.lang.management.ManagementFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class DriveAllocationTests extends DriveSubsystemTestBase {
+  // Apart from the WPILib pose estimator and the one RobotStateFrame captured every loop, which are
+  // measured on their own and subtracted, the drive loop shouldn't allocate at all. These only
+  // leave room for the odd allocation while the JIT is
+  // still compiling, spread over the measured loops. A new SwerveModuleState[4] or a Pose2d chain
+  // every call is more than this.
+  private static final long kLoopBudgetBytes = 64;
+  private static final long kDriveBudgetBytes = 32;
+
+  private static final int kWarmupLoops = 500; // let the JIT compile the loop first
+  private static final int kMeasuredLoops = 500;
+
+  private com.sun.management.ThreadMXBean threadBean;
+  // Kept so the frames made by frameBytes() can't be optimized away.
+  private RobotStateFrame lastFrame;
+
+  @BeforeEach
+  public void setUp() {
+    super.setUp();
+    var bean = ManagementFactory.getThreadMXBean();
+    assumeTrue(bean instanceof com.sun.management.ThreadMXBean, "JVM can't measure allocations");
+    threadBean = (com.sun.management.ThreadMXBean) bean;
+    assumeTrue(threadBean.isThreadAllocatedMemorySupported(), "JVM can't measure allocations");
+    threadBean.setThreadAllocatedMemoryEnabled(true);
+  }
+
+  @AfterEach
+  public void tearDown() {
+    super.tearDown();
+  }
+
+  private void loop() {
+    // The same inputs every loop, so once the rate limiting has caught up the module angles stop
+    // changing and any Rotation2d made is a regression.
+    driveSubsystem.periodic();
+    driveSubsystem.drive(0.5, 0.25, 0.5, true, true);
+  }
+
+  /** What the pose estimator allocates for one update, the drive loop can't avoid that part. */
+  private long estimatorBytesPerUpdate() {
+    var yaw = new Rotation2d();
+    var positions =
+        new SwerveModulePosition[] {
+          new SwerveModulePosition(), new SwerveModulePosition(),
+          new SwerveModulePosition(), new SwerveModulePosition()
+        };
+    var estimator =
+        new SwerveDrivePoseEstimator(
+            SwerveModuleConstants.kDriveKinematics, yaw, positions, new Pose2d());
+    for (int i = 0; i < kWarmupLoops; i++) {
+      estimator.update(yaw, positions);
+    }
+
+    long before = threadBean.getCurrentThreadAllocatedBytes();
+    for (int i = 0; i < kMeasuredLoops; i++) {
+      estimator.update(yaw, positions);
+    }
+    return (threadBean.getCurrentThreadAllocatedBytes() - before) / kMeasuredLoops;
+  }
+
+  /** What capturing one frame allocates, a new frame every loop is what keeps frames immutable. */
+  private long frameBytes() {
+    var pose = new Pose2d();
+    var yaw = new Rotation2d();
+    var positions =
+        new SwerveModulePosition[] {
+          new SwerveModulePosition(), new SwerveModulePosition(),
+          new SwerveModulePosition(), new SwerveModulePosition()
+        };
+    var states =
+        new SwerveModuleState[] {
+          new SwerveModuleState(), new SwerveModuleState(),
+          new SwerveModuleState(), new SwerveModuleState()
+        };
+    for (int i = 0; i < kWarmupLoops; i++) {
+      lastFrame = new RobotStateFrame(i, pose, yaw, 0, positions, states, null, 0, 0, 0, yaw);
+    }
+
+    long before = threadBean.getCurrentThreadAllocatedBytes();
+    for (int i = 0; i < kMeasuredLoops; i++) {
+      lastFrame = new RobotStateFrame(i, pose, yaw, 0, positions, states, null, 0, 0, 0, yaw);
+    }
+    return (threadBean.getCurrentThreadAllocatedBytes() - before) / kMeasuredLoops;
+  }
+
+  @Test
+  void testPeriodicAndDriveAllocationBudget() {
+    // One odometry update per loop, the odometry thread would add as many as fit in the time.
+    driveSubsystem.setHighRateOdometry(false);
+    for (int i = 0; i < kWarmupLoops; i++) {
+      loop();
+    }
+
+    long before = threadBean.getCurrentThreadAllocatedBytes();
+    for (int i = 0; i < kMeasuredLoops; i++) {
+      loop();
+    }
+    long bytesPerLoop = (threadBean.getCurrentThreadAllocatedBytes() - before) / kMeasuredLoops;
+    long estimatorBytes = estimatorBytesPerUpdate();
+    long frameBytes = frameBytes();
+
+    assertTrue(
+        bytesPerLoop - estimatorBytes - frameBytes < kLoopBudgetBytes,
+        "periodic() + drive() allocated "
+            + bytesPerLoop
+            + " bytes per loop, "
+            + estimatorBytes
+            + " of them in the pose estimator and "
+            + frameBytes
+            + " in the frame");
+  }
+
+  @Test
+  void testDriveAllocationBudget() {
+    for (int i = 0; i < kWarmupLoops; i++) {
+      driveSubsystem.drive(0.5, 0.25, 0.5, true, true);
+    }
+
+    long before = threadBean.getCurrentThreadAllocatedBytes();
+    for (int i = 0; i < kMeasuredLoops; i++) {
+      driveSubsystem.drive(0.5, 0.25, 0.5, true, true);
+    }
+    long bytesPerCall = (threadBean.getCurrentThreadAllocatedBytes() - before) / kMeasuredLoops;
+
+    assertTrue(
+        bytesPerCall < kDriveBudgetBytes, "drive() allocated " + bytesPerCall + " bytes per call");
+  }
+}
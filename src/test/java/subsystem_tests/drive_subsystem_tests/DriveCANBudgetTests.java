@@ -0,0 +1,82 @@
+package subsystem_tests.drive_subsystem_tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+import frc.robot.Constants.CANConstants;
+import frc.robot.Constants.DriveConstants;
+import frc.utils.sim_utils.CANSparkMAXWrapped;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class DriveCANBudgetTests extends DriveSubsystemTestBase {
+  private static final int kLoops = 250; // 5 seconds
+  private static final int kSparkMAXCount = 8;
+
+  @BeforeEach
+  public void setUp() {
+    super.setUp();
+    SimHooks.pauseTiming();
+  }
+
+  @AfterEach
+  public void tearDown() {
+    SimHooks.resumeTiming();
+    super.tearDown();
+  }
+
+  private long totalFramesSent() {
+    long sent = 0;
+    for (int id = 1; id <= kSparkMAXCount; id++) {
+      sent += ((CANSparkMAXWrapped) driveSubsystem.getSparkMAXes().getSparkMAX(id)).getFramesSent();
+    }
+    return sent;
+  }
+
+  /** The driving SPARK MAXes have the odd CAN IDs. */
+  private long drivingFramesSent() {
+    long sent = 0;
+    for (int id = 1; id <= kSparkMAXCount; id += 2) {
+      sent += ((CANSparkMAXWrapped) driveSubsystem.getSparkMAXes().getSparkMAX(id)).getFramesSent();
+    }
+    return sent;
+  }
+
+  @Test
+  void testHoldingTheSticksOnlySendsHeartbeats() {
+    // Let the modules settle on the command first.
+    for (int i = 0; i < 50; i++) {
+      driveSubsystem.drive(0.5, 0, 0, false, false);
+      SimHooks.stepTiming(DriveConstants.kLoopPeriodSeconds);
+    }
+
+    long before = totalFramesSent();
+    for (int i = 0; i < kLoops; i++) {
+      driveSubsystem.drive(0.5, 0, 0, false, false);
+      SimHooks.stepTiming(DriveConstants.kLoopPeriodSeconds);
+    }
+    long sent = totalFramesSent() - before;
+
+    double seconds = kLoops * DriveConstants.kLoopPeriodSeconds;
+    long heartbeats =
+        (long) Math.ceil(seconds / CANConstants.kSetpointHeartbeatSeconds) * kSparkMAXCount;
+    assertTrue(
+        sent <= heartbeats + kSparkMAXCount,
+        "sent " + sent + " setpoints, expected about " + heartbeats);
+    // Without the cache every loop would send one setpoint per SPARK MAX.
+    assertTrue(sent < kLoops * kSparkMAXCount / 2);
+  }
+
+  @Test
+  void testChangingSpeedsAreAllSent() {
+    long before = drivingFramesSent();
+    for (int i = 0; i < 10; i++) {
+      driveSubsystem.drive(0.1 * (i + 1), 0, 0, false, false);
+      SimHooks.stepTiming(DriveConstants.kLoopPeriodSeconds);
+    }
+    // Every loop changes the speed of all 4 driving SPARK MAXes.
+    assertEquals(10 * 4, drivingFramesSent() - before);
+  }
+}
@@ -4,18 +4,26 @@ import edu.wpi.first.hal.HAL;
 import edu.wpi.first.wpilibj.simulation.DriverStationSim;
 import edu.wpi.first.wpilibj2.command.CommandScheduler;
 import frc.robot.subsystems.DriveSubsystem;
+import frc.robot.subsystems.PhotonCameraSystem;
+import frc.utils.sim_utils.SparkMAXConfigurator;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 
 public class DriveSubsystemTestBase {
+  protected PhotonCameraSystem cameraSystem;
   protected DriveSubsystem driveSubsystem;
   protected CommandScheduler commandScheduler;
+  protected SparkMAXConfigurator sparkMAXConfigurator;
 
   @BeforeEach
   public void setUp() {
     assert HAL.initialize(500, 0);
     commandScheduler = CommandScheduler.getInstance();
-    driveSubsystem = new DriveSubsystem();
+    cameraSystem = new PhotonCameraSystem();
+    sparkMAXConfigurator = new SparkMAXConfigurator();
+    driveSubsystem = new DriveSubsystem(cameraSystem, sparkMAXConfigurator);
+    sparkMAXConfigurator.awaitAll(); // RobotContainer waits for them too
+    driveSubsystem.startOdometry(); // RobotContainer starts it once they are
 
     // Enable robot for commands to run
     DriverStationSim.setEnabled(true);
@@ -28,6 +36,8 @@ public class DriveSubsystemTestBase {
     commandScheduler.cancelAll();
     commandScheduler.unregisterAllSubsystems(); // ! breaks all test tests if not done
     driveSubsystem.close();
+    cameraSystem.close();
+    sparkMAXConfigurator.close();
     commandScheduler.close();
   }
 }
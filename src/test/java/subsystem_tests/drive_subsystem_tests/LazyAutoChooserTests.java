@@ -0,0 +1,90 @@
+package subsystem_tests.drive_subsystem_tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.pathplanner.lib.commands.PathPlannerAuto;
+import edu.wpi.first.wpilibj.DriverStation.Alliance;
+import edu.wpi.first.wpilibj2.command.InstantCommand;
+import frc.utils.LazyAutoChooser;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class LazyAutoChooserTests extends DriveSubsystemTestBase {
+  private static final String kAuto = "S Auto";
+
+  private LazyAutoChooser chooser;
+  private int extraBuilt;
+  private int brokenBuilt;
+
+  @BeforeEach
+  public void setUp() {
+    super.setUp(); // Configures the AutoBuilder
+    chooser = new LazyAutoChooser();
+    extraBuilt = 0;
+    brokenBuilt = 0;
+    chooser.addOption(
+        "Extra",
+        () -> {
+          extraBuilt++;
+          return new InstantCommand();
+        });
+    chooser.addOption(
+        "Broken",
+        () -> {
+          brokenBuilt++;
+          throw new IllegalStateException("Broken on purpose");
+        });
+  }
+
+  private void waitUntilPrepared() throws InterruptedException {
+    for (int i = 0; i < 500 && !chooser.isPrepared(); i++) {
+      Thread.sleep(10);
+    }
+    assertTrue(chooser.isPrepared());
+  }
+
+  @Test
+  void testOnlyTheSelectedAutoIsBuilt() {
+    chooser.update("Extra", Optional.of(Alliance.Blue));
+    chooser.update("Extra", Optional.of(Alliance.Blue));
+    assertEquals(1, extraBuilt);
+
+    // Selecting it again after giving it away builds a new one.
+    var first = chooser.getSelected("Extra", Optional.of(Alliance.Blue));
+    assertNotSame(first, chooser.getSelected("Extra", Optional.of(Alliance.Blue)));
+    assertEquals(2, extraBuilt);
+  }
+
+  @Test
+  void testFailedAutoIsOnlyTriedOncePerSelection() {
+    for (int i = 0; i < 5; i++) {
+      chooser.update("Broken", Optional.of(Alliance.Blue));
+    }
+    assertNull(chooser.getSelected("Broken", Optional.of(Alliance.Blue)));
+    assertEquals(1, brokenBuilt);
+
+    // Selecting it again tries again.
+    chooser.update("Extra", Optional.of(Alliance.Blue));
+    chooser.update("Broken", Optional.of(Alliance.Blue));
+    assertEquals(2, brokenBuilt);
+  }
+
+  @Test
+  void testPathPlannerAutosArePrepared() throws InterruptedException {
+    chooser.update(kAuto, Optional.of(Alliance.Blue));
+    waitUntilPrepared();
+
+    // Changing alliance prepares the flipped paths, but keeps the command.
+    chooser.update(kAuto, Optional.of(Alliance.Red));
+    waitUntilPrepared();
+
+    var auto = chooser.getSelected(kAuto, Optional.of(Alliance.Red));
+    assertNotNull(auto);
+    assertTrue(auto instanceof PathPlannerAuto);
+  }
+}
@@ -0,0 +1,118 @@
+package subsystem_tests.drive_subsystem_tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+import frc.robot.Constants.DriveConstants;
+import frc.utils.OdometryThread;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The FPGA timer is paused, so the odometry thread only samples when the test steps the clock, once
+ * per period. The sample counts don't depend on how busy the machine is.
+ */
+class OdometryThreadTests extends DriveSubsystemTestBase {
+  private static final double delta = 0.001;
+  private static final double kPeriodSeconds = 1 / DriveConstants.kOdometryFrequencyHz;
+  private static final int kSamplesPerLoop =
+      (int) Math.round(DriveConstants.kLoopPeriodSeconds / kPeriodSeconds);
+
+  private int sampleCount;
+  private double lastTimestamp;
+  private double lastYaw;
+
+  @BeforeEach
+  public void setUp() {
+    SimHooks.pauseTiming();
+    super.setUp();
+    sampleCount = 0;
+    lastTimestamp = -1;
+    lastYaw = -1;
+  }
+
+  @AfterEach
+  public void tearDown() {
+    super.tearDown();
+    SimHooks.resumeTiming();
+  }
+
+  // Every step wakes the odometry thread once, and waits for it to take its sample.
+  private static void stepSamples(int count) {
+    for (int i = 0; i < count; i++) {
+      SimHooks.stepTiming(kPeriodSeconds);
+    }
+  }
+
+  @Test
+  void testSamplesAreDrainedInOrder() {
+    int[] counter = {0};
+    try (var odometryThread =
+        new OdometryThread(
+            (distances, angles) -> {
+              distances[0] = counter[0];
+              return counter[0]++;
+            },
+            1,
+            DriveConstants.kOdometryFrequencyHz)) {
+      odometryThread.start();
+      stepSamples(25);
+
+      int drained =
+          odometryThread.drain(
+              (timestamp, yaw, distances, angles) -> {
+                assertTrue(timestamp >= lastTimestamp, "samples should be drained oldest first");
+                assertEquals(lastYaw + 1, yaw, delta, "no sample should be skipped");
+                assertEquals(yaw, distances[0], delta, "distance should match its sample");
+                lastTimestamp = timestamp;
+                lastYaw = yaw;
+                sampleCount++;
+              });
+
+      assertEquals(sampleCount, drained);
+      assertEquals(25, drained, "every step should have taken a sample");
+      assertEquals(0, odometryThread.getDroppedSampleCount());
+    }
+  }
+
+  @Test
+  void testHighRateOdometryMatchesSingleSample() {
+    driveSubsystem.setHighRateOdometry(true);
+    driveSubsystem.resetOdometry(new Pose2d());
+
+    for (int i = 0; i < 50; i++) {
+      driveSubsystem.driveRobotRelative(new ChassisSpeeds(1, 0, 0));
+      stepSamples(kSamplesPerLoop);
+      driveSubsystem.simulationPeriodic(); // the modules only move when the simulation steps
+      driveSubsystem.periodic();
+      assertEquals(
+          kSamplesPerLoop,
+          driveSubsystem.getOdometrySamplesLastLoop(),
+          "every sample of the loop should be drained");
+    }
+    var highRatePose = driveSubsystem.getPose();
+
+    // The modules are not moving anymore, so a single sample should agree with the thread.
+    driveSubsystem.setHighRateOdometry(false);
+    driveSubsystem.periodic();
+    var singleSamplePose = driveSubsystem.getPose();
+
+    assertTrue(highRatePose.getX() > 0.3, "robot should have driven forward");
+    assertEquals(0, highRatePose.getY(), 0.01);
+    assertEquals(singleSamplePose.getX(), highRatePose.getX(), 0.01);
+    assertEquals(singleSamplePose.getY(), highRatePose.getY(), 0.01);
+  }
+
+  @Test
+  void testSingleSampleMode() {
+    driveSubsystem.setHighRateOdometry(false);
+    driveSubsystem.periodic();
+
+    assertEquals(false, driveSubsystem.isHighRateOdometry());
+    assertEquals(1, driveSubsystem.getOdometrySamplesLastLoop());
+  }
+}
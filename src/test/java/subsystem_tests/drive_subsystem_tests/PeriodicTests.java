@@ -47,6 +47,10 @@ class PeriodicTests extends DriveSubsystemTestBase {
 
     ChassisSpeeds speedsToGo = new ChassisSpeeds(1, 0, 0);
     driveSubsystem.driveRobotRelative(speedsToGo);
+    // The simulated modules accelerate, give them two seconds to get up to speed.
+    for (int i = 0; i < 100; i++) {
+      driveSubsystem.simulationPeriodic();
+    }
 
     driveSubsystem.periodic();
 
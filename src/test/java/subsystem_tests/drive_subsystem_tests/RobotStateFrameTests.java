@@ -0,0 +1,77 @@
+package subsystem_tests.drive_subsystem_tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.wpilibj.Timer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class RobotStateFrameTests extends DriveSubsystemTestBase {
+  private static final double delta = 0.001;
+
+  @BeforeEach
+  public void setUp() {
+    super.setUp();
+  }
+
+  @AfterEach
+  public void tearDown() {
+    super.tearDown();
+  }
+
+  @Test
+  void testFrameIsCapturedOncePerLoop() {
+    driveSubsystem.periodic();
+    var frame = driveSubsystem.getFrame();
+    double timestamp = frame.getTimestampSeconds();
+
+    // Nothing new gets read until the next loop.
+    Timer.delay(0.02);
+    assertEquals(timestamp, driveSubsystem.getFrame().getTimestampSeconds());
+
+    driveSubsystem.periodic();
+
+    // Every loop captures a new frame, the old one keeps what it was.
+    var next = driveSubsystem.getFrame();
+    assertNotSame(frame, next);
+    assertEquals(timestamp, frame.getTimestampSeconds());
+    assertTrue(next.getTimestampSeconds() > timestamp);
+    assertEquals(4, next.getModuleCount());
+  }
+
+  @Test
+  void testFrameIsNotChangedByTheModules() {
+    driveSubsystem.setHighRateOdometry(false);
+    driveSubsystem.periodic();
+    var frame = driveSubsystem.getFrame();
+    var angleBefore = frame.getModuleAngle(0);
+
+    // Changing the copies or driving the modules should not change the frame until the next loop.
+    frame.getModulePositions()[0].distanceMeters = 100;
+    driveSubsystem.drive(0, 1, 0, false, false);
+    // Give the simulated modules a second to turn.
+    for (int i = 0; i < 50; i++) {
+      driveSubsystem.simulationPeriodic();
+    }
+
+    assertEquals(0, frame.getModuleDistanceMeters(0), delta);
+    assertEquals(angleBefore, frame.getModuleAngle(0));
+
+    driveSubsystem.periodic();
+
+    assertEquals(Rotation2d.fromDegrees(90), driveSubsystem.getFrame().getModuleAngle(0));
+  }
+
+  @Test
+  void testResetOdometryCapturesANewFrame() {
+    var pose = new Pose2d(2, 3, new Rotation2d());
+    driveSubsystem.resetOdometry(pose);
+
+    assertEquals(pose, driveSubsystem.getFrame().getPose());
+  }
+}
@@ -0,0 +1,120 @@
+package subsystem_tests.drive_subsystem_tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+import frc.robot.Constants.ModuleConstants;
+import frc.robot.simulationSystems.SwerveGyroSimulation;
+import frc.robot.simulationSystems.SwerveModuleSim;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class SwerveModuleSimTests {
+  private static final double delta = 1e-3;
+  private SwerveModuleSim moduleSim;
+
+  @BeforeEach
+  public void setUp() {
+    HAL.initialize(500, 0); // init HAL just in case
+    moduleSim = new SwerveModuleSim();
+  }
+
+  private static void step(SwerveModuleSim sim, double seconds) {
+    for (int i = 0; i < Math.round(seconds / ModuleConstants.kSimPeriodSeconds); i++) {
+      sim.update(ModuleConstants.kSimPeriodSeconds);
+    }
+  }
+
+  @Test
+  void testNothingMovesWithoutAStep() {
+    moduleSim.setDesiredState(new SwerveModuleState(2, Rotation2d.fromDegrees(90)));
+
+    assertEquals(0, moduleSim.getSpeedMetersPerSecond());
+    assertEquals(0, moduleSim.getAngle().getRadians());
+    assertEquals(0, moduleSim.getDistanceMeters());
+  }
+
+  @Test
+  void testModuleAcceleratesToTheDesiredSpeed() {
+    moduleSim.setDesiredState(new SwerveModuleState(2, new Rotation2d()));
+    step(moduleSim, ModuleConstants.kSimPeriodSeconds);
+    final double firstStepSpeed = moduleSim.getSpeedMetersPerSecond();
+    assertTrue(firstStepSpeed > 0, "The module should start moving");
+    assertTrue(firstStepSpeed < 1, "The module shouldn't be up to speed right away");
+
+    step(moduleSim, 2);
+    assertEquals(2, moduleSim.getSpeedMetersPerSecond(), 0.01);
+    assertTrue(moduleSim.getDistanceMeters() > 2, "The module should have driven");
+  }
+
+  @Test
+  void testModuleTurnsToTheDesiredAngle() {
+    moduleSim.setDesiredState(new SwerveModuleState(0, Rotation2d.fromDegrees(60)));
+    step(moduleSim, ModuleConstants.kSimPeriodSeconds);
+    assertTrue(moduleSim.getAngle().getDegrees() < 60, "The module shouldn't turn right away");
+
+    step(moduleSim, 1);
+    assertEquals(60, moduleSim.getAngle().getDegrees(), delta);
+  }
+
+  @Test
+  void testModuleNeverTurnsMoreThan90Degrees() {
+    moduleSim.setDesiredState(new SwerveModuleState(1, Rotation2d.fromDegrees(180)));
+    step(moduleSim, 2);
+
+    // Driving backwards is the same as turning around.
+    assertEquals(0, moduleSim.getAngle().getDegrees(), delta);
+    assertEquals(-1, moduleSim.getSpeedMetersPerSecond(), 0.01);
+  }
+
+  @Test
+  void testSimulationIsDeterministic() {
+    var otherSim = new SwerveModuleSim();
+    var state = new SwerveModuleState(3, Rotation2d.fromDegrees(-30));
+    moduleSim.setDesiredState(state);
+    otherSim.setDesiredState(state);
+    step(moduleSim, 0.5);
+    step(otherSim, 0.5);
+
+    assertEquals(otherSim.getDistanceMeters(), moduleSim.getDistanceMeters());
+    assertEquals(otherSim.getSpeedMetersPerSecond(), moduleSim.getSpeedMetersPerSecond());
+    assertEquals(otherSim.getAngle(), moduleSim.getAngle());
+  }
+
+  @Test
+  void testGyroFollowsTheModules() {
+    var gyroSim = new SwerveGyroSimulation();
+    // Every module pointing sideways at the same speed turns the robot in place.
+    var states =
+        new SwerveModuleState[] {
+          new SwerveModuleState(1, Rotation2d.fromDegrees(135)),
+          new SwerveModuleState(1, Rotation2d.fromDegrees(45)),
+          new SwerveModuleState(1, Rotation2d.fromDegrees(-135)),
+          new SwerveModuleState(1, Rotation2d.fromDegrees(-45))
+        };
+    gyroSim.updateOdometry(states, 0.5);
+    assertTrue(gyroSim.getAngle() > 0, "The robot should have turned counter clockwise");
+
+    gyroSim.updateOdometry(
+        new SwerveModuleState[] {
+          new SwerveModuleState(),
+          new SwerveModuleState(),
+          new SwerveModuleState(),
+          new SwerveModuleState()
+        },
+        0.5);
+    final double angle = gyroSim.getAngle();
+    gyroSim.updateOdometry(
+        new SwerveModuleState[] {
+          new SwerveModuleState(),
+          new SwerveModuleState(),
+          new SwerveModuleState(),
+          new SwerveModuleState()
+        },
+        0.5);
+    assertEquals(angle, gyroSim.getAngle(), "The robot shouldn't turn when the modules stop");
+  }
+}
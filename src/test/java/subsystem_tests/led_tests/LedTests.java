@@ -5,32 +5,48 @@ import static subsystem_tests.led_tests.utils.LEDTestUtils.checkForColorInAll;
 import static subsystem_tests.led_tests.utils.LEDTestUtils.getColorAtIndex;
 
 import edu.wpi.first.hal.HAL;
-import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
 import edu.wpi.first.wpilibj.util.Color;
+import frc.robot.Constants.LEDConstants;
 import frc.robot.subsystems.LEDSubsystem;
-import frc.robot.subsystems.LEDSystem;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+/**
+ * The FPGA timer is paused for every test, the LED thread only draws when the test steps the clock.
+ */
 class LedTests {
   private LEDSubsystem ledSubsystem;
 
   @BeforeEach
   public void setUp() {
     HAL.initialize(500, 0);
-    ledSubsystem = LEDSystem.getInstance();
+    SimHooks.pauseTiming();
+    ledSubsystem = new LEDSubsystem();
   }
 
   @AfterEach
   public void tearDown() {
-    // ledSubsystem is closed by `LEDSystem.resetLEDSubsystem()`
-    LEDSystem.resetLEDSubsystem();
+    ledSubsystem.close();
+    SimHooks.resumeTiming(); // tests that don't pause expect real time
+  }
+
+  /**
+   * Steps the clock a frame at a time, the LED thread draws every frame before the next step.
+   *
+   * @param seconds how long to run for, rounded to whole frames.
+   */
+  private void runFor(double seconds) {
+    final long frames = Math.round(seconds / LEDConstants.kFramePeriodSeconds);
+    for (long i = 0; i < frames; i++) {
+      SimHooks.stepTiming(LEDConstants.kFramePeriodSeconds);
+    }
   }
 
   private void testUntilPercentage(double percentage) {
     ledSubsystem.fillPercentageWithColor(percentage, Color.kWhite);
-    Timer.delay(0.1); // wait until command gets executed
+    runFor(0.1); // wait until command gets executed
     for (int i = 0; i < ledSubsystem.getLedCount(); i++) {
       if (i < (int) (ledSubsystem.getLedCount() * percentage)) {
         assertEquals(
@@ -49,7 +65,7 @@ class LedTests {
   @Test
   void testFill() {
     ledSubsystem.fill(Color.kWhite);
-    Timer.delay(0.05); // let the loop change all the colors
+    runFor(0.05); // let the loop change all the colors
     for (int i = 0; i < ledSubsystem.getStrip().getLedCount(); i++) {
       assertEquals(
           Color.kWhite,
@@ -61,13 +77,13 @@ class LedTests {
   @Test
   void testBlink() {
     ledSubsystem.blink(Color.kWhite, 0.5);
-    Timer.delay(0.1);
+    runFor(0.1);
     checkForColorInAll(
         ledSubsystem, Color.kWhite, "Starting color should have been the the color specified");
-    Timer.delay(0.5); // wait for led's to close back down
+    runFor(0.5); // wait for led's to close back down
     checkForColorInAll(
         ledSubsystem, Color.kBlack, "Color should have turned to black in blinking sequence");
-    Timer.delay(0.5);
+    runFor(0.5);
     checkForColorInAll(
         ledSubsystem, Color.kWhite, "Color should have turned back to the color specified");
   }
@@ -75,12 +91,12 @@ class LedTests {
   @Test
   void testBlinkRed() {
     ledSubsystem.blinkRed();
-    Timer.delay(0.1);
+    runFor(0.1);
     checkForColorInAll(ledSubsystem, Color.kRed, "Color should be red before blink");
-    Timer.delay(0.2);
+    runFor(0.2);
     checkForColorInAll(
         ledSubsystem, Color.kBlack, "Color should have turned to black in blinking sequence");
-    Timer.delay(0.2);
+    runFor(0.2);
     checkForColorInAll(ledSubsystem, Color.kRed, "Color should have turned back to red");
   }
 
@@ -121,13 +137,60 @@ class LedTests {
   @Test
   void testStatusFills() {
     ledSubsystem.setStatusColor(false);
-    Timer.delay(0.1);
+    runFor(0.1);
     checkForColorInAll(ledSubsystem, Color.kRed, "Color Should be red when status is false");
     tearDown();
 
     setUp();
     ledSubsystem.setStatusColor(true);
-    Timer.delay(0.1);
+    runFor(0.1);
     checkForColorInAll(ledSubsystem, Color.kGreen, "Color should be green when status is true");
   }
+
+  @Test
+  void testBlinkCountEnds() {
+    ledSubsystem.getStrip().blink(Color.kWhite, 1);
+    runFor(0.1);
+    checkForColorInAll(ledSubsystem, Color.kWhite, "Should be on for the first half second");
+    runFor(1.1);
+    checkForColorInAll(ledSubsystem, Color.kBlack, "Should be left off after the last blink");
+    assertEquals(
+        "No Command Running",
+        ledSubsystem.getStrip().getCurrentCommandName(),
+        "The blink should have ended by itself");
+  }
+
+  @Test
+  void testZoneHidesWhenItsBlinkEnds() {
+    ledSubsystem.fill(Color.kWhite);
+    ledSubsystem.getAlertZone().getZone().blink(Color.kRed, 1);
+    runFor(0.1);
+    checkForColorInAll(ledSubsystem, Color.kRed, "The alert should be drawn over the strip");
+    runFor(1.1);
+    checkForColorInAll(
+        ledSubsystem, Color.kWhite, "The strip should show again once the alert has ended");
+  }
+
+  @Test
+  void testZonesOverlayTheStrip() {
+    ledSubsystem.fill(Color.kWhite);
+    ledSubsystem.getProgressZone().fillPercentageWithColor(0.5, Color.kBlue);
+    runFor(0.1);
+    final int half = ledSubsystem.getLedCount() / 2;
+    checkForColorInAll(ledSubsystem, Color.kBlue, half, "Progress should be drawn over the strip");
+    for (int i = half; i < ledSubsystem.getLedCount(); i++) {
+      assertEquals(
+          Color.kWhite, getColorAtIndex(ledSubsystem, i), "The strip should show after progress");
+    }
+
+    ledSubsystem.getAlertZone().blink(Color.kRed, 0.5);
+    runFor(0.1);
+    checkForColorInAll(ledSubsystem, Color.kRed, "Alerts should be drawn over everything");
+
+    ledSubsystem.getAlertZone().clear();
+    ledSubsystem.getProgressZone().clear();
+    runFor(0.1);
+    checkForColorInAll(
+        ledSubsystem, Color.kWhite, "The strip should show again once the zones are cleared");
+  }
 }
@@ -4,7 +4,9 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 
 import edu.wpi.first.math.MathUtil;
 import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
 import edu.wpi.first.wpilibj.util.Color;
+import frc.robot.Constants.LEDConstants;
 import frc.robot.commands.led_commands.LEDLoadingWaitCommand;
 import frc.robot.subsystems.LEDSubsystem;
 
@@ -34,7 +36,7 @@ public class LEDTestUtils {
         (int)
             (ledSubsystem.getLedCount()
                 * MathUtil.clamp((endTime - startTime) / waitTime, 0.0, 1.0));
-    Timer.delay(0.1); // let led loop do its thing
+    SimHooks.stepTiming(LEDConstants.kFramePeriodSeconds); // let led loop draw a frame
     checkForColorInAll(
         ledSubsystem,
         LEDLoadingWaitCommand.DEFAULT_COLOR,
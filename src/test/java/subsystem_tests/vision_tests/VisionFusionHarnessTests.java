@@ -0,0 +1,182 @@
+package subsystem_tests.vision_tests;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.wpi.first.apriltag.AprilTagFields;
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.math.estimator.SwerveDrivePoseEstimator;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Pose3d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import frc.robot.Constants.CameraConstants.PiCamera;
+import frc.robot.Constants.DriveConstants.SwerveModuleConstants;
+import frc.robot.subsystems.PhotonCameraSystem;
+import frc.utils.VisionFusion;
+import java.util.ArrayList;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.photonvision.EstimatedRobotPose;
+import org.photonvision.PhotonCamera;
+import org.photonvision.PhotonPoseEstimator;
+import org.photonvision.simulation.PhotonCameraSim;
+import org.photonvision.simulation.SimCameraProperties;
+import org.photonvision.simulation.VisionSystemSim;
+import org.photonvision.simulation.VisionTargetSim;
+
+/**
+ * Drives a simulated robot around in front of the blue speaker with slipping wheels, and compares
+ * how well the old vision policy (only multi tag poses, default standard deviations) and {@link
+ * VisionFusion} keep the pose estimator on the real pose.
+ */
+class VisionFusionHarnessTests {
+  private static final double kLoopSeconds = 0.02;
+  private static final int kLoops = 750; // 15 seconds
+  private static final double kWheelSlip = 1.05; // wheels report 5% more than the robot moved
+  // The simulated camera has no pixel noise, so the run is the same every time. Instead every
+  // camera pose is off by this times the square of the distance to the tags, less with more tags.
+  private static final double kVisionErrorPerMeterSquared = 0.02;
+  // Turns the direction of the error every frame, so it averages out instead of being a bias.
+  private static final double kErrorTurnRadians = Math.PI * (3 - Math.sqrt(5));
+
+  private PhotonCameraSim cameraSim;
+  private ArrayList<VisionTargetSim> targets;
+  private PhotonCameraSystem cameraSystem;
+  private PhotonPoseEstimator photonPoseEstimator;
+
+  @BeforeEach
+  public void setUp() {
+    assert HAL.initialize(500, 0);
+    // No calibration noise, it isn't seeded. The error gets added to the poses instead.
+    var properties = SimCameraProperties.PI4_LIFECAM_640_480();
+    properties.setCalibError(0, 0);
+    cameraSim = new PhotonCameraSim(new PhotonCamera("Vision Fusion Harness"), properties);
+    var visionSim = new VisionSystemSim("Vision Fusion Harness");
+    visionSim.addAprilTags(AprilTagFields.k2024Crescendo.loadAprilTagLayoutField());
+    targets = new ArrayList<>(visionSim.getVisionTargets());
+    cameraSystem = new PhotonCameraSystem();
+    photonPoseEstimator = cameraSystem.createPoseEstimator();
+  }
+
+  @AfterEach
+  public void tearDown() {
+    cameraSystem.close();
+  }
+
+  /** The camera looks out of the back, heading 0 keeps it facing the blue speaker. */
+  private static Pose2d truePoseAt(double t) {
+    return new Pose2d(3 + 1.5 * Math.sin(0.4 * t), 5.5 + 1.5 * Math.sin(0.8 * t), new Rotation2d());
+  }
+
+  /** What a real camera gets wrong, far away and single tag poses are worse. */
+  private static Translation2d visionErrorFor(EstimatedRobotPose pose, int frame) {
+    double totalDistance = 0;
+    for (var target : pose.targetsUsed) {
+      totalDistance += target.getBestCameraToTarget().getTranslation().getNorm();
+    }
+    final int tagCount = pose.targetsUsed.size();
+    final double averageDistance = totalDistance / tagCount;
+    final double error =
+        kVisionErrorPerMeterSquared * averageDistance * averageDistance / Math.sqrt(tagCount);
+    return new Translation2d(error, new Rotation2d(frame * kErrorTurnRadians));
+  }
+
+  private static SwerveDrivePoseEstimator newEstimator(SwerveModulePosition[] positions) {
+    return new SwerveDrivePoseEstimator(
+        SwerveModuleConstants.kDriveKinematics, new Rotation2d(), positions, truePoseAt(0));
+  }
+
+  @Test
+  void testVisionFusionCorrectsMoreThanMultiTagOnly() {
+    var positions = new SwerveModulePosition[4];
+    for (int i = 0; i < positions.length; i++) {
+      positions[i] = new SwerveModulePosition();
+    }
+    var oldEstimator = newEstimator(positions);
+    var newEstimator = newEstimator(positions);
+    var visionFusion = new VisionFusion();
+
+    int frames = 0;
+    int oldCorrections = 0;
+    int newCorrections = 0;
+    double oldErrorSum = 0;
+    double newErrorSum = 0;
+    double odometryErrorSum = 0;
+    var odometryOnly = newEstimator(positions);
+
+    for (int i = 1; i <= kLoops; i++) {
+      final double t = i * kLoopSeconds;
+      var lastPose = truePoseAt(t - kLoopSeconds);
+      var truePose = truePoseAt(t);
+
+      // Heading never changes, so field relative and robot relative speeds are the same.
+      var states =
+          SwerveModuleConstants.kDriveKinematics.toSwerveModuleStates(
+              new ChassisSpeeds(
+                  (truePose.getX() - lastPose.getX()) / kLoopSeconds * kWheelSlip,
+                  (truePose.getY() - lastPose.getY()) / kLoopSeconds * kWheelSlip,
+                  0));
+      for (int m = 0; m < positions.length; m++) {
+        positions[m] =
+            new SwerveModulePosition(
+                positions[m].distanceMeters + states[m].speedMetersPerSecond * kLoopSeconds,
+                states[m].angle);
+      }
+      oldEstimator.updateWithTime(t, new Rotation2d(), positions);
+      newEstimator.updateWithTime(t, new Rotation2d(), positions);
+      odometryOnly.updateWithTime(t, new Rotation2d(), positions);
+
+      var result = cameraSim.process(0, new Pose3d(truePose).plus(PiCamera.robotToCam), targets);
+      result.setTimestampSeconds(t);
+      var estimate = photonPoseEstimator.update(result);
+      if (estimate.isPresent()) {
+        EstimatedRobotPose pose = estimate.get();
+        var visionPose =
+            new Pose2d(
+                pose.estimatedPose.toPose2d().getTranslation().plus(visionErrorFor(pose, frames)),
+                new Rotation2d());
+        frames++;
+
+        if (pose.targetsUsed.size() > 1) {
+          oldEstimator.addVisionMeasurement(visionPose, t);
+          oldCorrections++;
+        }
+        if (visionFusion.evaluate(pose, newEstimator.getEstimatedPosition())
+            == VisionFusion.Decision.ACCEPTED) {
+          newEstimator.addVisionMeasurement(visionPose, t, visionFusion.getStdDevs());
+          newCorrections++;
+        }
+      }
+
+      var trueTranslation = truePose.getTranslation();
+      oldErrorSum +=
+          oldEstimator.getEstimatedPosition().getTranslation().getDistance(trueTranslation);
+      newErrorSum +=
+          newEstimator.getEstimatedPosition().getTranslation().getDistance(trueTranslation);
+      odometryErrorSum +=
+          odometryOnly.getEstimatedPosition().getTranslation().getDistance(trueTranslation);
+    }
+
+    final double oldError = oldErrorSum / kLoops;
+    final double newError = newErrorSum / kLoops;
+    final double odometryError = odometryErrorSum / kLoops;
+    final double oldRate = (double) oldCorrections / frames;
+    final double newRate = (double) newCorrections / frames;
+
+    assertTrue(frames > kLoops / 2, "the camera should see tags most of the time");
+    assertTrue(newRate >= oldRate, "single tag poses should be used too");
+    assertTrue(
+        newError < oldError,
+        "weighted poses should track the real pose better, mean error "
+            + newError
+            + " m against "
+            + oldError
+            + " m");
+    assertTrue(
+        newError < odometryError,
+        "vision should help, mean error " + newError + " m against " + odometryError + " m");
+  }
+}
@@ -0,0 +1,65 @@
+package subsystem_tests.vision_tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.wpilibj.Timer;
+import frc.robot.simulationSystems.PhotonSim;
+import frc.robot.subsystems.PhotonCameraSystem;
+import frc.robot.subsystems.VisionThread;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.photonvision.EstimatedRobotPose;
+
+class VisionThreadTests {
+  // The camera looks out of the back of the robot, this faces it to the blue speaker tags.
+  private static final Pose2d robotPose = new Pose2d(2.5, 5.5, new Rotation2d());
+
+  private PhotonCameraSystem cameraSystem;
+  private PhotonSim photonSim;
+  private VisionThread visionThread;
+
+  @BeforeEach
+  public void setUp() {
+    assert HAL.initialize(500, 0);
+    cameraSystem = new PhotonCameraSystem();
+    photonSim = new PhotonSim(cameraSystem);
+    visionThread = new VisionThread(cameraSystem);
+    visionThread.start();
+  }
+
+  @AfterEach
+  public void tearDown() {
+    visionThread.close();
+    cameraSystem.close();
+  }
+
+  @Test
+  void testEveryResultIsEstimatedInOrder() {
+    int frames = 0;
+    double lastTimestamp = Double.NEGATIVE_INFINITY;
+
+    for (int i = 0; i < 25; i++) {
+      photonSim.update(robotPose);
+      Timer.delay(0.02);
+
+      // Same as the drive loop, take every pose that came in since the last loop.
+      EstimatedRobotPose estimate;
+      while ((estimate = visionThread.poll()) != null) {
+        assertTrue(estimate.timestampSeconds > lastTimestamp, "poses should come out oldest first");
+        assertEquals(robotPose.getX(), estimate.estimatedPose.getX(), 0.1);
+        assertEquals(robotPose.getY(), estimate.estimatedPose.getY(), 0.1);
+        lastTimestamp = estimate.timestampSeconds;
+        frames++;
+      }
+    }
+
+    assertTrue(frames > 1, "the camera should have produced more than one pose");
+    assertTrue(visionThread.getProcessedResultCount() >= frames);
+    assertEquals(0, visionThread.getDroppedMeasurementCount());
+  }
+}
@@ -0,0 +1,106 @@
+package telemetry_tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.networktables.DoubleSubscriber;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.networktables.PubSubOption;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+import frc.utils.telemetry.DoubleEntry;
+import frc.utils.telemetry.Telemetry;
+import frc.utils.telemetry.Telemetry.Verbosity;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TelemetryTests {
+  private DoubleEntry entry;
+  private DoubleSubscriber subscriber;
+  private int supplierCalls;
+
+  @BeforeEach
+  public void setUp() {
+    HAL.initialize(500, 0); // init HAL just in case
+    SimHooks.pauseTiming();
+    Telemetry.setVerbosity(Verbosity.DEBUG);
+    supplierCalls = 0;
+  }
+
+  @AfterEach
+  public void tearDown() {
+    entry.close();
+    subscriber.close();
+    Telemetry.setVerbosity(Verbosity.DEBUG);
+    SimHooks.resumeTiming();
+  }
+
+  // Every test uses its own key, so values left over from other tests don't get counted.
+  private void subscribe(String key) {
+    subscriber =
+        NetworkTableInstance.getDefault()
+            .getTable("SmartDashboard")
+            .getDoubleTopic(key)
+            .subscribe(0, PubSubOption.sendAll(true), PubSubOption.keepDuplicates(true));
+  }
+
+  private int publishCount() {
+    NetworkTableInstance.getDefault().waitForListenerQueue(-1);
+    return subscriber.readQueue().length;
+  }
+
+  @Test
+  void testUnchangedValuesAreNotPublished() {
+    subscribe("Telemetry Test Changes");
+    entry = Telemetry.addDouble("Telemetry Test Changes", Verbosity.COMPETITION, 0);
+
+    entry.set(1);
+    entry.set(1);
+    entry.set(1);
+    entry.set(2);
+
+    assertEquals(2, publishCount());
+    assertEquals(2, subscriber.get());
+  }
+
+  @Test
+  void testPeriodLimitsPublishRate() {
+    subscribe("Telemetry Test Period");
+    entry = Telemetry.addDouble("Telemetry Test Period", Verbosity.COMPETITION, 0.1);
+
+    for (int i = 0; i < 10; i++) {
+      entry.set(i);
+      SimHooks.stepTiming(0.02);
+    }
+
+    // 0.2 seconds at 10 Hz.
+    assertEquals(2, publishCount());
+  }
+
+  @Test
+  void testDebugEntriesAreDisabledInCompetition() {
+    Telemetry.setVerbosity(Verbosity.COMPETITION);
+    subscribe("Telemetry Test Verbosity");
+    entry =
+        Telemetry.addDouble(
+            "Telemetry Test Verbosity",
+            Verbosity.DEBUG,
+            0,
+            () -> {
+              supplierCalls++;
+              return 5;
+            });
+
+    entry.update();
+    entry.set(3);
+
+    assertEquals(0, supplierCalls, "disabled entries should not read their supplier");
+    assertEquals(0, publishCount());
+
+    Telemetry.setVerbosity(Verbosity.DEBUG);
+    entry.update();
+
+    assertEquals(1, supplierCalls);
+    assertEquals(5, subscriber.get());
+  }
+}
@@ -0,0 +1,122 @@
+package utils_tests;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.util.datalog.DataLog;
+import frc.utils.ArmAngleTable;
+import frc.utils.ArmAngleTableFitter;
+import frc.utils.ExtraFunctions;
+import frc.utils.ShotCalibrationLog;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ArmAngleTableTests {
+  private static final double delta = 0.0001;
+
+  @TempDir Path tempDir;
+
+  private ArmAngleTable table;
+
+  @BeforeEach
+  public void setUp() {
+    HAL.initialize(500, 0); // init HAL just in case
+    table = new ArmAngleTable(new double[] {1, 2, 4}, new double[] {0.1, 0.2, 0.3});
+  }
+
+  @Test
+  void testInterpolatesBetweenPoints() {
+    assertEquals(0.1, table.getAngle(1), delta);
+    assertEquals(0.15, table.getAngle(1.5), delta);
+    assertEquals(0.2, table.getAngle(2), delta);
+    assertEquals(0.275, table.getAngle(3.5), delta);
+  }
+
+  @Test
+  void testClampsOutsideTheTable() {
+    assertEquals(0.1, table.getAngle(0), delta);
+    assertEquals(0.3, table.getAngle(10), delta);
+  }
+
+  @Test
+  void testPointsMustBeIncreasing() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new ArmAngleTable(new double[] {1, 1}, new double[] {0.1, 0.2}));
+  }
+
+  @Test
+  void testMissingFileFallsBackToTheQuadratic() {
+    var missing = ArmAngleTable.loadOrQuadratic(tempDir.resolve("missing.json").toFile());
+
+    assertFalse(missing.isCalibrated());
+    assertEquals(ExtraFunctions.getAngleFromDistance(3), missing.getAngle(3), delta);
+  }
+
+  @Test
+  void testWriteAndRead() throws IOException {
+    File file = tempDir.resolve(ArmAngleTable.kFileName).toFile();
+    table.write(file);
+
+    var read = ArmAngleTable.loadOrQuadratic(file);
+
+    assertTrue(read.isCalibrated());
+    assertEquals(3, read.size());
+    assertEquals(table.getAngle(2.7), read.getAngle(2.7), delta);
+  }
+
+  @Test
+  void testFitterAveragesHitsAndIgnoresMisses() {
+    List<double[]> shots =
+        List.of(
+            new double[] {2.0, 0.10, 1},
+            new double[] {2.04, 0.12, 1},
+            new double[] {2.02, 0.40, 0}, // missed, should not count
+            new double[] {3.0, 0.20, 1});
+
+    var fitted = ArmAngleTableFitter.fit(shots);
+
+    assertEquals(2, fitted.size());
+    assertEquals(0.11, fitted.getAngle(2.02), delta);
+    assertEquals(0.20, fitted.getAngle(3.0), delta);
+  }
+
+  @Test
+  void testFitterNeedsTwoDistances() {
+    List<double[]> shots =
+        List.of(
+            new double[] {2.0, 0.10, 1},
+            new double[] {2.04, 0.12, 1},
+            new double[] {3.0, 0.20, 0}); // missed, so only one distance has hits
+
+    assertNull(ArmAngleTableFitter.fit(shots));
+  }
+
+  @Test
+  void testFitterReadsCalibrationLogs() throws IOException {
+    File logFile = tempDir.resolve("calibration.wpilog").toFile();
+    var log = new DataLog(tempDir.toString(), logFile.getName());
+    var calibrationLog = new ShotCalibrationLog(log);
+    calibrationLog.logShot(2, 0.1, true);
+    calibrationLog.logShot(3, 0.5, false);
+    log.close();
+
+    var shots = new ArrayList<double[]>();
+    ArmAngleTableFitter.readShots(logFile, shots);
+
+    assertEquals(2, shots.size());
+    assertArrayEquals(new double[] {2, 0.1, 1}, shots.get(0), delta);
+    assertArrayEquals(new double[] {3, 0.5, 0}, shots.get(1), delta);
+  }
+}
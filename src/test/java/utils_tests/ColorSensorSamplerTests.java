@@ -0,0 +1,88 @@
+package utils_tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.wpilibj.I2C.Port;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+import frc.utils.ColorSensorSampler;
+import frc.utils.sim_utils.ColorSensorV3Wrapped;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ColorSensorSamplerTests {
+  private static final double debounceSeconds = 0.025;
+
+  private ColorSensorV3Wrapped colorSensor;
+  private ColorSensorSampler sampler;
+
+  @BeforeEach
+  public void setUp() {
+    HAL.initialize(500, 0); // init HAL just in case
+    // The notifier doesn't run while timing is paused, so only the test samples.
+    SimHooks.pauseTiming();
+    colorSensor = new ColorSensorV3Wrapped(Port.kMXP);
+    sampler = new ColorSensorSampler(colorSensor, debounceSeconds);
+    sampler.start(0.0125);
+  }
+
+  @AfterEach
+  public void tearDown() {
+    sampler.close();
+    colorSensor.close();
+    SimHooks.resumeTiming();
+  }
+
+  @Test
+  void testNoteThresholds() {
+    assertTrue(ColorSensorSampler.looksLikeNote(1000, 300, 0, 1500));
+    assertFalse(ColorSensorSampler.looksLikeNote(0, 0, 0, 0));
+    // Too far away.
+    assertFalse(ColorSensorSampler.looksLikeNote(1000, 300, 0, 200));
+    // Not orange.
+    assertFalse(ColorSensorSampler.looksLikeNote(1000, 1200, 0, 1500));
+  }
+
+  @Test
+  void testSimulatedValuesAreSampledRightAway() {
+    colorSensor.setRGBD(1000, 300, 50, 1500);
+    var sample = sampler.getLatest();
+    assertEquals(1000, sample.getRed());
+    assertEquals(300, sample.getGreen());
+    assertEquals(50, sample.getBlue());
+    assertEquals(1500, sample.getProximity());
+  }
+
+  @Test
+  void testNoteStateIsDebounced() {
+    colorSensor.setNoteColor(true);
+    assertFalse(sampler.getLatest().hasNote(), "A single reading shouldn't count as a note");
+
+    SimHooks.stepTiming(debounceSeconds + 0.005);
+    sampler.sample();
+    assertTrue(sampler.getLatest().hasNote());
+    assertEquals(1, sampler.getNotesSeen());
+
+    // A single bad reading doesn't lose the note either.
+    colorSensor.setNoteColor(false);
+    assertTrue(sampler.getLatest().hasNote());
+    colorSensor.setNoteColor(true);
+    SimHooks.stepTiming(debounceSeconds + 0.005);
+    sampler.sample();
+    assertTrue(sampler.getLatest().hasNote());
+    assertEquals(1, sampler.getNotesSeen(), "The note should only be reported when it arrives");
+  }
+
+  @Test
+  void testSamplesAreTimestamped() {
+    SimHooks.stepTiming(1);
+    sampler.sample();
+    final double first = sampler.getLatest().getTimestampSeconds();
+    SimHooks.stepTiming(0.5);
+    sampler.sample();
+    assertEquals(0.5, sampler.getLatest().getTimestampSeconds() - first, 0.001);
+  }
+}
@@ -0,0 +1,81 @@
+package utils_tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.wpi.first.apriltag.AprilTagFields;
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.wpilibj.DriverStation.Alliance;
+import frc.utils.FieldGeometry;
+import frc.utils.FieldGeometry.Target;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class FieldGeometryTests {
+  private static final double delta = 0.0001;
+
+  // Blue speaker, AprilTag 7.
+  private static final double blueSpeakerX = -0.0381;
+  private static final double blueSpeakerY = 5.5478688;
+
+  private FieldGeometry fieldGeometry;
+
+  @BeforeEach
+  public void setUp() {
+    HAL.initialize(500, 0); // init HAL just in case
+    fieldGeometry = new FieldGeometry(AprilTagFields.k2024Crescendo.loadAprilTagLayoutField());
+  }
+
+  @Test
+  void testBlueIsUsedWithoutAnAlliance() {
+    fieldGeometry.setAlliance(Optional.empty());
+
+    assertEquals(Alliance.Blue, fieldGeometry.getAlliance());
+    assertEquals(blueSpeakerX, fieldGeometry.getTargetX(Target.SPEAKER), delta);
+    assertEquals(blueSpeakerY, fieldGeometry.getTargetY(Target.SPEAKER), delta);
+  }
+
+  @Test
+  void testDistanceAndBearing() {
+    fieldGeometry.setAlliance(Alliance.Blue);
+
+    assertEquals(
+        Math.hypot(2, 2),
+        fieldGeometry.getDistance(Target.SPEAKER, blueSpeakerX + 2, blueSpeakerY + 2),
+        delta);
+    // The speaker is behind and to the right of the robot.
+    assertEquals(
+        Math.toRadians(-135),
+        fieldGeometry.getBearingRadians(Target.SPEAKER, blueSpeakerX + 2, blueSpeakerY + 2),
+        delta);
+  }
+
+  @Test
+  void testTargetsChangeWithTheAlliance() {
+    fieldGeometry.setAlliance(Alliance.Blue);
+    var blueAmpX = fieldGeometry.getTargetX(Target.AMP);
+    var blueSourceX = fieldGeometry.getTargetX(Target.SOURCE);
+
+    fieldGeometry.setAlliance(Alliance.Red);
+
+    // The red targets are mirrored to the other end of the field.
+    assertTrue(fieldGeometry.getTargetX(Target.SPEAKER) > 16);
+    assertTrue(fieldGeometry.getTargetX(Target.AMP) > blueAmpX);
+    assertTrue(fieldGeometry.getTargetX(Target.SOURCE) < blueSourceX);
+    assertEquals(blueSpeakerY, fieldGeometry.getTargetY(Target.SPEAKER), delta);
+
+    fieldGeometry.setAlliance(Alliance.Blue);
+    assertEquals(blueAmpX, fieldGeometry.getTargetX(Target.AMP), delta);
+  }
+
+  @Test
+  void testMissingLayoutReturnsZero() {
+    fieldGeometry = new FieldGeometry(null);
+    fieldGeometry.setAlliance(Alliance.Blue);
+
+    assertFalse(fieldGeometry.isLoaded());
+    assertEquals(0, fieldGeometry.getDistance(Target.SPEAKER, 1, 1));
+  }
+}
@@ -0,0 +1,68 @@
+package utils_tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.wpi.first.hal.HAL;
+import frc.utils.JITWarmup;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class JITWarmupTests {
+  private JITWarmup warmup;
+
+  @BeforeEach
+  public void setUp() {
+    HAL.initialize(500, 0); // init HAL just in case
+    warmup = new JITWarmup(100, 10, 5);
+  }
+
+  @Test
+  void testEveryExerciseRunsAllIterations() {
+    int[] counts = new int[2];
+    warmup.add("First", n -> counts[0] += n).add("Second", n -> counts[1] += n);
+
+    while (!warmup.isWarm()) {
+      warmup.run(1);
+    }
+    assertEquals(100, counts[0]);
+    assertEquals(100, counts[1]);
+
+    // Once warm nothing runs anymore.
+    warmup.run(1);
+    assertEquals(100, counts[0]);
+  }
+
+  @Test
+  void testExercisesTakeTurns() {
+    List<String> order = new ArrayList<>();
+    warmup.add("First", n -> order.add("First")).add("Second", n -> order.add("Second"));
+
+    // No budget still runs one chunk.
+    warmup.run(0);
+    warmup.run(0);
+    assertEquals(List.of("First", "Second"), order);
+    assertFalse(warmup.isWarm());
+  }
+
+  @Test
+  void testAFailingExerciseDoesntStopTheOthers() {
+    int[] count = new int[1];
+    warmup
+        .add(
+            "Broken",
+            n -> {
+              throw new IllegalStateException("broken");
+            })
+        .add("Working", n -> count[0] += n);
+
+    while (!warmup.isWarm()) {
+      warmup.run(1);
+    }
+    assertEquals(100, count[0]);
+    assertTrue(warmup.getReport().contains("Working: 100/100"));
+  }
+}
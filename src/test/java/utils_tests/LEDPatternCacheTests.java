@@ -0,0 +1,70 @@
+package utils_tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.wpilibj.util.Color;
+import frc.utils.LEDPatternCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class LEDPatternCacheTests {
+  @BeforeEach
+  public void setUp() {
+    HAL.initialize(500, 0); // init HAL just in case
+    LEDPatternCache.clear();
+  }
+
+  private static Color colorAt(byte[] frame, int index) {
+    return new Color(
+        frame[index * 3] & 0xFF, frame[index * 3 + 1] & 0xFF, frame[index * 3 + 2] & 0xFF);
+  }
+
+  @Test
+  void testPatternsAreReused() {
+    var frames = LEDPatternCache.blink(Color.kRed, 10);
+    assertSame(frames, LEDPatternCache.blink(Color.kRed, 10));
+    assertNotSame(frames, LEDPatternCache.blink(Color.kBlue, 10), "Other colors aren't the same");
+    assertNotSame(frames, LEDPatternCache.blink(Color.kRed, 20), "Other lengths aren't the same");
+    assertEquals(3, LEDPatternCache.size());
+  }
+
+  @Test
+  void testBlinkFrames() {
+    var frames = LEDPatternCache.blink(Color.kRed, 10);
+    assertEquals(2, frames.length);
+    for (int i = 0; i < 10; i++) {
+      assertEquals(Color.kRed, colorAt(frames[0], i), "First frame should be on");
+      assertEquals(Color.kBlack, colorAt(frames[1], i), "Second frame should be off");
+    }
+  }
+
+  @Test
+  void testBreatheFrames() {
+    var frames = LEDPatternCache.breathe(Color.kWhite, 4, 0, 255);
+    assertEquals(256, frames.length, "There should be a frame for every brightness");
+    assertEquals(Color.kBlack, colorAt(frames[0], 0));
+    assertEquals(Color.kWhite, colorAt(frames[255], 3));
+    assertEquals(new Color(100, 100, 100), colorAt(frames[100], 2));
+  }
+
+  @Test
+  void testChaseFrames() {
+    var frames = LEDPatternCache.chase(Color.kGreen, 10, 3, true);
+    assertEquals(10, frames.length, "It should take a step for every LED");
+    for (int i = 0; i < 10; i++) {
+      // At step 5 the LEDs 2, 3 and 4 are lit.
+      assertEquals(
+          i >= 2 && i < 5 ? Color.kGreen : Color.kBlack, colorAt(frames[5], i), "LED " + i);
+    }
+
+    frames = LEDPatternCache.chase(Color.kGreen, 10, 3, false);
+    for (int i = 0; i < 10; i++) {
+      // Mirrored, at step 5 the LEDs 5, 6 and 7 are lit.
+      assertEquals(
+          i >= 5 && i < 8 ? Color.kGreen : Color.kBlack, colorAt(frames[5], i), "LED " + i);
+    }
+  }
+}
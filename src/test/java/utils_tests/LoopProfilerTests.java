@@ -0,0 +1,120 @@
+package utils_tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import edu.wpi.first.wpilibj2.command.Commands;
+import frc.utils.LoopProfiler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class LoopProfilerTests {
+  private static final double delta = 1e-9;
+  private static final double period = 0.02;
+
+  private LoopProfiler profiler;
+  private CommandScheduler scheduler;
+
+  @BeforeEach
+  public void setUp() {
+    HAL.initialize(500, 0); // init HAL just in case
+    profiler = new LoopProfiler();
+    scheduler = CommandScheduler.getInstance();
+  }
+
+  @AfterEach
+  public void tearDown() {
+    scheduler.cancelAll();
+    scheduler.close();
+  }
+
+  @Test
+  void testPercentiles() {
+    var section = profiler.section("Percentiles");
+    // 1 to 100 milliseconds.
+    for (int i = 1; i <= 100; i++) {
+      section.record(i * 1_000_000L);
+    }
+    assertEquals(0.050, section.getPercentileSeconds(50), 0.0011);
+    assertEquals(0.099, section.getPercentileSeconds(99), 0.0011);
+    assertEquals(0.100, section.getPercentileSeconds(100), delta);
+  }
+
+  @Test
+  void testOnlyTheRecentSamplesAreKept() {
+    var section = profiler.section("Window");
+    section.record(1_000_000_000L);
+    // Push the slow sample out of the window.
+    for (int i = 0; i < 1000; i++) {
+      section.record(1_000_000L);
+    }
+    assertEquals(0.001, section.getPercentileSeconds(100), delta);
+  }
+
+  @Test
+  void testOverrunsAreBlamedOnTheSlowestPart() {
+    var fast = profiler.section("Fast Part");
+    var slow = profiler.section("Slow Part");
+
+    profiler.startLoop();
+    fast.record(2_000_000L);
+    slow.record(15_000_000L);
+    profiler.endLoop(25_000_000L, period);
+
+    assertEquals(1, profiler.getOverruns());
+    assertEquals(1, slow.getOverrunsCaused());
+    assertEquals(0, fast.getOverrunsCaused());
+    assertTrue(profiler.getLastOverrun().contains("Slow Part"));
+  }
+
+  @Test
+  void testLoopsWithinThePeriodArentOverruns() {
+    var part = profiler.section("On Time Part");
+
+    profiler.startLoop();
+    part.record(5_000_000L);
+    profiler.endLoop(10_000_000L, period);
+
+    assertEquals(0, profiler.getOverruns());
+    assertEquals(0.005, part.getLoopSeconds(), delta);
+  }
+
+  @Test
+  void testTimeOutsideTheProfiledPartsIsReported() {
+    var part = profiler.section("Quick Part");
+
+    profiler.startLoop();
+    part.record(1_000_000L);
+    profiler.endLoop(30_000_000L, period);
+
+    assertTrue(profiler.getLastOverrun().contains("not profiled"));
+    assertEquals(0, part.getOverrunsCaused());
+  }
+
+  @Test
+  void testCommandsAreTimedAroundTheirOwnCallbacks() {
+    var slowCheck =
+        profiler.profile(
+            Commands.waitUntil(
+                    () -> {
+                      Timer.delay(0.01);
+                      return false;
+                    })
+                .ignoringDisable(true)
+                .withName("Slow Check"));
+    var quick = profiler.profile(Commands.idle().ignoringDisable(true).withName("Quick"));
+    // The slow check runs right before the quick command's execute.
+    scheduler.schedule(slowCheck, quick);
+
+    profiler.startLoop();
+    scheduler.run();
+    profiler.endLoop(period);
+
+    assertTrue(profiler.section("Commands/Slow Check").getLoopSeconds() >= 0.01);
+    assertTrue(profiler.section("Commands/Quick").getLoopSeconds() < 0.005);
+  }
+}
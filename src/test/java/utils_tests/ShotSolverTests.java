@@ -0,0 +1,117 @@
+package utils_tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import frc.robot.Constants.ShooterConstants;
+import frc.utils.ShotSolver;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ShotSolverTests {
+  private static final double delta = 0.0001;
+  private static final double targetX = -0.0381; // Blue speaker
+  private static final double targetY = 5.5478688;
+
+  private ShotSolver shotSolver;
+
+  @BeforeEach
+  public void setUp() {
+    shotSolver = new ShotSolver();
+  }
+
+  /**
+   * Flies a note in small steps, starting at the launch point with the robot's velocity plus the
+   * shot aimed at the bearing, and returns how far it misses the target by.
+   */
+  private double simulateMiss(
+      double launchX,
+      double launchY,
+      double robotVx,
+      double robotVy,
+      double bearingRadians,
+      double distance) {
+    final double dt = 0.0005;
+    final double shotSpeed = distance / ShotSolver.getTimeOfFlight(distance);
+    final double noteVx = robotVx + Math.cos(bearingRadians) * shotSpeed;
+    final double noteVy = robotVy + Math.sin(bearingRadians) * shotSpeed;
+
+    double x = launchX;
+    double y = launchY;
+    double closest = Double.POSITIVE_INFINITY;
+    for (double t = 0; t < 2; t += dt) {
+      closest = Math.min(closest, Math.hypot(targetX - x, targetY - y));
+      x += noteVx * dt;
+      y += noteVy * dt;
+    }
+    return closest;
+  }
+
+  @Test
+  void testStoppedRobotAimsAtTheTarget() {
+    shotSolver.solve(targetX + 2, targetY + 2, 0, 0, targetX, targetY);
+
+    assertTrue(shotSolver.isConverged());
+    assertEquals(targetX, shotSolver.getVirtualTargetX(), delta);
+    assertEquals(targetY, shotSolver.getVirtualTargetY(), delta);
+    assertEquals(Math.hypot(2, 2), shotSolver.getDistance(), delta);
+    assertEquals(Math.toRadians(-135), shotSolver.getBearingRadians(), delta);
+  }
+
+  @Test
+  void testRunningOutOfIterations() {
+    // Driving away faster than the note flies, the virtual target runs away from the solver.
+    shotSolver.solve(targetX + 2, targetY, 20, 0, targetX, targetY);
+
+    assertFalse(shotSolver.isConverged());
+    assertEquals(ShooterConstants.kShotSolverMaxIterations, shotSolver.getIterations());
+  }
+
+  @Test
+  void testMovingShotsHitTheTarget() {
+    // All of these move the robot across the line to the speaker, so aiming at it misses.
+    final double[][] velocities = {{0, 2}, {0, -3}, {1.5, 1.5}, {-1, -2}, {2, 3}};
+
+    for (var velocity : velocities) {
+      final double robotX = 3;
+      final double robotY = 4;
+      shotSolver.solve(robotX, robotY, velocity[0], velocity[1], targetX, targetY);
+      assertTrue(shotSolver.isConverged());
+
+      double solvedMiss =
+          simulateMiss(
+              shotSolver.getLaunchX(),
+              shotSolver.getLaunchY(),
+              velocity[0],
+              velocity[1],
+              shotSolver.getBearingRadians(),
+              shotSolver.getDistance());
+
+      // Aiming straight at the target from the same launch point, what we used to do.
+      double staticDistance =
+          Math.hypot(targetX - shotSolver.getLaunchX(), targetY - shotSolver.getLaunchY());
+      double staticMiss =
+          simulateMiss(
+              shotSolver.getLaunchX(),
+              shotSolver.getLaunchY(),
+              velocity[0],
+              velocity[1],
+              Math.atan2(targetY - shotSolver.getLaunchY(), targetX - shotSolver.getLaunchX()),
+              staticDistance);
+
+      assertTrue(solvedMiss < 0.02, "the note should go in, missed by " + solvedMiss);
+      assertTrue(staticMiss > 0.2, "aiming at the target should miss, missed by " + staticMiss);
+    }
+  }
+
+  @Test
+  void testLateralMotionMovesTheVirtualTargetBack() {
+    // Driving along the speaker wall, the note will drift in +y so we aim below the speaker.
+    shotSolver.solve(2, targetY, 0, 2, targetX, targetY);
+
+    assertTrue(shotSolver.getVirtualTargetY() < targetY);
+    assertEquals(
+        targetY - 2 * shotSolver.getTimeOfFlightSeconds(), shotSolver.getVirtualTargetY(), delta);
+  }
+}
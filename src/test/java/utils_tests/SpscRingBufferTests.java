@@ -0,0 +1,93 @@
+package utils_tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import frc.utils.SpscRingBuffer;
+import org.junit.jupiter.api.Test;
+
+class SpscRingBufferTests {
+  @Test
+  void testItemsComeOutInOrder() {
+    var buffer = new SpscRingBuffer<Integer>(4);
+
+    // Go around the buffer a few times to check the wrapping.
+    for (int i = 0; i < 10; i++) {
+      assertTrue(buffer.offer(i));
+      assertTrue(buffer.offer(i + 100));
+      assertEquals(i, buffer.poll());
+      assertEquals(i + 100, buffer.poll());
+    }
+    assertNull(buffer.poll());
+  }
+
+  @Test
+  void testFullBufferRefusesItems() {
+    var buffer = new SpscRingBuffer<Integer>(2);
+
+    assertTrue(buffer.offer(1));
+    assertTrue(buffer.offer(2));
+    assertFalse(buffer.offer(3), "a full buffer should not overwrite unread items");
+    assertEquals(2, buffer.size());
+
+    assertEquals(1, buffer.poll());
+    assertTrue(buffer.offer(3));
+    assertEquals(2, buffer.poll());
+    assertEquals(3, buffer.poll());
+    assertEquals(0, buffer.size());
+  }
+
+  @Test
+  void testReusedSlots() {
+    var buffer = new SpscRingBuffer<double[]>(2, () -> new double[1]);
+
+    double[] first = buffer.claim();
+    first[0] = 1;
+    buffer.publish();
+    double[] second = buffer.claim();
+    second[0] = 2;
+    buffer.publish();
+    assertNull(buffer.claim(), "a full buffer should not hand out unread slots");
+
+    assertEquals(1, buffer.peek()[0]);
+    buffer.release();
+    // The freed slot is the same array, nothing new was made.
+    assertSame(first, buffer.claim());
+    assertEquals(2, buffer.peek()[0]);
+    buffer.release();
+    assertNull(buffer.peek());
+    assertThrows(IllegalStateException.class, () -> buffer.offer(new double[1]));
+  }
+
+  @Test
+  void testAcrossThreads() throws InterruptedException {
+    var buffer = new SpscRingBuffer<Integer>(8);
+    final int count = 100_000;
+
+    var producer =
+        new Thread(
+            () -> {
+              for (int i = 0; i < count; i++) {
+                while (!buffer.offer(i)) {
+                  Thread.onSpinWait();
+                }
+              }
+            });
+    producer.start();
+
+    for (int expected = 0; expected < count; ) {
+      Integer item = buffer.poll();
+      if (item == null) {
+        Thread.onSpinWait();
+        continue;
+      }
+      assertEquals(expected, item);
+      expected++;
+    }
+    producer.join();
+  }
+}
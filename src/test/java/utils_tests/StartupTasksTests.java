@@ -0,0 +1,90 @@
+package utils_tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.wpi.first.hal.HAL;
+import frc.utils.StartupTasks;
+import java.util.concurrent.CountDownLatch;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class StartupTasksTests {
+  private StartupTasks startup;
+
+  @BeforeEach
+  public void setUp() {
+    HAL.initialize(500, 0); // init HAL just in case
+    startup = new StartupTasks(2);
+  }
+
+  @Test
+  void testBackgroundTasksRunOnOtherThreads() {
+    var mainThread = Thread.currentThread();
+    var thread = startup.supply("Thread", Thread::currentThread);
+    String built = startup.build("Main", () -> "built");
+
+    assertTrue(startup.awaitReady(5));
+    assertNotEquals(mainThread, thread.join());
+    assertEquals("built", built);
+  }
+
+  @Test
+  void testNotReadyUntilEverythingIsDone() throws InterruptedException {
+    var latch = new CountDownLatch(1);
+    startup.run(
+        "Slow",
+        () -> {
+          try {
+            latch.await();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        });
+    startup.finish();
+
+    assertFalse(startup.isReady());
+    assertFalse(startup.awaitReady(0.05));
+    assertFalse(startup.getReport().contains("ready after"));
+
+    latch.countDown();
+    assertTrue(startup.awaitReady(5));
+    assertTrue(startup.isReady());
+  }
+
+  @Test
+  void testFailedTaskDoesNotBlockReadiness() {
+    var failed =
+        startup.run(
+            "Broken",
+            () -> {
+              throw new IllegalStateException("broken");
+            });
+
+    assertTrue(startup.awaitReady(5));
+    assertTrue(failed.isCompletedExceptionally());
+    assertTrue(startup.getReport().contains("Broken"));
+    assertTrue(startup.getReport().contains("FAILED"));
+  }
+
+  @Test
+  void testNoTasksAfterFinishing() {
+    startup.finish();
+    assertThrows(IllegalStateException.class, () -> startup.run("Late", () -> {}));
+  }
+
+  @Test
+  void testReportHasEveryTask() {
+    startup.run("Field Layout", () -> {});
+    startup.stage("Subsystems", () -> {});
+    assertTrue(startup.awaitReady(5));
+
+    String report = startup.getReport();
+    assertTrue(report.contains("ready after"));
+    assertTrue(report.contains("Field Layout"));
+    assertTrue(report.contains("Subsystems"));
+  }
+}
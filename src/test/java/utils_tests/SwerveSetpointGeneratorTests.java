@@ -0,0 +1,144 @@
+package utils_tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+import frc.robot.Constants.DriveConstants.SwerveModuleConstants;
+import frc.utils.SwerveSetpointGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class SwerveSetpointGeneratorTests {
+  private static final double delta = 0.0001;
+  private static final double maxSpeed = 4.8;
+  private static final double maxAcceleration = 8;
+  private static final double maxSteeringVelocity = 10;
+  private static final double dt = 0.02;
+
+  private SwerveSetpointGenerator generator;
+  private SwerveModuleState[] states;
+
+  @BeforeEach
+  public void setUp() {
+    generator =
+        new SwerveSetpointGenerator(
+            SwerveModuleConstants.kModuleTranslations,
+            maxSpeed,
+            maxAcceleration,
+            maxSteeringVelocity,
+            dt);
+    states = new SwerveModuleState[4];
+    for (int i = 0; i < states.length; i++) {
+      states[i] = new SwerveModuleState(0, new Rotation2d());
+    }
+    generator.reset(0, 0, 0, states);
+  }
+
+  /**
+   * How far a module steered, the modules can drive backwards so this is at most a quarter turn.
+   */
+  private static double steered(Rotation2d from, Rotation2d to) {
+    double error = MathUtil.angleModulus(to.getRadians() - from.getRadians());
+    if (error > Math.PI / 2) {
+      error -= Math.PI;
+    } else if (error < -Math.PI / 2) {
+      error += Math.PI;
+    }
+    return Math.abs(error);
+  }
+
+  /** Runs the generator for a loop and checks no module went over the limits. */
+  private void step(double vx, double vy, double omega) {
+    var lastSpeeds = new double[states.length];
+    var lastAngles = new Rotation2d[states.length];
+    for (int i = 0; i < states.length; i++) {
+      lastSpeeds[i] = states[i].speedMetersPerSecond;
+      lastAngles[i] = states[i].angle;
+    }
+
+    generator.generate(vx, vy, omega, states);
+
+    for (int i = 0; i < states.length; i++) {
+      assertTrue(
+          steered(lastAngles[i], states[i].angle) <= maxSteeringVelocity * dt + delta,
+          "module " + i + " steered too fast");
+      // Velocities as vectors, so a change in direction counts as acceleration too.
+      double dx =
+          states[i].speedMetersPerSecond * states[i].angle.getCos()
+              - lastSpeeds[i] * lastAngles[i].getCos();
+      double dy =
+          states[i].speedMetersPerSecond * states[i].angle.getSin()
+              - lastSpeeds[i] * lastAngles[i].getSin();
+      assertTrue(
+          Math.hypot(dx, dy) <= maxAcceleration * dt + delta,
+          "module " + i + " accelerated too fast");
+    }
+  }
+
+  @Test
+  void testAccelerationIsLimited() {
+    step(maxSpeed, 0, 0);
+    assertEquals(maxAcceleration * dt, generator.getVx(), delta);
+
+    for (int i = 0; i < 100; i++) {
+      step(maxSpeed, 0, 0);
+    }
+    // 4.8 m/s at 8 m/s^2 takes 0.6 seconds, 30 loops.
+    assertEquals(maxSpeed, generator.getVx(), delta);
+  }
+
+  @Test
+  void testStoppedModulesTurnBeforeDriving() {
+    // Sideways is a quarter turn away from where the modules point.
+    step(0, 1, 0);
+    assertEquals(0, generator.getVy(), delta);
+    assertEquals(0, states[0].speedMetersPerSecond, delta);
+    assertEquals(maxSteeringVelocity * dt, states[0].angle.getRadians(), delta);
+
+    for (int i = 0; i < 50; i++) {
+      step(0, 1, 0);
+    }
+    assertEquals(1, generator.getVy(), delta);
+    assertEquals(Math.PI / 2, states[0].angle.getRadians(), delta);
+  }
+
+  @Test
+  void testDirectionChangesStayWithinTheLimits() {
+    for (int i = 0; i < 50; i++) {
+      step(2, 0, 0);
+    }
+    // Swerve to the side while moving, then reverse.
+    for (int i = 0; i < 100; i++) {
+      step(0, 2, 1);
+    }
+    for (int i = 0; i < 100; i++) {
+      step(-2, -1, 0);
+    }
+    assertEquals(-2, generator.getVx(), delta);
+    assertEquals(-1, generator.getVy(), delta);
+  }
+
+  @Test
+  void testStoppingKeepsTheModuleAngles() {
+    for (int i = 0; i < 50; i++) {
+      step(0, 1, 0);
+    }
+    for (int i = 0; i < 50; i++) {
+      step(0, 0, 0);
+    }
+    assertEquals(0, states[0].speedMetersPerSecond, delta);
+    assertEquals(Math.PI / 2, states[0].angle.getRadians(), delta);
+  }
+
+  @Test
+  void testFastInputsAreDesaturated() {
+    for (int i = 0; i < 100; i++) {
+      step(10, 10, 0);
+    }
+    assertEquals(maxSpeed / Math.sqrt(2), generator.getVx(), delta);
+    assertEquals(maxSpeed / Math.sqrt(2), generator.getVy(), delta);
+  }
+}
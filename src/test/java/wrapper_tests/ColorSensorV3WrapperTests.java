@@ -24,20 +24,23 @@ class ColorSensorV3WrapperTests {
   }
 
   @Test
-  void testColorSensorV3Wrapping() {
-    assertEquals(
-        colorSensor, ColorSensorV3Wrapped.getColorSensor(), "ColorSensorV3 should be wrapped");
+  void testSimulatedValuesBelongToOneSensor() {
+    try (var otherSensor = new ColorSensorV3Wrapped(Port.kOnboard)) {
+      colorSensor.setRGBD(2500, 300, 100, 900);
+      assertEquals(0, otherSensor.getRed(), "Other sensors shouldn't see the simulated values");
+      assertEquals(0, otherSensor.getProximity());
+    }
   }
 
   @Test
   void testColorSensorV3ValueChanging() {
-    ColorSensorV3Wrapped.setRGBD(2500, 300, 100, 900);
+    colorSensor.setRGBD(2500, 300, 100, 900);
     assertEquals(2500, colorSensor.getRed());
     assertEquals(300, colorSensor.getGreen());
     assertEquals(100, colorSensor.getBlue());
     assertEquals(900, colorSensor.getProximity());
 
-    ColorSensorV3Wrapped.setRGBD(0, 0, 0, 0);
+    colorSensor.setRGBD(0, 0, 0, 0);
     assertEquals(0, colorSensor.getRed());
     assertEquals(0, colorSensor.getGreen());
     assertEquals(0, colorSensor.getBlue());
@@ -0,0 +1,125 @@
+package wrapper_tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.revrobotics.CANSparkBase.IdleMode;
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.wpilibj.Preferences;
+import frc.utils.sim_utils.CANSparkMAXWrapped;
+import frc.utils.sim_utils.SparkMAXConfig;
+import frc.utils.sim_utils.SparkMAXConfigurator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class SparkMAXConfiguratorTests {
+  private static final int kId = 30;
+  private static final String kKey = "SPARK MAX " + kId + " Config";
+
+  private SparkMAXConfigurator configurator;
+  private CANSparkMAXWrapped sparkMAX;
+  private int applied;
+
+  @BeforeEach
+  public void setUp() {
+    HAL.initialize(500, 0); // init HAL just in case
+    Preferences.remove(kKey);
+    configurator = new SparkMAXConfigurator();
+    sparkMAX = new CANSparkMAXWrapped(kId, CANSparkMAXWrapped.MotorType.kBrushless);
+    applied = 0;
+  }
+
+  @AfterEach
+  public void tearDown() {
+    configurator.close();
+    sparkMAX.close();
+    Preferences.remove(kKey);
+  }
+
+  private SparkMAXConfig config(int currentLimit) {
+    return new SparkMAXConfig()
+        .smartCurrentLimit(currentLimit)
+        .set("Counter", 1, spark -> applied++);
+  }
+
+  @Test
+  void testFingerprintFollowsTheSettings() {
+    assertEquals(config(20).getFingerprint(), config(20).getFingerprint());
+    assertNotEquals(config(20).getFingerprint(), config(30).getFingerprint());
+    assertNotEquals(
+        new SparkMAXConfig().idleMode(IdleMode.kBrake).getFingerprint(),
+        new SparkMAXConfig().idleMode(IdleMode.kCoast).getFingerprint());
+  }
+
+  @Test
+  void testNewConfigIsApplied() {
+    var result = configurator.configure(sparkMAX, config(20));
+
+    assertFalse(result.isSkipped());
+    assertEquals(1, applied);
+  }
+
+  @Test
+  void testMatchingFingerprintIsSkipped() {
+    Preferences.setString(kKey, config(20).getFingerprint());
+
+    var result = configurator.configure(sparkMAX, config(20));
+
+    assertTrue(result.isSkipped());
+    assertEquals(0, applied);
+  }
+
+  @Test
+  void testChangedConfigIsApplied() {
+    Preferences.setString(kKey, config(20).getFingerprint());
+
+    var result = configurator.configure(sparkMAX, config(30));
+
+    assertFalse(result.isSkipped());
+    assertEquals(1, applied);
+  }
+
+  @Test
+  void testFailedReadBackIsApplied() {
+    var config = config(20).set("Swapped", true, spark -> applied++, spark -> false);
+    Preferences.setString(kKey, config.getFingerprint());
+
+    var result = configurator.configure(sparkMAX, config);
+
+    assertFalse(result.isSkipped());
+    assertEquals(2, applied);
+  }
+
+  @Test
+  void testAwaitAllWaitsForTheFollowUp() {
+    configurator.configureAsync(sparkMAX, config(20), () -> applied++);
+
+    configurator.awaitAll();
+
+    assertEquals(2, applied);
+  }
+
+  @Test
+  void testPIDGainsAreReadBack() {
+    var config = new SparkMAXConfig().pidGains(0.5, 0, 0.1, 0.02);
+    Preferences.setString(kKey, config.getFingerprint());
+    sparkMAX.configurePIDController(pid -> pid.setP(0.25)); // Not what the config has
+
+    var result = configurator.configure(sparkMAX, config);
+
+    assertFalse(result.isSkipped());
+    assertEquals(0.5, sparkMAX.readPIDController(pid -> pid.getP()), 1e-6);
+  }
+
+  @Test
+  void testReportHasEveryDevice() {
+    configurator.configureAll(
+        new CANSparkMAXWrapped[] {sparkMAX}, new SparkMAXConfig[] {config(20)});
+
+    assertEquals(1, configurator.getResults().size());
+    assertTrue(configurator.getReport().contains("SPARK MAX " + kId + ":"));
+  }
+}
@@ -0,0 +1,133 @@
+package wrapper_tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.revrobotics.CANSparkBase.ControlType;
+import com.revrobotics.CANSparkMax;
+import com.revrobotics.SparkPIDController;
+import com.revrobotics.SparkPIDController.ArbFFUnits;
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+import frc.robot.Constants.CANConstants;
+import frc.utils.sim_utils.CANSparkMAXWrapped;
+import frc.utils.sim_utils.SparkMAXSimAddon;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class SparkMAXSetpointCacheTests {
+  private static final int kId = 20;
+
+  private CANSparkMAXWrapped sparkMAX;
+
+  @BeforeEach
+  public void setUp() {
+    HAL.initialize(500, 0); // init HAL just in case
+    SimHooks.pauseTiming();
+    sparkMAX = new CANSparkMAXWrapped(kId, CANSparkMAXWrapped.MotorType.kBrushless);
+  }
+
+  @AfterEach
+  public void tearDown() {
+    sparkMAX.close();
+    SimHooks.resumeTiming();
+  }
+
+  @Test
+  void testSameSetpointIsSentOnce() {
+    for (int i = 0; i < 10; i++) {
+      sparkMAX.setReference(1.5, ControlType.kVelocity);
+    }
+    assertEquals(1, sparkMAX.getFramesSent());
+    assertEquals(9, sparkMAX.getFramesSuppressed());
+  }
+
+  @Test
+  void testChangedSetpointsAreSent() {
+    sparkMAX.setReference(1.5, ControlType.kVelocity);
+    sparkMAX.setReference(1.6, ControlType.kVelocity);
+    sparkMAX.setReference(1.6, ControlType.kPosition); // same value, different control type
+    sparkMAX.setReference(1.6, ControlType.kPosition, 0, 1, ArbFFUnits.kVoltage);
+    assertEquals(4, sparkMAX.getFramesSent());
+    assertEquals(0, sparkMAX.getFramesSuppressed());
+  }
+
+  @Test
+  void testChangesWithinTheToleranceAreSuppressed() {
+    sparkMAX.setReference(0.25, ControlType.kPosition, 0, 1, ArbFFUnits.kVoltage);
+    sparkMAX.setReference(
+        0.25 + CANConstants.kDefaultSetpointTolerance / 2,
+        ControlType.kPosition,
+        0,
+        1 + CANConstants.kDefaultArbFFToleranceVolts / 2,
+        ArbFFUnits.kVoltage);
+    assertEquals(1, sparkMAX.getFramesSent());
+    assertEquals(1, sparkMAX.getFramesSuppressed());
+  }
+
+  @Test
+  void testHeartbeatResendsUnchangedSetpoints() {
+    sparkMAX.setReference(1.5, ControlType.kVelocity);
+    SimHooks.stepTiming(CANConstants.kSetpointHeartbeatSeconds / 2);
+    sparkMAX.setReference(1.5, ControlType.kVelocity);
+    assertEquals(1, sparkMAX.getFramesSent());
+
+    SimHooks.stepTiming(CANConstants.kSetpointHeartbeatSeconds);
+    sparkMAX.setReference(1.5, ControlType.kVelocity);
+    assertEquals(2, sparkMAX.getFramesSent());
+  }
+
+  @Test
+  void testDutyCycleAndStop() {
+    sparkMAX.set(0.5);
+    sparkMAX.set(0.5);
+    assertEquals(1, sparkMAX.getFramesSent());
+
+    sparkMAX.stopMotor();
+    long sentAfterStop = sparkMAX.getFramesSent();
+    // Stopping forgets the cached setpoint, so the same speed goes out again.
+    sparkMAX.set(0.5);
+    assertEquals(sentAfterStop + 1, sparkMAX.getFramesSent());
+  }
+
+  @Test
+  void testVoltageAndFollowForgetTheSetpoint() {
+    sparkMAX.set(0.5);
+    sparkMAX.setVoltage(3);
+    long sentAfterVoltage = sparkMAX.getFramesSent();
+    // The SPARK MAX is on the voltage now, so the same speed has to go out again.
+    sparkMAX.set(0.5);
+    assertEquals(sentAfterVoltage + 1, sparkMAX.getFramesSent());
+
+    try (var leader = new CANSparkMAXWrapped(kId + 1, CANSparkMAXWrapped.MotorType.kBrushless)) {
+      sparkMAX.follow(leader);
+      long sentAfterFollow = sparkMAX.getFramesSent();
+      sparkMAX.set(0.5);
+      assertEquals(sentAfterFollow + 1, sparkMAX.getFramesSent());
+    }
+  }
+
+  @Test
+  void testPIDControllerStillWorks() {
+    // Callers that only know it's a CANSparkMax can still use the PID controller.
+    CANSparkMax asSparkMAX = sparkMAX;
+    asSparkMAX.getPIDController().setP(0.5);
+    assertEquals(0.5, sparkMAX.readPIDController(SparkPIDController::getP), 1e-6);
+
+    // Setpoints sent here still go through the cache.
+    sparkMAX.setReference(1, ControlType.kVelocity);
+    sparkMAX.setReference(1, ControlType.kVelocity);
+    assertEquals(1, sparkMAX.getFramesSent());
+  }
+
+  @Test
+  void testCountersAreFoundThroughTheSimAddon() {
+    var sparkMAXes = new SparkMAXSimAddon();
+    sparkMAXes.addSparkMAX(sparkMAX);
+    sparkMAX.setReference(1, ControlType.kVelocity);
+    sparkMAX.setReference(1, ControlType.kVelocity);
+    var found = (CANSparkMAXWrapped) sparkMAXes.getSparkMAX(kId);
+    assertEquals(1, found.getFramesSent());
+    assertEquals(1, found.getFramesSuppressed());
+  }
+}
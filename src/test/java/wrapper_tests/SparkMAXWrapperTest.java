@@ -10,9 +10,12 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 class SparkMAXWrapperTest {
+  private SparkMAXSimAddon sparkMAXes;
+
   @BeforeEach
   public void setUp() {
     HAL.initialize(500, 0); // init HAL just in case
+    sparkMAXes = new SparkMAXSimAddon();
   }
 
   @Test
@@ -20,7 +23,9 @@ class SparkMAXWrapperTest {
     for (int i = 0; i < 50; i++) {
       CANSparkMAXWrapped sparkMAX =
           new CANSparkMAXWrapped(i, CANSparkMAXWrapped.MotorType.kBrushless);
-      assertEquals(sparkMAX, SparkMAXSimAddon.getSparkMAX(i));
+      sparkMAXes.addSparkMAX(sparkMAX);
+      assertEquals(sparkMAX, sparkMAXes.getSparkMAX(i));
+      sparkMAXes.removeSparkMAX(sparkMAX);
       sparkMAX.close();
     }
   }
@@ -33,11 +38,24 @@ class SparkMAXWrapperTest {
     assertEquals(true, sparkMAX.isThisClosed());
   }
 
-  @SuppressWarnings("resource")
   @Test
   void testSparkMAXClear() {
-    new CANSparkMAXWrapped(1, CANSparkMAXWrapped.MotorType.kBrushless);
-    SparkMAXSimAddon.resetData(); // reset data already closes the spark max
-    assertThrows(IllegalArgumentException.class, () -> SparkMAXSimAddon.getSparkMAX(1));
+    CANSparkMAXWrapped sparkMAX =
+        new CANSparkMAXWrapped(1, CANSparkMAXWrapped.MotorType.kBrushless);
+    sparkMAXes.addSparkMAX(sparkMAX);
+    sparkMAXes.resetData(); // reset data already closes the spark max
+    assertEquals(true, sparkMAX.isThisClosed());
+    assertThrows(IllegalArgumentException.class, () -> sparkMAXes.getSparkMAX(1));
+  }
+
+  @Test
+  void testSparkMAXesAreOnlyInTheirOwnAddon() {
+    try (CANSparkMAXWrapped sparkMAX =
+        new CANSparkMAXWrapped(1, CANSparkMAXWrapped.MotorType.kBrushless)) {
+      sparkMAXes.addSparkMAX(sparkMAX);
+      var otherSparkMAXes = new SparkMAXSimAddon();
+      assertEquals(false, otherSparkMAXes.doesSparkMAXExist(1));
+      assertThrows(IllegalArgumentException.class, () -> sparkMAXes.addSparkMAX(sparkMAX));
+    }
   }
 }
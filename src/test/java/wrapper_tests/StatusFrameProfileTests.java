@@ -0,0 +1,80 @@
+package wrapper_tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.revrobotics.CANSparkLowLevel.PeriodicFrame;
+import edu.wpi.first.hal.HAL;
+import frc.robot.Constants.CANConstants;
+import frc.utils.sim_utils.CANSparkMAXWrapped;
+import frc.utils.sim_utils.StatusFrameProfile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class StatusFrameProfileTests {
+  @BeforeEach
+  public void setUp() {
+    HAL.initialize(500, 0); // init HAL just in case
+  }
+
+  @Test
+  void testProfileIsKept() {
+    CANSparkMAXWrapped sparkMAX =
+        new CANSparkMAXWrapped(
+            1, CANSparkMAXWrapped.MotorType.kBrushless, StatusFrameProfile.DRIVE);
+    sparkMAX.setPeriodicFramePeriod(PeriodicFrame.kStatus1, 500);
+    sparkMAX.restoreFactoryDefaults();
+    assertEquals(StatusFrameProfile.DRIVE, sparkMAX.getStatusFrameProfile());
+    // The reset clears the periods on the SPARK MAX, they should all be set again.
+    for (PeriodicFrame frame : PeriodicFrame.values()) {
+      assertEquals(
+          StatusFrameProfile.DRIVE.getPeriodMs(frame), sparkMAX.getPeriodicFramePeriod(frame));
+    }
+    sparkMAX.close();
+
+    sparkMAX = new CANSparkMAXWrapped(1, CANSparkMAXWrapped.MotorType.kBrushless);
+    sparkMAX.setPeriodicFramePeriod(PeriodicFrame.kStatus1, 500);
+    sparkMAX.restoreFactoryDefaults();
+    assertEquals(StatusFrameProfile.DEFAULT, sparkMAX.getStatusFrameProfile());
+    for (PeriodicFrame frame : PeriodicFrame.values()) {
+      assertEquals(-1, sparkMAX.getPeriodicFramePeriod(frame));
+    }
+    sparkMAX.close();
+  }
+
+  @Test
+  void testDefaultChangesNothing() {
+    for (PeriodicFrame frame : PeriodicFrame.values()) {
+      assertEquals(-1, StatusFrameProfile.DEFAULT.getPeriodMs(frame));
+    }
+  }
+
+  @Test
+  void testOdometryFramesAreFast() {
+    // Driving velocity and position, and the turning absolute encoder.
+    assertEquals(
+        CANConstants.kFastStatusPeriodMs,
+        StatusFrameProfile.DRIVE.getPeriodMs(PeriodicFrame.kStatus1));
+    assertEquals(
+        CANConstants.kFastStatusPeriodMs,
+        StatusFrameProfile.DRIVE.getPeriodMs(PeriodicFrame.kStatus2));
+    assertEquals(
+        CANConstants.kFastStatusPeriodMs,
+        StatusFrameProfile.STEER.getPeriodMs(PeriodicFrame.kStatus5));
+  }
+
+  @Test
+  void testUnreadFramesAreThrottled() {
+    for (StatusFrameProfile profile : StatusFrameProfile.values()) {
+      if (profile == StatusFrameProfile.DEFAULT) {
+        continue;
+      }
+      // Nothing on the robot has an analog sensor or an alternate encoder.
+      assertEquals(CANConstants.kUnusedStatusPeriodMs, profile.getPeriodMs(PeriodicFrame.kStatus3));
+      assertEquals(CANConstants.kUnusedStatusPeriodMs, profile.getPeriodMs(PeriodicFrame.kStatus4));
+    }
+    assertTrue(
+        StatusFrameProfile.ROLLER.getPeriodMs(PeriodicFrame.kStatus2)
+            > StatusFrameProfile.DRIVE.getPeriodMs(PeriodicFrame.kStatus2));
+  }
+}